@@ -22,6 +22,7 @@ import com.linkedin.common.callback.FutureCallback;
 import com.linkedin.common.util.None;
 import com.linkedin.d2.balancer.clients.DynamicClient;
 import com.linkedin.d2.balancer.zkfs.ZKFSTogglingLoadBalancerFactoryImpl;
+import com.linkedin.d2.jmx.JmxManager;
 import com.linkedin.r2.message.RequestContext;
 import com.linkedin.r2.message.rest.RestRequest;
 import com.linkedin.r2.message.rest.RestResponse;
@@ -72,10 +73,19 @@ public class D2ClientBuilder
                   _config.sslContext,
                   _config.sslParameters,
                   _config.isSSLEnabled);
+    cfg.warmStartMaxStalenessInMs = _config.warmStartMaxStalenessInMs;
+    cfg.eventLaneCount = _config.eventLaneCount;
+    cfg.localZone = _config.localZone;
 
     final LoadBalancerWithFacilities loadBalancer = loadBalancerFactory.create(cfg);
 
-    D2Client d2Client = new DynamicClient(loadBalancer, loadBalancer);
+    DynamicClient dynamicClient =
+        new DynamicClient(loadBalancer, loadBalancer, _config.maxRetries, _config.retryBudgetRatio);
+    if (_config.jmxManager != null)
+    {
+      _config.jmxManager.registerDynamicClient(_config.dynamicClientJmxName, dynamicClient);
+    }
+    D2Client d2Client = dynamicClient;
 
     /**
      * If we created default transport client factories, we need to shut them down when d2Client
@@ -131,6 +141,42 @@ public class D2ClientBuilder
     return this;
   }
 
+  public D2ClientBuilder setWarmStartMaxStaleness(long warmStartMaxStaleness, TimeUnit unit)
+  {
+    _config.warmStartMaxStalenessInMs = unit.toMillis(warmStartMaxStaleness);
+    return this;
+  }
+
+  public D2ClientBuilder setEventLaneCount(int eventLaneCount)
+  {
+    _config.eventLaneCount = eventLaneCount;
+    return this;
+  }
+
+  public D2ClientBuilder setLocalZone(String localZone)
+  {
+    _config.localZone = localZone;
+    return this;
+  }
+
+  public D2ClientBuilder setRetry(int maxRetries, double retryBudgetRatio)
+  {
+    _config.maxRetries = maxRetries;
+    _config.retryBudgetRatio = retryBudgetRatio;
+    return this;
+  }
+
+  /**
+   * Registers the {@link DynamicClient} of the built client, which counts its retries, with the
+   * given {@link JmxManager} under the given name.
+   */
+  public D2ClientBuilder setJmxManager(JmxManager jmxManager, String dynamicClientJmxName)
+  {
+    _config.jmxManager = jmxManager;
+    _config.dynamicClientJmxName = dynamicClientJmxName;
+    return this;
+  }
+
   public D2ClientBuilder setComponentFactory(ZKFSTogglingLoadBalancerFactoryImpl.ComponentFactory componentFactory)
   {
     _config.componentFactory = componentFactory;
@@ -21,6 +21,7 @@ import javax.net.ssl.SSLContext;
 import javax.net.ssl.SSLParameters;
 
 import com.linkedin.d2.balancer.zkfs.ZKFSTogglingLoadBalancerFactoryImpl;
+import com.linkedin.d2.jmx.JmxManager;
 import com.linkedin.d2.balancer.zkfs.ZKFSTogglingLoadBalancerFactoryImpl.ComponentFactory;
 import com.linkedin.r2.transport.common.TransportClientFactory;
 
@@ -41,6 +42,13 @@ public class D2ClientConfig
   SSLContext sslContext = null;
   SSLParameters sslParameters = null;
   boolean isSSLEnabled = false;
+  long warmStartMaxStalenessInMs = 0L;
+  int eventLaneCount = 0;
+  String localZone = null;
+  int maxRetries = 0;
+  double retryBudgetRatio = 0.1;
+  JmxManager jmxManager = null;
+  String dynamicClientJmxName = null;
 
   public D2ClientConfig()
   {
@@ -23,6 +23,7 @@ import com.linkedin.d2.balancer.strategies.LoadBalancerStrategy;
 import com.linkedin.d2.balancer.strategies.LoadBalancerStrategyFactory;
 import com.linkedin.d2.balancer.strategies.degrader.DegraderLoadBalancerStrategyFactoryV2;
 import com.linkedin.d2.balancer.strategies.degrader.DegraderLoadBalancerStrategyFactoryV3;
+import com.linkedin.d2.balancer.strategies.leastloaded.LeastLoadedLoadBalancerStrategyFactory;
 import com.linkedin.d2.balancer.strategies.random.RandomLoadBalancerStrategyFactory;
 import com.linkedin.d2.balancer.zkfs.ZKFSComponentFactory;
 import com.linkedin.d2.balancer.zkfs.ZKFSLoadBalancer;
@@ -43,7 +44,9 @@ public class ZKFSLoadBalancerWithFacilitiesFactory implements LoadBalancerWithFa
                                     (int) config.zkStartupTimeoutInMs,
                                     createLoadBalancerFactory(config),
                                     config.flagFile,
-                                    config.basePath);
+                                    config.basePath,
+                                    config.fsBasePath,
+                                    config.warmStartMaxStalenessInMs);
   }
 
 
@@ -72,7 +75,9 @@ public class ZKFSLoadBalancerWithFacilitiesFactory implements LoadBalancerWithFa
                                                    config.d2ServicePath,
                                                    config.sslContext,
                                                    config.sslParameters,
-                                                   config.isSSLEnabled);
+                                                   config.isSSLEnabled,
+                                                   config.eventLaneCount,
+                                                   config.localZone);
   }
 
   private Map<String, LoadBalancerStrategyFactory<? extends LoadBalancerStrategy>> createDefaultLoadBalancerStrategyFactories()
@@ -88,6 +93,7 @@ public class ZKFSLoadBalancerWithFacilitiesFactory implements LoadBalancerWithFa
     loadBalancerStrategyFactories.put("degrader", degraderStrategyFactoryV2);
     loadBalancerStrategyFactories.put("degraderV2", degraderStrategyFactoryV2);
     loadBalancerStrategyFactories.put("degraderV3", degraderStrategyFactoryV3);
+    loadBalancerStrategyFactories.put("leastLoaded", new LeastLoadedLoadBalancerStrategyFactory());
 
     return loadBalancerStrategyFactories;
   }
@@ -0,0 +1,220 @@
+/*
+   Copyright (c) 2012 LinkedIn Corp.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.linkedin.d2.balancer.clients;
+
+/**
+ * Adaptive limit on the number of outstanding calls to one host.<p/>
+ *
+ * The limit follows an additive increase / multiplicative decrease scheme driven by the latency of
+ * completed calls: the limit is cut by {@link Config#getBackoffRatio()} when a call fails or takes
+ * longer than {@link Config#getLatencyTolerance()} times the baseline latency of the host, and
+ * otherwise grows by one for every limit's worth of successful calls, as long as the host is
+ * actually used close to its limit. The baseline is the lowest latency seen, slowly drifting up so
+ * that it follows hosts which get permanently slower.<p/>
+ *
+ * This class is thread-safe.
+ */
+public class ConcurrencyLimiter implements ConcurrencyLimiterMBean
+{
+  // fraction of the distance to the latest latency the baseline moves on each call
+  private static final double BASELINE_DRIFT = 0.01;
+
+  private final Config _config;
+
+  // All fields below are guarded by this
+  private double _limit;
+  private int _inFlight;
+  private double _baselineLatency = -1;
+  private long _rejectedCount;
+  private long _limitDecreaseCount;
+
+  public ConcurrencyLimiter(Config config)
+  {
+    _config = config;
+    _limit = config.getInitialLimit();
+  }
+
+  /**
+   * Start a call if the host is below its limit.
+   *
+   * @return true if the call may proceed, in which case {@link #release(long, boolean)} must be
+   *         called when it completes.
+   */
+  public synchronized boolean tryAcquire()
+  {
+    if (_inFlight >= (int) _limit)
+    {
+      _rejectedCount++;
+      return false;
+    }
+    _inFlight++;
+    return true;
+  }
+
+  /**
+   * @return true if a call started now would be rejected.
+   */
+  public synchronized boolean isAtLimit()
+  {
+    return _inFlight >= (int) _limit;
+  }
+
+  /**
+   * Complete a call started with {@link #tryAcquire()} and adjust the limit.
+   *
+   * @param latency latency of the call in milliseconds.
+   * @param failed true if the call failed in a way which suggests the host is overloaded.
+   */
+  public synchronized void release(long latency, boolean failed)
+  {
+    // the host was used close to its limit when this call was outstanding
+    boolean saturated = _inFlight >= (int) _limit / 2;
+    _inFlight--;
+
+    if (failed)
+    {
+      decrease();
+      return;
+    }
+
+    if (_baselineLatency < 0 || latency < _baselineLatency)
+    {
+      _baselineLatency = latency;
+    }
+    else
+    {
+      _baselineLatency += (latency - _baselineLatency) * BASELINE_DRIFT;
+    }
+
+    if (latency > _config.getLatencyTolerance() * Math.max(_baselineLatency, 1))
+    {
+      decrease();
+    }
+    else if (saturated)
+    {
+      _limit = Math.min(_config.getMaxLimit(), _limit + 1 / _limit);
+    }
+  }
+
+  private void decrease()
+  {
+    _limitDecreaseCount++;
+    _limit = Math.max(_config.getMinLimit(), _limit * _config.getBackoffRatio());
+  }
+
+  @Override
+  public synchronized int getLimit()
+  {
+    return (int) _limit;
+  }
+
+  @Override
+  public synchronized int getInFlight()
+  {
+    return _inFlight;
+  }
+
+  @Override
+  public synchronized long getRejectedCount()
+  {
+    return _rejectedCount;
+  }
+
+  @Override
+  public synchronized long getLimitDecreaseCount()
+  {
+    return _limitDecreaseCount;
+  }
+
+  @Override
+  public synchronized long getBaselineLatency()
+  {
+    return Math.round(_baselineLatency);
+  }
+
+  @Override
+  public synchronized String toString()
+  {
+    return "ConcurrencyLimiter [_limit=" + _limit + ", _inFlight=" + _inFlight
+        + ", _baselineLatency=" + _baselineLatency + "]";
+  }
+
+  public static class Config
+  {
+    public static final int DEFAULT_INITIAL_LIMIT = 20;
+    public static final int DEFAULT_MIN_LIMIT = 1;
+    public static final int DEFAULT_MAX_LIMIT = 1000;
+    public static final double DEFAULT_BACKOFF_RATIO = 0.9;
+    public static final double DEFAULT_LATENCY_TOLERANCE = 2.0;
+
+    private int _initialLimit = DEFAULT_INITIAL_LIMIT;
+    private int _minLimit = DEFAULT_MIN_LIMIT;
+    private int _maxLimit = DEFAULT_MAX_LIMIT;
+    private double _backoffRatio = DEFAULT_BACKOFF_RATIO;
+    private double _latencyTolerance = DEFAULT_LATENCY_TOLERANCE;
+
+    public int getInitialLimit()
+    {
+      return _initialLimit;
+    }
+
+    public void setInitialLimit(int initialLimit)
+    {
+      _initialLimit = initialLimit;
+    }
+
+    public int getMinLimit()
+    {
+      return _minLimit;
+    }
+
+    public void setMinLimit(int minLimit)
+    {
+      _minLimit = minLimit;
+    }
+
+    public int getMaxLimit()
+    {
+      return _maxLimit;
+    }
+
+    public void setMaxLimit(int maxLimit)
+    {
+      _maxLimit = maxLimit;
+    }
+
+    public double getBackoffRatio()
+    {
+      return _backoffRatio;
+    }
+
+    public void setBackoffRatio(double backoffRatio)
+    {
+      _backoffRatio = backoffRatio;
+    }
+
+    public double getLatencyTolerance()
+    {
+      return _latencyTolerance;
+    }
+
+    public void setLatencyTolerance(double latencyTolerance)
+    {
+      _latencyTolerance = latencyTolerance;
+    }
+  }
+}
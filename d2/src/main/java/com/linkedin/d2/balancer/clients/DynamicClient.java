@@ -22,15 +22,28 @@ import com.linkedin.d2.balancer.D2Client;
 import com.linkedin.d2.balancer.Facilities;
 import com.linkedin.d2.balancer.LoadBalancer;
 import com.linkedin.d2.balancer.ServiceUnavailableException;
+import com.linkedin.d2.balancer.util.LoadBalancerUtil;
 import com.linkedin.d2.discovery.event.PropertyEventThread.PropertyEventShutdownCallback;
 import com.linkedin.r2.message.RequestContext;
+import com.linkedin.r2.message.rest.RestException;
+import com.linkedin.r2.message.rest.RestMethod;
 import com.linkedin.r2.message.rest.RestRequest;
 import com.linkedin.r2.message.rest.RestResponse;
+import com.linkedin.r2.message.rest.RestStatus;
 import com.linkedin.r2.message.rpc.RpcRequest;
 import com.linkedin.r2.message.rpc.RpcResponse;
 import com.linkedin.r2.transport.common.AbstractClient;
 import com.linkedin.r2.transport.common.bridge.client.TransportClient;
 import com.linkedin.r2.transport.common.bridge.client.TransportClientAdapter;
+import java.net.ConnectException;
+import java.net.URI;
+import java.nio.channels.ClosedChannelException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -42,14 +55,38 @@ import static com.linkedin.d2.discovery.util.LogUtil.warn;
 public class DynamicClient extends AbstractClient implements D2Client
 {
   private static final Logger _log = LoggerFactory.getLogger(DynamicClient.class);
+  private static final Set<String> IDEMPOTENT_METHODS =
+      new HashSet<String>(Arrays.asList(RestMethod.GET, RestMethod.PUT, RestMethod.DELETE, "HEAD", "OPTIONS"));
+
+  // maximum number of retries per service request, relative to the requests of the service
+  private static final double DEFAULT_RETRY_BUDGET_RATIO = 0.1;
+  // maximum number of retries per service in a burst
+  private static final double RETRY_BUDGET_MAX_TOKENS = 10;
 
   private final LoadBalancer  _balancer;
   private final Facilities    _facilities;
+  private final int           _maxRetries;
+  private final double        _retryBudgetRatio;
+  private final ConcurrentMap<String, RetryBudget> _retryBudgets = new ConcurrentHashMap<String, RetryBudget>();
+  private final AtomicLong    _retryCount = new AtomicLong();
+  private final AtomicLong    _retryBudgetExhaustedCount = new AtomicLong();
 
   public DynamicClient(LoadBalancer balancer, Facilities facilities)
+  {
+    this(balancer, facilities, 0, DEFAULT_RETRY_BUDGET_RATIO);
+  }
+
+  /**
+   * @param maxRetries maximum number of times an idempotent rest request is retried on another
+   *                   host after a connection failure or a 503 response, 0 to never retry.
+   * @param retryBudgetRatio maximum number of retries per request of a service.
+   */
+  public DynamicClient(LoadBalancer balancer, Facilities facilities, int maxRetries, double retryBudgetRatio)
   {
     _balancer = balancer;
     _facilities = facilities;
+    _maxRetries = maxRetries;
+    _retryBudgetRatio = retryBudgetRatio;
     debug(_log, "created dynamic client: ", this);
   }
 
@@ -60,6 +97,23 @@ public class DynamicClient extends AbstractClient implements D2Client
   {
     trace(_log, "rest request: ", request);
 
+    if (_maxRetries > 0 && IDEMPOTENT_METHODS.contains(request.getMethod()))
+    {
+      RetryBudget budget = getRetryBudget(request);
+      if (budget != null)
+      {
+        budget.onRequest();
+        callback = new RetryCallback(request, requestContext, callback, budget);
+      }
+    }
+    sendRestRequest(request, requestContext, callback);
+  }
+
+  private void sendRestRequest(RestRequest request,
+                               RequestContext requestContext,
+                               Callback<RestResponse> callback)
+  {
+
     try
     {
       TransportClient client = _balancer.getClient(request, requestContext);
@@ -140,4 +194,130 @@ public class DynamicClient extends AbstractClient implements D2Client
   {
     return _facilities;
   }
+
+  /**
+   * @return the number of requests retried on another host.
+   */
+  public long getRetryCount()
+  {
+    return _retryCount.get();
+  }
+
+  /**
+   * @return the number of retriable failures which were not retried because the retry budget of
+   *         the service was exhausted.
+   */
+  public long getRetryBudgetExhaustedCount()
+  {
+    return _retryBudgetExhaustedCount.get();
+  }
+
+  private RetryBudget getRetryBudget(RestRequest request)
+  {
+    String serviceName = LoadBalancerUtil.getServiceNameFromUri(request.getURI());
+    if (serviceName == null)
+    {
+      return null;
+    }
+    RetryBudget budget = _retryBudgets.get(serviceName);
+    if (budget == null)
+    {
+      RetryBudget newBudget = new RetryBudget(_retryBudgetRatio, RETRY_BUDGET_MAX_TOKENS);
+      budget = _retryBudgets.putIfAbsent(serviceName, newBudget);
+      if (budget == null)
+      {
+        budget = newBudget;
+      }
+    }
+    return budget;
+  }
+
+  /**
+   * @return true if the request failed without reaching the service, or the host was unable to
+   *         serve it, so that another host could succeed.
+   */
+  private static boolean isRetriable(Throwable e)
+  {
+    if (e instanceof ServiceUnavailableException)
+    {
+      // no host to retry on
+      return false;
+    }
+    if (e instanceof RestException)
+    {
+      return ((RestException) e).getResponse().getStatus() == RestStatus.SERVICE_UNAVAILABLE;
+    }
+    Throwable original = LoadBalancerUtil.findOriginalThrowable(e);
+    return original instanceof ConnectException || original instanceof ClosedChannelException;
+  }
+
+  private class RetryCallback implements Callback<RestResponse>
+  {
+    private final RestRequest _request;
+    private final RequestContext _requestContext;
+    private final Callback<RestResponse> _callback;
+    private final RetryBudget _budget;
+    private int _retries;
+
+    private RetryCallback(RestRequest request,
+                          RequestContext requestContext,
+                          Callback<RestResponse> callback,
+                          RetryBudget budget)
+    {
+      _request = request;
+      _requestContext = requestContext;
+      _callback = callback;
+      _budget = budget;
+    }
+
+    @Override
+    public void onError(Throwable e)
+    {
+      URI failedHost = LoadBalancerUtil.FailoverHints.getRequestContextChosenHost(_requestContext);
+      if (_retries >= _maxRetries || failedHost == null || !isRetriable(e))
+      {
+        _callback.onError(e);
+        return;
+      }
+
+      // choose the other host before charging the budget, so that a retry which can't leave the
+      // failed host is neither charged nor sent
+      LoadBalancerUtil.FailoverHints.addRequestContextExcludedHost(_requestContext, failedHost);
+      TransportClient client;
+      try
+      {
+        client = _balancer.getClient(_request, _requestContext);
+      }
+      catch (ServiceUnavailableException sue)
+      {
+        debug(_log, "no other host to retry on after failure of ", failedHost, ": ", sue);
+        client = null;
+      }
+      if (client == null
+          || failedHost.equals(LoadBalancerUtil.FailoverHints.getRequestContextChosenHost(_requestContext)))
+      {
+        _callback.onError(e);
+        return;
+      }
+
+      if (!_budget.tryRetry())
+      {
+        _retryBudgetExhaustedCount.incrementAndGet();
+        _callback.onError(e);
+        return;
+      }
+
+      _retries++;
+      _retryCount.incrementAndGet();
+      _requestContext.putLocalAttr(LoadBalancerUtil.FailoverHints.RETRY_COUNT_KEY_NAME, _retries);
+      debug(_log, "retrying request on another host after failure of ", failedHost, ": ", e);
+      new TransportClientAdapter(client).restRequest(_request, _requestContext, this);
+    }
+
+    @Override
+    public void onSuccess(RestResponse result)
+    {
+      _callback.onSuccess(result);
+    }
+  }
 }
@@ -0,0 +1,77 @@
+/*
+   Copyright (c) 2012 LinkedIn Corp.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.linkedin.d2.balancer.clients;
+
+/**
+ * Token bucket bounding the retries of a service to a fraction of its requests.<p/>
+ *
+ * Every request deposits {@code ratio} tokens and every retry withdraws one, so that retries add
+ * at most that fraction of load to the service once the bucket, which holds at most
+ * {@code maxTokens}, has been drained. This class is thread-safe.
+ */
+public class RetryBudget
+{
+  // tolerance for the rounding of the deposits, e.g. ten deposits of 0.1 make a retry
+  private static final double EPSILON = 1e-9;
+
+  private final double _ratio;
+  private final double _maxTokens;
+
+  // guarded by this
+  private double _tokens;
+
+  /**
+   * @param ratio maximum number of retries per request, e.g. 0.1 for at most 10% of extra load.
+   * @param maxTokens maximum number of retries allowed in a burst.
+   */
+  public RetryBudget(double ratio, double maxTokens)
+  {
+    if (ratio < 0 || maxTokens < 1)
+    {
+      throw new IllegalArgumentException("Invalid retry budget, ratio: " + ratio + ", maxTokens: " + maxTokens);
+    }
+    _ratio = ratio;
+    _maxTokens = maxTokens;
+    _tokens = maxTokens;
+  }
+
+  /**
+   * Records a request, which earns the service part of a retry.
+   */
+  public synchronized void onRequest()
+  {
+    _tokens = Math.min(_maxTokens, _tokens + _ratio);
+  }
+
+  /**
+   * @return true if the budget allows a retry, which is then charged to it.
+   */
+  public synchronized boolean tryRetry()
+  {
+    if (_tokens < 1 - EPSILON)
+    {
+      return false;
+    }
+    _tokens = Math.max(0, _tokens - 1);
+    return true;
+  }
+
+  synchronized double getTokens()
+  {
+    return _tokens;
+  }
+}
@@ -32,6 +32,7 @@ import com.linkedin.r2.message.rpc.RpcResponse;
 import com.linkedin.r2.transport.common.bridge.client.TransportClient;
 import com.linkedin.r2.transport.common.bridge.common.TransportCallback;
 import com.linkedin.r2.transport.common.bridge.common.TransportResponse;
+import com.linkedin.r2.transport.common.bridge.common.TransportResponseImpl;
 import com.linkedin.util.clock.Clock;
 import com.linkedin.util.clock.SystemClock;
 import com.linkedin.util.clock.Time;
@@ -52,6 +53,7 @@ import java.net.URI;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static com.linkedin.d2.discovery.util.LogUtil.debug;
 
@@ -61,11 +63,19 @@ public class TrackerClient implements LoadBalancerClient
 {
   private static final Logger      _log = LoggerFactory.getLogger(TrackerClient.class);
 
+  // weight of the latest call in the moving average of latency
+  private static final double LATENCY_EWMA_ALPHA = 0.2;
+
   private final TransportClient _wrappedClient;
   // The keys for the maps are partitionIds
   private final Map<Integer, PartitionState> _partitionStates;
   private final CallTracker     _callTracker;
   private final URI             _uri;
+  private final Clock           _clock;
+  // null when the number of outstanding calls is not limited
+  private final ConcurrencyLimiter _concurrencyLimiter;
+  // bits of the moving average of call latency in milliseconds, 0 until a call completed
+  private final AtomicLong _latencyEwma = new AtomicLong(Double.doubleToLongBits(0d));
 
   public TrackerClient(URI uri, Map<Integer, PartitionData> partitionDataMap, TransportClient wrappedClient)
   {
@@ -74,9 +84,21 @@ public class TrackerClient implements LoadBalancerClient
 
   public TrackerClient(URI uri, Map<Integer, PartitionData> partitionDataMap, TransportClient wrappedClient,
                        Clock clock, Config config)
+  {
+    this(uri, partitionDataMap, wrappedClient, clock, config, null);
+  }
+
+  /**
+   * @param limiterConfig configuration of the adaptive limit on outstanding calls to the host, or
+   *                      null to not limit them.
+   */
+  public TrackerClient(URI uri, Map<Integer, PartitionData> partitionDataMap, TransportClient wrappedClient,
+                       Clock clock, Config config, ConcurrencyLimiter.Config limiterConfig)
     {
       _uri = uri;
       _wrappedClient = wrappedClient;
+      _clock = clock;
+      _concurrencyLimiter = limiterConfig == null ? null : new ConcurrencyLimiter(limiterConfig);
       _callTracker = new CallTrackerImpl(Time.milliseconds(5000), clock);
 
       if (config == null)
@@ -109,6 +131,15 @@ public class TrackerClient implements LoadBalancerClient
                           Map<String, String> wireAttrs,
                           TransportCallback<RestResponse> callback)
   {
+    if (_concurrencyLimiter != null)
+    {
+      if (!_concurrencyLimiter.tryAcquire())
+      {
+        callback.onResponse(TransportResponseImpl.<RestResponse>error(concurrencyLimitExceeded()));
+        return;
+      }
+      callback = new ConcurrencyLimiterCallback<RestResponse>(callback, _clock.currentTimeMillis());
+    }
     _wrappedClient.restRequest(request,
                                requestContext,
                                wireAttrs,
@@ -122,6 +153,15 @@ public class TrackerClient implements LoadBalancerClient
                          Map<String, String> wireAttrs,
                          TransportCallback<RpcResponse> callback)
   {
+    if (_concurrencyLimiter != null)
+    {
+      if (!_concurrencyLimiter.tryAcquire())
+      {
+        callback.onResponse(TransportResponseImpl.<RpcResponse>error(concurrencyLimitExceeded()));
+        return;
+      }
+      callback = new ConcurrencyLimiterCallback<RpcResponse>(callback, _clock.currentTimeMillis());
+    }
     _wrappedClient.rpcRequest(request,
                               requestContext,
                               wireAttrs,
@@ -166,6 +206,65 @@ public class TrackerClient implements LoadBalancerClient
     return _partitionStates.get(partitionId).getDegraderControl();
   }
 
+  /**
+   * @return exponentially weighted moving average of the latency of the calls made through this
+   *         client in milliseconds, updated as each call completes, or 0 if no call completed yet.
+   */
+  public double getLatencyEwma()
+  {
+    return Double.longBitsToDouble(_latencyEwma.get());
+  }
+
+  private void updateLatencyEwma(long duration, boolean hasError)
+  {
+    while (true)
+    {
+      long bits = _latencyEwma.get();
+      double average = Double.longBitsToDouble(bits);
+      double updated;
+      if (average == 0d)
+      {
+        updated = duration;
+      }
+      else if (hasError && duration < average)
+      {
+        // a host that fails fast should not look faster than it is
+        return;
+      }
+      else
+      {
+        updated = average + LATENCY_EWMA_ALPHA * (duration - average);
+      }
+      if (_latencyEwma.compareAndSet(bits, Double.doubleToLongBits(updated)))
+      {
+        return;
+      }
+    }
+  }
+
+  /**
+   * @return the limiter of outstanding calls to the host, or null if they are not limited.
+   */
+  public ConcurrencyLimiter getConcurrencyLimiter()
+  {
+    return _concurrencyLimiter;
+  }
+
+  /**
+   * @return true if the host has as many outstanding calls as it is allowed, so that a new call
+   *         would fail immediately.
+   */
+  public boolean isAtConcurrencyLimit()
+  {
+    return _concurrencyLimiter != null && _concurrencyLimiter.isAtLimit();
+  }
+
+  private RemoteInvocationException concurrencyLimitExceeded()
+  {
+    return new RemoteInvocationException("Concurrency limit of " + _concurrencyLimiter.getLimit()
+        + " outstanding calls reached for " + _uri);
+  }
+
   @Override
   public URI getUri()
   {
@@ -183,17 +282,20 @@ public class TrackerClient implements LoadBalancerClient
   {
     private TransportCallback<T> _wrappedCallback;
     private CallCompletion       _callCompletion;
+    private final long           _startTime;
 
     public TrackerClientCallback(TransportCallback<T> wrappedCallback,
                                  CallCompletion callCompletion)
     {
       _wrappedCallback = wrappedCallback;
       _callCompletion = callCompletion;
+      _startTime = _clock.currentTimeMillis();
     }
 
     @Override
     public void onResponse(TransportResponse<T> response)
     {
+      updateLatencyEwma(_clock.currentTimeMillis() - _startTime, response.hasError());
       if (response.hasError())
       {
         Throwable throwable = response.getError();
@@ -227,6 +329,28 @@ public class TrackerClient implements LoadBalancerClient
     }
   }
 
+  private class ConcurrencyLimiterCallback<T> implements TransportCallback<T>
+  {
+    private final TransportCallback<T> _wrappedCallback;
+    private final long _startTime;
+
+    private ConcurrencyLimiterCallback(TransportCallback<T> wrappedCallback, long startTime)
+    {
+      _wrappedCallback = wrappedCallback;
+      _startTime = startTime;
+    }
+
+    @Override
+    public void onResponse(TransportResponse<T> response)
+    {
+      // errors reported by the service itself, e.g. bad requests, say nothing about its load
+      boolean failed = response.hasError() && !(response.getError() instanceof RestException
+          && ((RestException) response.getError()).getResponse().getStatus() < RestStatus.INTERNAL_SERVER_ERROR);
+      _concurrencyLimiter.release(_clock.currentTimeMillis() - _startTime, failed);
+      _wrappedCallback.onResponse(response);
+    }
+  }
+
   // we organize all data of a partition together so we don't have to maintain multiple maps in tracker client
   private class PartitionState
   {
@@ -101,6 +101,28 @@ public class PropertyKeys
   public static final String HTTP_LB_GLOBAL_STEP_UP = "http.loadBalancer.globalStepUp";
   public static final String HTTP_LB_GLOBAL_STEP_DOWN = "http.loadBalancer.globalStepDown";
 
+  //maximum number of hosts per scheme and partition a client tracks, 0 or absent for all hosts
+  public static final String LB_SUBSET_SIZE = "subsetSize";
+
+  //used by the least loaded load balancer strategy
+  public static final String LB_LEAST_LOADED_USE_LATENCY = "leastLoaded.useLatency";
+  public static final String LB_LEAST_LOADED_USE_PARTITION_WEIGHT = "leastLoaded.usePartitionWeight";
+
+  //routing mode between the zones of a cluster, "none" (default) or "preferLocal"
+  public static final String LB_LOCALITY_ROUTING = "localityRouting";
+
+  //adaptive limit on outstanding calls per host, disabled unless "concurrencyLimit.enabled" is true
+  public static final String LB_CONCURRENCY_LIMIT_ENABLED = "concurrencyLimit.enabled";
+  public static final String LB_CONCURRENCY_LIMIT_INITIAL = "concurrencyLimit.initial";
+  public static final String LB_CONCURRENCY_LIMIT_MIN = "concurrencyLimit.min";
+  public static final String LB_CONCURRENCY_LIMIT_MAX = "concurrencyLimit.max";
+  public static final String LB_CONCURRENCY_LIMIT_BACKOFF_RATIO = "concurrencyLimit.backoffRatio";
+  public static final String LB_CONCURRENCY_LIMIT_LATENCY_TOLERANCE = "concurrencyLimit.latencyTolerance";
+
+  //used by uri properties
+  public static final String URI_SPECIFIC_PROPERTIES = "uriSpecificProperties";
+  public static final String URI_ZONE = "zone";
+
   //used by cluster properties
   public static final String CLUSTER_NAME = "clusterName";
   public static final String PARTITION_PROPERTIES = "partitionProperties";
@@ -32,10 +32,27 @@ public class UriProperties
   private final Map<String, Map<Integer, Set<URI>>>  _urisBySchemeAndPartition;
   // for serialization
   private final Map<URI, Map<Integer, PartitionData>> _partitionDesc;
+  // properties of individual uris which are not specific to a partition, e.g. the zone of the host
+  private final Map<URI, Map<String, Object>>       _uriSpecificProperties;
 
   public UriProperties(String clusterName, Map<URI, Map<Integer, PartitionData>> partitionDescriptions)
+  {
+    this(clusterName, partitionDescriptions, Collections.<URI, Map<String, Object>>emptyMap());
+  }
+
+  public UriProperties(String clusterName,
+                       Map<URI, Map<Integer, PartitionData>> partitionDescriptions,
+                       Map<URI, Map<String, Object>> uriSpecificProperties)
   {
     _clusterName = clusterName;
+    Map<URI, Map<String, Object>> uriSpecificPropertiesMap = new HashMap<URI, Map<String, Object>>(uriSpecificProperties.size() * 2);
+    for (Map.Entry<URI, Map<String, Object>> entry : uriSpecificProperties.entrySet())
+    {
+      uriSpecificPropertiesMap.put(entry.getKey(), Collections.unmodifiableMap(
+          new HashMap<String, Object>(entry.getValue())));
+    }
+    _uriSpecificProperties = Collections.unmodifiableMap(uriSpecificPropertiesMap);
+
     Map<URI, Map<Integer, PartitionData>> partitionDescriptionsMap = new HashMap<URI, Map<Integer, PartitionData>>(partitionDescriptions.size() * 2);
     for (Map.Entry<URI, Map<Integer, PartitionData>> entry : partitionDescriptions.entrySet())
     {
@@ -106,6 +123,25 @@ public class UriProperties
     return _partitionDesc;
   }
 
+  public Map<URI, Map<String, Object>> getUriSpecificProperties()
+  {
+    return _uriSpecificProperties;
+  }
+
+  /**
+   * @return the zone the host of the uri is in, or null if it is unknown.
+   */
+  public String getZone(URI uri)
+  {
+    Map<String, Object> properties = _uriSpecificProperties.get(uri);
+    if (properties == null)
+    {
+      return null;
+    }
+    Object zone = properties.get(PropertyKeys.URI_ZONE);
+    return zone == null ? null : zone.toString();
+  }
+
   public Set<URI> getUriBySchemeAndPartition(String scheme, int partitionId)
   {
     Map<Integer, Set<URI>> schemeUris = _urisBySchemeAndPartition.get(scheme);
@@ -123,7 +159,8 @@ public class UriProperties
   public String toString()
   {
     return "UriProperties [_clusterName=" + _clusterName + ", _urisBySchemeAndPartition="
-        + _urisBySchemeAndPartition + "_partitions=" + _partitionDesc + "]";
+        + _urisBySchemeAndPartition + "_partitions=" + _partitionDesc
+        + ", _uriSpecificProperties=" + _uriSpecificProperties + "]";
   }
 
   @Override
@@ -134,6 +171,7 @@ public class UriProperties
     result = prime * result + ((_clusterName == null) ? 0 : _clusterName.hashCode());
     result = prime * result + ((_partitionDesc == null) ? 0 : _partitionDesc.hashCode());
     result = prime * result + ((_urisBySchemeAndPartition == null) ? 0 : _urisBySchemeAndPartition.hashCode());
+    result = prime * result + _uriSpecificProperties.hashCode();
     return result;
   }
 
@@ -171,6 +209,9 @@ public class UriProperties
     else if (!_urisBySchemeAndPartition.equals(other._urisBySchemeAndPartition))
       return false;
 
+    if (!_uriSpecificProperties.equals(other._uriSpecificProperties))
+      return false;
+
     return true;
   }
 
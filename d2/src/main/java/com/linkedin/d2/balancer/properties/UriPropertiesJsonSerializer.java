@@ -69,7 +69,8 @@ public class UriPropertiesJsonSerializer implements PropertySerializer<UriProper
       // Added here a getter method getWeights() to UriProperty so that ObjectMapper can do its job
       else
       {
-        propertyToSerialize = new UriProperties(property.getClusterName(), partitionDesc)
+        propertyToSerialize = new UriProperties(property.getClusterName(), partitionDesc,
+                                                property.getUriSpecificProperties())
         {
           public Map<URI, Double> getWeights()
           {
@@ -165,6 +166,18 @@ public class UriPropertiesJsonSerializer implements PropertySerializer<UriProper
       partitionDesc = partitionDescFromWeights;
     }
 
-    return new UriProperties(clusterName, partitionDesc);
+    Map<URI, Map<String, Object>> uriSpecificProperties = new HashMap<URI, Map<String, Object>>();
+    @SuppressWarnings("unchecked")
+    Map<String, Map<String, Object>> uriSpecificPropertiesMap =
+        (Map<String, Map<String, Object>>) map.get(PropertyKeys.URI_SPECIFIC_PROPERTIES);
+    if (uriSpecificPropertiesMap != null)
+    {
+      for (Map.Entry<String, Map<String, Object>> entry : uriSpecificPropertiesMap.entrySet())
+      {
+        uriSpecificProperties.put(URI.create(entry.getKey()), entry.getValue());
+      }
+    }
+
+    return new UriProperties(clusterName, partitionDesc, uriSpecificProperties);
   }
 }
@@ -30,6 +30,7 @@ public class UriPropertiesMerger implements ZooKeeperPropertyMerger<UriPropertie
   public UriProperties merge(String listenTo, Collection<UriProperties> propertiesToMerge)
   {
     Map<URI, Map<Integer, PartitionData>> partitionData = new HashMap<URI, Map<Integer, PartitionData>>();
+    Map<URI, Map<String, Object>> uriSpecificProperties = new HashMap<URI, Map<String, Object>>();
     String clusterName = listenTo;
 
     for (UriProperties property : propertiesToMerge)
@@ -38,9 +39,10 @@ public class UriPropertiesMerger implements ZooKeeperPropertyMerger<UriPropertie
       {
         partitionData.put(entry.getKey(), entry.getValue());
       }
+      uriSpecificProperties.putAll(property.getUriSpecificProperties());
     }
 
-    return new UriProperties(clusterName, partitionData);
+    return new UriProperties(clusterName, partitionData, uriSpecificProperties);
   }
 
   @Override
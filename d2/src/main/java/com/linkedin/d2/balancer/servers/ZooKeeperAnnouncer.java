@@ -48,6 +48,7 @@ public class ZooKeeperAnnouncer
   private String _cluster;
   private URI _uri;
   private Map<Integer, PartitionData> _partitionDataMap;
+  private Map<String, Object> _uriSpecificProperties = Collections.emptyMap();
   private volatile boolean _isServerMarkedDown;
 
   public ZooKeeperAnnouncer(ZooKeeperServer server)
@@ -95,7 +96,7 @@ public class ZooKeeperAnnouncer
 
   public void markUp(Callback<None> callback)
   {
-    _server.markUp(_cluster, _uri, _partitionDataMap, callback);
+    _server.markUp(_cluster, _uri, _partitionDataMap, _uriSpecificProperties, callback);
     _isServerMarkedDown = false;
   }
 
@@ -125,6 +126,20 @@ public class ZooKeeperAnnouncer
     _uri = URI.create(uri);
   }
 
+  public Map<String, Object> getUriSpecificProperties()
+  {
+    return _uriSpecificProperties;
+  }
+
+  /**
+   * Set properties of this uri which do not depend on the partition, for example the zone of the
+   * host under {@link com.linkedin.d2.balancer.properties.PropertyKeys#URI_ZONE}.
+   */
+  public void setUriSpecificProperties(Map<String, Object> uriSpecificProperties)
+  {
+    _uriSpecificProperties = Collections.unmodifiableMap(new HashMap<String, Object>(uriSpecificProperties));
+  }
+
   /**
    * This is not the cleanest way of setting weight or partition data. However,
    * this simplifies object create by presenting only one method and by forcing
@@ -75,6 +75,18 @@ public class
   @Override
   public void markUp(final String clusterName, final URI uri,
                      final Map<Integer, PartitionData> partitionDataMap, final Callback<None> callback)
+  {
+    markUp(clusterName, uri, partitionDataMap, Collections.<String, Object>emptyMap(), callback);
+  }
+
+  /**
+   * Like {@link #markUp(String, URI, Map, Callback)}, but also announces properties specific to
+   * this uri, such as its locality.
+   */
+  public void markUp(final String clusterName, final URI uri,
+                     final Map<Integer, PartitionData> partitionDataMap,
+                     final Map<String, Object> uriSpecificProperties,
+                     final Callback<None> callback)
   {
     final Callback<None> doPutCallback = new Callback<None>()
     {
@@ -84,6 +96,12 @@ public class
         Map<URI, Map<Integer, PartitionData>> partitionDesc =
             new HashMap<URI, Map<Integer, PartitionData>>();
         partitionDesc.put(uri, partitionDataMap);
+        Map<URI, Map<String, Object>> uriToUriSpecificProperties =
+            new HashMap<URI, Map<String, Object>>();
+        if (!uriSpecificProperties.isEmpty())
+        {
+          uriToUriSpecificProperties.put(uri, uriSpecificProperties);
+        }
 
         if (_log.isInfoEnabled())
         {
@@ -103,10 +121,15 @@ public class
             sb.append("]");
           }
           sb.append("}");
+          if (!uriSpecificProperties.isEmpty())
+          {
+            sb.append(", uri specific properties: ");
+            sb.append(uriSpecificProperties);
+          }
           info(_log, sb);
         }
 
-        _store.put(clusterName, new UriProperties(clusterName, partitionDesc), callback);
+        _store.put(clusterName, new UriProperties(clusterName, partitionDesc, uriToUriSpecificProperties), callback);
 
       }
 
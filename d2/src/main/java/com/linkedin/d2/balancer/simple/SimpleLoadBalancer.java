@@ -50,6 +50,7 @@ import org.slf4j.LoggerFactory;
 import java.net.URI;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.IdentityHashMap;
@@ -217,32 +218,36 @@ public class SimpleLoadBalancer implements LoadBalancer, HashRingProvider, Clien
       LoadBalancerState.SchemeStrategyPair pair = orderedStrategies.get(0);
       PartitionAccessor accessor = getPartitionAccessor(serviceName, clusterName);
 
-      // first distribute keys to partitions
-      Map<Integer, Set<K>> partitionSet = new HashMap<Integer, Set<K>>();
-      List<MapKeyResult.UnmappedKey<K>> unmappedKeys = new ArrayList<MapKeyResult.UnmappedKey<K>>();
+      // first distribute keys to partitions, mapping the whole batch at once
+      List<K> keyList = new ArrayList<K>();
       for (final K key : keys)
       {
-        int partitionId;
-        try
-        {
-          partitionId = accessor.getPartitionId(key.toString());
-        }
-        catch (PartitionAccessException e)
+        keyList.add(key);
+      }
+      String[] keyStrings = new String[keyList.size()];
+      for (int i = 0; i < keyStrings.length; i++)
+      {
+        keyStrings[i] = keyList.get(i).toString();
+      }
+      int[] partitionIds = new int[keyStrings.length];
+      accessor.getPartitionIds(keyStrings, partitionIds);
+
+      PartitionKeys<K> partitionKeys = new PartitionKeys<K>(accessor.getMaxPartitionId());
+      List<MapKeyResult.UnmappedKey<K>> unmappedKeys = new ArrayList<MapKeyResult.UnmappedKey<K>>();
+      for (int i = 0; i < partitionIds.length; i++)
+      {
+        if (partitionIds[i] == PartitionAccessor.UNMAPPED_PARTITION_ID)
         {
-          unmappedKeys.add(new MapKeyResult.UnmappedKey<K>(key, MapKeyResult.ErrorType.FAIL_TO_FIND_PARTITION));
-          continue;
+          unmappedKeys.add(new MapKeyResult.UnmappedKey<K>(keyList.get(i), MapKeyResult.ErrorType.FAIL_TO_FIND_PARTITION));
         }
-
-        Set<K> set = partitionSet.get(partitionId);
-        if (set == null)
+        else
         {
-          set = new HashSet<K>();
-          partitionSet.put(partitionId, set);
+          partitionKeys.add(partitionIds[i], keyList.get(i));
         }
-        set.add(key);
       }
 
       // then we find the ring for each partition and create a map of Ring<URI> to Set<K>
+      Map<Integer, Set<K>> partitionSet = partitionKeys.toMap();
       final Map<Ring<URI>, Collection<K>> ringMap = new IdentityHashMap<Ring<URI>, Collection<K>>(partitionSet.size()* 2);
       for (Map.Entry<Integer, Set<K>> entry : partitionSet.entrySet())
       {
@@ -536,6 +541,7 @@ public class SimpleLoadBalancer implements LoadBalancer, HashRingProvider, Clien
     }
 
     List<TrackerClient> clientsToLoadBalance = null;
+    Set<URI> excludedHosts = LoadBalancerUtil.FailoverHints.getRequestContextExcludedHosts(requestContext);
 
     for (LoadBalancerState.SchemeStrategyPair pair : orderedStrategies)
     {
@@ -549,6 +555,13 @@ public class SimpleLoadBalancer implements LoadBalancer, HashRingProvider, Clien
       trackerClient =
           strategy.getTrackerClient(request, requestContext, uriItem.getVersion(), partitionId, clientsToLoadBalance);
 
+      // the strategies skip unavailable hosts themselves, this only catches those which don't
+      if (trackerClient != null && !LoadBalancerUtil.FailoverHints.isAvailable(trackerClient, excludedHosts))
+      {
+        debug(_log, "load balancer strategy returned an unavailable host: ", trackerClient);
+        trackerClient = null;
+      }
+
       debug(_log,
             "load balancer strategy for ",
             serviceName,
@@ -572,9 +585,11 @@ public class SimpleLoadBalancer implements LoadBalancer, HashRingProvider, Clien
       {
         die(serviceName, "unable to find a tracker client for: " + serviceName + " in partition: " + partitionId +
         " even though we have a selection of " + clientsToLoadBalance.size() + " clients. The strategy did not select" +
-        " any client. Maybe the cluster is degraded");
+        " any client. Maybe the cluster is degraded, or every host is at its concurrency limit or already failed" +
+        " the request");
       }
     }
+    LoadBalancerUtil.FailoverHints.setRequestContextChosenHost(requestContext, trackerClient.getUri());
     return trackerClient;
   }
 
@@ -602,4 +617,64 @@ public class SimpleLoadBalancer implements LoadBalancer, HashRingProvider, Clien
     }
   }
 
+
+  /**
+   * Keys grouped by partition. Partition ids are dense, so the sets are indexed by id, which
+   * avoids boxing the id of every key; ids beyond the index go to a map.
+   */
+  private static class PartitionKeys<K>
+  {
+    private static final int MAX_INDEXED_PARTITIONS = 1 << 16;
+
+    private final List<Set<K>> _indexed;
+    private Map<Integer, Set<K>> _overflow;
+
+    private PartitionKeys(int maxPartitionId)
+    {
+      int indexed = Math.max(0, Math.min(maxPartitionId + 1, MAX_INDEXED_PARTITIONS));
+      _indexed = new ArrayList<Set<K>>(Collections.<Set<K>>nCopies(indexed, null));
+    }
+
+    private void add(int partitionId, K key)
+    {
+      Set<K> set;
+      if (partitionId < _indexed.size())
+      {
+        set = _indexed.get(partitionId);
+        if (set == null)
+        {
+          set = new HashSet<K>();
+          _indexed.set(partitionId, set);
+        }
+      }
+      else
+      {
+        if (_overflow == null)
+        {
+          _overflow = new HashMap<Integer, Set<K>>();
+        }
+        set = _overflow.get(partitionId);
+        if (set == null)
+        {
+          set = new HashSet<K>();
+          _overflow.put(partitionId, set);
+        }
+      }
+      set.add(key);
+    }
+
+    private Map<Integer, Set<K>> toMap()
+    {
+      Map<Integer, Set<K>> map = _overflow == null ? new HashMap<Integer, Set<K>>() : _overflow;
+      for (int partitionId = 0; partitionId < _indexed.size(); partitionId++)
+      {
+        Set<K> set = _indexed.get(partitionId);
+        if (set != null)
+        {
+          map.put(partitionId, set);
+        }
+      }
+      return map;
+    }
+  }
 }
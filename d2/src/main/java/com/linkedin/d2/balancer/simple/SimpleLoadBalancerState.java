@@ -22,11 +22,14 @@ import static com.linkedin.d2.discovery.util.LogUtil.trace;
 import static com.linkedin.d2.discovery.util.LogUtil.warn;
 
 import com.linkedin.d2.balancer.strategies.degrader.DegraderConfigFactory;
+import com.linkedin.d2.balancer.strategies.degrader.DegraderLoadBalancerStrategyV3;
 import com.linkedin.r2.transport.http.client.HttpClientFactory;
 import com.linkedin.util.clock.SystemClock;
 import com.linkedin.util.degrader.DegraderImpl;
 import java.net.URI;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -35,8 +38,10 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -48,28 +53,35 @@ import org.slf4j.LoggerFactory;
 import com.linkedin.common.callback.Callback;
 import com.linkedin.common.callback.Callbacks;
 import com.linkedin.common.callback.SimpleCallback;
+import com.linkedin.common.util.MapUtil;
 import com.linkedin.common.util.None;
 import com.linkedin.d2.balancer.LoadBalancerState;
 import com.linkedin.d2.balancer.LoadBalancerStateItem;
+import com.linkedin.d2.balancer.clients.ConcurrencyLimiter;
 import com.linkedin.d2.balancer.clients.TrackerClient;
 import com.linkedin.d2.balancer.properties.ClusterProperties;
 import com.linkedin.d2.balancer.properties.PartitionData;
+import com.linkedin.d2.balancer.properties.PropertyKeys;
 import com.linkedin.d2.balancer.properties.ServiceProperties;
 import com.linkedin.d2.balancer.properties.UriProperties;
 import com.linkedin.d2.balancer.strategies.LoadBalancerStrategy;
 import com.linkedin.d2.balancer.strategies.LoadBalancerStrategyFactory;
+import com.linkedin.d2.balancer.strategies.locality.LocalityAwareLoadBalancerStrategy;
 import com.linkedin.d2.balancer.util.ClientFactoryProvider;
 import com.linkedin.d2.balancer.util.LoadBalancerUtil;
 import com.linkedin.d2.balancer.util.partitions.PartitionAccessor;
 import com.linkedin.d2.balancer.util.partitions.PartitionAccessorFactory;
+import com.linkedin.d2.balancer.util.subsetting.DeterministicSubsetter;
 import com.linkedin.d2.discovery.event.PropertyEventBus;
 import com.linkedin.d2.discovery.event.PropertyEventBusImpl;
+import com.linkedin.d2.discovery.event.PropertyEventLanes;
 import com.linkedin.d2.discovery.event.PropertyEventPublisher;
 import com.linkedin.d2.discovery.event.PropertyEventSubscriber;
 import com.linkedin.d2.discovery.event.PropertyEventThread.PropertyEvent;
 import com.linkedin.d2.discovery.event.PropertyEventThread.PropertyEventShutdownCallback;
 import com.linkedin.r2.transport.common.TransportClientFactory;
 import com.linkedin.r2.transport.common.bridge.client.TransportClient;
+import com.linkedin.r2.transport.common.bridge.client.WarmableTransportClient;
 import com.linkedin.r2.util.ClosableQueue;
 
 import javax.net.ssl.SSLContext;
@@ -98,6 +110,18 @@ public class SimpleLoadBalancerState implements LoadBalancerState, ClientFactory
   private final ScheduledExecutorService                                                 _executor;
   private final List<SimpleLoadBalancerStateListener>                                    _listeners;
 
+  /**
+   * Threads on which property updates are applied, keyed by cluster name. Null if updates are
+   * applied directly on the event bus thread.
+   */
+  private final PropertyEventLanes                                                       _eventLanes;
+
+  /**
+   * Map from service name => name of the cluster of the last update of the service handed to the
+   * event lanes. Only used from the service bus callbacks.
+   */
+  private final Map<String, String>                                                      _serviceLaneKeys;
+
   private volatile long                                                                  _delayedExecution;
   /**
    * Map from service name => uri => tracker client.
@@ -136,6 +160,12 @@ public class SimpleLoadBalancerState implements LoadBalancerState, ClientFactory
   private final SSLParameters _sslParameters;
   private final boolean       _isSSLEnabled;
 
+  /**
+   * Chooses the hosts to track for services which set a subset size.
+   */
+  private volatile DeterministicSubsetter                                               _subsetter;
+  private volatile String                                                                _localZone;
+
   // we put together the cluster properties and the partition accessor for a cluster so that we don't have to
   // maintain two seperate maps (which have to be in sync all the time)
   private class ClusterInfoItem
@@ -180,6 +210,13 @@ public class SimpleLoadBalancerState implements LoadBalancerState, ClientFactory
    * within event bus callbacks, but may be read from any thread at any time:
    * _uriProperties _clusterProperties _serviceProperties _servicesPerCluster
    * _trackerClients _serviceStrategies
+   *
+   * If event lanes are enabled, the bus callbacks hand the updates to the lane of the cluster
+   * they belong to instead of applying them directly. Updates for a cluster, and for the services
+   * and uris on it, are therefore still applied one at a time and in order, but updates for
+   * different clusters may be applied concurrently. An update which moves a service to another
+   * cluster mutates the state of both clusters, so it is sent to the lanes of both and runs
+   * once both have reached it, while neither applies other updates.
    */
 
   @SuppressWarnings("unchecked")
@@ -208,6 +245,25 @@ public class SimpleLoadBalancerState implements LoadBalancerState, ClientFactory
                                  SSLContext sslContext,
                                  SSLParameters sslParameters,
                                  boolean isSSLEnabled)
+  {
+    this(executorService, uriBus, clusterBus, serviceBus, clientFactories, loadBalancerStrategyFactories,
+         sslContext, sslParameters, isSSLEnabled, 0);
+  }
+
+  /**
+   * @param eventLaneCount number of threads on which updates for different clusters are applied in
+   *                       parallel, or 0 to apply all updates on the event bus thread.
+   */
+  public SimpleLoadBalancerState(ScheduledExecutorService executorService,
+                                 PropertyEventBus<UriProperties> uriBus,
+                                 PropertyEventBus<ClusterProperties> clusterBus,
+                                 PropertyEventBus<ServiceProperties> serviceBus,
+                                 Map<String, TransportClientFactory> clientFactories,
+                                 Map<String, LoadBalancerStrategyFactory<? extends LoadBalancerStrategy>> loadBalancerStrategyFactories,
+                                 SSLContext sslContext,
+                                 SSLParameters sslParameters,
+                                 boolean isSSLEnabled,
+                                 int eventLaneCount)
   {
     _executor = executorService;
     _uriProperties =
@@ -242,12 +298,15 @@ public class SimpleLoadBalancerState implements LoadBalancerState, ClientFactory
         new ConcurrentHashMap<String, List<SchemeStrategyPair>>();
     _trackerClients = new ConcurrentHashMap<String, Map<URI, TrackerClient>>();
     _serviceClients = new ConcurrentHashMap<String, Map<String, TransportClient>>();
-    _listeners =
-        Collections.synchronizedList(new ArrayList<SimpleLoadBalancerStateListener>());
+    // listeners are notified from the event lanes, concurrently with (un)registration
+    _listeners = new CopyOnWriteArrayList<SimpleLoadBalancerStateListener>();
+    _eventLanes = eventLaneCount > 0 ? new PropertyEventLanes("SimpleLoadBalancerState", eventLaneCount) : null;
+    _serviceLaneKeys = new ConcurrentHashMap<String, String>();
     _delayedExecution = 1000;
     _sslContext = sslContext;
     _sslParameters = sslParameters;
     _isSSLEnabled = isSSLEnabled;
+    _subsetter = new DeterministicSubsetter(UUID.randomUUID().toString());
   }
 
   public void register(final SimpleLoadBalancerStateListener listener)
@@ -295,33 +354,63 @@ public class SimpleLoadBalancerState implements LoadBalancerState, ClientFactory
       @Override
       public void innerRun()
       {
-        // put all tracker clients into a single set for convenience
-        Set<TransportClient> transportClients = new HashSet<TransportClient>();
-
-        for (Map<String, TransportClient> clientsByScheme : _serviceClients.values())
+        if (_eventLanes == null)
         {
-          transportClients.addAll(clientsByScheme.values());
+          shutdownTransportClients(shutdown);
         }
-
-        Callback<None> trackerCallback = Callbacks.countDown(Callbacks.<None>adaptSimple(new SimpleCallback()
+        else
         {
-          @Override
-          public void onDone()
+          // updates still queued on the lanes may create transport clients, so only shut the
+          // clients down once the lanes have drained and stopped accepting updates
+          _eventLanes.shutdown(new PropertyEventShutdownCallback()
           {
-            shutdown.done();
-          }
-        }), transportClients.size());
-
-        info(_log, "shutting down cluster clients");
-
-        for (TransportClient transportClient : transportClients)
-        {
-          transportClient.shutdown(trackerCallback);
+            @Override
+            public void done()
+            {
+              shutdownTransportClients(shutdown);
+            }
+          });
         }
       }
     });
   }
 
+  private void shutdownTransportClients(final PropertyEventShutdownCallback shutdown)
+  {
+    // put all tracker clients into a single set for convenience
+    Set<TransportClient> transportClients = new HashSet<TransportClient>();
+
+    for (Map<String, TransportClient> clientsByScheme : _serviceClients.values())
+    {
+      transportClients.addAll(clientsByScheme.values());
+    }
+
+    Callback<None> trackerCallback = Callbacks.countDown(Callbacks.<None>adaptSimple(new SimpleCallback()
+    {
+      @Override
+      public void onDone()
+      {
+        shutdown.done();
+      }
+    }), transportClients.size());
+
+    info(_log, "shutting down cluster clients");
+
+    for (TransportClient transportClient : transportClients)
+    {
+      transportClient.shutdown(trackerCallback);
+    }
+  }
+
+  /**
+   * @return the lanes on which property updates are applied, or null if they are applied on the
+   *         event bus thread.
+   */
+  public PropertyEventLanes getEventLanes()
+  {
+    return _eventLanes;
+  }
+
   @Override
   public void listenToService(final String serviceName,
                               final LoadBalancerStateListenerCallback callback)
@@ -485,6 +574,36 @@ public class SimpleLoadBalancerState implements LoadBalancerState, ClientFactory
     _delayedExecution = delayedExecution;
   }
 
+  /**
+   * Sets the id which determines the subset of hosts tracked for services with a subset size
+   * (see {@link PropertyKeys#LB_SUBSET_SIZE}).  By default a random id is used, so the subset is
+   * stable for the lifetime of this state.  Takes effect on the next update of each service.
+   */
+  public void setSubsettingClientId(String clientId)
+  {
+    _subsetter = new DeterministicSubsetter(clientId);
+  }
+
+  public String getSubsettingClientId()
+  {
+    return _subsetter.getClientId();
+  }
+
+  /**
+   * Sets the zone this client runs in, which services with locality routing (see
+   * {@link PropertyKeys#LB_LOCALITY_ROUTING}) prefer.  Null, the default, disables locality
+   * routing.  Takes effect on the next update of each service.
+   */
+  public void setLocalZone(String localZone)
+  {
+    _localZone = localZone;
+  }
+
+  public String getLocalZone()
+  {
+    return _localZone;
+  }
+
   @Override
   public TrackerClient getClient(String serviceName, URI uri)
   {
@@ -664,7 +783,14 @@ public class SimpleLoadBalancerState implements LoadBalancerState, ClientFactory
     {
       trace(_log, _name, ".onAdd: ", propertyName, ": ", propertyValue);
 
-      handlePut(propertyName, propertyValue);
+      dispatch(getLaneKeys(propertyName, propertyValue), new PropertyEvent(_name + ".onAdd " + propertyName)
+      {
+        @Override
+        public void innerRun()
+        {
+          handlePut(propertyName, propertyValue);
+        }
+      });
     }
 
     @Override
@@ -672,12 +798,19 @@ public class SimpleLoadBalancerState implements LoadBalancerState, ClientFactory
     {
       trace(_log, _name, ".onInitialize: ", propertyName, ": ", propertyValue);
 
-      handlePut(propertyName, propertyValue);
-
-      for (LoadBalancerStateListenerCallback waiter : _waiters.get(propertyName).close())
+      dispatch(getLaneKeys(propertyName, propertyValue), new PropertyEvent(_name + ".onInitialize " + propertyName)
       {
-        waiter.done(_type, propertyName);
-      }
+        @Override
+        public void innerRun()
+        {
+          handlePut(propertyName, propertyValue);
+
+          for (LoadBalancerStateListenerCallback waiter : _waiters.get(propertyName).close())
+          {
+            waiter.done(_type, propertyName);
+          }
+        }
+      });
     }
 
     @Override
@@ -685,7 +818,38 @@ public class SimpleLoadBalancerState implements LoadBalancerState, ClientFactory
     {
       trace(_log, _name, ".onRemove: ", propertyName);
 
-      handleRemove(propertyName);
+      dispatch(getLaneKeys(propertyName, null), new PropertyEvent(_name + ".onRemove " + propertyName)
+      {
+        @Override
+        public void innerRun()
+        {
+          handleRemove(propertyName);
+        }
+      });
+    }
+
+    private void dispatch(Collection<String> laneKeys, PropertyEvent event)
+    {
+      if (_eventLanes == null)
+      {
+        event.run();
+      }
+      else
+      {
+        _eventLanes.send(laneKeys, event);
+      }
+    }
+
+    /**
+     * Called for every update, in the order the updates are received, when event lanes are
+     * enabled.
+     *
+     * @return the names of the clusters whose state the update mutates, which select the event
+     *         lanes on which it is applied.
+     */
+    protected Collection<String> getLaneKeys(String propertyName, T propertyValue)
+    {
+      return Collections.singleton(propertyName);
     }
 
     protected abstract void handlePut(String propertyName, T propertyValue);
@@ -704,6 +868,9 @@ public class SimpleLoadBalancerState implements LoadBalancerState, ClientFactory
     @Override
     protected void handlePut(final String listenTo, final UriProperties discoveryProperties)
     {
+      // uris tracked by each service, which may be a subset of the cluster
+      Map<String, Set<URI>> trackedUris = new HashMap<String, Set<URI>>();
+
       // add tracker clients for uris that we aren't already tracking
       if (discoveryProperties != null)
       {
@@ -737,7 +904,10 @@ public class SimpleLoadBalancerState implements LoadBalancerState, ClientFactory
                   serviceProperties.getProperty().getDegraderProperties();
               config = DegraderConfigFactory.toDegraderConfig(degraderImplProperties);
             }
-            for (URI uri : discoveryProperties.Uris())
+            Set<URI> urisToTrack = getUrisToTrack(serviceProperties == null ? null : serviceProperties.getProperty(),
+                                                  discoveryProperties);
+            trackedUris.put(serviceName, urisToTrack);
+            for (URI uri : urisToTrack)
             {
               if (!trackerClients.containsKey(uri))
               {
@@ -783,17 +953,22 @@ public class SimpleLoadBalancerState implements LoadBalancerState, ClientFactory
           for (String serviceName : serviceNames)
           {
             Map<URI, TrackerClient> trackerClients = _trackerClients.get(serviceName);
+            Set<URI> urisToTrack = trackedUris.get(serviceName);
+            if (urisToTrack == null)
+            {
+              urisToTrack = discoveryProperties.Uris();
+            }
             if (trackerClients != null)
             {
               for (Iterator<URI> it = trackerClients.keySet().iterator(); it.hasNext();)
               {
                 URI uri = it.next();
 
-                if (!discoveryProperties.Uris().contains(uri))
+                if (!urisToTrack.contains(uri))
                 {
                   TrackerClient client = trackerClients.remove(uri);
 
-                  info(_log, "removing dead tracker client: ", client);
+                  info(_log, "removing dead or unselected tracker client: ", client);
 
                   // notify listeners of the removed client
                   for (SimpleLoadBalancerStateListener listener : _listeners)
@@ -890,6 +1065,27 @@ public class SimpleLoadBalancerState implements LoadBalancerState, ClientFactory
       super(LoadBalancerStateListenerCallback.SERVICE, eventBus);
     }
 
+    @Override
+    protected Collection<String> getLaneKeys(String listenTo, ServiceProperties discoveryProperties)
+    {
+      // The cluster of the service is tracked here rather than read from _serviceProperties,
+      // which may not yet reflect the updates already handed to the lanes.
+      String previousCluster;
+      if (discoveryProperties == null)
+      {
+        previousCluster = _serviceLaneKeys.remove(listenTo);
+        return Collections.singleton(previousCluster == null ? listenTo : previousCluster);
+      }
+      String cluster = discoveryProperties.getClusterName();
+      previousCluster = _serviceLaneKeys.put(listenTo, cluster);
+      if (previousCluster == null || previousCluster.equals(cluster))
+      {
+        return Collections.singleton(cluster);
+      }
+      // the service moves to another cluster
+      return Arrays.asList(previousCluster, cluster);
+    }
+
     @Override
     protected void handlePut(final String listenTo, final ServiceProperties discoveryProperties)
     {
@@ -975,6 +1171,7 @@ public class SimpleLoadBalancerState implements LoadBalancerState, ClientFactory
   private TrackerClient getTrackerClient(String serviceName, URI uri, Map<Integer, PartitionData> partitionDataMap,
                                          DegraderImpl.Config config)
   {
+    LoadBalancerStateItem<ServiceProperties> serviceItem = _serviceProperties.get(serviceName);
     Map<String,TransportClient> clientsByScheme = _serviceClients.get(serviceName);
     if (clientsByScheme == null)
     {
@@ -989,10 +1186,66 @@ public class SimpleLoadBalancerState implements LoadBalancerState, ClientFactory
           new Object[]{ serviceName, uri, partitionDataMap });
       return null;
     }
-    TrackerClient trackerClient = new TrackerClient(uri, partitionDataMap, client, SystemClock.instance(), config);
+    ConcurrencyLimiter.Config limiterConfig =
+        serviceItem == null ? null : getConcurrencyLimiterConfig(serviceItem.getProperty());
+    TrackerClient trackerClient = new TrackerClient(uri, partitionDataMap, client, SystemClock.instance(), config,
+                                                    limiterConfig);
+    // open connections to the host now rather than on the first request sent to it
+    if (client instanceof WarmableTransportClient)
+    {
+      ((WarmableTransportClient) client).warmUp(uri);
+    }
     return trackerClient;
   }
 
+  /**
+   * @return the configuration of the per host concurrency limit of the service, or null if the
+   *         service does not enable it.
+   */
+  static ConcurrencyLimiter.Config getConcurrencyLimiterConfig(ServiceProperties serviceProperties)
+  {
+    if (serviceProperties == null)
+    {
+      return null;
+    }
+    Map<String, Object> properties = serviceProperties.getLoadBalancerStrategyProperties();
+    if (!MapUtil.getWithDefault(properties, PropertyKeys.LB_CONCURRENCY_LIMIT_ENABLED, Boolean.FALSE))
+    {
+      return null;
+    }
+    ConcurrencyLimiter.Config config = new ConcurrencyLimiter.Config();
+    config.setInitialLimit(MapUtil.getWithDefault(properties, PropertyKeys.LB_CONCURRENCY_LIMIT_INITIAL,
+                                                  ConcurrencyLimiter.Config.DEFAULT_INITIAL_LIMIT, Integer.class));
+    config.setMinLimit(MapUtil.getWithDefault(properties, PropertyKeys.LB_CONCURRENCY_LIMIT_MIN,
+                                              ConcurrencyLimiter.Config.DEFAULT_MIN_LIMIT, Integer.class));
+    config.setMaxLimit(MapUtil.getWithDefault(properties, PropertyKeys.LB_CONCURRENCY_LIMIT_MAX,
+                                              ConcurrencyLimiter.Config.DEFAULT_MAX_LIMIT, Integer.class));
+    config.setBackoffRatio(MapUtil.getWithDefault(properties, PropertyKeys.LB_CONCURRENCY_LIMIT_BACKOFF_RATIO,
+                                                  ConcurrencyLimiter.Config.DEFAULT_BACKOFF_RATIO, Double.class));
+    config.setLatencyTolerance(MapUtil.getWithDefault(properties, PropertyKeys.LB_CONCURRENCY_LIMIT_LATENCY_TOLERANCE,
+                                                      ConcurrencyLimiter.Config.DEFAULT_LATENCY_TOLERANCE, Double.class));
+    return config;
+  }
+
+  /**
+   * @return the uris of the cluster for which the service should have tracker clients: all of
+   *         them, or the subset of this client if the service sets a subset size.
+   */
+  private Set<URI> getUrisToTrack(ServiceProperties serviceProperties, UriProperties uriProperties)
+  {
+    if (serviceProperties == null)
+    {
+      return uriProperties.Uris();
+    }
+    Integer subsetSize = MapUtil.getWithDefault(serviceProperties.getLoadBalancerStrategyProperties(),
+                                                PropertyKeys.LB_SUBSET_SIZE, 0, Integer.class);
+    if (subsetSize <= 0)
+    {
+      return uriProperties.Uris();
+    }
+    return _subsetter.getSubset(uriProperties, subsetSize);
+  }
+
   private Map<String, TransportClient> createAndInsertTransportClientTo(ServiceProperties serviceProperties)
   {
     Map<String, Object> transportClientProperties = serviceProperties.getTransportClientProperties();
@@ -1082,7 +1335,7 @@ public class SimpleLoadBalancerState implements LoadBalancerState, ClientFactory
     UriProperties uriProperties = uriItem == null ? null : uriItem.getProperty();
     if (uriProperties != null)
     {
-      Set<URI> uris = uriProperties.Uris();
+      Set<URI> uris = getUrisToTrack(serviceProperties, uriProperties);
       // clients-by-uri map may be edited later by UriPropertiesListener.handlePut
       newTrackerClients = new ConcurrentHashMap<URI, TrackerClient>((int)Math.ceil(uris.size() / 0.75f), 0.75f, 1);
       for (URI uri : uris)
@@ -1178,6 +1431,23 @@ public class SimpleLoadBalancerState implements LoadBalancerState, ClientFactory
     }
   }
 
+  private LocalityAwareLoadBalancerStrategy.ZoneResolver getZoneResolver(final String clusterName)
+  {
+    return new LocalityAwareLoadBalancerStrategy.ZoneResolver()
+    {
+      @Override
+      public String getZone(URI uri)
+      {
+        LoadBalancerStateItem<UriProperties> uriItem = _uriProperties.get(clusterName);
+        if (uriItem == null || uriItem.getProperty() == null)
+        {
+          return null;
+        }
+        return uriItem.getProperty().getZone(uri);
+      }
+    };
+  }
+
   void refreshServiceStrategies(ServiceProperties serviceProperties)
   {
     info(_log, "refreshing service strategies for service: ", serviceProperties);
@@ -1228,6 +1498,25 @@ public class SimpleLoadBalancerState implements LoadBalancerState, ClientFactory
             serviceProperties.getServiceName(),
             loadBalancerStrategyProperties);
 
+        String localZone = _localZone;
+        if (localZone != null && LocalityAwareLoadBalancerStrategy.PREFER_LOCAL.equals(
+            loadBalancerStrategyProperties.get(PropertyKeys.LB_LOCALITY_ROUTING)))
+        {
+          LoadBalancerStrategy localStrategy = factory.newLoadBalancer(
+              serviceProperties.getServiceName(),
+              loadBalancerStrategyProperties);
+          if (localStrategy instanceof DegraderLoadBalancerStrategyV3)
+          {
+            // both strategies balance over the same tracker clients, so only the global one may
+            // override the drop rate and min call count of their degraders
+            ((DegraderLoadBalancerStrategyV3) localStrategy).setOverrideEnabled(false);
+          }
+          strategy = new LocalityAwareLoadBalancerStrategy(localZone,
+                                                           getZoneResolver(serviceProperties.getClusterName()),
+                                                           localStrategy,
+                                                           strategy);
+        }
+
         strategyMap.put(scheme, strategy);
       }
     }
@@ -19,6 +19,7 @@ package com.linkedin.d2.balancer.strategies.degrader;
 import com.linkedin.d2.balancer.KeyMapper;
 import com.linkedin.d2.balancer.clients.TrackerClient;
 import com.linkedin.d2.balancer.strategies.LoadBalancerStrategy;
+import com.linkedin.d2.balancer.util.LoadBalancerUtil;
 import com.linkedin.d2.balancer.util.hashing.ConsistentHashRing;
 import com.linkedin.d2.balancer.util.hashing.HashFunction;
 import com.linkedin.d2.balancer.util.hashing.RandomHash;
@@ -35,6 +36,7 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import static com.linkedin.d2.discovery.util.LogUtil.debug;
@@ -117,16 +119,19 @@ public class DegraderLoadBalancerStrategyV2 implements LoadBalancerStrategy
 
     URI targetHostUri = KeyMapper.TargetHostHints.getRequestContextTargetHost(requestContext);
     URI hostHeaderUri = targetHostUri;
+    Ring<URI> ring = null;
+    int hashCode = 0;
 
     //no valid target host header was found in the request
     if (targetHostUri == null)
     {
       // Compute the hash code
-      int hashCode = _hashFunction.hash(request);
+      hashCode = _hashFunction.hash(request);
 
       // we operate only on URIs to ensure that we never hold on to an old tracker client
       // that the cluster manager has removed
-      targetHostUri = _state.getRing().get(hashCode);
+      ring = _state.getRing();
+      targetHostUri = ring.get(hashCode);
     }
     else
     {
@@ -154,6 +159,18 @@ public class DegraderLoadBalancerStrategyV2 implements LoadBalancerStrategy
                 ", degrader load balancer state is inconsistent with cluster manager" :
                 ", target host specified is no longer part of cluster"));
       }
+      else if (ring != null)
+      {
+        Set<URI> excludedHosts = LoadBalancerUtil.FailoverHints.getRequestContextExcludedHosts(requestContext);
+        if (!LoadBalancerUtil.FailoverHints.isAvailable(client, excludedHosts))
+        {
+          client = DegraderLoadBalancerStrategyV3.getAvailableClient(ring, hashCode, trackerClients, excludedHosts);
+          if (client == null)
+          {
+            warn(_log, "no host is available for the request, excluded hosts: ", excludedHosts);
+          }
+        }
+      }
     }
     else
     {
@@ -19,6 +19,7 @@ package com.linkedin.d2.balancer.strategies.degrader;
 import com.linkedin.d2.balancer.KeyMapper;
 import com.linkedin.d2.balancer.clients.TrackerClient;
 import com.linkedin.d2.balancer.strategies.LoadBalancerStrategy;
+import com.linkedin.d2.balancer.util.LoadBalancerUtil;
 import com.linkedin.d2.balancer.util.hashing.ConsistentHashRing;
 import com.linkedin.d2.balancer.util.hashing.HashFunction;
 import com.linkedin.d2.balancer.util.hashing.RandomHash;
@@ -34,8 +35,11 @@ import org.slf4j.LoggerFactory;
 import java.net.URI;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReferenceArray;
 
@@ -61,6 +65,7 @@ public class DegraderLoadBalancerStrategyV3 implements LoadBalancerStrategy
                            LoggerFactory.getLogger(DegraderLoadBalancerStrategyV3.class);
 
   private boolean                                     _updateEnabled;
+  private volatile boolean                            _overrideEnabled;
   private volatile DegraderLoadBalancerStrategyConfig _config;
   private volatile HashFunction<Request>              _hashFunction;
   private final DegraderLoadBalancerState _state;
@@ -69,6 +74,7 @@ public class DegraderLoadBalancerStrategyV3 implements LoadBalancerStrategy
                                         String serviceName)
   {
     _updateEnabled = true;
+    _overrideEnabled = true;
     setConfig(config);
     _state = new DegraderLoadBalancerState(serviceName);
   }
@@ -103,16 +109,18 @@ public class DegraderLoadBalancerStrategyV3 implements LoadBalancerStrategy
 
     URI targetHostUri = KeyMapper.TargetHostHints.getRequestContextTargetHost(requestContext);
     URI hostHeaderUri = targetHostUri;
+    Ring<URI> ring = null;
+    int hashCode = 0;
 
     //no valid target host header was found in the request
     if (targetHostUri == null)
     {
       // Compute the hash code
-      int hashCode = _hashFunction.hash(request);
+      hashCode = _hashFunction.hash(request);
 
       // we operate only on URIs to ensure that we never hold on to an old tracker client
       // that the cluster manager has removed
-      Ring<URI> ring = _state.getRing(partitionId);
+      ring = _state.getRing(partitionId);
       targetHostUri = (ring == null) ? null : ring.get(hashCode);
 
     }
@@ -142,6 +150,18 @@ public class DegraderLoadBalancerStrategyV3 implements LoadBalancerStrategy
                 ", degrader load balancer state is inconsistent with cluster manager" :
                 ", target host specified is no longer part of cluster"));
       }
+      else if (ring != null)
+      {
+        Set<URI> excludedHosts = LoadBalancerUtil.FailoverHints.getRequestContextExcludedHosts(requestContext);
+        if (!LoadBalancerUtil.FailoverHints.isAvailable(client, excludedHosts))
+        {
+          client = getAvailableClient(ring, hashCode, trackerClients, excludedHosts);
+          if (client == null)
+          {
+            warn(_log, "no host is available for the request, excluded hosts: ", excludedHosts);
+          }
+        }
+      }
     }
     else
     {
@@ -167,6 +187,43 @@ public class DegraderLoadBalancerStrategyV3 implements LoadBalancerStrategy
     return (!dropCall) ? client : null;
   }
 
+  /**
+   * Walks the ring from the point of the hash code and returns the first host the request may be
+   * sent to (see {@link LoadBalancerUtil.FailoverHints#isAvailable}), so that a host which already
+   * failed the request or is at its concurrency limit is replaced by its neighbour on the ring.
+   * Hosts the degraders took off the ring are not considered.
+   *
+   * @return the client, or null if no client on the ring is available.
+   */
+  static TrackerClient getAvailableClient(Ring<URI> ring,
+                                          int hashCode,
+                                          List<TrackerClient> trackerClients,
+                                          Set<URI> excludedHosts)
+  {
+    if (!(ring instanceof ConsistentHashRing))
+    {
+      return null;
+    }
+
+    Map<URI, TrackerClient> clients = new HashMap<URI, TrackerClient>(trackerClients.size() * 2);
+    for (TrackerClient client : trackerClients)
+    {
+      clients.put(client.getUri(), client);
+    }
+    Set<URI> visited = new HashSet<URI>();
+    Iterator<URI> iterator = ((ConsistentHashRing<URI>) ring).getIterator(hashCode);
+    while (iterator.hasNext() && visited.size() < clients.size())
+    {
+      URI uri = iterator.next();
+      TrackerClient client = clients.get(uri);
+      if (client != null && visited.add(uri) && LoadBalancerUtil.FailoverHints.isAvailable(client, excludedHosts))
+      {
+        return client;
+      }
+    }
+    return null;
+  }
+
   /*
    * checkUpdatePartitionState
    *
@@ -194,7 +251,8 @@ public class DegraderLoadBalancerStrategyV3 implements LoadBalancerStrategy
 
       synchronized (lock)
       {
-        partitionState = updatePartitionState(clusterGenerationId, partitionId, trackerClients, partitionState, config);
+        partitionState = updatePartitionState(clusterGenerationId, partitionId, trackerClients, partitionState, config,
+                                              _overrideEnabled);
         _state.setPartitionState(partitionId, partitionState);
         assert(partitionState.isInitialized());
         lock.notifyAll();
@@ -343,11 +401,14 @@ public class DegraderLoadBalancerStrategyV3 implements LoadBalancerStrategy
    * @param trackerClients
    * @param oldState
    * @param config
+   * @param overrideEnabled whether the override drop rate and min call count are pushed to the
+   *                        degraders of the tracker clients
    */
   private static PartitionDegraderLoadBalancerState updatePartitionState(long clusterGenerationId, int partitionId,
                                                                          List<TrackerClient> trackerClients,
                                                                          PartitionDegraderLoadBalancerState oldState,
-                                                                         DegraderLoadBalancerStrategyConfig config)
+                                                                         DegraderLoadBalancerStrategyConfig config,
+                                                                         boolean overrideEnabled)
   {
     debug(_log, "updating state for: ", trackerClients);
 
@@ -611,7 +672,7 @@ public class DegraderLoadBalancerStrategyV3 implements LoadBalancerStrategy
         newDropLevel = Math.max(0.0, newDropLevel - config.getGlobalStepDown());
       }
 
-      if (newDropLevel != currentOverrideDropRate)
+      if (overrideEnabled && newDropLevel != currentOverrideDropRate)
       {
         overrideClusterDropRate(partitionId, newDropLevel, trackerClients);
       }
@@ -632,7 +693,10 @@ public class DegraderLoadBalancerStrategyV3 implements LoadBalancerStrategy
 
     // adjust the min call count for each client based on the hash ring reduction and call dropping
     // fraction.
-    overrideMinCallCount(partitionId, currentOverrideDropRate,trackerClients, points, pointsPerWeight);
+    if (overrideEnabled)
+    {
+      overrideMinCallCount(partitionId, currentOverrideDropRate,trackerClients, points, pointsPerWeight);
+    }
 
     return newState;
   }
@@ -788,6 +852,24 @@ public class DegraderLoadBalancerStrategyV3 implements LoadBalancerStrategy
     _updateEnabled = enabled;
   }
 
+  /**
+   * Whether or not the strategy pushes its override drop rate and min call count to the degraders
+   * of the tracker clients.
+   */
+  public boolean getOverrideEnabled()
+  {
+    return _overrideEnabled;
+  }
+
+  /**
+   * If false, the strategy still tracks the health of the tracker clients, but leaves their
+   * degrader overrides to another strategy balancing over the same tracker clients.
+   */
+  public void setOverrideEnabled(boolean enabled)
+  {
+    _overrideEnabled = enabled;
+  }
+
 
   // for unit testing, this allows the strategy to be forced for the next time updatePartitionState
   // is called. This is not to be used in prod code.
@@ -0,0 +1,168 @@
+/*
+   Copyright (c) 2012 LinkedIn Corp.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.linkedin.d2.balancer.strategies.leastloaded;
+
+import com.linkedin.d2.balancer.clients.TrackerClient;
+import com.linkedin.d2.balancer.strategies.LoadBalancerStrategy;
+import com.linkedin.d2.balancer.util.LoadBalancerUtil;
+import com.linkedin.d2.balancer.util.hashing.Ring;
+import com.linkedin.r2.message.Request;
+import com.linkedin.r2.message.RequestContext;
+
+import java.net.URI;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Strategy which picks two clients at random and sends the request to the less loaded one
+ * ("power of two choices").<p/>
+ *
+ * The load of a client is its number of outstanding calls plus one, multiplied by the moving
+ * average of its latency ({@link TrackerClient#getLatencyEwma()}), and divided by its partition weight.
+ * Both factors can be turned off.  Latency is only taken into account when both candidates have
+ * latency data.  Since the load is read from the live call trackers, the strategy reacts to slow
+ * hosts on the next request rather than at the next ring update, but it doesn't provide
+ * stickiness and has no ring.  Hosts which already failed the request or are at their
+ * concurrency limit are not chosen.
+ */
+public class LeastLoadedLoadBalancerStrategy implements LoadBalancerStrategy
+{
+  private final Random _random;
+  private final boolean _useLatency;
+  private final boolean _usePartitionWeight;
+
+  public LeastLoadedLoadBalancerStrategy(boolean useLatency, boolean usePartitionWeight)
+  {
+    this(useLatency, usePartitionWeight, new Random());
+  }
+
+  public LeastLoadedLoadBalancerStrategy(boolean useLatency, boolean usePartitionWeight, Random random)
+  {
+    _useLatency = useLatency;
+    _usePartitionWeight = usePartitionWeight;
+    _random = random;
+  }
+
+  @Override
+  public Ring<URI> getRing(long clusterGenerationId, int partitionId, List<TrackerClient> trackerClients)
+  {
+    return null;
+  }
+
+  @Override
+  public TrackerClient getTrackerClient(Request request,
+                                        RequestContext requestContext,
+                                        long clusterGenerationId,
+                                        int partitionId,
+                                        List<TrackerClient> trackerClients)
+  {
+    Set<URI> excludedHosts = LoadBalancerUtil.FailoverHints.getRequestContextExcludedHosts(requestContext);
+    int size = trackerClients.size();
+    if (size > 1)
+    {
+      int first = _random.nextInt(size);
+      TrackerClient a = trackerClients.get(first);
+      TrackerClient b = trackerClients.get(nextOther(first, size));
+      if (LoadBalancerUtil.FailoverHints.isAvailable(a, excludedHosts)
+          && LoadBalancerUtil.FailoverHints.isAvailable(b, excludedHosts))
+      {
+        return getLessLoaded(a, b, partitionId);
+      }
+    }
+
+    // only choose among the clients the request may be sent to
+    List<TrackerClient> availableClients = LoadBalancerUtil.FailoverHints.getAvailableClients(trackerClients, excludedHosts);
+    size = availableClients.size();
+    if (size == 0)
+    {
+      return null;
+    }
+    if (size == 1)
+    {
+      return availableClients.get(0);
+    }
+    int first = _random.nextInt(size);
+    return getLessLoaded(availableClients.get(first), availableClients.get(nextOther(first, size)), partitionId);
+  }
+
+  /**
+   * @return a random index below size other than the given one.
+   */
+  private int nextOther(int index, int size)
+  {
+    int other = _random.nextInt(size - 1);
+    return other >= index ? other + 1 : other;
+  }
+
+  private TrackerClient getLessLoaded(TrackerClient a, TrackerClient b, int partitionId)
+  {
+    double loadA = a.getCallTracker().getCurrentConcurrency() + 1;
+    double loadB = b.getCallTracker().getCurrentConcurrency() + 1;
+    if (_useLatency)
+    {
+      double latencyA = getLatency(a);
+      double latencyB = getLatency(b);
+      if (latencyA > 0 && latencyB > 0)
+      {
+        loadA *= latencyA;
+        loadB *= latencyB;
+      }
+    }
+    if (_usePartitionWeight)
+    {
+      loadA /= getWeight(a, partitionId);
+      loadB /= getWeight(b, partitionId);
+    }
+
+    return loadB < loadA ? b : a;
+  }
+
+  /**
+   * @return moving average of the latency, or 0 if no call completed yet.
+   */
+  private static double getLatency(TrackerClient client)
+  {
+    double latency = client.getLatencyEwma();
+    if (latency == 0d)
+    {
+      return 0;
+    }
+    // avoid zero for sub-millisecond calls
+    return Math.max(latency, 1d);
+  }
+
+  private static double getWeight(TrackerClient client, int partitionId)
+  {
+    Double weight = client.getPartitionWeight(partitionId);
+    if (weight == null || weight <= 0)
+    {
+      return 1d;
+    }
+    return weight;
+  }
+
+  public boolean isUseLatency()
+  {
+    return _useLatency;
+  }
+
+  public boolean isUsePartitionWeight()
+  {
+    return _usePartitionWeight;
+  }
+}
@@ -0,0 +1,227 @@
+/*
+   Copyright (c) 2012 LinkedIn Corp.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+
+package com.linkedin.d2.balancer.strategies.locality;
+
+import com.linkedin.d2.balancer.clients.TrackerClient;
+import com.linkedin.d2.balancer.strategies.LoadBalancerStrategy;
+import com.linkedin.d2.balancer.util.hashing.Ring;
+import com.linkedin.r2.message.Request;
+import com.linkedin.r2.message.RequestContext;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Strategy which prefers hosts in the zone of the client, and spills over to the hosts of all
+ * zones as the local hosts become unhealthy.<p/>
+ *
+ * The health of a set of hosts is the average of one minus the computed drop rate of their
+ * degraders, which the degraders derive from their call stats (latency, errors and outstanding
+ * calls), weighted by their partition weight.  The share of requests the local zone can't take,
+ * one minus its health, spills over to the other zones only as far as they have capacity for it:
+ * it is multiplied by the health of the remote hosts, so that when every zone is degraded requests
+ * stay local rather than moving to hosts which are no better off.  A request which stays local is
+ * sent to a host chosen by the local strategy among the local hosts only; otherwise, or if the
+ * local strategy doesn't return a host, the global strategy chooses among all hosts.  The two strategies are separate instances because
+ * strategies keep state (e.g. rings) for the hosts they are given.  As both balance over the same
+ * tracker clients, only the global strategy may override the drop rate and min call count of their
+ * degraders (see {@link com.linkedin.d2.balancer.strategies.degrader.DegraderLoadBalancerStrategyV3#setOverrideEnabled}).
+ */
+public class LocalityAwareLoadBalancerStrategy implements LoadBalancerStrategy
+{
+  public static final String PREFER_LOCAL = "preferLocal";
+
+  /**
+   * Looks up the zone of the host of a uri.
+   */
+  public interface ZoneResolver
+  {
+    /**
+     * @return the zone, or null if it is unknown.
+     */
+    String getZone(URI uri);
+  }
+
+  private final String _localZone;
+  private final ZoneResolver _zoneResolver;
+  private final LoadBalancerStrategy _localStrategy;
+  private final LoadBalancerStrategy _globalStrategy;
+  private final Random _random;
+  // partitionId => local uris of the last cluster generation
+  private final ConcurrentMap<Integer, LocalUris> _localUris = new ConcurrentHashMap<Integer, LocalUris>();
+
+  public LocalityAwareLoadBalancerStrategy(String localZone,
+                                           ZoneResolver zoneResolver,
+                                           LoadBalancerStrategy localStrategy,
+                                           LoadBalancerStrategy globalStrategy)
+  {
+    this(localZone, zoneResolver, localStrategy, globalStrategy, new Random());
+  }
+
+  public LocalityAwareLoadBalancerStrategy(String localZone,
+                                           ZoneResolver zoneResolver,
+                                           LoadBalancerStrategy localStrategy,
+                                           LoadBalancerStrategy globalStrategy,
+                                           Random random)
+  {
+    _localZone = localZone;
+    _zoneResolver = zoneResolver;
+    _localStrategy = localStrategy;
+    _globalStrategy = globalStrategy;
+    _random = random;
+  }
+
+  @Override
+  public TrackerClient getTrackerClient(Request request,
+                                        RequestContext requestContext,
+                                        long clusterGenerationId,
+                                        int partitionId,
+                                        List<TrackerClient> trackerClients)
+  {
+    List<TrackerClient> localClients = getLocalClients(clusterGenerationId, partitionId, trackerClients);
+    if (!localClients.isEmpty() && _random.nextDouble() >= getSpillOver(localClients, trackerClients, partitionId))
+    {
+      TrackerClient client =
+          _localStrategy.getTrackerClient(request, requestContext, clusterGenerationId, partitionId, localClients);
+      if (client != null)
+      {
+        return client;
+      }
+    }
+    return _globalStrategy.getTrackerClient(request, requestContext, clusterGenerationId, partitionId, trackerClients);
+  }
+
+  @Override
+  public Ring<URI> getRing(long clusterGenerationId, int partitionId, List<TrackerClient> trackerClients)
+  {
+    return _globalStrategy.getRing(clusterGenerationId, partitionId, trackerClients);
+  }
+
+  private List<TrackerClient> getLocalClients(long clusterGenerationId,
+                                              int partitionId,
+                                              List<TrackerClient> trackerClients)
+  {
+    LocalUris localUris = _localUris.get(partitionId);
+    if (localUris == null || localUris._clusterGenerationId != clusterGenerationId)
+    {
+      // zones only change with a new cluster generation, so they are resolved once per generation
+      Set<URI> uris = new HashSet<URI>();
+      for (TrackerClient client : trackerClients)
+      {
+        if (_localZone.equals(_zoneResolver.getZone(client.getUri())))
+        {
+          uris.add(client.getUri());
+        }
+      }
+      localUris = new LocalUris(clusterGenerationId, uris);
+      _localUris.put(partitionId, localUris);
+    }
+
+    List<TrackerClient> localClients = new ArrayList<TrackerClient>(localUris._uris.size());
+    if (!localUris._uris.isEmpty())
+    {
+      for (TrackerClient client : trackerClients)
+      {
+        if (localUris._uris.contains(client.getUri()))
+        {
+          localClients.add(client);
+        }
+      }
+    }
+    return localClients;
+  }
+
+  /**
+   * @param localClients the local clients, a subset of trackerClients.
+   * @return the fraction of requests to send to the global strategy, between 0 and 1.
+   */
+  static double getSpillOver(List<TrackerClient> localClients, List<TrackerClient> trackerClients, int partitionId)
+  {
+    double[] local = getCapacity(localClients, partitionId);
+    double[] all = getCapacity(trackerClients, partitionId);
+    double remoteWeight = all[1] - local[1];
+    if (remoteWeight <= 0)
+    {
+      return 0;
+    }
+    return (1d - getHealth(local)) * getHealth(new double[] { all[0] - local[0], remoteWeight });
+  }
+
+  /**
+   * @return the fraction of their capacity the clients can use, between 0 and 1.
+   */
+  static double getHealth(List<TrackerClient> clients, int partitionId)
+  {
+    return getHealth(getCapacity(clients, partitionId));
+  }
+
+  private static double getHealth(double[] capacity)
+  {
+    return capacity[1] <= 0 ? 0 : Math.max(0d, Math.min(1d, capacity[0] / capacity[1]));
+  }
+
+  /**
+   * @return the capacity the clients can use and their total capacity, both in partition weight.
+   */
+  private static double[] getCapacity(List<TrackerClient> clients, int partitionId)
+  {
+    double available = 0;
+    double total = 0;
+    for (TrackerClient client : clients)
+    {
+      Double weight = client.getPartitionWeight(partitionId);
+      double w = weight == null || weight < 0 ? 1d : weight;
+      available += w * (1d - client.getDegraderControl(partitionId).getCurrentComputedDropRate());
+      total += w;
+    }
+    return new double[] { available, total };
+  }
+
+  public String getLocalZone()
+  {
+    return _localZone;
+  }
+
+  public LoadBalancerStrategy getLocalStrategy()
+  {
+    return _localStrategy;
+  }
+
+  public LoadBalancerStrategy getGlobalStrategy()
+  {
+    return _globalStrategy;
+  }
+
+  private static class LocalUris
+  {
+    private final long _clusterGenerationId;
+    private final Set<URI> _uris;
+
+    private LocalUris(long clusterGenerationId, Set<URI> uris)
+    {
+      _clusterGenerationId = clusterGenerationId;
+      _uris = uris;
+    }
+  }
+}
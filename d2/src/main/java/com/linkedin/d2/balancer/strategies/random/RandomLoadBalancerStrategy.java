@@ -18,6 +18,7 @@ package com.linkedin.d2.balancer.strategies.random;
 
 import com.linkedin.d2.balancer.clients.TrackerClient;
 import com.linkedin.d2.balancer.strategies.LoadBalancerStrategy;
+import com.linkedin.d2.balancer.util.LoadBalancerUtil;
 import com.linkedin.d2.balancer.util.hashing.Ring;
 import com.linkedin.r2.message.Request;
 import com.linkedin.r2.message.RequestContext;
@@ -25,6 +26,7 @@ import com.linkedin.r2.message.RequestContext;
 import java.net.URI;
 import java.util.List;
 import java.util.Random;
+import java.util.Set;
 
 public class RandomLoadBalancerStrategy implements LoadBalancerStrategy
 {
@@ -50,7 +52,18 @@ public class RandomLoadBalancerStrategy implements LoadBalancerStrategy
   {
     if (trackerClients.size() > 0)
     {
-      return trackerClients.get(_random.nextInt(trackerClients.size()));
+      TrackerClient client = trackerClients.get(_random.nextInt(trackerClients.size()));
+      Set<URI> excludedHosts = LoadBalancerUtil.FailoverHints.getRequestContextExcludedHosts(requestContext);
+      if (LoadBalancerUtil.FailoverHints.isAvailable(client, excludedHosts))
+      {
+        return client;
+      }
+
+      List<TrackerClient> availableClients = LoadBalancerUtil.FailoverHints.getAvailableClients(trackerClients, excludedHosts);
+      if (availableClients.size() > 0)
+      {
+        return availableClients.get(_random.nextInt(availableClients.size()));
+      }
     }
 
     return null;
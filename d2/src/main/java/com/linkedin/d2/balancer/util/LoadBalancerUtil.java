@@ -20,6 +20,7 @@ package com.linkedin.d2.balancer.util;
 import com.linkedin.common.callback.Callback;
 import com.linkedin.common.util.None;
 import com.linkedin.d2.balancer.clients.DynamicClient;
+import com.linkedin.d2.balancer.clients.TrackerClient;
 import com.linkedin.r2.message.RequestContext;
 import java.io.File;
 import java.io.IOException;
@@ -27,11 +28,14 @@ import java.io.StringReader;
 import java.net.URI;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Properties;
+import java.util.Set;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 import java.util.regex.Pattern;
@@ -234,4 +238,107 @@ public class LoadBalancerUtil
       return (URI)context.getLocalAttr(TARGET_SERVICE_KEY_NAME);
     }
   }
+
+  public static class FailoverHints
+  {
+    public static final String CHOSEN_HOST_KEY_NAME = "D2-Failover-ChosenHost";
+    public static final String EXCLUDED_HOSTS_KEY_NAME = "D2-Failover-ExcludedHosts";
+    public static final String RETRY_COUNT_KEY_NAME = "D2-Failover-RetryCount";
+
+    /**
+     * Records in RequestContext the host the load balancer chose for the request.
+     * @param context RequestContext for the request which will be made
+     * @param host URI of the chosen host
+     */
+    public static void setRequestContextChosenHost(RequestContext context, URI host)
+    {
+      context.putLocalAttr(CHOSEN_HOST_KEY_NAME, host);
+    }
+
+    /**
+     * @param context RequestContext for the request
+     * @return URI of the host the load balancer chose for the last attempt of the request, or
+     *         null if the request was not routed to a host by the load balancer
+     */
+    public static URI getRequestContextChosenHost(RequestContext context)
+    {
+      return (URI)context.getLocalAttr(CHOSEN_HOST_KEY_NAME);
+    }
+
+    /**
+     * Inserts a hint in RequestContext asking D2 to avoid a host for the next attempt of the request.
+     * @param context RequestContext for the request which will be retried
+     * @param host URI of the host to avoid
+     */
+    @SuppressWarnings("unchecked")
+    public static void addRequestContextExcludedHost(RequestContext context, URI host)
+    {
+      Set<URI> hosts = (Set<URI>)context.getLocalAttr(EXCLUDED_HOSTS_KEY_NAME);
+      if (hosts == null)
+      {
+        hosts = new HashSet<URI>();
+        context.putLocalAttr(EXCLUDED_HOSTS_KEY_NAME, hosts);
+      }
+      hosts.add(host);
+    }
+
+    /**
+     * @param context RequestContext for the request
+     * @return the hosts D2 should avoid for the request, never null
+     */
+    @SuppressWarnings("unchecked")
+    public static Set<URI> getRequestContextExcludedHosts(RequestContext context)
+    {
+      Set<URI> hosts = (Set<URI>)context.getLocalAttr(EXCLUDED_HOSTS_KEY_NAME);
+      return hosts == null ? Collections.<URI>emptySet() : hosts;
+    }
+
+    /**
+     * @param client a candidate host for the request
+     * @param excludedHosts the hosts to avoid, see {@link #getRequestContextExcludedHosts(RequestContext)}
+     * @return true if the request may be sent to the host: it is not excluded, and it has fewer
+     *         outstanding calls than it is allowed
+     */
+    public static boolean isAvailable(TrackerClient client, Set<URI> excludedHosts)
+    {
+      return !client.isAtConcurrencyLimit() && !excludedHosts.contains(client.getUri());
+    }
+
+    /**
+     * @param trackerClients the candidate hosts for the request
+     * @param excludedHosts the hosts to avoid, see {@link #getRequestContextExcludedHosts(RequestContext)}
+     * @return the candidates the request may be sent to, see {@link #isAvailable(TrackerClient, Set)};
+     *         trackerClients itself if all of them are
+     */
+    public static List<TrackerClient> getAvailableClients(List<TrackerClient> trackerClients, Set<URI> excludedHosts)
+    {
+      List<TrackerClient> available = null;
+      for (int i = 0; i < trackerClients.size(); i++)
+      {
+        TrackerClient client = trackerClients.get(i);
+        if (!isAvailable(client, excludedHosts))
+        {
+          if (available == null)
+          {
+            available = new ArrayList<TrackerClient>(trackerClients.subList(0, i));
+          }
+        }
+        else if (available != null)
+        {
+          available.add(client);
+        }
+      }
+      return available == null ? trackerClients : available;
+    }
+
+    /**
+     * @param context RequestContext for the request
+     * @return the number of times D2 retried the request
+     */
+    public static int getRequestContextRetryCount(RequestContext context)
+    {
+      Integer count = (Integer)context.getLocalAttr(RETRY_COUNT_KEY_NAME);
+      return count == null ? 0 : count;
+    }
+  }
 }
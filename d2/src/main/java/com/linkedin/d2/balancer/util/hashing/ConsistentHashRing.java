@@ -25,7 +25,9 @@ import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Set;
 import java.util.SortedSet;
 import java.util.TreeSet;
@@ -157,6 +159,48 @@ public class ConsistentHashRing<T> implements Ring<T>
 
     debug(_log, "searching for hash in ring of size ", _ring.length, " using hash: ", key);
 
+    return _objects[getIndex(key)];
+  }
+
+  /**
+   * Iterates over the objects of the ring in ring order, starting with the one {@link #get(int)}
+   * returns for the key, so that callers which can't use that object can fall back to its
+   * neighbours. An object is returned once for each of its points.
+   */
+  public Iterator<T> getIterator(int key)
+  {
+    final T[] objects = _objects;
+    final int start = objects.length <= 0 ? 0 : getIndex(key);
+    return new Iterator<T>()
+    {
+      private int _count = 0;
+
+      @Override
+      public boolean hasNext()
+      {
+        return _count < objects.length;
+      }
+
+      @Override
+      public T next()
+      {
+        if (!hasNext())
+        {
+          throw new NoSuchElementException();
+        }
+        return objects[(start + _count++) % objects.length];
+      }
+
+      @Override
+      public void remove()
+      {
+        throw new UnsupportedOperationException();
+      }
+    };
+  }
+
+  private int getIndex(int key)
+  {
     int index = Arrays.binarySearch(_ring, key);
 
     // if the index is negative, then no exact match was found, and the search function is
@@ -166,7 +210,7 @@ public class ConsistentHashRing<T> implements Ring<T>
       index = Math.abs(index + 1);
     }
 
-    return _objects[index % _objects.length];
+    return index % _objects.length;
   }
 
   public Set<Point<T>> getPoints()
@@ -33,6 +33,23 @@ public class MD5Hash implements HashFunction<String[]>
 {
   private static final Charset UTF8 = Charset.forName("UTF8");
   private static final byte[] ONE_NULL = new byte[] { 0x00 };
+  // MessageDigest.getInstance() looks up the provider every time, which costs more than hashing
+  // a short key; digests are not thread-safe, so keep one per thread
+  private static final ThreadLocal<MessageDigest> MD5 = new ThreadLocal<MessageDigest>()
+  {
+    @Override
+    protected MessageDigest initialValue()
+    {
+      try
+      {
+        return MessageDigest.getInstance("MD5");
+      }
+      catch (NoSuchAlgorithmException e)
+      {
+        throw new IllegalStateException(e);
+      }
+    }
+  };
 
   public int hash(String[] keyTokens)
   {
@@ -43,7 +60,22 @@ public class MD5Hash implements HashFunction<String[]>
 
   public long hashLong(String [] keyTokens)
   {
-    byte[] digest = getMD5Digest(keyTokens);
+    return toLong(getMD5Digest(keyTokens));
+  }
+
+  /**
+   * Same as {@link #hashLong(String[])} with a single token, without allocating the array.
+   */
+  public long hashLong(String key)
+  {
+    MessageDigest md = MD5.get();
+    md.update(key.getBytes(UTF8));
+    md.update(ONE_NULL);
+    return toLong(md.digest());
+  }
+
+  private static long toLong(byte[] digest)
+  {
     return ((0xffL & digest[8]) << 56) | ((0xffL & digest[9]) << 48) |
         ((0xffL & digest[10]) << 40) | ((0xffL & digest[11]) << 32) |
         ((0xffL & digest[12]) << 24) | ((0xffL & digest[13]) << 16) |
@@ -52,20 +84,14 @@ public class MD5Hash implements HashFunction<String[]>
 
   private byte[] getMD5Digest(String [] keyTokens)
   {
-    try
-    {
-      MessageDigest md = MessageDigest.getInstance("MD5");
-      for (int i = 0; i < keyTokens.length; i++)
-      {
-        md.update(keyTokens[i].getBytes(UTF8));
-        // Boundary between fields; 0x00 byte does not occur in UTF8 strings
-        md.update(ONE_NULL);
-      }
-      return md.digest();
-    }
-    catch (NoSuchAlgorithmException e)
+    // digest() resets the digest for the next use
+    MessageDigest md = MD5.get();
+    for (int i = 0; i < keyTokens.length; i++)
     {
-      throw new IllegalStateException(e);
+      md.update(keyTokens[i].getBytes(UTF8));
+      // Boundary between fields; 0x00 byte does not occur in UTF8 strings
+      md.update(ONE_NULL);
     }
+    return md.digest();
   }
 }
@@ -22,19 +22,36 @@ import java.util.regex.Pattern;
 
 public abstract class AbstractPartitionAccessor implements PartitionAccessor
 {
+  // a regex of this form, e.g. "/profiles/(\\d+)", is matched without the regex engine
+  private static final Pattern LITERAL_PREFIX_DIGITS = Pattern.compile("([\\w/=&:;,%@~-]*)\\(\\\\d\\+\\)");
+
   final private Pattern _pattern;
   final private int     _maxPartitionId;
+  // literal which precedes the key in the pattern, or null if the pattern is not of that form
+  final private String  _keyPrefix;
 
   public AbstractPartitionAccessor(String pattenStr, int maxPartitionId)
   {
     _pattern = Pattern.compile(pattenStr);
     _maxPartitionId = maxPartitionId;
+    _keyPrefix = LITERAL_PREFIX_DIGITS.matcher(pattenStr).matches() ? pattenStr.substring(0, pattenStr.indexOf('(')) : null;
   }
 
   @Override
   public int getPartitionId(URI uri) throws PartitionAccessException
   {
     final String uriString = uri.toString();
+    if (_keyPrefix != null)
+    {
+      final String key = findKeyAfterPrefix(uriString);
+      if (key == null)
+      {
+        throw new PartitionAccessException("Pattern: " + _pattern.toString()
+            + " does not match anything in request URI: " + uriString);
+      }
+      return getPartitionId(key);
+    }
+
     final Matcher matcher = _pattern.matcher(uriString);
     if (matcher.find())
     {
@@ -50,6 +67,52 @@ public abstract class AbstractPartitionAccessor implements PartitionAccessor
     }
   }
 
+  /**
+   * Same as finding the pattern <code>prefix(\d+)</code> in the string and returning the group.
+   */
+  private String findKeyAfterPrefix(String uriString)
+  {
+    int from = 0;
+    while (true)
+    {
+      final int index = uriString.indexOf(_keyPrefix, from);
+      if (index < 0)
+      {
+        return null;
+      }
+      final int start = index + _keyPrefix.length();
+      int end = start;
+      while (end < uriString.length() && uriString.charAt(end) >= '0' && uriString.charAt(end) <= '9')
+      {
+        end++;
+      }
+      if (end > start)
+      {
+        return uriString.substring(start, end);
+      }
+      from = index + 1;
+    }
+  }
+
+  /**
+   * Maps the keys one at a time; subclasses override this to avoid the per-key overhead.
+   */
+  @Override
+  public void getPartitionIds(String[] keys, int[] partitionIds)
+  {
+    for (int i = 0; i < keys.length; i++)
+    {
+      try
+      {
+        partitionIds[i] = getPartitionId(keys[i]);
+      }
+      catch (PartitionAccessException e)
+      {
+        partitionIds[i] = UNMAPPED_PARTITION_ID;
+      }
+    }
+  }
+
   @Override
   public int getMaxPartitionId()
   {
@@ -17,6 +17,7 @@
 package com.linkedin.d2.balancer.util.partitions;
 
 import java.net.URI;
+import java.util.Arrays;
 
 public class DefaultPartitionAccessor implements PartitionAccessor
 {
@@ -35,6 +36,11 @@ public class DefaultPartitionAccessor implements PartitionAccessor
     return DEFAULT_PARTITION_ID;
   }
   @Override
+  public void getPartitionIds(String[] keys, int[] partitionIds)
+  {
+    Arrays.fill(partitionIds, 0, keys.length, DEFAULT_PARTITION_ID);
+  }
+  @Override
   public int getMaxPartitionId()
   {
     return DefaultPartitionAccessor.DEFAULT_PARTITION_ID;
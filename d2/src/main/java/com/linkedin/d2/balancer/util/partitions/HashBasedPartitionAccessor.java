@@ -22,6 +22,8 @@ import com.linkedin.d2.balancer.util.hashing.MD5Hash;
 public class HashBasedPartitionAccessor extends AbstractPartitionAccessor
 {
   final private HashBasedPartitionProperties _properties;
+  final private MD5Hash _md5Hash = new MD5Hash();
+
   public HashBasedPartitionAccessor(HashBasedPartitionProperties properties)
   {
     super(properties.getPartitionKeyRegex(), properties.getPartitionCount() - 1);
@@ -47,10 +49,7 @@ public class HashBasedPartitionAccessor extends AbstractPartitionAccessor
         }
         break;
       case MD5:
-        MD5Hash hashFunction = new MD5Hash();
-        String[] keyStrings = new String[1];
-        keyStrings[0] = key;
-        longKey = hashFunction.hashLong(keyStrings);
+        longKey = _md5Hash.hashLong(key);
         break;
       default:
         // impossible to happen
@@ -59,4 +58,34 @@ public class HashBasedPartitionAccessor extends AbstractPartitionAccessor
 
     return Math.abs((int)(longKey % _properties.getPartitionCount()));
   }
+
+  @Override
+  public void getPartitionIds(String[] keys, int[] partitionIds)
+  {
+    final int partitionCount = _properties.getPartitionCount();
+    switch (_properties.getHashAlgorithm())
+    {
+      case MODULO:
+        for (int i = 0; i < keys.length; i++)
+        {
+          try
+          {
+            partitionIds[i] = Math.abs((int)(Long.parseLong(keys[i]) % partitionCount));
+          }
+          catch (NumberFormatException e)
+          {
+            partitionIds[i] = UNMAPPED_PARTITION_ID;
+          }
+        }
+        break;
+      case MD5:
+        for (int i = 0; i < keys.length; i++)
+        {
+          partitionIds[i] = Math.abs((int)(_md5Hash.hashLong(keys[i]) % partitionCount));
+        }
+        break;
+      default:
+        super.getPartitionIds(keys, partitionIds);
+    }
+  }
 }
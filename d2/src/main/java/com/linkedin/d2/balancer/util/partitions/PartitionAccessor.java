@@ -25,8 +25,25 @@ import java.net.URI;
  */
 public interface PartitionAccessor
 {
+  /**
+   * Partition id of keys which can not be mapped to a partition by {@link #getPartitionIds(String[], int[])}.
+   */
+  int UNMAPPED_PARTITION_ID = -1;
+
   int getPartitionId(URI uri) throws PartitionAccessException;
   int getPartitionId(String key) throws PartitionAccessException;
+
+  /**
+   * Map a batch of keys to partitions. Equivalent to calling {@link #getPartitionId(String)} for
+   * each key, but without the per-key overhead (exceptions, hasher creation, ...).
+   *
+   * @param keys the partitioning keys
+   * @param partitionIds receives the partition id of keys[i] at index i, or
+   *                     {@link #UNMAPPED_PARTITION_ID} if the key can not be mapped. Must be at
+   *                     least as long as keys.
+   */
+  void getPartitionIds(String[] keys, int[] partitionIds);
+
   int getMaxPartitionId();
 }
 
@@ -49,7 +49,7 @@ public class RangeBasedPartitionAccessor extends AbstractPartitionAccessor
         throw new PartitionAccessException("Partition id out of range: " + partitionId + ", partitionId range is [0, "+
         + (partitionCount - 1) + "]" );
       }
-      _log.debug("Getting partitionId for key (" + key + "): " + partitionId);
+      _log.debug("Getting partitionId for key ({}): {}", key, partitionId);
       return partitionId;
     }
     catch (NumberFormatException e)
@@ -57,4 +57,33 @@ public class RangeBasedPartitionAccessor extends AbstractPartitionAccessor
       throw new PartitionAccessException("Using RangeBasedPartitions. Keys should be long values, but failed to parse key to long: " + key);
     }
   }
+
+  @Override
+  public void getPartitionIds(String[] keys, int[] partitionIds)
+  {
+    final long keyRangeStart = _properties.getKeyRangeStart();
+    final long partitionSize = _properties.getPartitionSize();
+    final int partitionCount = _properties.getPartitionCount();
+    for (int i = 0; i < keys.length; i++)
+    {
+      int partitionId = UNMAPPED_PARTITION_ID;
+      try
+      {
+        long longKey = Long.parseLong(keys[i]);
+        if (longKey >= 0)
+        {
+          int id = (int) ((longKey - keyRangeStart) / partitionSize);
+          if (id >= 0 && id < partitionCount)
+          {
+            partitionId = id;
+          }
+        }
+      }
+      catch (NumberFormatException e)
+      {
+        // unmapped
+      }
+      partitionIds[i] = partitionId;
+    }
+  }
 }
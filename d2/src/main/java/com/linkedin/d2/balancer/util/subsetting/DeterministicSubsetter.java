@@ -0,0 +1,121 @@
+/*
+   Copyright (c) 2012 LinkedIn Corp.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.linkedin.d2.balancer.util.subsetting;
+
+import com.linkedin.d2.balancer.properties.PartitionData;
+import com.linkedin.d2.balancer.properties.UriProperties;
+import com.linkedin.d2.balancer.util.hashing.MD5Hash;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Chooses a bounded subset of the hosts of a cluster for one client, so that the client only
+ * tracks and connects to those hosts.<p/>
+ *
+ * The subset is chosen by rendezvous (highest random weight) hashing: every URI is scored by
+ * hashing it together with the client id, and the highest scoring URIs are selected.  The choice
+ * is therefore deterministic for a given client id, spreads clients evenly over the hosts, and
+ * only changes for the hosts that join or leave the cluster.  The subset size applies to each
+ * scheme and partition separately, so every partition stays reachable.<p/>
+ *
+ * This class is thread-safe.
+ */
+public class DeterministicSubsetter
+{
+  private final String _clientId;
+  private final MD5Hash _hash = new MD5Hash();
+
+  /**
+   * @param clientId identifies this client; clients with the same id get the same subset.
+   */
+  public DeterministicSubsetter(String clientId)
+  {
+    _clientId = clientId;
+  }
+
+  public String getClientId()
+  {
+    return _clientId;
+  }
+
+  /**
+   * @param uriProperties the hosts of the cluster
+   * @param subsetSize maximum number of hosts to choose for each scheme and partition
+   * @return the URIs this client should use
+   */
+  public Set<URI> getSubset(UriProperties uriProperties, int subsetSize)
+  {
+    Map<URI, Map<Integer, PartitionData>> partitionDesc = uriProperties.getPartitionDesc();
+    if (subsetSize <= 0 || partitionDesc.size() <= subsetSize)
+    {
+      return uriProperties.Uris();
+    }
+
+    final Map<URI, Long> scores = new HashMap<URI, Long>(partitionDesc.size() * 2);
+    Map<String, List<URI>> urisByGroup = new HashMap<String, List<URI>>();
+    for (Map.Entry<URI, Map<Integer, PartitionData>> entry : partitionDesc.entrySet())
+    {
+      URI uri = entry.getKey();
+      scores.put(uri, _hash.hashLong(new String[] { _clientId, uri.toString() }));
+      for (Integer partitionId : entry.getValue().keySet())
+      {
+        String group = uri.getScheme() + ':' + partitionId;
+        List<URI> uris = urisByGroup.get(group);
+        if (uris == null)
+        {
+          uris = new ArrayList<URI>();
+          urisByGroup.put(group, uris);
+        }
+        uris.add(uri);
+      }
+    }
+
+    Comparator<URI> byScore = new Comparator<URI>()
+    {
+      @Override
+      public int compare(URI a, URI b)
+      {
+        int result = scores.get(b).compareTo(scores.get(a));
+        // break (unlikely) ties deterministically
+        return result != 0 ? result : a.compareTo(b);
+      }
+    };
+
+    Set<URI> subset = new HashSet<URI>();
+    for (List<URI> uris : urisByGroup.values())
+    {
+      if (uris.size() <= subsetSize)
+      {
+        subset.addAll(uris);
+      }
+      else
+      {
+        Collections.sort(uris, byScore);
+        subset.addAll(uris.subList(0, subsetSize));
+      }
+    }
+    return subset;
+  }
+}
@@ -49,11 +49,13 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.File;
+import java.io.IOException;
 import java.net.URI;
 import java.util.Map;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
 
 /**
@@ -71,6 +73,12 @@ public class ZKFSLoadBalancer
 {
   private static final Logger LOG = LoggerFactory.getLogger(ZKFSLoadBalancer.class);
 
+  /**
+   * Name of the file, in the warm start directory, whose modification time records when the
+   * backup stores were last known to be in sync with ZooKeeper.
+   */
+  public static final String SNAPSHOT_SYNC_MARKER = ".d2-synced";
+
   private final String _connectString;
   private final int _sessionTimeout;
   private final int _initialZKTimeout;
@@ -81,6 +89,22 @@ public class ZKFSLoadBalancer
   private volatile long _delayedExecution;
   private final ScheduledExecutorService _executor;
   private final KeyMapper _keyMapper;
+  private final File _warmStartDir;
+  private final long _warmStartMaxStaleness;
+
+  /**
+   * Whether the primary ZK stores are currently enabled, i.e. the backup stores are being kept
+   * in sync with ZooKeeper.
+   */
+  private volatile boolean _primaryEnabled;
+
+  /**
+   * Whether requests are served from the backup stores the load balancer warm started from,
+   * which have not been synced with ZooKeeper since, and when they become too stale to serve.
+   */
+  private volatile boolean _servingSnapshot;
+  private volatile long _snapshotExpiresAt;
+  private final AtomicBoolean _syncMarkerRefreshScheduled = new AtomicBoolean();
 
   /**
    * The current ZooKeeper connection.  May be in the process of starting.
@@ -117,6 +141,39 @@ public class ZKFSLoadBalancer
                           TogglingLoadBalancerFactory factory,
                           String zkFlagFile,
                           String basePath)
+  {
+    this(zkConnectString, sessionTimeout, initialZKTimeout, factory, zkFlagFile, basePath, null, 0);
+  }
+
+  /**
+   *
+   * @param zkConnectString Connect string listing ZK ensemble hosts in ZK format
+   * @param sessionTimeout timeout (in milliseconds) of ZK session
+   * @param initialZKTimeout initial timeout for connecting to ZK; if no connection is established
+   * within this time, falls back to backup stores
+   * @param factory Factory configured to create appropriate ZooKeeper session-specific
+   * LoadBalancer instances
+   * @param zkFlagFile if non-null, the path to a File whose existence is used as a flag
+   * to suppress the use of ZooKeeper stores.
+   * @param basePath Path to the root ZNode where discovery information is stored
+   * @param warmStartDir root directory of the backup file stores created by the factory, or null
+   * to disable warm start
+   * @param warmStartMaxStaleness if positive, and the backup stores were in sync with ZooKeeper
+   * at most this many milliseconds ago, the load balancer starts from the backup stores
+   * immediately and switches to ZooKeeper in the background once connected; subscribers are
+   * then only notified of properties whose values differ.  While connected, the sync time is
+   * refreshed every quarter of this period.  Requests fail with
+   * {@link ServiceUnavailableException} once the backup stores started from are older than this
+   * and ZooKeeper has still not been reached.
+   */
+  public ZKFSLoadBalancer(String zkConnectString,
+                          int sessionTimeout,
+                          int initialZKTimeout,
+                          TogglingLoadBalancerFactory factory,
+                          String zkFlagFile,
+                          String basePath,
+                          String warmStartDir,
+                          long warmStartMaxStaleness)
   {
     _connectString = zkConnectString;
     _sessionTimeout = sessionTimeout;
@@ -135,6 +192,8 @@ public class ZKFSLoadBalancer
     _executor = Executors.newSingleThreadScheduledExecutor(new NamedThreadFactory("D2 PropertyEventExecutor"));
     _keyMapper = new ConsistentHashKeyMapper(this);
     _delayedExecution = 1000;
+    _warmStartDir = warmStartDir == null ? null : new File(warmStartDir);
+    _warmStartMaxStaleness = warmStartMaxStaleness;
   }
 
   public long getDelayedExecution()
@@ -150,6 +209,12 @@ public class ZKFSLoadBalancer
   @Override
   public TransportClient getClient(Request request, RequestContext requestContext) throws ServiceUnavailableException
   {
+    if (_servingSnapshot && System.currentTimeMillis() > _snapshotExpiresAt)
+    {
+      throw new ServiceUnavailableException(request.getURI().toString(),
+                                            "backup stores were last synced with ZooKeeper more than "
+                                                + _warmStartMaxStaleness + "ms ago");
+    }
     return _currentLoadBalancer.getClient(request, requestContext);
   }
 
@@ -157,6 +222,10 @@ public class ZKFSLoadBalancer
   public void shutdown(final PropertyEventThread.PropertyEventShutdownCallback callback)
   {
     LOG.info("Shutting down");
+    if (_primaryEnabled)
+    {
+      markSnapshotSynced();
+    }
     _currentLoadBalancer.shutdown(new PropertyEventThread.PropertyEventShutdownCallback()
     {
       @Override
@@ -205,6 +274,8 @@ public class ZKFSLoadBalancer
     // _currentLoadBalancer will never be null except the first time this method is called.
     // In this case we want the not-yet-started load balancer to service client requests.  In
     // all other cases, we service requests from the old LoadBalancer until the new one is started
+    final long snapshotExpiresAt = _currentLoadBalancer == null ? getSnapshotExpiry() : 0;
+    final boolean warmStart = snapshotExpiresAt > 0;
     if (_currentLoadBalancer == null)
     {
       _currentLoadBalancer = balancer;
@@ -235,6 +306,17 @@ public class ZKFSLoadBalancer
       @Override
       public void innerRun()
       {
+        if (warmStart)
+        {
+          // Serve from the snapshot right away; the ZK stores are enabled in the background
+          // when the session is established, as after any reconnect.
+          LOG.info("Warm starting from backup stores in {}", _warmStartDir.getAbsolutePath());
+          _snapshotExpiresAt = snapshotExpiresAt;
+          _servingSnapshot = true;
+          balancer.enableBackup(getStartupOrLoggerCallback());
+        }
+
+        scheduleSyncMarkerRefresh();
         _zkConnection.addStateListener(new ZKListener(balancer));
         try
         {
@@ -243,9 +325,7 @@ public class ZKFSLoadBalancer
         catch (Exception e)
         {
           LOG.error("Failed to start ZooKeeper (bad configuration?), enabling backup stores", e);
-          Callback<None> startupCallback = _startupCallback.getAndSet(null);
-          // TODO this should never be null
-          balancer.enableBackup(startupCallback);
+          balancer.enableBackup(getStartupOrLoggerCallback());
           return;
         }
 
@@ -351,6 +431,76 @@ public class ZKFSLoadBalancer
     return _zkFlagFile != null && _zkFlagFile.exists();
   }
 
+  /**
+   * @return the time, in milliseconds since the epoch, until which the backup stores are recent
+   *         enough to warm start from, or 0 if the load balancer should not warm start.
+   */
+  private long getSnapshotExpiry()
+  {
+    if (_warmStartDir == null || _warmStartMaxStaleness <= 0)
+    {
+      return 0;
+    }
+    File marker = new File(_warmStartDir, SNAPSHOT_SYNC_MARKER);
+    if (!marker.exists())
+    {
+      LOG.info("No ZooKeeper sync marker in {}, not warm starting", _warmStartDir.getAbsolutePath());
+      return 0;
+    }
+    long age = System.currentTimeMillis() - marker.lastModified();
+    if (age > _warmStartMaxStaleness)
+    {
+      LOG.info("Backup stores were last synced with ZooKeeper {}ms ago, exceeding {}ms; not warm starting",
+               age, _warmStartMaxStaleness);
+      return 0;
+    }
+    return marker.lastModified() + _warmStartMaxStaleness;
+  }
+
+  /**
+   * Refresh the sync marker periodically while the backup stores are kept in sync with ZooKeeper,
+   * so that it stays recent if the process dies without shutting down.
+   */
+  private void scheduleSyncMarkerRefresh()
+  {
+    if (_warmStartDir == null || _warmStartMaxStaleness <= 0 || !_syncMarkerRefreshScheduled.compareAndSet(false, true))
+    {
+      return;
+    }
+    final long period = Math.max(1000, _warmStartMaxStaleness / 4);
+    _executor.scheduleWithFixedDelay(new Runnable()
+    {
+      @Override
+      public void run()
+      {
+        if (_primaryEnabled)
+        {
+          markSnapshotSynced();
+        }
+      }
+    }, period, period, TimeUnit.MILLISECONDS);
+  }
+
+  private void markSnapshotSynced()
+  {
+    if (_warmStartDir == null)
+    {
+      return;
+    }
+    File marker = new File(_warmStartDir, SNAPSHOT_SYNC_MARKER);
+    try
+    {
+      if (!marker.createNewFile() && !marker.setLastModified(System.currentTimeMillis()))
+      {
+        LOG.warn("Unable to update ZooKeeper sync marker {}", marker.getAbsolutePath());
+      }
+    }
+    catch (IOException e)
+    {
+      LOG.warn("Unable to create ZooKeeper sync marker " + marker.getAbsolutePath(), e);
+    }
+  }
+
   private Callback<None> getStartupOrLoggerCallback()
   {
     Callback<None> callback = _startupCallback.getAndSet(null);
@@ -412,6 +562,9 @@ public class ZKFSLoadBalancer
                   @Override
                   public void onSuccess(None result)
                   {
+                    _primaryEnabled = true;
+                    _servingSnapshot = false;
+                    markSnapshotSynced();
                     getStartupOrLoggerCallback().onSuccess(result);
                   }
 
@@ -430,6 +583,7 @@ public class ZKFSLoadBalancer
             {
               // TOGGLE OFF and let the bus/filestore respond to subscription requests
               LOG.info("Enabling backup stores");
+              _primaryEnabled = false;
               _balancer.enableBackup(getStartupOrLoggerCallback());
               break;
             }
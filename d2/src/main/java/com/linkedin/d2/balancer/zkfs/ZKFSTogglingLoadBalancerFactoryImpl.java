@@ -74,6 +74,8 @@ public class ZKFSTogglingLoadBalancerFactoryImpl implements ZKFSLoadBalancer.Tog
   private final SSLContext _sslContext;
   private final SSLParameters _sslParameters;
   private final boolean _isSSLEnabled;
+  private final int _eventLaneCount;
+  private final String _localZone;
 
   private static final Logger _log = LoggerFactory.getLogger(ZKFSTogglingLoadBalancerFactoryImpl.class);
 
@@ -143,6 +145,39 @@ public class ZKFSTogglingLoadBalancerFactoryImpl implements ZKFSLoadBalancer.Tog
                                              SSLContext sslContext,
                                              SSLParameters sslParameters,
                                              boolean isSSLEnabled)
+  {
+    this(factory, timeout, timeoutUnit, baseZKPath, fsDir, clientFactories, loadBalancerStrategyFactories,
+         d2ServicePath, sslContext, sslParameters, isSSLEnabled, 0, null);
+  }
+
+  /**
+   *
+   * @param timeout Timeout for individual LoadBalancer operations
+   * @param timeoutUnit Unit for the timeout
+   * @param baseZKPath Path to the root ZNode where discovery information is stored
+   * @param fsDir Path to the root filesystem directory where backup file stores will live
+   * @param clientFactories Factory for transport clients
+   * @param loadBalancerStrategyFactories Factory for LoadBalancer strategies
+   * @param d2ServicePath  alternate service discovery znodes path, relative to baseZKPath.
+   *                       d2ServicePath is "services" if it is an empty string or null.
+   * @param sslContext sslContext needed for SSL support
+   * @param sslParameters parameters needed for SSL support
+   * @param isSSLEnabled boolean whether to enable SSL in the https transport client
+   * @param eventLaneCount number of threads on which the load balancer state applies updates for
+   *                       different clusters in parallel, or 0 to apply them on the event thread
+   * @param localZone zone of this client, preferred by services with locality routing, or null
+   */
+  public ZKFSTogglingLoadBalancerFactoryImpl(ComponentFactory factory,
+                                             long timeout, TimeUnit timeoutUnit,
+                                             String baseZKPath, String fsDir,
+                                             Map<String, TransportClientFactory> clientFactories,
+                                             Map<String, LoadBalancerStrategyFactory<? extends LoadBalancerStrategy>> loadBalancerStrategyFactories,
+                                             String d2ServicePath,
+                                             SSLContext sslContext,
+                                             SSLParameters sslParameters,
+                                             boolean isSSLEnabled,
+                                             int eventLaneCount,
+                                             String localZone)
   {
     _factory = factory;
     _lbTimeout = timeout;
@@ -163,6 +198,8 @@ public class ZKFSTogglingLoadBalancerFactoryImpl implements ZKFSLoadBalancer.Tog
     _sslContext = sslContext;
     _sslParameters = sslParameters;
     _isSSLEnabled = isSSLEnabled;
+    _eventLaneCount = eventLaneCount;
+    _localZone = localZone;
   }
 
   @Override
@@ -180,9 +217,15 @@ public class ZKFSTogglingLoadBalancerFactoryImpl implements ZKFSLoadBalancer.Tog
     FileStore<ServiceProperties> fsServiceStore = createFileStore(_d2ServicePath, new ServicePropertiesJsonSerializer());
     FileStore<UriProperties> fsUriStore = createFileStore("uris", new UriPropertiesJsonSerializer());
 
-    PropertyEventBus<ClusterProperties> clusterBus = new PropertyEventBusImpl<ClusterProperties>(executorService);
-    PropertyEventBus<ServiceProperties> serviceBus = new PropertyEventBusImpl<ServiceProperties>(executorService);
-    PropertyEventBus<UriProperties> uriBus = new PropertyEventBusImpl<UriProperties>(executorService);
+    PropertyEventBusImpl<ClusterProperties> clusterBus = new PropertyEventBusImpl<ClusterProperties>(executorService);
+    PropertyEventBusImpl<ServiceProperties> serviceBus = new PropertyEventBusImpl<ServiceProperties>(executorService);
+    PropertyEventBusImpl<UriProperties> uriBus = new PropertyEventBusImpl<UriProperties>(executorService);
+
+    // When switching from the backup stores to ZooKeeper, e.g. after a warm start, only
+    // properties which changed in the meantime are published to the load balancer state again.
+    clusterBus.setReconcilingPublisher(zkClusterRegistry);
+    serviceBus.setReconcilingPublisher(zkServiceRegistry);
+    uriBus.setReconcilingPublisher(zkUriRegistry);
 
     // This ensures the filesystem store receives the events from the event bus so that
     // it can keep a local backup.
@@ -200,7 +243,8 @@ public class ZKFSTogglingLoadBalancerFactoryImpl implements ZKFSLoadBalancer.Tog
 
     SimpleLoadBalancerState state = new SimpleLoadBalancerState(
             executorService, uriBus, clusterBus, serviceBus, _clientFactories, _loadBalancerStrategyFactories,
-            _sslContext, _sslParameters, _isSSLEnabled);
+            _sslContext, _sslParameters, _isSSLEnabled, _eventLaneCount);
+    state.setLocalZone(_localZone);
     SimpleLoadBalancer balancer = new SimpleLoadBalancer(state, _lbTimeout, _lbTimeoutUnit);
 
     TogglingLoadBalancer togLB = _factory.createBalancer(balancer, state, clusterToggle, serviceToggle, uriToggle);
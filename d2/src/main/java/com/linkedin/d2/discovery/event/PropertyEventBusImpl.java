@@ -39,6 +39,7 @@ public class PropertyEventBusImpl<T> implements PropertyEventBus<T>
 {
   private final PropertyEventThread _thread;
   private PropertyEventPublisher<T> _publisher;
+  private PropertyEventPublisher<T> _reconcilingPublisher;
   private final Map<String,T> _properties = new HashMap<String,T>();
   private final Map<String,List<PropertyEventSubscriber<T>>> _subscribers = new HashMap<String,List<PropertyEventSubscriber<T>>>();
   private final List<PropertyEventSubscriber<T>> _allPropertySubscribers = new ArrayList<PropertyEventSubscriber<T>>();
@@ -188,6 +189,26 @@ public class PropertyEventBusImpl<T> implements PropertyEventBus<T>
     });
   }
 
+  /**
+   * Reconcile the initial values published by the given publisher, when it replaces another
+   * publisher, with the values the bus already has: properties whose values are unchanged are
+   * not published to subscribers again.  This avoids rebuilding subscriber state when switching
+   * to a publisher which is expected to agree with the previous one, e.g. from the backup store
+   * of a warm start to ZooKeeper.
+   *
+   * @param publisher the publisher whose initial values are reconciled
+   */
+  public void setReconcilingPublisher(final PropertyEventPublisher<T> publisher)
+  {
+    _thread.send(new PropertyEvent("PropertyEventBus.setReconcilingPublisher")
+    {
+      public void innerRun()
+      {
+        _reconcilingPublisher = publisher;
+      }
+    });
+  }
+
   @Override
   public void publishInitialize(final String prop, final T value)
   {
@@ -199,6 +220,12 @@ public class PropertyEventBusImpl<T> implements PropertyEventBus<T>
         // an "initialize", but if the bus has previously seen that property, we will treat
         // it as an "add" so that the publisher change will be transparent to the clients.
         boolean doAdd = _properties.containsKey(prop);
+        if (doAdd && _publisher == _reconcilingPublisher && equal(_properties.get(prop), value))
+        {
+          // The new publisher agrees with what subscribers already have; don't make them
+          // rebuild state.
+          return;
+        }
         _properties.put(prop, value);
         List<PropertyEventSubscriber<T>> waiters = subscribers(prop);
         for (final PropertyEventSubscriber<T> waiter : waiters)
@@ -256,6 +283,11 @@ public class PropertyEventBusImpl<T> implements PropertyEventBus<T>
     });
   }
 
+  private static boolean equal(Object a, Object b)
+  {
+    return a == null ? b == null : a.equals(b);
+  }
+
   private List<PropertyEventSubscriber<T>> subscribers(String prop)
   {
     List<PropertyEventSubscriber<T>> subscribers = _subscribers.get(prop);
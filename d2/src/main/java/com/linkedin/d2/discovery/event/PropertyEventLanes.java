@@ -0,0 +1,232 @@
+/*
+   Copyright (c) 2012 LinkedIn Corp.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.linkedin.d2.discovery.event;
+
+import static com.linkedin.d2.discovery.util.LogUtil.warn;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.linkedin.d2.discovery.event.PropertyEventThread.PropertyEvent;
+import com.linkedin.d2.discovery.event.PropertyEventThread.PropertyEventShutdownCallback;
+
+
+/**
+ * A fixed set of {@link PropertyEventThread}s ("lanes"). Events sent with the same key are
+ * always processed by the same lane, in the order they were sent, while events for keys that
+ * map to different lanes are processed in parallel.
+ */
+public class PropertyEventLanes
+{
+  private static final Logger _log = LoggerFactory.getLogger(PropertyEventLanes.class);
+
+  private final PropertyEventThread[] _lanes;
+
+  // guarded by this
+  private boolean _shutdown;
+
+  public PropertyEventLanes(String name, int laneCount)
+  {
+    if (laneCount < 1)
+    {
+      throw new IllegalArgumentException("laneCount must be positive: " + laneCount);
+    }
+    _lanes = new PropertyEventThread[laneCount];
+    for (int i = 0; i < laneCount; i++)
+    {
+      _lanes[i] = new PropertyEventThread(name + "-lane-" + i, Integer.MAX_VALUE, true);
+    }
+  }
+
+  /**
+   * @return false if the event was not queued, e.g. because the lanes are shut down.
+   */
+  public synchronized boolean send(String key, PropertyEvent event)
+  {
+    if (_shutdown)
+    {
+      warn(_log, "dropping event sent after shutdown: ", event);
+      return false;
+    }
+    return getLane(key).send(event);
+  }
+
+  /**
+   * Send an event which is ordered with the events of all of the given keys: it runs once the
+   * lanes of these keys have processed the events sent to them before it, and none of them
+   * processes the events sent after it until it has completed.
+   *
+   * @return false if the event was not queued, e.g. because the lanes are shut down.
+   */
+  public synchronized boolean send(Collection<String> keys, final PropertyEvent event)
+  {
+    if (_shutdown)
+    {
+      warn(_log, "dropping event sent after shutdown: ", event);
+      return false;
+    }
+
+    Set<Integer> laneIndexes = new TreeSet<Integer>();
+    for (String key : keys)
+    {
+      laneIndexes.add(getLaneIndex(key));
+    }
+    Iterator<Integer> it = laneIndexes.iterator();
+    PropertyEventThread runner = _lanes[it.next()];
+    if (!it.hasNext())
+    {
+      return runner.send(event);
+    }
+
+    // Every lane waits for the event at the same position in its queue. Events spanning several
+    // lanes are only queued while holding the lock, so they are queued in the same order on every
+    // lane, and lanes can't end up waiting for each other.
+    final CountDownLatch arrived = new CountDownLatch(laneIndexes.size() - 1);
+    final CountDownLatch completed = new CountDownLatch(1);
+    boolean sent = runner.send(new PropertyEvent(event.toString())
+    {
+      @Override
+      public void innerRun()
+      {
+        try
+        {
+          awaitUninterruptibly(arrived);
+          event.run();
+        }
+        finally
+        {
+          completed.countDown();
+        }
+      }
+    });
+    while (it.hasNext())
+    {
+      sent &= _lanes[it.next()].send(new PropertyEvent("wait for " + event)
+      {
+        @Override
+        public void innerRun()
+        {
+          arrived.countDown();
+          awaitUninterruptibly(completed);
+        }
+      });
+    }
+    return sent;
+  }
+
+  private static void awaitUninterruptibly(CountDownLatch latch)
+  {
+    boolean interrupted = false;
+    while (true)
+    {
+      try
+      {
+        latch.await();
+        break;
+      }
+      catch (InterruptedException e)
+      {
+        interrupted = true;
+      }
+    }
+    if (interrupted)
+    {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  public PropertyEventThread getLane(String key)
+  {
+    return _lanes[getLaneIndex(key)];
+  }
+
+  private int getLaneIndex(String key)
+  {
+    return (key.hashCode() & Integer.MAX_VALUE) % _lanes.length;
+  }
+
+  public PropertyEventThread getLane(int index)
+  {
+    return _lanes[index];
+  }
+
+  public int getLaneCount()
+  {
+    return _lanes.length;
+  }
+
+  /**
+   * Stop all lanes once the events already queued have been processed.
+   */
+  public void shutdown()
+  {
+    shutdown(new PropertyEventShutdownCallback()
+    {
+      @Override
+      public void done()
+      {
+      }
+    });
+  }
+
+  /**
+   * Stop accepting events, and stop all lanes once the events already queued have been
+   * processed.
+   *
+   * @param callback invoked, on one of the lanes, once every lane has processed its last event.
+   */
+  public synchronized void shutdown(final PropertyEventShutdownCallback callback)
+  {
+    if (_shutdown)
+    {
+      warn(_log, "lanes already shut down");
+      return;
+    }
+    _shutdown = true;
+
+    final AtomicInteger remaining = new AtomicInteger(_lanes.length);
+    for (PropertyEventThread lane : _lanes)
+    {
+      lane.send(new PropertyEvent("shutdown lane")
+      {
+        @Override
+        public void innerRun()
+        {
+          try
+          {
+            if (remaining.decrementAndGet() == 0)
+            {
+              callback.done();
+            }
+          }
+          finally
+          {
+            // nothing is queued after this event, so the lane stops right away
+            Thread.currentThread().interrupt();
+          }
+        }
+      });
+    }
+  }
+}
@@ -35,6 +35,11 @@ public class PropertyEventThread extends Thread
 
   private BlockingQueue<PropertyEvent> _messages;
 
+  // written only by this thread
+  private volatile long _processedMessageCount;
+  private volatile long _totalProcessingTimeNanos;
+  private volatile long _maxProcessingTimeNanos;
+
   public PropertyEventThread(String name)
   {
     this(name, Integer.MAX_VALUE);
@@ -68,6 +73,22 @@ public class PropertyEventThread extends Thread
     return _messages.size();
   }
 
+  public long getProcessedMessageCount()
+  {
+    return _processedMessageCount;
+  }
+
+  public double getAverageProcessingTimeMs()
+  {
+    long count = _processedMessageCount;
+    return count == 0 ? 0 : _totalProcessingTimeNanos / (double) count / 1000000;
+  }
+
+  public double getMaxProcessingTimeMs()
+  {
+    return _maxProcessingTimeNanos / 1000000d;
+  }
+
   @Override
   public void start()
   {
@@ -121,7 +142,15 @@ public class PropertyEventThread extends Thread
 
         if (message != null)
         {
+          long start = System.nanoTime();
           message.run();
+          long duration = System.nanoTime() - start;
+          _totalProcessingTimeNanos += duration;
+          _processedMessageCount++;
+          if (duration > _maxProcessingTimeNanos)
+          {
+            _maxProcessingTimeNanos = duration;
+          }
         }
         else
         {
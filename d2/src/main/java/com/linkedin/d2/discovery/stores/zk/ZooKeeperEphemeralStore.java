@@ -18,10 +18,12 @@ package com.linkedin.d2.discovery.stores.zk;
 
 import static com.linkedin.d2.discovery.util.LogUtil.trace;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -31,6 +33,7 @@ import org.apache.zookeeper.AsyncCallback;
 import org.apache.zookeeper.CreateMode;
 import org.apache.zookeeper.KeeperException;
 import org.apache.zookeeper.WatchedEvent;
+import org.apache.zookeeper.Watcher;
 import org.apache.zookeeper.ZooDefs;
 import org.apache.zookeeper.data.Stat;
 import org.slf4j.Logger;
@@ -51,7 +54,13 @@ public class ZooKeeperEphemeralStore<T> extends ZooKeeperStore<T>
   private final ZKStoreWatcher _zkStoreWatcher = new ZKStoreWatcher();
 
   private final boolean _watchChildNodes;
+  private final long _fullReconciliationIntervalNanos;
   private static final Pattern PATH_PATTERN    = Pattern.compile("(.*)/(.*)$");
+  public static final long DEFAULT_FULL_RECONCILIATION_INTERVAL = 600000;
+
+  // Data of the children of published properties, keyed by path.  Only accessed from the
+  // ZooKeeper event thread.
+  private final Map<String, ChildrenState> _childrenStates = new HashMap<String, ChildrenState>();
 
   public ZooKeeperEphemeralStore(ZKConnection client,
                                  PropertySerializer<T> serializer,
@@ -66,10 +75,27 @@ public class ZooKeeperEphemeralStore<T> extends ZooKeeperStore<T>
                                  ZooKeeperPropertyMerger<T> merger,
                                  String path,
                                  boolean watchChildNodes)
+  {
+    this(client, serializer, merger, path, watchChildNodes, DEFAULT_FULL_RECONCILIATION_INTERVAL);
+  }
+
+  /**
+   * @param fullReconciliationInterval when publishing, only the data of added or changed children
+   *                                   is read on a change; once this many milliseconds have passed
+   *                                   since the data of all children was last read, the next change
+   *                                   re-reads all of them.
+   */
+  public ZooKeeperEphemeralStore(ZKConnection client,
+                                 PropertySerializer<T> serializer,
+                                 ZooKeeperPropertyMerger<T> merger,
+                                 String path,
+                                 boolean watchChildNodes,
+                                 long fullReconciliationInterval)
   {
     super(client, serializer, path);
     _merger = merger;
     _watchChildNodes = watchChildNodes;
+    _fullReconciliationIntervalNanos = TimeUnit.MILLISECONDS.toNanos(fullReconciliationInterval);
   }
 
   @Override
@@ -256,6 +282,120 @@ public class ZooKeeperEphemeralStore<T> extends ZooKeeperStore<T>
     }
   }
 
+  /**
+   * Merge the children of a published property, reading only the data of children which are not
+   * known yet.  Children which disappeared are dropped without any reads, and all children are
+   * read again on initialization or if the last full read is older than the reconciliation
+   * interval.  While reads are outstanding for a property, further updates are deferred and
+   * coalesced into a single new getChildren once the reads complete.
+   */
+  private void updateChildren(final String path,
+                              final List<String> children,
+                              final boolean init,
+                              final ZKStoreWatcher watcher,
+                              final Callback<T> callback)
+  {
+    if (!watcher.containsWatch(path))
+    {
+      // publishing was stopped, don't keep the children around
+      _childrenStates.remove(path);
+      getMergedChildren(path, children, watcher, callback);
+      return;
+    }
+
+    final String propertyName = getPropertyForPath(path);
+    final long now = System.nanoTime();
+
+    ChildrenState existingState = _childrenStates.get(path);
+    if (existingState != null && existingState._reading)
+    {
+      existingState._rerun = true;
+      existingState._rerunInit |= init;
+      return;
+    }
+    if (existingState == null || init || now - existingState._lastFullRead >= _fullReconciliationIntervalNanos)
+    {
+      existingState = new ChildrenState(now);
+      _childrenStates.put(path, existingState);
+    }
+    final ChildrenState state = existingState;
+
+    state._data.keySet().retainAll(children);
+    final List<String> toRead = new ArrayList<String>();
+    for (String child : children)
+    {
+      if (!state._data.containsKey(child))
+      {
+        toRead.add(child);
+      }
+    }
+
+    _log.debug("updateChildren: {} children, reading {}", children.size(), toRead);
+    if (toRead.isEmpty())
+    {
+      callback.onSuccess(_merger.merge(propertyName, state._data.values()));
+      return;
+    }
+
+    state._reading = true;
+    final ChildCollector collector = new ChildCollector(toRead.size(), new Callback<Map<String,T>>()
+    {
+      @Override
+      public void onSuccess(Map<String,T> values)
+      {
+        state._data.putAll(values);
+        state._reading = false;
+        // don't publish if the property was removed while the reads were outstanding
+        if (_childrenStates.get(path) == state)
+        {
+          callback.onSuccess(_merger.merge(propertyName, state._data.values()));
+        }
+        rerunIfNeeded(path, state, watcher);
+      }
+
+      @Override
+      public void onError(Throwable e)
+      {
+        _childrenStates.remove(path);
+        state._reading = false;
+        callback.onError(e);
+        rerunIfNeeded(path, state, watcher);
+      }
+    });
+    for (String child : toRead)
+    {
+      _zk.getData(path + "/" + child, (_watchChildNodes) ? watcher : null, collector, null);
+    }
+  }
+
+  private void rerunIfNeeded(String path, ChildrenState state, ZKStoreWatcher watcher)
+  {
+    if (state._rerun)
+    {
+      final boolean init = state._rerunInit;
+      state._rerun = false;
+      state._rerunInit = false;
+      _zk.getChildren(path, watcher, watcher, init);
+    }
+  }
+
+  /**
+   * Known children of a published property and the data read for them.
+   */
+  private class ChildrenState
+  {
+    private final long _lastFullRead;
+    private final Map<String,T> _data = new HashMap<String,T>();
+    private boolean _reading;
+    private boolean _rerun;
+    private boolean _rerunInit;
+
+    private ChildrenState(long lastFullRead)
+    {
+      _lastFullRead = lastFullRead;
+    }
+  }
+
   @Override
   public void startPublishing(final String prop)
   {
@@ -350,8 +490,19 @@ public class ZooKeeperEphemeralStore<T> extends ZooKeeperStore<T>
     @Override
     public void processWatch(final String propertyName, WatchedEvent watchedEvent)
     {
+      final String path = getPath(propertyName);
+      if (watchedEvent.getType() == Watcher.Event.EventType.NodeDataChanged && !path.equals(watchedEvent.getPath()))
+      {
+        // the data of a child changed; forget it so that it is read again below
+        final ChildrenState state = _childrenStates.get(path);
+        if (state != null)
+        {
+          state._data.remove(watchedEvent.getPath().substring(path.length() + 1));
+        }
+      }
+
       // Reset the watch
-      _zk.getChildren(getPath(propertyName), this, this, false);
+      _zk.getChildren(path, this, this, false);
     }
 
     @Override
@@ -364,7 +515,7 @@ public class ZooKeeperEphemeralStore<T> extends ZooKeeperStore<T>
       switch (code)
       {
         case OK:
-          getMergedChildren(path, children, this, new Callback<T>()
+          updateChildren(path, children, init, this, new Callback<T>()
           {
             @Override
             public void onSuccess(T value)
@@ -385,6 +536,8 @@ public class ZooKeeperEphemeralStore<T> extends ZooKeeperStore<T>
             public void onError(Throwable e)
             {
               _log.error("Failed to merge children for path " + path, e);
+              // start over with a full read on the next change
+              _childrenStates.remove(path);
               if (init)
               {
                 _eventBus.publishInitialize(property, null);
@@ -398,6 +551,7 @@ public class ZooKeeperEphemeralStore<T> extends ZooKeeperStore<T>
         case NONODE:
           // The node whose children we are monitoring is gone; set an exists watch on it
           _log.debug("{}: node is not present, calling exists", path);
+          _childrenStates.remove(path);
           _zk.exists(path, this, this, false);
           if (init)
           {
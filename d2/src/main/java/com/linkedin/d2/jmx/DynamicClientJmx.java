@@ -0,0 +1,41 @@
+/*
+   Copyright (c) 2012 LinkedIn Corp.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.linkedin.d2.jmx;
+
+import com.linkedin.d2.balancer.clients.DynamicClient;
+
+public class DynamicClientJmx implements DynamicClientJmxMBean
+{
+  private final DynamicClient _client;
+
+  public DynamicClientJmx(DynamicClient client)
+  {
+    _client = client;
+  }
+
+  @Override
+  public long getRetryCount()
+  {
+    return _client.getRetryCount();
+  }
+
+  @Override
+  public long getRetryBudgetExhaustedCount()
+  {
+    return _client.getRetryBudgetExhaustedCount();
+  }
+}
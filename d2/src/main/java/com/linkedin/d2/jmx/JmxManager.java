@@ -16,13 +16,19 @@
 
 package com.linkedin.d2.jmx;
 
+import com.linkedin.d2.balancer.clients.ConcurrencyLimiter;
+import com.linkedin.d2.balancer.clients.DynamicClient;
+import com.linkedin.d2.balancer.clients.TrackerClient;
 import com.linkedin.d2.balancer.servers.ZooKeeperAnnouncer;
 import com.linkedin.d2.balancer.servers.ZooKeeperServer;
 import com.linkedin.d2.balancer.simple.SimpleLoadBalancer;
 import com.linkedin.d2.balancer.simple.SimpleLoadBalancerState;
+import com.linkedin.d2.balancer.simple.SimpleLoadBalancerState.SimpleLoadBalancerStateListener;
 import com.linkedin.d2.balancer.strategies.LoadBalancerStrategy;
 import com.linkedin.d2.balancer.strategies.degrader.DegraderLoadBalancerStrategyV2;
 import com.linkedin.d2.balancer.strategies.degrader.DegraderLoadBalancerStrategyV3;
+import com.linkedin.d2.balancer.strategies.locality.LocalityAwareLoadBalancerStrategy;
+import com.linkedin.d2.discovery.event.PropertyEventLanes;
 import com.linkedin.d2.discovery.event.PropertyEventThread;
 import com.linkedin.d2.discovery.stores.file.FileStore;
 import com.linkedin.d2.discovery.stores.zk.ZooKeeperEphemeralStore;
@@ -38,6 +44,8 @@ import javax.management.ObjectName;
 import java.lang.management.ManagementFactory;
 import java.util.HashSet;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import static com.linkedin.d2.discovery.util.LogUtil.warn;
 
@@ -103,6 +111,17 @@ public class JmxManager
     return this;
   }
 
+  public synchronized JmxManager registerPropertyEventLanes(String name,
+                                                            PropertyEventLanes lanes)
+  {
+    for (int i = 0; i < lanes.getLaneCount(); i++)
+    {
+      checkReg(new PropertyEventThreadJmx(lanes.getLane(i)), name + "-lane-" + i);
+    }
+
+    return this;
+  }
+
   public synchronized JmxManager registerScheduledThreadPoolExecutor(String name,
                                                                      ScheduledThreadPoolExecutor executor)
   {
@@ -123,6 +142,7 @@ public class JmxManager
                                                            SimpleLoadBalancerState state)
   {
     checkReg(new SimpleLoadBalancerStateJmx(state), name);
+    state.register(new ConcurrencyLimiterRegistrar(name));
 
     return this;
   }
@@ -135,6 +155,22 @@ public class JmxManager
     return this;
   }
 
+  public synchronized JmxManager registerDynamicClient(String name,
+                                                       DynamicClient client)
+  {
+    checkReg(new DynamicClientJmx(client), name);
+
+    return this;
+  }
+
+  public synchronized JmxManager registerConcurrencyLimiter(String name,
+                                                            ConcurrencyLimiter limiter)
+  {
+    checkReg(limiter, name);
+
+    return this;
+  }
+
   public synchronized JmxManager registerLoadBalancerStrategy(String name,
                                                               LoadBalancerStrategy strategy)
   {
@@ -147,6 +183,13 @@ public class JmxManager
     {
       checkReg(new DegraderLoadBalancerStrategyV3Jmx((DegraderLoadBalancerStrategyV3) strategy), name);
     }
+    else if (strategy instanceof LocalityAwareLoadBalancerStrategy)
+    {
+      // the global strategy balances over all hosts, so it keeps the bean name of the service
+      LocalityAwareLoadBalancerStrategy localityStrategy = (LocalityAwareLoadBalancerStrategy) strategy;
+      registerLoadBalancerStrategy(name, localityStrategy.getGlobalStrategy());
+      registerLoadBalancerStrategy(name + "-local", localityStrategy.getLocalStrategy());
+    }
     else
     {
       warn(_log, "unable to register a jmx bean for unknown strategy: ", strategy);
@@ -246,4 +289,62 @@ public class JmxManager
       _log.warn("Failed to register MBean with name " + oName, e);
     }
   }
+
+  /**
+   * Registers the concurrency limiters of the tracker clients of a load balancer state as the
+   * clients are added, and unregisters them as the clients are removed.
+   */
+  private class ConcurrencyLimiterRegistrar implements SimpleLoadBalancerStateListener
+  {
+    private final String _stateName;
+    // a client may be replaced by a new one for the same uri before it is removed
+    private final ConcurrentMap<String, ConcurrencyLimiter> _limiters =
+        new ConcurrentHashMap<String, ConcurrencyLimiter>();
+
+    private ConcurrencyLimiterRegistrar(String stateName)
+    {
+      _stateName = stateName;
+    }
+
+    @Override
+    public void onStrategyAdded(String serviceName, String scheme, LoadBalancerStrategy strategy)
+    {
+    }
+
+    @Override
+    public void onStrategyRemoved(String serviceName, String scheme, LoadBalancerStrategy strategy)
+    {
+    }
+
+    @Override
+    public void onClientAdded(String serviceName, TrackerClient client)
+    {
+      ConcurrencyLimiter limiter = client.getConcurrencyLimiter();
+      if (limiter != null)
+      {
+        String name = getLimiterName(serviceName, client);
+        _limiters.put(name, limiter);
+        registerConcurrencyLimiter(name, limiter);
+      }
+    }
+
+    @Override
+    public void onClientRemoved(String serviceName, TrackerClient client)
+    {
+      ConcurrencyLimiter limiter = client.getConcurrencyLimiter();
+      if (limiter != null)
+      {
+        String name = getLimiterName(serviceName, client);
+        if (_limiters.remove(name, limiter))
+        {
+          unregister(name);
+        }
+      }
+    }
+
+    private String getLimiterName(String serviceName, TrackerClient client)
+    {
+      return _stateName + "-" + serviceName + "-" + client.getUri() + "-concurrencyLimiter";
+    }
+  }
 }
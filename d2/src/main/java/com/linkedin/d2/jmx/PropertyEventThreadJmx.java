@@ -39,6 +39,24 @@ public class PropertyEventThreadJmx implements PropertyEventThreadJmxMBean
     return _thread.getRemainingCapacity();
   }
 
+  @Override
+  public long getProcessedMessageCount()
+  {
+    return _thread.getProcessedMessageCount();
+  }
+
+  @Override
+  public double getAverageProcessingTimeMs()
+  {
+    return _thread.getAverageProcessingTimeMs();
+  }
+
+  @Override
+  public double getMaxProcessingTimeMs()
+  {
+    return _thread.getMaxProcessingTimeMs();
+  }
+
   @Override
   public boolean isAlive()
   {
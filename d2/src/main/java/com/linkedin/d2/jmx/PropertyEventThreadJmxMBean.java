@@ -22,5 +22,11 @@ public interface PropertyEventThreadJmxMBean
 
   int getQueuedMessageCount();
 
+  long getProcessedMessageCount();
+
+  double getAverageProcessingTimeMs();
+
+  double getMaxProcessingTimeMs();
+
   boolean isAlive();
 }
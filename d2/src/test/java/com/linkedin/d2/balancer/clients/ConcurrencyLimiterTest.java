@@ -0,0 +1,102 @@
+/*
+   Copyright (c) 2012 LinkedIn Corp.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.linkedin.d2.balancer.clients;
+
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class ConcurrencyLimiterTest
+{
+  @Test(groups = { "small", "back-end" })
+  public void testLimit()
+  {
+    ConcurrencyLimiter limiter = new ConcurrencyLimiter(config(2, 1, 10));
+
+    assertTrue(limiter.tryAcquire());
+    assertTrue(limiter.tryAcquire());
+    assertTrue(limiter.isAtLimit());
+    assertFalse(limiter.tryAcquire());
+    assertEquals(limiter.getRejectedCount(), 1);
+    assertEquals(limiter.getInFlight(), 2);
+  }
+
+  @Test(groups = { "small", "back-end" })
+  public void testIncreaseWhenSaturated()
+  {
+    ConcurrencyLimiter limiter = new ConcurrencyLimiter(config(2, 1, 4));
+
+    for (int i = 0; i < 100; i++)
+    {
+      assertTrue(limiter.tryAcquire());
+      assertTrue(limiter.tryAcquire());
+      limiter.release(10, false);
+      limiter.release(10, false);
+    }
+    assertEquals(limiter.getLimit(), 4);
+    assertEquals(limiter.getBaselineLatency(), 10);
+
+    // an idle host does not grow its limit
+    limiter = new ConcurrencyLimiter(config(10, 1, 100));
+    for (int i = 0; i < 100; i++)
+    {
+      assertTrue(limiter.tryAcquire());
+      limiter.release(10, false);
+    }
+    assertEquals(limiter.getLimit(), 10);
+  }
+
+  @Test(groups = { "small", "back-end" })
+  public void testDecrease()
+  {
+    ConcurrencyLimiter limiter = new ConcurrencyLimiter(config(10, 2, 100));
+
+    assertTrue(limiter.tryAcquire());
+    limiter.release(10, false);
+
+    // latency above twice the baseline
+    assertTrue(limiter.tryAcquire());
+    limiter.release(50, false);
+    assertEquals(limiter.getLimit(), 9);
+
+    // failure
+    assertTrue(limiter.tryAcquire());
+    limiter.release(10, true);
+    assertEquals(limiter.getLimit(), 8);
+    assertEquals(limiter.getLimitDecreaseCount(), 2);
+
+    for (int i = 0; i < 100; i++)
+    {
+      assertTrue(limiter.tryAcquire());
+      limiter.release(10, true);
+    }
+    assertEquals(limiter.getLimit(), 2);
+  }
+
+  private static ConcurrencyLimiter.Config config(int initialLimit, int minLimit, int maxLimit)
+  {
+    ConcurrencyLimiter.Config config = new ConcurrencyLimiter.Config();
+    config.setInitialLimit(initialLimit);
+    config.setMinLimit(minLimit);
+    config.setMaxLimit(maxLimit);
+    config.setBackoffRatio(0.9);
+    config.setLatencyTolerance(2.0);
+    return config;
+  }
+}
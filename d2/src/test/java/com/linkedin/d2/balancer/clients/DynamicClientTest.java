@@ -30,10 +30,13 @@ import com.linkedin.d2.balancer.util.ClientFactoryProvider;
 import com.linkedin.d2.balancer.util.DelegatingFacilities;
 import com.linkedin.d2.balancer.util.DirectoryProvider;
 import com.linkedin.d2.balancer.util.KeyMapperProvider;
+import com.linkedin.d2.balancer.util.LoadBalancerUtil;
 import com.linkedin.d2.balancer.util.MapKeyResult;
 import com.linkedin.d2.discovery.event.PropertyEventThread.PropertyEventShutdownCallback;
+import com.linkedin.r2.RemoteInvocationException;
 import com.linkedin.r2.message.Request;
 import com.linkedin.r2.message.RequestContext;
+import com.linkedin.r2.message.rest.RestMethod;
 import com.linkedin.r2.message.rest.RestRequest;
 import com.linkedin.r2.message.rest.RestRequestBuilder;
 import com.linkedin.r2.message.rest.RestResponse;
@@ -42,10 +45,15 @@ import com.linkedin.r2.message.rpc.RpcRequestBuilder;
 import com.linkedin.r2.message.rpc.RpcResponse;
 import com.linkedin.r2.transport.common.TransportClientFactory;
 import com.linkedin.r2.transport.common.bridge.client.TransportClient;
+import com.linkedin.r2.transport.common.bridge.common.TransportCallback;
+import com.linkedin.r2.transport.common.bridge.common.TransportResponseImpl;
 import org.testng.annotations.Test;
 
+import java.net.ConnectException;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
@@ -53,6 +61,7 @@ import java.util.Set;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 
+import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertNotNull;
 import static org.testng.Assert.assertNull;
@@ -142,6 +151,168 @@ public class DynamicClientTest
     assertTrue(balancer.shutdown);
   }
 
+  @Test(groups = { "small", "back-end" })
+  public void testRetryOnAnotherHost()
+  {
+    FailoverLoadBalancer balancer = new FailoverLoadBalancer();
+    DynamicClient client = new DynamicClient(balancer, null, 2, 0.1);
+    RestRequest restRequest = new RestRequestBuilder(URI.create("d2://test/foo")).build();
+    RequestContext requestContext = new RequestContext();
+    TestCallback<RestResponse> restCallback = new TestCallback<RestResponse>();
+
+    client.restRequest(restRequest, requestContext, restCallback);
+
+    assertNull(restCallback.e);
+    assertNotNull(restCallback.t);
+    assertEquals(balancer.chosenHosts, Arrays.asList(FailoverLoadBalancer.FAILING_HOST, FailoverLoadBalancer.HEALTHY_HOST));
+    assertEquals(LoadBalancerUtil.FailoverHints.getRequestContextRetryCount(requestContext), 1);
+    assertEquals(client.getRetryCount(), 1);
+
+    // requests which are not idempotent are never retried
+    balancer.chosenHosts.clear();
+    restCallback = new TestCallback<RestResponse>();
+    client.restRequest(new RestRequestBuilder(URI.create("d2://test/foo")).setMethod(RestMethod.POST).build(),
+                       new RequestContext(), restCallback);
+    assertNotNull(restCallback.e);
+    assertEquals(balancer.chosenHosts, Arrays.asList(FailoverLoadBalancer.FAILING_HOST));
+  }
+
+  @Test(groups = { "small", "back-end" })
+  public void testNoRetryWithoutAnotherHost()
+  {
+    // the balancer has no other host than the failed one
+    for (boolean unavailableWhenExcluded : new boolean[] { false, true })
+    {
+      SingleHostLoadBalancer balancer = new SingleHostLoadBalancer(unavailableWhenExcluded);
+      DynamicClient client = new DynamicClient(balancer, null, 2, 0.1);
+      RequestContext requestContext = new RequestContext();
+      TestCallback<RestResponse> restCallback = new TestCallback<RestResponse>();
+
+      client.restRequest(new RestRequestBuilder(URI.create("d2://test/foo")).build(), requestContext, restCallback);
+
+      // the original failure is returned, and the retry is neither sent nor charged
+      assertTrue(restCallback.e instanceof RemoteInvocationException);
+      assertEquals(balancer.sentCount, 1);
+      assertEquals(LoadBalancerUtil.FailoverHints.getRequestContextRetryCount(requestContext), 0);
+      assertEquals(client.getRetryCount(), 0);
+      assertEquals(client.getRetryBudgetExhaustedCount(), 0);
+    }
+  }
+
+  @Test(groups = { "small", "back-end" })
+  public void testRetryBudget()
+  {
+    RetryBudget budget = new RetryBudget(0.1, 2);
+    assertTrue(budget.tryRetry());
+    assertTrue(budget.tryRetry());
+    assertFalse(budget.tryRetry());
+
+    for (int i = 0; i < 10; i++)
+    {
+      budget.onRequest();
+    }
+    assertTrue(budget.tryRetry());
+    assertFalse(budget.tryRetry());
+  }
+
+  /**
+   * Routes requests to a host which refuses connections, unless the request excludes it.
+   */
+  private static class FailoverLoadBalancer implements LoadBalancer
+  {
+    private static final URI FAILING_HOST = URI.create("http://host1:1234");
+    private static final URI HEALTHY_HOST = URI.create("http://host2:1234");
+
+    private final List<URI> chosenHosts = new ArrayList<URI>();
+
+    @Override
+    public TransportClient getClient(Request request, RequestContext requestContext) throws ServiceUnavailableException
+    {
+      boolean excluded = LoadBalancerUtil.FailoverHints.getRequestContextExcludedHosts(requestContext).contains(FAILING_HOST);
+      URI host = excluded ? HEALTHY_HOST : FAILING_HOST;
+      chosenHosts.add(host);
+      LoadBalancerUtil.FailoverHints.setRequestContextChosenHost(requestContext, host);
+      return excluded ? new TestClient() : new ConnectionRefusedClient();
+    }
+
+    @Override
+    public void start(Callback<None> callback)
+    {
+      callback.onSuccess(None.none());
+    }
+
+    @Override
+    public void shutdown(PropertyEventShutdownCallback shutdown)
+    {
+      shutdown.done();
+    }
+  }
+
+  /**
+   * Routes every request to the same host, which refuses connections, or fails to find a host
+   * once the request excludes it.
+   */
+  private static class SingleHostLoadBalancer implements LoadBalancer
+  {
+    private static final URI HOST = URI.create("http://host1:1234");
+
+    private final boolean _unavailableWhenExcluded;
+    private int sentCount;
+
+    private SingleHostLoadBalancer(boolean unavailableWhenExcluded)
+    {
+      _unavailableWhenExcluded = unavailableWhenExcluded;
+    }
+
+    @Override
+    public TransportClient getClient(Request request, RequestContext requestContext) throws ServiceUnavailableException
+    {
+      if (_unavailableWhenExcluded
+          && LoadBalancerUtil.FailoverHints.getRequestContextExcludedHosts(requestContext).contains(HOST))
+      {
+        throw new ServiceUnavailableException("test", "every host already failed the request");
+      }
+      LoadBalancerUtil.FailoverHints.setRequestContextChosenHost(requestContext, HOST);
+      return new ConnectionRefusedClient()
+      {
+        @Override
+        public void restRequest(RestRequest request,
+                                RequestContext requestContext,
+                                Map<String, String> wireAttrs,
+                                TransportCallback<RestResponse> callback)
+        {
+          sentCount++;
+          super.restRequest(request, requestContext, wireAttrs, callback);
+        }
+      };
+    }
+
+    @Override
+    public void start(Callback<None> callback)
+    {
+      callback.onSuccess(None.none());
+    }
+
+    @Override
+    public void shutdown(PropertyEventShutdownCallback shutdown)
+    {
+      shutdown.done();
+    }
+  }
+
+  private static class ConnectionRefusedClient extends TestClient
+  {
+    @Override
+    public void restRequest(RestRequest request,
+                            RequestContext requestContext,
+                            Map<String, String> wireAttrs,
+                            TransportCallback<RestResponse> callback)
+    {
+      callback.onResponse(TransportResponseImpl.<RestResponse>error(
+          new RemoteInvocationException(new ConnectException("Connection refused"))));
+    }
+  }
+
   public static class TestLoadBalancer implements LoadBalancer
   {
     private boolean _serviceUnavailable;
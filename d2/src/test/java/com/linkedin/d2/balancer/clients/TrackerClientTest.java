@@ -38,7 +38,9 @@ import org.testng.annotations.Test;
 
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import static org.testng.Assert.assertEquals;
@@ -88,6 +90,67 @@ public class TrackerClientTest
     assertEquals(client.getCallTracker().getCurrentCallCountTotal(), 2);
   }
 
+  @Test(groups = { "small", "back-end" })
+  public void testConcurrencyLimit()
+  {
+    URI uri = URI.create("http://test.qa.com:1234/foo");
+    HoldingClient wrappedClient = new HoldingClient();
+    SettableClock clock = new SettableClock();
+    Map<Integer, PartitionData> partitionDataMap = new HashMap<Integer, PartitionData>(2);
+    partitionDataMap.put(DefaultPartitionAccessor.DEFAULT_PARTITION_ID, new PartitionData(1d));
+    ConcurrencyLimiter.Config limiterConfig = new ConcurrencyLimiter.Config();
+    limiterConfig.setInitialLimit(1);
+    TrackerClient client = new TrackerClient(uri, partitionDataMap, wrappedClient, clock, null, limiterConfig);
+
+    RestRequest restRequest = new RestRequestBuilder(uri).build();
+    TestTransportCallback<RestResponse> first = new TestTransportCallback<RestResponse>();
+    client.restRequest(restRequest, new RequestContext(), new HashMap<String, String>(), first);
+    assertTrue(client.isAtConcurrencyLimit());
+
+    // the second call fails without reaching the host
+    TestTransportCallback<RestResponse> second = new TestTransportCallback<RestResponse>();
+    client.restRequest(restRequest, new RequestContext(), new HashMap<String, String>(), second);
+    assertTrue(second.response.hasError());
+    assertEquals(wrappedClient.callbacks.size(), 1);
+    assertEquals(client.getConcurrencyLimiter().getRejectedCount(), 1);
+
+    clock.addDuration(10);
+    wrappedClient.callbacks.get(0).onResponse(
+        TransportResponseImpl.<RestResponse>success(new RestResponseBuilder().build()));
+    assertFalse(first.response.hasError());
+    assertFalse(client.isAtConcurrencyLimit());
+    assertEquals(client.getConcurrencyLimiter().getInFlight(), 0);
+  }
+
+  private static class HoldingClient implements TransportClient
+  {
+    private final List<TransportCallback<RestResponse>> callbacks = new ArrayList<TransportCallback<RestResponse>>();
+
+    @Override
+    public void restRequest(RestRequest request,
+                            RequestContext requestContext,
+                            Map<String, String> wireAttrs,
+                            TransportCallback<RestResponse> callback)
+    {
+      callbacks.add(callback);
+    }
+
+    @Override
+    public void rpcRequest(RpcRequest request,
+                           RequestContext requestContext,
+                           Map<String, String> wireAttrs,
+                           TransportCallback<RpcResponse> callback)
+    {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void shutdown(Callback<None> callback)
+    {
+      callback.onSuccess(None.none());
+    }
+  }
+
   public static class TestClient implements TransportClient
   {
     public RestRequest                     restRequest;
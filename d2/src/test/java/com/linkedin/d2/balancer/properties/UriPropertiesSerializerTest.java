@@ -27,6 +27,7 @@ import java.util.HashMap;
 import java.util.Map;
 
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
 
 public class UriPropertiesSerializerTest
 {
@@ -85,6 +86,20 @@ public class UriPropertiesSerializerTest
     property = new UriProperties("test 3", partitionDesc);
     assertEquals(foo.fromBytes(foo.toBytes(property)), property);
 
+    // uri specific properties survive the round trip, for partitioned and unpartitioned uris
+    Map<URI, Map<String, Object>> uriSpecificProperties = new HashMap<URI, Map<String, Object>>();
+    Map<String, Object> googleProperties = new HashMap<String, Object>();
+    googleProperties.put(PropertyKeys.URI_ZONE, "zone-a");
+    uriSpecificProperties.put(URI.create("http://www.google.com"), googleProperties);
+    property = new UriProperties("test 3", partitionDesc, uriSpecificProperties);
+    UriProperties fromBytes = foo.fromBytes(foo.toBytes(property));
+    assertEquals(fromBytes, property);
+    assertEquals(fromBytes.getZone(URI.create("http://www.google.com")), "zone-a");
+    assertNull(fromBytes.getZone(URI.create("http://www.imdb.com")));
+    property = new UriProperties("test4", getInstanceWithOldArguments("test4", uriWeights).getPartitionDesc(),
+                                 uriSpecificProperties);
+    assertEquals(foo.fromBytes(foo.toBytes(property)), property);
+
     // test compatibility with old UriProperties bytes: client can understand uris published by old servers
     String oldUriJson = "{\"clusterName\": \"test4\", \"weights\":{\"http://www.google.com\": 1.0, \"http://www.imdb.com\": 2.0}}";
     UriProperties fromOldBytes = foo.fromBytes(oldUriJson.getBytes());
@@ -21,9 +21,11 @@ import com.linkedin.common.callback.FutureCallback;
 import com.linkedin.common.util.None;
 import com.linkedin.d2.balancer.LoadBalancerState.LoadBalancerStateListenerCallback;
 import com.linkedin.d2.balancer.LoadBalancerState.NullStateListenerCallback;
+import com.linkedin.d2.balancer.LoadBalancerStateItem;
 import com.linkedin.d2.balancer.clients.TrackerClient;
 import com.linkedin.d2.balancer.properties.ClusterProperties;
 import com.linkedin.d2.balancer.properties.PartitionData;
+import com.linkedin.d2.balancer.properties.PropertyKeys;
 import com.linkedin.d2.balancer.properties.RangeBasedPartitionProperties;
 import com.linkedin.d2.balancer.properties.ServiceProperties;
 import com.linkedin.d2.balancer.properties.UriProperties;
@@ -33,9 +35,11 @@ import com.linkedin.d2.balancer.strategies.LoadBalancerStrategyFactory;
 import com.linkedin.d2.balancer.strategies.degrader.DegraderLoadBalancerStrategyFactoryV3;
 import com.linkedin.d2.balancer.strategies.degrader.DegraderLoadBalancerStrategyV3;
 import com.linkedin.d2.balancer.strategies.degrader.DegraderLoadBalancerTest;
+import com.linkedin.d2.balancer.strategies.locality.LocalityAwareLoadBalancerStrategy;
 import com.linkedin.d2.balancer.strategies.random.RandomLoadBalancerStrategy;
 import com.linkedin.d2.balancer.strategies.random.RandomLoadBalancerStrategyFactory;
 import com.linkedin.d2.balancer.util.partitions.DefaultPartitionAccessor;
+import com.linkedin.d2.discovery.event.PropertyEventBusImpl;
 import com.linkedin.d2.discovery.event.PropertyEventThread.PropertyEventShutdownCallback;
 import com.linkedin.d2.discovery.event.SynchronousExecutorService;
 import com.linkedin.d2.discovery.stores.mock.MockStore;
@@ -416,6 +420,245 @@ public class SimpleLoadBalancerStateTest
     assertEquals(client.getUri(), uri);
   }
 
+  @Test(groups = { "small", "back-end" })
+  public void testGetClientWithEventLanes() throws Exception
+  {
+    reset();
+    _state = new SimpleLoadBalancerState(_executorService,
+                                         new PropertyEventBusImpl<UriProperties>(_executorService, _uriRegistry),
+                                         new PropertyEventBusImpl<ClusterProperties>(_executorService, _clusterRegistry),
+                                         new PropertyEventBusImpl<ServiceProperties>(_executorService, _serviceRegistry),
+                                         _clientFactories,
+                                         _loadBalancerStrategyFactories,
+                                         null, null, false, 2);
+
+    List<String> schemes = new ArrayList<String>();
+    schemes.add("http");
+    Map<Integer, PartitionData> partitionData = new HashMap<Integer, PartitionData>(1);
+    partitionData.put(DefaultPartitionAccessor.DEFAULT_PARTITION_ID, new PartitionData(1d));
+
+    final CountDownLatch listening = new CountDownLatch(6);
+    LoadBalancerStateListenerCallback callback = new LoadBalancerStateListenerCallback()
+    {
+      @Override
+      public void done(int type, String name)
+      {
+        listening.countDown();
+      }
+    };
+    for (int i = 1; i <= 3; i++)
+    {
+      _state.listenToCluster("cluster-" + i, callback);
+      _state.listenToService("service-" + i, callback);
+      _serviceRegistry.put("service-" + i, new ServiceProperties("service-" + i, "cluster-" + i,
+                                                                 "/test", "random", null,
+                                                                 Collections.<String, Object>emptyMap(),
+                                                                 null, null, schemes, null));
+      _clusterRegistry.put("cluster-" + i, new ClusterProperties("cluster-" + i, schemes));
+      Map<URI, Map<Integer, PartitionData>> uriData = new HashMap<URI, Map<Integer, PartitionData>>();
+      uriData.put(URI.create("http://cluster-" + i + "/test"), partitionData);
+      _uriRegistry.put("cluster-" + i, new UriProperties("cluster-" + i, uriData));
+    }
+    assertTrue(listening.await(10, TimeUnit.SECONDS));
+
+    for (int i = 1; i <= 3; i++)
+    {
+      URI uri = URI.create("http://cluster-" + i + "/test");
+      TrackerClient client = null;
+      for (int tries = 0; client == null && tries < 1000; tries++)
+      {
+        client = _state.getClient("service-" + i, uri);
+        if (client == null)
+        {
+          Thread.sleep(10);
+        }
+      }
+      assertNotNull(client);
+      assertEquals(client.getUri(), uri);
+    }
+
+    final CountDownLatch shutdown = new CountDownLatch(1);
+    _state.shutdown(new PropertyEventShutdownCallback()
+    {
+      @Override
+      public void done()
+      {
+        shutdown.countDown();
+      }
+    });
+    assertTrue(shutdown.await(10, TimeUnit.SECONDS));
+  }
+
+  @Test(groups = { "small", "back-end" })
+  public void testServiceMovesClusterWithEventLanes() throws Exception
+  {
+    reset();
+    _state = new SimpleLoadBalancerState(_executorService,
+                                         new PropertyEventBusImpl<UriProperties>(_executorService, _uriRegistry),
+                                         new PropertyEventBusImpl<ClusterProperties>(_executorService, _clusterRegistry),
+                                         new PropertyEventBusImpl<ServiceProperties>(_executorService, _serviceRegistry),
+                                         _clientFactories,
+                                         _loadBalancerStrategyFactories,
+                                         null, null, false, 2);
+
+    List<String> schemes = new ArrayList<String>();
+    schemes.add("http");
+    Map<Integer, PartitionData> partitionData = new HashMap<Integer, PartitionData>(1);
+    partitionData.put(DefaultPartitionAccessor.DEFAULT_PARTITION_ID, new PartitionData(1d));
+
+    final CountDownLatch listening = new CountDownLatch(3);
+    LoadBalancerStateListenerCallback callback = new LoadBalancerStateListenerCallback()
+    {
+      @Override
+      public void done(int type, String name)
+      {
+        listening.countDown();
+      }
+    };
+    _state.listenToService("service-1", callback);
+    for (int i = 1; i <= 2; i++)
+    {
+      _state.listenToCluster("cluster-" + i, callback);
+      _clusterRegistry.put("cluster-" + i, new ClusterProperties("cluster-" + i, schemes));
+      Map<URI, Map<Integer, PartitionData>> uriData = new HashMap<URI, Map<Integer, PartitionData>>();
+      uriData.put(URI.create("http://cluster-" + i + "/test"), partitionData);
+      _uriRegistry.put("cluster-" + i, new UriProperties("cluster-" + i, uriData));
+    }
+    URI uri1 = URI.create("http://cluster-1/test");
+    URI uri2 = URI.create("http://cluster-2/test");
+
+    // move the service back and forth, ending on the second cluster
+    String[] clusters = { "cluster-1", "cluster-2", "cluster-1", "cluster-2" };
+    for (int i = 0; i < clusters.length; i++)
+    {
+      _serviceRegistry.put("service-1", new ServiceProperties("service-1", clusters[i],
+                                                              "/test" + i, "random", null,
+                                                              Collections.<String, Object>emptyMap(),
+                                                              null, null, schemes, null));
+    }
+    assertTrue(listening.await(10, TimeUnit.SECONDS));
+
+    String lastPath = "/test" + (clusters.length - 1);
+    for (int tries = 0; tries < 1000 && !lastPath.equals(getServicePath("service-1")); tries++)
+    {
+      Thread.sleep(10);
+    }
+    assertEquals(getServicePath("service-1"), lastPath);
+    assertNotNull(_state.getClient("service-1", uri2));
+    assertNull(_state.getClient("service-1", uri1));
+
+    final CountDownLatch shutdown = new CountDownLatch(1);
+    _state.shutdown(new PropertyEventShutdownCallback()
+    {
+      @Override
+      public void done()
+      {
+        shutdown.countDown();
+      }
+    });
+    assertTrue(shutdown.await(10, TimeUnit.SECONDS));
+  }
+
+  private String getServicePath(String serviceName)
+  {
+    LoadBalancerStateItem<ServiceProperties> item = _state.getServiceProperties(serviceName);
+    return item == null || item.getProperty() == null ? null : item.getProperty().getPath();
+  }
+
+  @Test(groups = { "small", "back-end" })
+  public void testLocalityRouting()
+  {
+    reset();
+
+    List<String> schemes = new ArrayList<String>();
+    schemes.add("http");
+    Map<String, Object> strategyProperties = new HashMap<String, Object>();
+    strategyProperties.put(PropertyKeys.LB_LOCALITY_ROUTING, LocalityAwareLoadBalancerStrategy.PREFER_LOCAL);
+    ServiceProperties serviceProperties = new ServiceProperties("service-1", "cluster-1",
+                                                                "/test", "random", null,
+                                                                strategyProperties,
+                                                                null, null, schemes, null);
+
+    _state.listenToService("service-1", new NullStateListenerCallback());
+    _serviceRegistry.put("service-1", serviceProperties);
+    // without a local zone, locality routing is off
+    assertTrue(_state.getStrategy("service-1", "http") instanceof RandomLoadBalancerStrategy);
+
+    _state.setLocalZone("zone-a");
+    _serviceRegistry.put("service-1", serviceProperties);
+    LoadBalancerStrategy strategy = _state.getStrategy("service-1", "http");
+    assertTrue(strategy instanceof LocalityAwareLoadBalancerStrategy);
+    assertEquals(((LocalityAwareLoadBalancerStrategy) strategy).getLocalZone(), "zone-a");
+  }
+
+  @Test(groups = { "small", "back-end" })
+  public void testSubsetting() throws URISyntaxException
+  {
+    reset();
+
+    List<String> schemes = new ArrayList<String>();
+    schemes.add("http");
+    Map<Integer, PartitionData> partitionData = new HashMap<Integer, PartitionData>(1);
+    partitionData.put(DefaultPartitionAccessor.DEFAULT_PARTITION_ID, new PartitionData(1d));
+    Map<URI, Map<Integer, PartitionData>> uriData = new HashMap<URI, Map<Integer, PartitionData>>();
+    for (int i = 0; i < 10; i++)
+    {
+      uriData.put(URI.create("http://host-" + i + "/test"), partitionData);
+    }
+
+    Map<String, Object> strategyProperties = new HashMap<String, Object>();
+    strategyProperties.put(PropertyKeys.LB_SUBSET_SIZE, "3");
+
+    _state.listenToCluster("cluster-1", new NullStateListenerCallback());
+    _state.listenToService("service-1", new NullStateListenerCallback());
+    _serviceRegistry.put("service-1", new ServiceProperties("service-1", "cluster-1",
+                                                            "/test", "random", null,
+                                                            strategyProperties,
+                                                            null, null, schemes, null));
+    _uriRegistry.put("cluster-1", new UriProperties("cluster-1", uriData));
+
+    List<URI> tracked = new ArrayList<URI>();
+    for (URI uri : uriData.keySet())
+    {
+      if (_state.getClient("service-1", uri) != null)
+      {
+        tracked.add(uri);
+      }
+    }
+    assertEquals(tracked.size(), 3);
+
+    // removing a host which is not in the subset doesn't change the subset
+    for (URI uri : uriData.keySet())
+    {
+      if (!tracked.contains(uri))
+      {
+        uriData.remove(uri);
+        break;
+      }
+    }
+    _uriRegistry.put("cluster-1", new UriProperties("cluster-1", uriData));
+    for (URI uri : tracked)
+    {
+      assertNotNull(_state.getClient("service-1", uri));
+    }
+
+    // removing a host in the subset replaces it with another one
+    uriData.remove(tracked.get(0));
+    _uriRegistry.put("cluster-1", new UriProperties("cluster-1", uriData));
+    assertNull(_state.getClient("service-1", tracked.get(0)));
+    int count = 0;
+    for (URI uri : uriData.keySet())
+    {
+      if (_state.getClient("service-1", uri) != null)
+      {
+        count++;
+      }
+    }
+    assertEquals(count, 3);
+    assertNotNull(_state.getClient("service-1", tracked.get(1)));
+    assertNotNull(_state.getClient("service-1", tracked.get(2)));
+  }
+
   @Test(groups = { "small", "back-end" })
   public void testGetStrategy() throws URISyntaxException
   {
@@ -52,7 +52,10 @@ import com.linkedin.common.callback.FutureCallback;
 import com.linkedin.common.util.None;
 import com.linkedin.d2.balancer.LoadBalancerTestState;
 import com.linkedin.d2.balancer.ServiceUnavailableException;
+import com.linkedin.d2.balancer.clients.ConcurrencyLimiter;
 import com.linkedin.d2.balancer.clients.RewriteClient;
+import com.linkedin.d2.balancer.clients.TrackerClient;
+import com.linkedin.d2.balancer.clients.TrackerClientTest.TestClient;
 import com.linkedin.d2.balancer.properties.ClusterProperties;
 import com.linkedin.d2.balancer.properties.ClusterPropertiesJsonSerializer;
 import com.linkedin.d2.balancer.properties.HashBasedPartitionProperties;
@@ -81,6 +84,7 @@ import com.linkedin.d2.discovery.event.PropertyEventThread.PropertyEventShutdown
 import com.linkedin.d2.discovery.stores.PropertyStore;
 import com.linkedin.d2.discovery.stores.file.FileStore;
 import com.linkedin.d2.discovery.stores.mock.MockStore;
+import com.linkedin.r2.message.Request;
 import com.linkedin.r2.message.RequestContext;
 import com.linkedin.r2.message.rest.RestRequest;
 import com.linkedin.r2.message.rest.RestResponse;
@@ -89,6 +93,7 @@ import com.linkedin.r2.message.rpc.RpcResponse;
 import com.linkedin.r2.transport.common.TransportClientFactory;
 import com.linkedin.r2.transport.common.bridge.client.TransportClient;
 import com.linkedin.r2.transport.common.bridge.common.TransportCallback;
+import com.linkedin.util.clock.SystemClock;
 
 public class SimpleLoadBalancerTest
 {
@@ -621,6 +626,84 @@ public class SimpleLoadBalancerTest
     assertNotNull(balancer.getClient(uriRequest, new RequestContext()));
   }
 
+  @Test(groups = { "small", "back-end" })
+  public void testRerouteFromHostAtConcurrencyLimit() throws URISyntaxException,
+      ServiceUnavailableException
+  {
+    URIRequest uriRequest = new URIRequest("d2://NonExistentService");
+    URI saturatedUri = URI.create("http://test.qa1.com:1234");
+    StickyTestState state = new StickyTestState(saturatedUri, true);
+    SimpleLoadBalancer balancer = new SimpleLoadBalancer(state, 5, TimeUnit.SECONDS);
+
+    // the strategy prefers the host at its limit, as it would when hashing the request
+    assertTrue(state.getClient("service-1", saturatedUri).getConcurrencyLimiter().tryAcquire());
+    assertTrue(state.getClient("service-1", saturatedUri).isAtConcurrencyLimit());
+
+    for (int i = 0; i < 10; i++)
+    {
+      RequestContext requestContext = new RequestContext();
+      assertNotNull(balancer.getClient(uriRequest, requestContext));
+      URI chosenHost = LoadBalancerUtil.FailoverHints.getRequestContextChosenHost(requestContext);
+      assertNotNull(chosenHost);
+      assertFalse(chosenHost.equals(saturatedUri));
+    }
+    // one strategy call per request
+    assertEquals(state._strategyCalls, 10);
+  }
+
+  @Test(groups = { "small", "back-end" })
+  public void testRerouteFromExcludedHosts() throws URISyntaxException,
+      ServiceUnavailableException
+  {
+    URIRequest uriRequest = new URIRequest("d2://NonExistentService");
+    URI failedUri = URI.create("http://test.qa1.com:1234");
+    URI otherFailedUri = URI.create("http://test.qa2.com:2345");
+    StickyTestState state = new StickyTestState(failedUri, true);
+    SimpleLoadBalancer balancer = new SimpleLoadBalancer(state, 5, TimeUnit.SECONDS);
+
+    // a retry leaves the hosts which failed the request, even the one the strategy prefers
+    RequestContext requestContext = new RequestContext();
+    LoadBalancerUtil.FailoverHints.addRequestContextExcludedHost(requestContext, failedUri);
+    LoadBalancerUtil.FailoverHints.addRequestContextExcludedHost(requestContext, otherFailedUri);
+    assertNotNull(balancer.getClient(uriRequest, requestContext));
+    assertEquals(LoadBalancerUtil.FailoverHints.getRequestContextChosenHost(requestContext),
+                 URI.create("http://test.qa3.com:6789"));
+
+    // there is no host left to retry on
+    LoadBalancerUtil.FailoverHints.addRequestContextExcludedHost(requestContext,
+                                                                 URI.create("http://test.qa3.com:6789"));
+    try
+    {
+      balancer.getClient(uriRequest, requestContext);
+      fail("should have received a service unavailable exception");
+    }
+    catch (ServiceUnavailableException e)
+    {
+    }
+  }
+
+  @Test(groups = { "small", "back-end" })
+  public void testUnavailableHostFromStrategyIsNotUsed() throws URISyntaxException
+  {
+    URIRequest uriRequest = new URIRequest("d2://NonExistentService");
+    URI saturatedUri = URI.create("http://test.qa1.com:1234");
+    StickyTestState state = new StickyTestState(saturatedUri, false);
+    SimpleLoadBalancer balancer = new SimpleLoadBalancer(state, 5, TimeUnit.SECONDS);
+    assertTrue(state.getClient("service-1", saturatedUri).getConcurrencyLimiter().tryAcquire());
+
+    // a strategy which ignores availability doesn't get the request sent to a saturated host,
+    // nor is it asked again
+    try
+    {
+      balancer.getClient(uriRequest, new RequestContext());
+      fail("should have received a service unavailable exception");
+    }
+    catch (ServiceUnavailableException e)
+    {
+    }
+    assertEquals(state._strategyCalls, 1);
+  }
+
   @Test(groups = { "medium", "back-end" })
   public void testLoadBalancerSimulationRandom() throws URISyntaxException,
       IOException,
@@ -785,6 +868,90 @@ public class SimpleLoadBalancerTest
     }
   }
 
+  /**
+   * State whose strategy prefers the same host when it is a candidate, and whose tracker clients
+   * limit their outstanding calls to one.
+   */
+  private static class StickyTestState extends LoadBalancerTestState
+  {
+    private final URI _stickyUri;
+    private final boolean _skipUnavailable;
+    private final Map<URI, TrackerClient> _clients = new HashMap<URI, TrackerClient>();
+    private int _strategyCalls;
+
+    /**
+     * @param skipUnavailable whether the strategy skips hosts which are excluded or at their
+     *                        concurrency limit, as the strategies of D2 do.
+     */
+    private StickyTestState(URI stickyUri, boolean skipUnavailable)
+    {
+      _stickyUri = stickyUri;
+      _skipUnavailable = skipUnavailable;
+      getClient = true;
+      getClusterProperties = true;
+      getServiceProperties = true;
+      getStrategy = true;
+      getUriProperties = true;
+      isListeningToCluster = true;
+      isListeningToService = true;
+      getPartitionAccessor = true;
+    }
+
+    @Override
+    public TrackerClient getClient(String clusterName, URI uri)
+    {
+      TrackerClient client = _clients.get(uri);
+      if (client == null)
+      {
+        Map<Integer, PartitionData> partitionDataMap = new HashMap<Integer, PartitionData>(2);
+        partitionDataMap.put(DefaultPartitionAccessor.DEFAULT_PARTITION_ID, new PartitionData(1));
+        ConcurrencyLimiter.Config limiterConfig = new ConcurrencyLimiter.Config();
+        limiterConfig.setInitialLimit(1);
+        client = new TrackerClient(uri, partitionDataMap, new TestClient(), SystemClock.instance(), null,
+                                   limiterConfig);
+        _clients.put(uri, client);
+      }
+      return client;
+    }
+
+    @Override
+    public LoadBalancerStrategy getStrategy(String serviceName, String scheme)
+    {
+      return new LoadBalancerStrategy()
+      {
+        @Override
+        public TrackerClient getTrackerClient(Request request,
+                                              RequestContext requestContext,
+                                              long clusterGenerationId,
+                                              int partitionId,
+                                              List<TrackerClient> trackerClients)
+        {
+          _strategyCalls++;
+          List<TrackerClient> candidates = trackerClients;
+          if (_skipUnavailable)
+          {
+            candidates = LoadBalancerUtil.FailoverHints.getAvailableClients(trackerClients,
+                LoadBalancerUtil.FailoverHints.getRequestContextExcludedHosts(requestContext));
+          }
+          for (TrackerClient client : candidates)
+          {
+            if (client.getUri().equals(_stickyUri))
+            {
+              return client;
+            }
+          }
+          return candidates.isEmpty() ? null : candidates.get(0);
+        }
+
+        @Override
+        public Ring<URI> getRing(long clusterGenerationId, int partitionId, List<TrackerClient> trackerClients)
+        {
+          throw new UnsupportedOperationException();
+        }
+      };
+    }
+  }
+
   public static class DoNothingClientFactory implements TransportClientFactory
   {
     private final AtomicLong _count = new AtomicLong();
@@ -24,6 +24,7 @@ import com.linkedin.d2.balancer.clients.TrackerClient;
 import com.linkedin.d2.balancer.properties.PartitionData;
 import com.linkedin.d2.balancer.properties.PropertyKeys;
 import com.linkedin.d2.balancer.strategies.LoadBalancerStrategy;
+import com.linkedin.d2.balancer.util.LoadBalancerUtil;
 import com.linkedin.d2.balancer.util.URIRequest;
 import com.linkedin.d2.balancer.util.hashing.ConsistentHashRing;
 import com.linkedin.d2.balancer.util.hashing.ConsistentHashRing.Point;
@@ -667,6 +668,32 @@ public class DegraderLoadBalancerTest
     }
   }
 
+  @Test(groups = { "small", "back-end" })
+  public void testSkipsExcludedHosts() throws URISyntaxException
+  {
+    DegraderLoadBalancerStrategyV3 strategy = getStrategy();
+    List<TrackerClient> clients = new ArrayList<TrackerClient>();
+    URI uri1 = URI.create("http://test.linkedin.com:3242/fdsaf");
+    URI uri2 = URI.create("http://test.linkedin.com:3243/fdsaf");
+    URI uri3 = URI.create("http://test.linkedin.com:3244/fdsaf");
+
+    clients.add(getClient(uri1, new TestClock()));
+    clients.add(getClient(uri2, new TestClock()));
+    clients.add(getClient(uri3, new TestClock()));
+
+    // the hosts which failed the request are skipped in one call
+    RequestContext requestContext = new RequestContext();
+    LoadBalancerUtil.FailoverHints.addRequestContextExcludedHost(requestContext, uri1);
+    LoadBalancerUtil.FailoverHints.addRequestContextExcludedHost(requestContext, uri2);
+    for (int i = 0; i < 100; ++i)
+    {
+      assertEquals(getTrackerClient(strategy, null, requestContext, 0, clients).getUri(), uri3);
+    }
+
+    LoadBalancerUtil.FailoverHints.addRequestContextExcludedHost(requestContext, uri3);
+    assertNull(getTrackerClient(strategy, null, requestContext, 0, clients));
+  }
+
   @Test(groups = { "small", "back-end" })
   public void testOneTrackerClientForPartition() throws URISyntaxException
   {
@@ -1256,6 +1283,37 @@ public class DegraderLoadBalancerTest
     }
   }
 
+  @Test(groups = { "small", "back-end" })
+  public void testOverrideDisabled() throws URISyntaxException
+  {
+    DegraderLoadBalancerStrategyV3 strategy = getStrategy();
+    List<TrackerClient> clients = new ArrayList<TrackerClient>();
+
+    clients.add(getClient(URI.create("http://test.linkedin.com:3242/fdsaf")));
+    clients.add(getClient(URI.create("http://test.linkedin.com:3243/fdsaf")));
+
+    strategy.setOverrideEnabled(false);
+    assertFalse(strategy.getOverrideEnabled());
+    assertNotNull(strategy.getTrackerClient(null, new RequestContext(), 0, DEFAULT_PARTITION_ID, clients));
+
+    // the state is updated, but the degraders are left to another strategy
+    assertTrue(strategy.getState().getPartitionState(DEFAULT_PARTITION_ID).isInitialized());
+    for (TrackerClient client : clients)
+    {
+      assertEquals(client.getDegraderControl(DEFAULT_PARTITION_ID).getOverrideMinCallCount(),
+                   DegraderImpl.DEFAULT_OVERRIDE_MIN_CALL_COUNT.intValue());
+    }
+
+    strategy = getStrategy();
+    assertTrue(strategy.getOverrideEnabled());
+    assertNotNull(strategy.getTrackerClient(null, new RequestContext(), 0, DEFAULT_PARTITION_ID, clients));
+
+    for (TrackerClient client : clients)
+    {
+      assertTrue(client.getDegraderControl(DEFAULT_PARTITION_ID).getOverrideMinCallCount() >= 1);
+    }
+  }
+
   @Test(groups = { "small", "back-end" })
   public void testRegexHashingConsistency()
   {
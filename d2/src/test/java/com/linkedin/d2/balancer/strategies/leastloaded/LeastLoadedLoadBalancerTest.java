@@ -0,0 +1,276 @@
+/*
+   Copyright (c) 2012 LinkedIn Corp.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.linkedin.d2.balancer.strategies.leastloaded;
+
+import com.linkedin.common.callback.Callback;
+import com.linkedin.common.util.None;
+import com.linkedin.d2.balancer.clients.TrackerClient;
+import com.linkedin.d2.balancer.clients.TrackerClientTest;
+import com.linkedin.d2.balancer.properties.PartitionData;
+import com.linkedin.d2.balancer.properties.PropertyKeys;
+import com.linkedin.d2.balancer.util.LoadBalancerUtil;
+import com.linkedin.d2.balancer.util.partitions.DefaultPartitionAccessor;
+import com.linkedin.r2.message.RequestContext;
+import com.linkedin.r2.message.rest.RestRequest;
+import com.linkedin.r2.message.rest.RestRequestBuilder;
+import com.linkedin.r2.message.rest.RestResponse;
+import com.linkedin.r2.message.rest.RestResponseBuilder;
+import com.linkedin.r2.message.rpc.RpcRequest;
+import com.linkedin.r2.message.rpc.RpcResponse;
+import com.linkedin.r2.transport.common.bridge.client.TransportClient;
+import com.linkedin.r2.transport.common.bridge.common.TransportCallback;
+import com.linkedin.r2.transport.common.bridge.common.TransportResponseImpl;
+import com.linkedin.util.clock.SettableClock;
+import org.testng.annotations.Test;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+public class LeastLoadedLoadBalancerTest
+{
+  private static final int PARTITION = DefaultPartitionAccessor.DEFAULT_PARTITION_ID;
+
+  @Test(groups = { "small", "back-end" })
+  public void testEmptyAndSingleClient()
+  {
+    LeastLoadedLoadBalancerStrategy strategy = new LeastLoadedLoadBalancerStrategy(true, true);
+    List<TrackerClient> clients = new ArrayList<TrackerClient>();
+    assertNull(strategy.getTrackerClient(null, new RequestContext(), 0, PARTITION, clients));
+
+    TrackerClient client = getClient("http://host1:1234", 1d, new SettableClock());
+    clients.add(client);
+    assertSame(strategy.getTrackerClient(null, new RequestContext(), 0, PARTITION, clients), client);
+  }
+
+  @Test(groups = { "small", "back-end" })
+  public void testPrefersFewerOutstandingCalls()
+  {
+    LeastLoadedLoadBalancerStrategy strategy = new LeastLoadedLoadBalancerStrategy(true, true);
+    TrackerClient busy = getClient("http://host1:1234", 1d, new SettableClock());
+    TrackerClient idle = getClient("http://host2:1234", 1d, new SettableClock());
+    List<TrackerClient> clients = new ArrayList<TrackerClient>();
+    clients.add(busy);
+    clients.add(idle);
+
+    for (int i = 0; i < 3; i++)
+    {
+      busy.getCallTracker().startCall();
+    }
+
+    for (int i = 0; i < 100; i++)
+    {
+      assertSame(strategy.getTrackerClient(null, new RequestContext(), 0, PARTITION, clients), idle);
+    }
+  }
+
+  @Test(groups = { "small", "back-end" })
+  public void testPrefersLowerLatency()
+  {
+    SettableClock slowClock = new SettableClock(0L);
+    SettableClock fastClock = new SettableClock(0L);
+    TrackerClient slow = getClient("http://host1:1234", 1d, slowClock);
+    TrackerClient fast = getClient("http://host2:1234", 1d, fastClock);
+    List<TrackerClient> clients = new ArrayList<TrackerClient>();
+    clients.add(slow);
+    clients.add(fast);
+
+    // the slow host has one call less outstanding, but ten times the latency
+    trackCall(slow, slowClock, 500);
+    trackCall(fast, fastClock, 50);
+    fast.getCallTracker().startCall();
+
+    LeastLoadedLoadBalancerStrategy strategy = new LeastLoadedLoadBalancerStrategy(true, true);
+    for (int i = 0; i < 100; i++)
+    {
+      assertSame(strategy.getTrackerClient(null, new RequestContext(), 0, PARTITION, clients), fast);
+    }
+
+    // without latency, outstanding calls decide
+    strategy = new LeastLoadedLoadBalancerStrategy(false, true);
+    for (int i = 0; i < 100; i++)
+    {
+      assertSame(strategy.getTrackerClient(null, new RequestContext(), 0, PARTITION, clients), slow);
+    }
+  }
+
+  @Test(groups = { "small", "back-end" })
+  public void testLatencyFollowsCompletedCalls()
+  {
+    SettableClock clock = new SettableClock(0L);
+    TrackerClient client = getClient("http://host1:1234", 1d, clock);
+    assertEquals(client.getLatencyEwma(), 0d);
+
+    trackCall(client, clock, 100);
+    assertEquals(client.getLatencyEwma(), 100d);
+
+    // every completed call moves the average, without waiting for the call tracker interval
+    trackCall(client, clock, 600);
+    double latency = client.getLatencyEwma();
+    assertTrue(latency > 100d && latency < 600d, "latency: " + latency);
+    for (int i = 0; i < 50; i++)
+    {
+      trackCall(client, clock, 600);
+    }
+    assertTrue(client.getLatencyEwma() > 590d, "latency: " + client.getLatencyEwma());
+  }
+
+  @Test(groups = { "small", "back-end" })
+  public void testPartitionWeight()
+  {
+    TrackerClient light = getClient("http://host1:1234", 1d, new SettableClock());
+    TrackerClient heavy = getClient("http://host2:1234", 4d, new SettableClock());
+    List<TrackerClient> clients = new ArrayList<TrackerClient>();
+    clients.add(light);
+    clients.add(heavy);
+
+    // the host with four times the weight can take more outstanding calls
+    for (int i = 0; i < 2; i++)
+    {
+      heavy.getCallTracker().startCall();
+    }
+
+    LeastLoadedLoadBalancerStrategy strategy = new LeastLoadedLoadBalancerStrategy(true, true);
+    for (int i = 0; i < 100; i++)
+    {
+      assertSame(strategy.getTrackerClient(null, new RequestContext(), 0, PARTITION, clients), heavy);
+    }
+
+    strategy = new LeastLoadedLoadBalancerStrategy(true, false);
+    for (int i = 0; i < 100; i++)
+    {
+      assertSame(strategy.getTrackerClient(null, new RequestContext(), 0, PARTITION, clients), light);
+    }
+  }
+
+  @Test(groups = { "small", "back-end" })
+  public void testSpreadsLoad()
+  {
+    LeastLoadedLoadBalancerStrategy strategy = new LeastLoadedLoadBalancerStrategy(true, true);
+    List<TrackerClient> clients = new ArrayList<TrackerClient>();
+    for (int i = 0; i < 10; i++)
+    {
+      clients.add(getClient("http://host" + i + ":1234", 1d, new SettableClock()));
+    }
+
+    // calls that never complete: every host ends up with the same number of outstanding calls,
+    // give or take one
+    for (int i = 0; i < 1000; i++)
+    {
+      strategy.getTrackerClient(null, new RequestContext(), 0, PARTITION, clients).getCallTracker().startCall();
+    }
+    for (TrackerClient client : clients)
+    {
+      int concurrency = client.getCallTracker().getCurrentConcurrency();
+      assertFalse(concurrency < 90 || concurrency > 110, "unbalanced load: " + concurrency);
+    }
+  }
+
+  @Test(groups = { "small", "back-end" })
+  public void testSkipsExcludedHosts()
+  {
+    LeastLoadedLoadBalancerStrategy strategy = new LeastLoadedLoadBalancerStrategy(true, true);
+    List<TrackerClient> clients = new ArrayList<TrackerClient>();
+    for (int i = 0; i < 3; i++)
+    {
+      clients.add(getClient("http://host" + i + ":1234", 1d, new SettableClock()));
+    }
+
+    RequestContext requestContext = new RequestContext();
+    LoadBalancerUtil.FailoverHints.addRequestContextExcludedHost(requestContext, clients.get(0).getUri());
+    LoadBalancerUtil.FailoverHints.addRequestContextExcludedHost(requestContext, clients.get(1).getUri());
+    for (int i = 0; i < 100; i++)
+    {
+      assertSame(strategy.getTrackerClient(null, requestContext, 0, PARTITION, clients), clients.get(2));
+    }
+
+    LoadBalancerUtil.FailoverHints.addRequestContextExcludedHost(requestContext, clients.get(2).getUri());
+    assertNull(strategy.getTrackerClient(null, requestContext, 0, PARTITION, clients));
+  }
+
+  @Test(groups = { "small", "back-end" })
+  public void testFactory()
+  {
+    LeastLoadedLoadBalancerStrategyFactory factory = new LeastLoadedLoadBalancerStrategyFactory();
+    LeastLoadedLoadBalancerStrategy strategy = factory.newLoadBalancer("service", Collections.<String, Object>emptyMap());
+    assertEquals(strategy.isUseLatency(), true);
+    assertEquals(strategy.isUsePartitionWeight(), true);
+
+    Map<String, Object> properties = new HashMap<String, Object>();
+    properties.put(PropertyKeys.LB_LEAST_LOADED_USE_LATENCY, "false");
+    properties.put(PropertyKeys.LB_LEAST_LOADED_USE_PARTITION_WEIGHT, "false");
+    strategy = factory.newLoadBalancer("service", properties);
+    assertEquals(strategy.isUseLatency(), false);
+    assertEquals(strategy.isUsePartitionWeight(), false);
+  }
+
+  private static void trackCall(TrackerClient client, SettableClock clock, long duration)
+  {
+    HoldingClient wrappedClient = (HoldingClient) client.getWrappedClient();
+    client.restRequest(new RestRequestBuilder(client.getUri()).build(),
+                       new RequestContext(),
+                       new HashMap<String, String>(),
+                       new TrackerClientTest.TestTransportCallback<RestResponse>());
+    clock.addDuration(duration);
+    wrappedClient.callback.onResponse(TransportResponseImpl.<RestResponse>success(new RestResponseBuilder().build()));
+  }
+
+  private static TrackerClient getClient(String uri, double weight, SettableClock clock)
+  {
+    Map<Integer, PartitionData> partitionDataMap = new HashMap<Integer, PartitionData>(2);
+    partitionDataMap.put(PARTITION, new PartitionData(weight));
+    return new TrackerClient(URI.create(uri), partitionDataMap, new HoldingClient(), clock, null);
+  }
+
+  private static class HoldingClient implements TransportClient
+  {
+    private TransportCallback<RestResponse> callback;
+
+    @Override
+    public void restRequest(RestRequest request,
+                            RequestContext requestContext,
+                            Map<String, String> wireAttrs,
+                            TransportCallback<RestResponse> callback)
+    {
+      this.callback = callback;
+    }
+
+    @Override
+    public void rpcRequest(RpcRequest request,
+                           RequestContext requestContext,
+                           Map<String, String> wireAttrs,
+                           TransportCallback<RpcResponse> callback)
+    {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void shutdown(Callback<None> callback)
+    {
+      callback.onSuccess(None.none());
+    }
+  }
+}
@@ -0,0 +1,240 @@
+/*
+   Copyright (c) 2012 LinkedIn Corp.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+
+package com.linkedin.d2.balancer.strategies.locality;
+
+import com.linkedin.d2.balancer.clients.TrackerClient;
+import com.linkedin.d2.balancer.properties.PartitionData;
+import com.linkedin.d2.balancer.strategies.random.RandomLoadBalancerStrategy;
+import com.linkedin.d2.balancer.util.partitions.DefaultPartitionAccessor;
+import com.linkedin.r2.message.RequestContext;
+import com.linkedin.util.clock.SettableClock;
+import com.linkedin.util.degrader.CallCompletion;
+import com.linkedin.util.degrader.DegraderControl;
+import org.testng.annotations.Test;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class LocalityAwareLoadBalancerTest
+{
+  private static final int PARTITION = DefaultPartitionAccessor.DEFAULT_PARTITION_ID;
+
+  @Test(groups = { "small", "back-end" })
+  public void testPrefersLocalZone()
+  {
+    Map<URI, String> zones = new HashMap<URI, String>();
+    List<TrackerClient> clients = new ArrayList<TrackerClient>();
+    List<TrackerClient> localClients = new ArrayList<TrackerClient>();
+    for (int i = 0; i < 6; i++)
+    {
+      TrackerClient client = getClient("http://host" + i + ":1234", new SettableClock());
+      clients.add(client);
+      zones.put(client.getUri(), i % 2 == 0 ? "zone-a" : "zone-b");
+      if (i % 2 == 0)
+      {
+        localClients.add(client);
+      }
+    }
+
+    LocalityAwareLoadBalancerStrategy strategy = getStrategy("zone-a", zones);
+    for (int i = 0; i < 1000; i++)
+    {
+      TrackerClient client = strategy.getTrackerClient(null, new RequestContext(), 0, PARTITION, clients);
+      assertTrue(localClients.contains(client), "routed to a remote host: " + client.getUri());
+    }
+  }
+
+  @Test(groups = { "small", "back-end" })
+  public void testNoLocalHosts()
+  {
+    Map<URI, String> zones = new HashMap<URI, String>();
+    List<TrackerClient> clients = new ArrayList<TrackerClient>();
+    for (int i = 0; i < 3; i++)
+    {
+      TrackerClient client = getClient("http://host" + i + ":1234", new SettableClock());
+      clients.add(client);
+      zones.put(client.getUri(), "zone-b");
+    }
+    // a host without a zone is never local
+    clients.add(getClient("http://host3:1234", new SettableClock()));
+
+    LocalityAwareLoadBalancerStrategy strategy = getStrategy("zone-a", zones);
+    Map<TrackerClient, Integer> counts = new HashMap<TrackerClient, Integer>();
+    for (int i = 0; i < 1000; i++)
+    {
+      TrackerClient client = strategy.getTrackerClient(null, new RequestContext(), 0, PARTITION, clients);
+      Integer count = counts.get(client);
+      counts.put(client, count == null ? 1 : count + 1);
+    }
+    assertEquals(counts.size(), 4);
+  }
+
+  @Test(groups = { "small", "back-end" })
+  public void testSpillsOverWhenLocalZoneIsDegraded()
+  {
+    Map<URI, String> zones = new HashMap<URI, String>();
+    SettableClock localClock = new SettableClock(0L);
+    TrackerClient local = getClient("http://host1:1234", localClock);
+    TrackerClient remote = getClient("http://host2:1234", new SettableClock());
+    zones.put(local.getUri(), "zone-a");
+    zones.put(remote.getUri(), "zone-b");
+    List<TrackerClient> clients = new ArrayList<TrackerClient>();
+    clients.add(local);
+    clients.add(remote);
+
+    degrade(local, localClock);
+    assertTrue(LocalityAwareLoadBalancerStrategy.getHealth(clients.subList(0, 1), PARTITION) < 0.01);
+
+    // with no local capacity left, requests are spread over all hosts
+    LocalityAwareLoadBalancerStrategy strategy = getStrategy("zone-a", zones);
+    int remoteCount = 0;
+    for (int i = 0; i < 1000; i++)
+    {
+      if (strategy.getTrackerClient(null, new RequestContext(), 0, PARTITION, clients) == remote)
+      {
+        remoteCount++;
+      }
+    }
+    assertFalse(remoteCount < 400 || remoteCount > 600, "unexpected remote count: " + remoteCount);
+  }
+
+  @Test(groups = { "small", "back-end" })
+  public void testStaysLocalWhenRemoteZonesAreDegraded()
+  {
+    Map<URI, String> zones = new HashMap<URI, String>();
+    SettableClock localClock = new SettableClock(0L);
+    SettableClock remoteClock = new SettableClock(0L);
+    TrackerClient local = getClient("http://host1:1234", localClock);
+    TrackerClient remote = getClient("http://host2:1234", remoteClock);
+    zones.put(local.getUri(), "zone-a");
+    zones.put(remote.getUri(), "zone-b");
+    List<TrackerClient> clients = new ArrayList<TrackerClient>();
+    clients.add(local);
+    clients.add(remote);
+
+    // the remote zone has no capacity to take the local zone's load
+    degrade(local, localClock);
+    degrade(remote, remoteClock);
+    assertTrue(LocalityAwareLoadBalancerStrategy.getSpillOver(clients.subList(0, 1), clients, PARTITION) < 0.01);
+
+    LocalityAwareLoadBalancerStrategy strategy = getStrategy("zone-a", zones);
+    int remoteCount = 0;
+    for (int i = 0; i < 1000; i++)
+    {
+      if (strategy.getTrackerClient(null, new RequestContext(), 0, PARTITION, clients) == remote)
+      {
+        remoteCount++;
+      }
+    }
+    assertTrue(remoteCount < 50, "unexpected remote count: " + remoteCount);
+  }
+
+  @Test(groups = { "small", "back-end" })
+  public void testSpillOverIsWeightedByRemoteCapacity()
+  {
+    SettableClock localClock = new SettableClock(0L);
+    SettableClock remoteClock = new SettableClock(0L);
+    TrackerClient local = getClient("http://host1:1234", localClock);
+    TrackerClient healthyRemote = getClient("http://host2:1234", new SettableClock());
+    TrackerClient degradedRemote = getClient("http://host3:1234", remoteClock);
+    List<TrackerClient> clients = new ArrayList<TrackerClient>();
+    clients.add(local);
+    clients.add(healthyRemote);
+    clients.add(degradedRemote);
+    List<TrackerClient> localClients = clients.subList(0, 1);
+
+    // a healthy local zone keeps its load
+    assertEquals(LocalityAwareLoadBalancerStrategy.getSpillOver(localClients, clients, PARTITION), 0d);
+    // nothing spills over when there are no remote hosts
+    assertEquals(LocalityAwareLoadBalancerStrategy.getSpillOver(localClients, localClients, PARTITION), 0d);
+
+    // half of the remote capacity is left, so half of the local zone's load spills over
+    degrade(local, localClock);
+    degrade(degradedRemote, remoteClock);
+    double spillOver = LocalityAwareLoadBalancerStrategy.getSpillOver(localClients, clients, PARTITION);
+    assertTrue(spillOver > 0.45 && spillOver < 0.55, "unexpected spill over: " + spillOver);
+  }
+
+  @Test(groups = { "small", "back-end" })
+  public void testZonesAreResolvedPerGeneration()
+  {
+    Map<URI, String> zones = new HashMap<URI, String>();
+    TrackerClient first = getClient("http://host1:1234", new SettableClock());
+    TrackerClient second = getClient("http://host2:1234", new SettableClock());
+    zones.put(first.getUri(), "zone-a");
+    zones.put(second.getUri(), "zone-b");
+    List<TrackerClient> clients = new ArrayList<TrackerClient>();
+    clients.add(first);
+    clients.add(second);
+
+    LocalityAwareLoadBalancerStrategy strategy = getStrategy("zone-a", zones);
+    assertEquals(strategy.getTrackerClient(null, new RequestContext(), 0, PARTITION, clients), first);
+
+    // the hosts moved, which comes with a new cluster generation
+    zones.put(first.getUri(), "zone-b");
+    zones.put(second.getUri(), "zone-a");
+    assertEquals(strategy.getTrackerClient(null, new RequestContext(), 0, PARTITION, clients), first);
+    assertEquals(strategy.getTrackerClient(null, new RequestContext(), 1, PARTITION, clients), second);
+  }
+
+  private static LocalityAwareLoadBalancerStrategy getStrategy(String localZone, final Map<URI, String> zones)
+  {
+    return new LocalityAwareLoadBalancerStrategy(localZone,
+                                                 new LocalityAwareLoadBalancerStrategy.ZoneResolver()
+                                                 {
+                                                   @Override
+                                                   public String getZone(URI uri)
+                                                   {
+                                                     return zones.get(uri);
+                                                   }
+                                                 },
+                                                 new RandomLoadBalancerStrategy(),
+                                                 new RandomLoadBalancerStrategy());
+  }
+
+  /**
+   * Makes the degrader of the client drop everything.
+   */
+  private static void degrade(TrackerClient client, SettableClock clock)
+  {
+    DegraderControl degraderControl = client.getDegraderControl(PARTITION);
+    degraderControl.setMinCallCount(1);
+    degraderControl.setOverrideMinCallCount(1);
+    degraderControl.setMaxDropRate(1d);
+    degraderControl.setUpStep(1d);
+    degraderControl.setHighErrorRate(0);
+    CallCompletion cc = client.getCallTracker().startCall();
+    clock.addDuration(10000);
+    cc.endCallWithError();
+    clock.addDuration(5000);
+  }
+
+  private static TrackerClient getClient(String uri, SettableClock clock)
+  {
+    Map<Integer, PartitionData> partitionDataMap = new HashMap<Integer, PartitionData>(2);
+    partitionDataMap.put(PARTITION, new PartitionData(1d));
+    return new TrackerClient(URI.create(uri), partitionDataMap, null, clock, null);
+  }
+}
@@ -17,6 +17,7 @@
 package com.linkedin.d2.balancer.util.hashing;
 
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertNotNull;
 import static org.testng.Assert.assertNull;
 import static org.testng.Assert.assertTrue;
@@ -24,6 +25,7 @@ import static org.testng.Assert.assertTrue;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -84,6 +86,35 @@ public class ConsistentHashRingTest
     }
   }
 
+  @Test(groups = { "small", "back-end" })
+  public void testIterator()
+  {
+    Map<String, Integer> many = new HashMap<String, Integer>();
+    for (int i = 0; i < 10; ++i)
+    {
+      many.put("test" + i, 10);
+    }
+    ConsistentHashRing<String> test = new ConsistentHashRing<String>(many);
+
+    for (int key : new int[] { Integer.MIN_VALUE, -1, 0, 1, Integer.MAX_VALUE })
+    {
+      // starts with the object get returns, and visits every point once
+      Iterator<String> iterator = test.getIterator(key);
+      assertEquals(iterator.next(), test.get(key));
+      Map<String, Integer> counts = new HashMap<String, Integer>();
+      counts.put(test.get(key), 1);
+      while (iterator.hasNext())
+      {
+        String object = iterator.next();
+        Integer count = counts.get(object);
+        counts.put(object, count == null ? 1 : count + 1);
+      }
+      assertEquals(counts, many);
+    }
+
+    assertFalse(new ConsistentHashRing<String>(new HashMap<String, Integer>()).getIterator(0).hasNext());
+  }
+
   @Test(groups = { "small", "back-end" })
   public void testManyItemsEqualWeight()
   {
@@ -0,0 +1,97 @@
+/*
+   Copyright (c) 2012 LinkedIn Corp.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.linkedin.d2.balancer.util.partitions;
+
+import com.linkedin.d2.balancer.properties.HashBasedPartitionProperties;
+import com.linkedin.d2.balancer.properties.RangeBasedPartitionProperties;
+import com.linkedin.d2.balancer.util.hashing.MD5Hash;
+
+import java.net.URI;
+
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.fail;
+
+public class PartitionAccessorTest
+{
+  private static final String[] KEYS = { "0", "1", "17", "99", "100", "12345678901", "-5", "abc", "" };
+
+  @Test(groups = { "small", "back-end" })
+  public void testBulkMatchesSingleKey()
+  {
+    checkBulkMatchesSingleKey(new HashBasedPartitionAccessor(
+        new HashBasedPartitionProperties("/profiles/(\\d+)", 10, HashBasedPartitionProperties.HashAlgorithm.MODULO)));
+    checkBulkMatchesSingleKey(new HashBasedPartitionAccessor(
+        new HashBasedPartitionProperties("/profiles/(\\d+)", 10, HashBasedPartitionProperties.HashAlgorithm.MD5)));
+    checkBulkMatchesSingleKey(new RangeBasedPartitionAccessor(
+        new RangeBasedPartitionProperties("/profiles/(\\d+)", 0, 10, 10)));
+    checkBulkMatchesSingleKey(DefaultPartitionAccessor.getInstance());
+  }
+
+  @Test(groups = { "small", "back-end" })
+  public void testMd5HashLong()
+  {
+    MD5Hash hash = new MD5Hash();
+    for (String key : KEYS)
+    {
+      assertEquals(hash.hashLong(key), hash.hashLong(new String[] { key }));
+    }
+  }
+
+  @Test(groups = { "small", "back-end" })
+  public void testPrefixPatternMatchesRegex() throws Exception
+  {
+    RangeBasedPartitionProperties properties = new RangeBasedPartitionProperties("id=(\\d+)", 0, 10, 10);
+    PartitionAccessor accessor = new RangeBasedPartitionAccessor(properties);
+
+    assertEquals(accessor.getPartitionId(URI.create("/profiles?uid=abc&id=57")), 5);
+    assertEquals(accessor.getPartitionId(URI.create("/profiles?id=&id=3")), 0);
+    try
+    {
+      accessor.getPartitionId(URI.create("/profiles?uid=abc"));
+      fail("expected PartitionAccessException");
+    }
+    catch (PartitionAccessException e)
+    {
+      // expected
+    }
+
+    // not a plain prefix, goes through the regex
+    accessor = new RangeBasedPartitionAccessor(new RangeBasedPartitionProperties("/profiles/(\\d+)/.*", 0, 10, 10));
+    assertEquals(accessor.getPartitionId(URI.create("/profiles/42/friends")), 4);
+  }
+
+  private static void checkBulkMatchesSingleKey(PartitionAccessor accessor)
+  {
+    int[] partitionIds = new int[KEYS.length];
+    accessor.getPartitionIds(KEYS, partitionIds);
+    for (int i = 0; i < KEYS.length; i++)
+    {
+      int expected;
+      try
+      {
+        expected = accessor.getPartitionId(KEYS[i]);
+      }
+      catch (PartitionAccessException e)
+      {
+        expected = PartitionAccessor.UNMAPPED_PARTITION_ID;
+      }
+      assertEquals(partitionIds[i], expected, "key " + KEYS[i]);
+    }
+  }
+}
@@ -0,0 +1,130 @@
+/*
+   Copyright (c) 2012 LinkedIn Corp.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.linkedin.d2.balancer.util.subsetting;
+
+import com.linkedin.d2.balancer.properties.PartitionData;
+import com.linkedin.d2.balancer.properties.UriProperties;
+import org.testng.annotations.Test;
+
+import java.net.URI;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+public class DeterministicSubsetterTest
+{
+  @Test(groups = { "small", "back-end" })
+  public void testSmallClusterIsNotSubsetted()
+  {
+    UriProperties uris = buildUris(5, 1);
+    assertEquals(new DeterministicSubsetter("client").getSubset(uris, 5), uris.Uris());
+    assertEquals(new DeterministicSubsetter("client").getSubset(uris, 0), uris.Uris());
+  }
+
+  @Test(groups = { "small", "back-end" })
+  public void testDeterministic()
+  {
+    UriProperties uris = buildUris(100, 1);
+    Set<URI> subset = new DeterministicSubsetter("client").getSubset(uris, 10);
+    assertEquals(subset.size(), 10);
+    assertEquals(new DeterministicSubsetter("client").getSubset(uris, 10), subset);
+  }
+
+  @Test(groups = { "small", "back-end" })
+  public void testMinimalChangeOnMembershipChange()
+  {
+    DeterministicSubsetter subsetter = new DeterministicSubsetter("client");
+    Map<URI, Map<Integer, PartitionData>> desc =
+        new HashMap<URI, Map<Integer, PartitionData>>(buildUris(100, 1).getPartitionDesc());
+    Set<URI> subset = subsetter.getSubset(new UriProperties("cluster", desc), 10);
+
+    // a host joining either replaces one host of the subset or nothing
+    desc.put(URI.create("http://newhost:1234/"), desc.values().iterator().next());
+    Set<URI> grown = subsetter.getSubset(new UriProperties("cluster", desc), 10);
+    Set<URI> kept = new HashSet<URI>(grown);
+    kept.retainAll(subset);
+    assertTrue(kept.size() >= 9);
+
+    // a host leaving the subset is replaced, the others are kept
+    URI leaving = grown.iterator().next();
+    desc.remove(leaving);
+    Set<URI> shrunk = subsetter.getSubset(new UriProperties("cluster", desc), 10);
+    assertEquals(shrunk.size(), 10);
+    Set<URI> expectedKept = new HashSet<URI>(grown);
+    expectedKept.remove(leaving);
+    assertTrue(shrunk.containsAll(expectedKept));
+  }
+
+  @Test(groups = { "small", "back-end" })
+  public void testEveryPartitionIsCovered()
+  {
+    UriProperties uris = buildUris(40, 4);
+    Set<URI> subset = new DeterministicSubsetter("client").getSubset(uris, 3);
+    for (int partition = 0; partition < 4; partition++)
+    {
+      int count = 0;
+      for (URI uri : subset)
+      {
+        if (uris.getPartitionDataMap(uri).containsKey(partition))
+        {
+          count++;
+        }
+      }
+      assertEquals(count, 3);
+    }
+  }
+
+  @Test(groups = { "small", "back-end" })
+  public void testEvenSpread()
+  {
+    UriProperties uris = buildUris(50, 1);
+    Map<URI, Integer> clientsPerHost = new HashMap<URI, Integer>();
+    for (int client = 0; client < 1000; client++)
+    {
+      for (URI uri : new DeterministicSubsetter("client-" + client).getSubset(uris, 10))
+      {
+        Integer count = clientsPerHost.get(uri);
+        clientsPerHost.put(uri, count == null ? 1 : count + 1);
+      }
+    }
+    // 200 clients per host on average
+    assertEquals(clientsPerHost.size(), 50);
+    for (int count : clientsPerHost.values())
+    {
+      assertTrue(count > 140 && count < 260, "uneven spread: " + count);
+    }
+  }
+
+  /**
+   * Builds a cluster where each host serves one of the partitions, round robin.
+   */
+  private static UriProperties buildUris(int hosts, int partitions)
+  {
+    Map<URI, Map<Integer, PartitionData>> desc = new HashMap<URI, Map<Integer, PartitionData>>();
+    for (int i = 0; i < hosts; i++)
+    {
+      Map<Integer, PartitionData> partitionData = new HashMap<Integer, PartitionData>();
+      partitionData.put(i % partitions, new PartitionData(1d));
+      desc.put(URI.create("http://host-" + i + ":1234/"), partitionData);
+    }
+    return new UriProperties("cluster", desc);
+  }
+}
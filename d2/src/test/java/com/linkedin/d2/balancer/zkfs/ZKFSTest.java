@@ -25,6 +25,7 @@ import com.linkedin.common.util.None;
 import com.linkedin.d2.balancer.Directory;
 import com.linkedin.d2.balancer.Facilities;
 import com.linkedin.d2.balancer.KeyMapper;
+import com.linkedin.d2.balancer.ServiceUnavailableException;
 import com.linkedin.d2.balancer.properties.ClusterProperties;
 import com.linkedin.d2.balancer.properties.ClusterPropertiesJsonSerializer;
 import com.linkedin.d2.balancer.properties.PartitionData;
@@ -133,6 +134,11 @@ public class ZKFSTest
   }
 
   private ZKFSLoadBalancer getBalancer()
+  {
+    return getBalancer(0);
+  }
+
+  private ZKFSLoadBalancer getBalancer(long warmStartMaxStaleness)
   {
     ZKFSComponentFactory f = new ZKFSComponentFactory();
     Map<String, LoadBalancerStrategyFactory<? extends LoadBalancerStrategy>> loadBalancerStrategyFactories =
@@ -154,7 +160,8 @@ public class ZKFSTest
             5, TimeUnit.SECONDS, BASE_PATH, _tmpdir.getAbsolutePath(),
             clientFactories,
             loadBalancerStrategyFactories);
-    ZKFSLoadBalancer balancer = new ZKFSLoadBalancer("localhost:"+PORT, 60000, 5000, f2, null, BASE_PATH);
+    ZKFSLoadBalancer balancer = new ZKFSLoadBalancer("localhost:"+PORT, 60000, 5000, f2, null, BASE_PATH,
+                                                     _tmpdir.getAbsolutePath(), warmStartMaxStaleness);
     return balancer;
   }
 
@@ -190,6 +197,92 @@ public class ZKFSTest
 
   }
 
+  @Test
+  public void testWarmStartupWithServerDown()
+          throws ExecutionException, TimeoutException, InterruptedException, IOException
+  {
+    File marker = new File(_tmpdir, ZKFSLoadBalancer.SNAPSHOT_SYNC_MARKER);
+    Assert.assertTrue(marker.createNewFile());
+
+    // the snapshot is recent enough, so startup does not wait for the initial ZK timeout
+    ZKFSLoadBalancer balancer = getBalancer(60000);
+    FutureCallback<None> callback = new FutureCallback<None>();
+    balancer.start(callback);
+    callback.get(2, TimeUnit.SECONDS);
+  }
+
+  @Test
+  public void testWarmStartupRecordsSync()
+          throws ExecutionException, TimeoutException, InterruptedException, IOException
+  {
+    File marker = new File(_tmpdir, ZKFSLoadBalancer.SNAPSHOT_SYNC_MARKER);
+    startServer();
+    try
+    {
+      ZKFSLoadBalancer balancer = getBalancer(60000);
+      FutureCallback<None> callback = new FutureCallback<None>();
+      balancer.start(callback);
+      callback.get(5, TimeUnit.SECONDS);
+
+      // no snapshot yet, so the balancer started from ZooKeeper and recorded the sync
+      Assert.assertTrue(marker.exists());
+    }
+    finally
+    {
+      stopServer();
+    }
+  }
+
+  @Test
+  public void testWarmStartupStopsServingStaleSnapshot()
+          throws ExecutionException, TimeoutException, InterruptedException, IOException
+  {
+    File marker = new File(_tmpdir, ZKFSLoadBalancer.SNAPSHOT_SYNC_MARKER);
+    Assert.assertTrue(marker.createNewFile());
+    // the snapshot becomes too stale about a second after startup
+    Assert.assertTrue(marker.setLastModified(System.currentTimeMillis() - 59000));
+
+    ZKFSLoadBalancer balancer = getBalancer(60000);
+    FutureCallback<None> callback = new FutureCallback<None>();
+    balancer.start(callback);
+    callback.get(2, TimeUnit.SECONDS);
+
+    Thread.sleep(2000);
+    try
+    {
+      balancer.getClient(new URIRequest("d2://foo"), new RequestContext());
+      Assert.fail("served from a stale snapshot");
+    }
+    catch (ServiceUnavailableException e)
+    {
+      // expected
+    }
+  }
+
+  @Test
+  public void testSyncMarkerRefreshedWhileConnected()
+          throws ExecutionException, TimeoutException, InterruptedException, IOException
+  {
+    File marker = new File(_tmpdir, ZKFSLoadBalancer.SNAPSHOT_SYNC_MARKER);
+    startServer();
+    try
+    {
+      ZKFSLoadBalancer balancer = getBalancer(4000);
+      FutureCallback<None> callback = new FutureCallback<None>();
+      balancer.start(callback);
+      callback.get(5, TimeUnit.SECONDS);
+
+      Assert.assertTrue(marker.setLastModified(System.currentTimeMillis() - 100000));
+      Thread.sleep(2500);
+      Assert.assertTrue(System.currentTimeMillis() - marker.lastModified() < 10000,
+                        "sync marker was not refreshed");
+    }
+    finally
+    {
+      stopServer();
+    }
+  }
+
   @Test
   public void testExpiration()
           throws ExecutionException, TimeoutException, InterruptedException, IOException
@@ -21,11 +21,18 @@
 package com.linkedin.d2.discovery.event;
 
 import com.linkedin.d2.discovery.stores.mock.MockStore;
+import com.linkedin.d2.discovery.stores.util.StoreEventPublisher;
 
 
+import java.util.HashSet;
+import java.util.Set;
 import java.util.concurrent.ScheduledExecutorService;
 import org.testng.annotations.Test;
 
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
 /**
  * @author Steven Ihde
  * @version $Revision: $
@@ -65,6 +72,52 @@ public class PropertyEventBusImplTest extends PropertyEventBusTest
     return (MockStore<String>) bus.getPublisher();
   }
 
+  @Test
+  public void testSwitchPublisherWithSameValue()
+  {
+    PropertyEventTestSubscriber subscriber = switchPublisher(false);
+
+    // without reconciliation, every property is published again
+    assertEquals(subscriber.properties.get("add-sameProp"), "value");
+    assertEquals(subscriber.properties.get("add-changedProp"), "newValue");
+  }
+
+  @Test
+  public void testSwitchToReconcilingPublisher()
+  {
+    PropertyEventTestSubscriber subscriber = switchPublisher(true);
+
+    // only the property whose value differs is published again
+    assertFalse(subscriber.properties.containsKey("add-sameProp"));
+    assertEquals(subscriber.properties.get("add-changedProp"), "newValue");
+  }
+
+  private PropertyEventTestSubscriber switchPublisher(boolean reconcile)
+  {
+    PropertyEventBusImpl<String> bus = (PropertyEventBusImpl<String>) getBus();
+    PropertyEventTestSubscriber subscriber = new PropertyEventTestSubscriber();
+
+    put(bus, "sameProp", "value");
+    put(bus, "changedProp", "oldValue");
+
+    Set<String> props = new HashSet<String>();
+    props.add("sameProp");
+    props.add("changedProp");
+    bus.register(props, subscriber);
+    assertTrue(subscriber.properties.containsKey("init-sameProp"));
+
+    MockStore<String> newStore = new MockStore<String>();
+    newStore.put("sameProp", "value");
+    newStore.put("changedProp", "newValue");
+    PropertyEventPublisher<String> newPublisher = new StoreEventPublisher<String>(newStore);
+    if (reconcile)
+    {
+      bus.setReconcilingPublisher(newPublisher);
+    }
+    bus.setPublisher(newPublisher);
+    return subscriber;
+  }
+
   @Test
   public void testNothing()
   {
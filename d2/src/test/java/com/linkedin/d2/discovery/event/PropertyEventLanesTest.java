@@ -0,0 +1,237 @@
+/*
+   Copyright (c) 2012 LinkedIn Corp.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+
+package com.linkedin.d2.discovery.event;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.testng.annotations.Test;
+
+import com.linkedin.d2.discovery.event.PropertyEventThread.PropertyEvent;
+import com.linkedin.d2.discovery.event.PropertyEventThread.PropertyEventShutdownCallback;
+
+public class PropertyEventLanesTest
+{
+  @Test(groups = { "small", "back-end" })
+  public void testOrderingPerKey() throws InterruptedException
+  {
+    PropertyEventLanes lanes = new PropertyEventLanes("test", 4);
+    final List<Integer> seen = Collections.synchronizedList(new ArrayList<Integer>());
+    final CountDownLatch done = new CountDownLatch(1);
+
+    for (int i = 0; i < 1000; i++)
+    {
+      final int value = i;
+      lanes.send("cluster-1", new PropertyEvent("record " + i)
+      {
+        @Override
+        public void innerRun()
+        {
+          seen.add(value);
+        }
+      });
+    }
+    lanes.send("cluster-1", new PropertyEvent("done")
+    {
+      @Override
+      public void innerRun()
+      {
+        done.countDown();
+      }
+    });
+
+    assertTrue(done.await(10, TimeUnit.SECONDS));
+    assertEquals(seen.size(), 1000);
+    for (int i = 0; i < 1000; i++)
+    {
+      assertEquals(seen.get(i).intValue(), i);
+    }
+
+    PropertyEventThread lane = lanes.getLane("cluster-1");
+    assertSame(lanes.getLane("cluster-1"), lane);
+    assertEquals(lane.getProcessedMessageCount(), 1001);
+    assertEquals(lane.getQueuedMessageCount(), 0);
+    assertTrue(lane.getMaxProcessingTimeMs() >= lane.getAverageProcessingTimeMs());
+
+    lanes.shutdown();
+  }
+
+  @Test(groups = { "small", "back-end" })
+  public void testSlowLaneDoesNotBlockOthers() throws InterruptedException
+  {
+    PropertyEventLanes lanes = new PropertyEventLanes("test", 2);
+    String slowKey = "cluster-1";
+    String fastKey = null;
+    for (int i = 2; fastKey == null; i++)
+    {
+      if (lanes.getLane("cluster-" + i) != lanes.getLane(slowKey))
+      {
+        fastKey = "cluster-" + i;
+      }
+    }
+    assertNotSame(lanes.getLane(fastKey), lanes.getLane(slowKey));
+
+    final CountDownLatch release = new CountDownLatch(1);
+    final CountDownLatch fastDone = new CountDownLatch(1);
+    lanes.send(slowKey, new PropertyEvent("blocked")
+    {
+      @Override
+      public void innerRun()
+      {
+        try
+        {
+          release.await();
+        }
+        catch (InterruptedException e)
+        {
+          Thread.currentThread().interrupt();
+        }
+      }
+    });
+    lanes.send(fastKey, new PropertyEvent("fast")
+    {
+      @Override
+      public void innerRun()
+      {
+        fastDone.countDown();
+      }
+    });
+
+    assertTrue(fastDone.await(10, TimeUnit.SECONDS));
+    release.countDown();
+
+    lanes.shutdown();
+    lanes.getLane(slowKey).join(10000);
+    lanes.getLane(fastKey).join(10000);
+    assertFalse(lanes.getLane(slowKey).isAlive());
+    assertFalse(lanes.getLane(fastKey).isAlive());
+  }
+
+  @Test(groups = { "small", "back-end" })
+  public void testEventOfSeveralKeys() throws InterruptedException
+  {
+    final PropertyEventLanes lanes = new PropertyEventLanes("test", 2);
+    final String key1 = "cluster-1";
+    final String key2 = getKeyOnOtherLane(lanes, key1);
+    final List<String> seen = Collections.synchronizedList(new ArrayList<String>());
+    final CountDownLatch release = new CountDownLatch(1);
+    final CountDownLatch done = new CountDownLatch(2);
+
+    lanes.send(key1, new PropertyEvent("blocked")
+    {
+      @Override
+      public void innerRun()
+      {
+        try
+        {
+          release.await();
+        }
+        catch (InterruptedException e)
+        {
+          Thread.currentThread().interrupt();
+        }
+        seen.add("before-1");
+      }
+    });
+    lanes.send(key2, record(seen, "before-2", null));
+    lanes.send(Arrays.asList(key1, key2), record(seen, "both", null));
+    lanes.send(key1, record(seen, "after-1", done));
+    lanes.send(key2, record(seen, "after-2", done));
+
+    // the event of both keys waits for the blocked lane, and holds up the other lane meanwhile
+    Thread.sleep(100);
+    assertEquals(seen, Arrays.asList("before-2"));
+    release.countDown();
+
+    assertTrue(done.await(10, TimeUnit.SECONDS));
+    assertEquals(seen.subList(0, 3), Arrays.asList("before-2", "before-1", "both"));
+    assertTrue(seen.containsAll(Arrays.asList("after-1", "after-2")));
+    lanes.shutdown();
+  }
+
+  @Test(groups = { "small", "back-end" })
+  public void testShutdownDrainsLanes() throws InterruptedException
+  {
+    final PropertyEventLanes lanes = new PropertyEventLanes("test", 2);
+    final List<String> seen = Collections.synchronizedList(new ArrayList<String>());
+    final AtomicBoolean drained = new AtomicBoolean();
+    final CountDownLatch shutdown = new CountDownLatch(1);
+
+    for (int i = 0; i < 100; i++)
+    {
+      lanes.send("cluster-" + i, record(seen, "event-" + i, null));
+    }
+    lanes.shutdown(new PropertyEventShutdownCallback()
+    {
+      @Override
+      public void done()
+      {
+        drained.set(seen.size() == 100);
+        shutdown.countDown();
+      }
+    });
+    assertFalse(lanes.send("cluster-1", record(seen, "late", null)));
+
+    assertTrue(shutdown.await(10, TimeUnit.SECONDS));
+    assertTrue(drained.get());
+    for (int i = 0; i < lanes.getLaneCount(); i++)
+    {
+      lanes.getLane(i).join(10000);
+      assertFalse(lanes.getLane(i).isAlive());
+    }
+    assertEquals(seen.size(), 100);
+  }
+
+  private static String getKeyOnOtherLane(PropertyEventLanes lanes, String key)
+  {
+    for (int i = 2; ; i++)
+    {
+      if (lanes.getLane("cluster-" + i) != lanes.getLane(key))
+      {
+        return "cluster-" + i;
+      }
+    }
+  }
+
+  private static PropertyEvent record(final List<String> seen, final String value, final CountDownLatch done)
+  {
+    return new PropertyEvent("record " + value)
+    {
+      @Override
+      public void innerRun()
+      {
+        seen.add(value);
+        if (done != null)
+        {
+          done.countDown();
+        }
+      }
+    };
+  }
+}
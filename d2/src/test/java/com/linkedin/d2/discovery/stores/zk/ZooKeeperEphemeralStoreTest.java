@@ -23,16 +23,25 @@ import static org.testng.Assert.fail;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.testng.annotations.AfterSuite;
 import org.testng.annotations.BeforeSuite;
 import org.testng.annotations.Test;
 
+import com.linkedin.d2.discovery.event.PropertyEventBus;
+import com.linkedin.d2.discovery.event.PropertyEventPublisher;
+import com.linkedin.d2.discovery.event.PropertyEventSubscriber;
 import com.linkedin.d2.discovery.event.PropertyEventThread.PropertyEventShutdownCallback;
 import com.linkedin.d2.discovery.stores.PropertyStore;
 import com.linkedin.d2.discovery.stores.PropertyStoreException;
@@ -159,6 +168,120 @@ public class ZooKeeperEphemeralStoreTest
     }
   }
 
+  @Test(groups = { "small", "back-end" })
+  public void testIncrementalChildUpdates()
+          throws InterruptedException, IOException, PropertyStoreException, ExecutionException
+  {
+    final String prop = "service-incremental";
+    ZooKeeperEphemeralStore<String> writer = getStore();
+    writer.put(prop, "1");
+    writer.put(prop, "2");
+
+    final AtomicInteger reads = new AtomicInteger();
+    ZKConnection client = new ZKConnection("localhost:" + _port, 5000);
+    client.start();
+    ZooKeeperEphemeralStore<String> publisher = new ZooKeeperEphemeralStore<String>(
+            client,
+            new PropertyStringSerializer()
+            {
+              @Override
+              public String fromBytes(byte[] bytes)
+              {
+                reads.incrementAndGet();
+                return super.fromBytes(bytes);
+              }
+            },
+            new PropertyStringMerger(),
+            "/test-path");
+    FutureCallback<None> callback = new FutureCallback<None>();
+    publisher.start(callback);
+    callback.get();
+
+    QueueBus bus = new QueueBus();
+    publisher.setBus(bus);
+    publisher.startPublishing(prop);
+    bus.awaitValue("1", "2");
+    assertEquals(reads.get(), 2);
+
+    // only the new child is read
+    writer.put(prop, "3");
+    bus.awaitValue("1", "2", "3");
+    assertEquals(reads.get(), 3);
+
+    // removing a child requires no reads at all
+    writer.removePartial(prop, "2");
+    bus.awaitValue("1", "3");
+    assertEquals(reads.get(), 3);
+  }
+
+  /**
+   * Bus which queues the values published for a single property.
+   */
+  private static class QueueBus implements PropertyEventBus<String>
+  {
+    private final BlockingQueue<String> _values = new LinkedBlockingQueue<String>();
+
+    public void awaitValue(String... expected) throws InterruptedException
+    {
+      Set<String> expectedSet = new HashSet<String>(Arrays.asList(expected));
+      while (true)
+      {
+        String value = _values.poll(10, TimeUnit.SECONDS);
+        if (value == null)
+        {
+          fail("timed out waiting for " + expectedSet);
+        }
+        if (new HashSet<String>(Arrays.asList(value.split(","))).equals(expectedSet))
+        {
+          return;
+        }
+      }
+    }
+
+    @Override
+    public void publishInitialize(String prop, String value)
+    {
+      _values.add(value == null ? "" : value);
+    }
+
+    @Override
+    public void publishAdd(String prop, String value)
+    {
+      _values.add(value == null ? "" : value);
+    }
+
+    @Override
+    public void publishRemove(String prop)
+    {
+      _values.add("");
+    }
+
+    @Override
+    public void register(PropertyEventSubscriber<String> subscriber)
+    {
+    }
+
+    @Override
+    public void unregister(PropertyEventSubscriber<String> subscriber)
+    {
+    }
+
+    @Override
+    public void register(Set<String> propertyNames, PropertyEventSubscriber<String> subscriber)
+    {
+    }
+
+    @Override
+    public void unregister(Set<String> propertyNames, PropertyEventSubscriber<String> subscriber)
+    {
+    }
+
+    @Override
+    public void setPublisher(PropertyEventPublisher<String> publisher)
+    {
+    }
+  }
+
   public static class PropertyStringMerger implements ZooKeeperPropertyMerger<String>
   {
     @Override
@@ -63,6 +63,22 @@ public final class ByteString
     return bytes.length == 0 ? empty() : new ByteString(Arrays.copyOf(bytes, bytes.length));
   }
 
+  /**
+   * Returns a new {@link ByteString} that wraps the supplied bytes without copying them.
+   * Changes to the supplied bytes will be reflected in the returned {@link ByteString}, so the
+   * caller must not modify them, nor share them with code that may.  Use this for bytes that
+   * were just created and are handed over, e.g. the output of a codec.
+   *
+   * @param bytes the bytes to wrap
+   * @return a {@link ByteString} that wraps the supplied bytes
+   * @throws NullPointerException if {@code bytes} is {@code null}.
+   */
+  public static ByteString unsafeWrap(byte[] bytes)
+  {
+    ArgumentUtil.notNull(bytes, "bytes");
+    return bytes.length == 0 ? empty() : new ByteString(bytes);
+  }
+
   /**
    * Returns a new {@link ByteString} that wraps a copy of the bytes in the supplied {@link ByteBuffer}.
    * Changes to the supplied bytes will not be reflected in the returned {@link ByteString}.
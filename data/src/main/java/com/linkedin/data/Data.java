@@ -314,12 +314,20 @@ public class Data
       else
       {
         callback.startList(list);
-        int index = 0;
-        for (Object o : list)
+        Class<?> primitiveClass = list.getPrimitiveClass();
+        if (primitiveClass == null)
         {
-          callback.index(index);
-          ++index;
-          traverse(o, callback);
+          int index = 0;
+          for (Object o : list)
+          {
+            callback.index(index);
+            ++index;
+            traverse(o, callback);
+          }
+        }
+        else
+        {
+          traversePrimitives(list, primitiveClass, callback);
         }
         callback.endList();
       }
@@ -350,6 +358,54 @@ public class Data
     }
   }
 
+  /**
+   * Traverse the elements of a {@link DataList} that stores them unboxed.
+   */
+  private static void traversePrimitives(DataList list, Class<?> primitiveClass, TraverseCallback callback) throws IOException
+  {
+    int size = list.size();
+    if (primitiveClass == Integer.class)
+    {
+      for (int i = 0; i < size; ++i)
+      {
+        callback.index(i);
+        callback.integerValue(list.getInt(i));
+      }
+    }
+    else if (primitiveClass == Long.class)
+    {
+      for (int i = 0; i < size; ++i)
+      {
+        callback.index(i);
+        callback.longValue(list.getLong(i));
+      }
+    }
+    else if (primitiveClass == Float.class)
+    {
+      for (int i = 0; i < size; ++i)
+      {
+        callback.index(i);
+        callback.floatValue(list.getFloat(i));
+      }
+    }
+    else if (primitiveClass == Double.class)
+    {
+      for (int i = 0; i < size; ++i)
+      {
+        callback.index(i);
+        callback.doubleValue(list.getDouble(i));
+      }
+    }
+    else
+    {
+      for (int i = 0; i < size; ++i)
+      {
+        callback.index(i);
+        traverse(list.get(i), callback);
+      }
+    }
+  }
+
   /**
    * Dump Data object with the given name and prefix to the given string builder.
    *
@@ -18,7 +18,12 @@ package com.linkedin.data;
 
 import com.linkedin.data.collections.CheckedList;
 import com.linkedin.data.collections.CommonList;
+import com.linkedin.data.collections.DoubleList;
+import com.linkedin.data.collections.FloatList;
+import com.linkedin.data.collections.IntList;
 import com.linkedin.data.collections.ListChecker;
+import com.linkedin.data.collections.LongList;
+import com.linkedin.data.collections.PrimitiveList;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.IdentityHashMap;
@@ -51,6 +56,15 @@ import java.util.Map;
  * is lazy and may be delayed until the {@link DataList} is about to be modified.
  * <p>
  *
+ * A {@link DataList} of numbers may store its elements unboxed in a {@link PrimitiveList},
+ * either by constructing it with {@link #DataList(PrimitiveList)} or by appending
+ * to an empty {@link DataList} with {@link #addInt(int)}, {@link #addLong(long)},
+ * {@link #addFloat(float)} or {@link #addDouble(double)}. The elements are boxed
+ * when they are accessed through the {@link List} methods, and {@link #getInt(int)},
+ * {@link #toIntArray()} and the like access them without boxing. Adding an element
+ * of another class moves the elements to the regular object storage.
+ * <p>
+ *
  * @author slim
  */
 public final class DataList extends CheckedList<Object> implements DataComplex
@@ -83,6 +97,19 @@ public final class DataList extends CheckedList<Object> implements DataComplex
     super(initialCapacity, _checker);
   }
 
+  /**
+   * Construct a {@link DataList} that stores its elements in the provided {@link PrimitiveList}.
+   *
+   * The {@link DataList} takes ownership of the {@link PrimitiveList}, which should not
+   * be accessed directly afterwards.
+   *
+   * @param list provides the storage and the initial elements of the {@link DataList}.
+   */
+  public DataList(PrimitiveList list)
+  {
+    super(list, _checker);
+  }
+
   @Override
   public Object get(int index)
   {
@@ -90,6 +117,266 @@ public final class DataList extends CheckedList<Object> implements DataComplex
     return super.get(index);
   }
 
+  /**
+   * Returns the element at the specified position as an int.
+   *
+   * @param index of the element to return.
+   * @return the element at the specified position converted to an int.
+   * @throws ClassCastException if the element is not a {@link Number}.
+   */
+  public int getInt(int index)
+  {
+    PrimitiveList list = getPrimitiveList();
+    if (list instanceof IntList)
+    {
+      instrumentAccess(index);
+      return ((IntList) list).getInt(index);
+    }
+    return ((Number) get(index)).intValue();
+  }
+
+  /**
+   * Returns the element at the specified position as a long.
+   *
+   * @param index of the element to return.
+   * @return the element at the specified position converted to a long.
+   * @throws ClassCastException if the element is not a {@link Number}.
+   */
+  public long getLong(int index)
+  {
+    PrimitiveList list = getPrimitiveList();
+    if (list instanceof LongList)
+    {
+      instrumentAccess(index);
+      return ((LongList) list).getLong(index);
+    }
+    return ((Number) get(index)).longValue();
+  }
+
+  /**
+   * Returns the element at the specified position as a float.
+   *
+   * @param index of the element to return.
+   * @return the element at the specified position converted to a float.
+   * @throws ClassCastException if the element is not a {@link Number}.
+   */
+  public float getFloat(int index)
+  {
+    PrimitiveList list = getPrimitiveList();
+    if (list instanceof FloatList)
+    {
+      instrumentAccess(index);
+      return ((FloatList) list).getFloat(index);
+    }
+    return ((Number) get(index)).floatValue();
+  }
+
+  /**
+   * Returns the element at the specified position as a double.
+   *
+   * @param index of the element to return.
+   * @return the element at the specified position converted to a double.
+   * @throws ClassCastException if the element is not a {@link Number}.
+   */
+  public double getDouble(int index)
+  {
+    PrimitiveList list = getPrimitiveList();
+    if (list instanceof DoubleList)
+    {
+      instrumentAccess(index);
+      return ((DoubleList) list).getDouble(index);
+    }
+    return ((Number) get(index)).doubleValue();
+  }
+
+  /**
+   * Returns the elements of this list as an int array.
+   *
+   * @return an array with the elements of this list converted to ints.
+   * @throws ClassCastException if an element is not a {@link Number}.
+   */
+  public int[] toIntArray()
+  {
+    PrimitiveList list = getPrimitiveList();
+    if (list instanceof IntList && _instrumented == false)
+    {
+      return ((IntList) list).toIntArray();
+    }
+    int[] values = new int[size()];
+    for (int i = 0; i < values.length; ++i)
+    {
+      values[i] = getInt(i);
+    }
+    return values;
+  }
+
+  /**
+   * Returns the elements of this list as a long array.
+   *
+   * @return an array with the elements of this list converted to longs.
+   * @throws ClassCastException if an element is not a {@link Number}.
+   */
+  public long[] toLongArray()
+  {
+    PrimitiveList list = getPrimitiveList();
+    if (list instanceof LongList && _instrumented == false)
+    {
+      return ((LongList) list).toLongArray();
+    }
+    long[] values = new long[size()];
+    for (int i = 0; i < values.length; ++i)
+    {
+      values[i] = getLong(i);
+    }
+    return values;
+  }
+
+  /**
+   * Returns the elements of this list as a float array.
+   *
+   * @return an array with the elements of this list converted to floats.
+   * @throws ClassCastException if an element is not a {@link Number}.
+   */
+  public float[] toFloatArray()
+  {
+    PrimitiveList list = getPrimitiveList();
+    if (list instanceof FloatList && _instrumented == false)
+    {
+      return ((FloatList) list).toFloatArray();
+    }
+    float[] values = new float[size()];
+    for (int i = 0; i < values.length; ++i)
+    {
+      values[i] = getFloat(i);
+    }
+    return values;
+  }
+
+  /**
+   * Returns the elements of this list as a double array.
+   *
+   * @return an array with the elements of this list converted to doubles.
+   * @throws ClassCastException if an element is not a {@link Number}.
+   */
+  public double[] toDoubleArray()
+  {
+    PrimitiveList list = getPrimitiveList();
+    if (list instanceof DoubleList && _instrumented == false)
+    {
+      return ((DoubleList) list).toDoubleArray();
+    }
+    double[] values = new double[size()];
+    for (int i = 0; i < values.length; ++i)
+    {
+      values[i] = getDouble(i);
+    }
+    return values;
+  }
+
+  /**
+   * Append an {@link Integer} to this list without boxing it if the list is empty
+   * or already stores its elements in an {@link IntList}.
+   *
+   * @param value to be appended.
+   * @throws UnsupportedOperationException if the list is read-only.
+   */
+  public void addInt(int value)
+  {
+    PrimitiveList list = getPrimitiveList();
+    if (list == null && isEmpty())
+    {
+      list = new IntList();
+      setPrimitiveList(list);
+    }
+    if (list instanceof IntList)
+    {
+      checkMutability();
+      ((IntList) list).addInt(value);
+    }
+    else
+    {
+      add(value);
+    }
+  }
+
+  /**
+   * Append a {@link Long} to this list without boxing it if the list is empty
+   * or already stores its elements in a {@link LongList}.
+   *
+   * @param value to be appended.
+   * @throws UnsupportedOperationException if the list is read-only.
+   */
+  public void addLong(long value)
+  {
+    PrimitiveList list = getPrimitiveList();
+    if (list == null && isEmpty())
+    {
+      list = new LongList();
+      setPrimitiveList(list);
+    }
+    if (list instanceof LongList)
+    {
+      checkMutability();
+      ((LongList) list).addLong(value);
+    }
+    else
+    {
+      add(value);
+    }
+  }
+
+  /**
+   * Append a {@link Float} to this list without boxing it if the list is empty
+   * or already stores its elements in a {@link FloatList}.
+   *
+   * @param value to be appended.
+   * @throws UnsupportedOperationException if the list is read-only.
+   */
+  public void addFloat(float value)
+  {
+    PrimitiveList list = getPrimitiveList();
+    if (list == null && isEmpty())
+    {
+      list = new FloatList();
+      setPrimitiveList(list);
+    }
+    if (list instanceof FloatList)
+    {
+      checkMutability();
+      ((FloatList) list).addFloat(value);
+    }
+    else
+    {
+      add(value);
+    }
+  }
+
+  /**
+   * Append a {@link Double} to this list without boxing it if the list is empty
+   * or already stores its elements in a {@link DoubleList}.
+   *
+   * @param value to be appended.
+   * @throws UnsupportedOperationException if the list is read-only.
+   */
+  public void addDouble(double value)
+  {
+    PrimitiveList list = getPrimitiveList();
+    if (list == null && isEmpty())
+    {
+      list = new DoubleList();
+      setPrimitiveList(list);
+    }
+    if (list instanceof DoubleList)
+    {
+      checkMutability();
+      ((DoubleList) list).addDouble(value);
+    }
+    else
+    {
+      add(value);
+    }
+  }
+
   @Override
   public DataList clone() throws CloneNotSupportedException
   {
@@ -109,6 +396,11 @@ public final class DataList extends CheckedList<Object> implements DataComplex
   @Override
   public void copyReferencedObjects(IdentityHashMap<DataComplex, DataComplex> alreadyCopied) throws CloneNotSupportedException
   {
+    if (getPrimitiveList() != null)
+    {
+      // primitive values are not copied
+      return;
+    }
     int count = size();
     for (int i = 0; i < count; ++i)
     {
@@ -130,9 +422,12 @@ public final class DataList extends CheckedList<Object> implements DataComplex
   @Override
   public void makeReadOnly()
   {
-    for (Object o : this)
+    if (getPrimitiveList() == null)
     {
-      Data.makeReadOnly(o);
+      for (Object o : this)
+      {
+        Data.makeReadOnly(o);
+      }
     }
     setReadOnly();
     _madeReadOnly = true;
@@ -213,6 +508,18 @@ public final class DataList extends CheckedList<Object> implements DataComplex
     }
   }
 
+  /**
+   * Returns the class of the elements stored unboxed by this list.
+   *
+   * @return the wrapper class of the elements stored in a {@link PrimitiveList},
+   *         or null if the elements are stored as objects.
+   */
+  Class<?> getPrimitiveClass()
+  {
+    PrimitiveList list = getPrimitiveList();
+    return list == null ? null : list.getElementClass();
+  }
+
   // Unit test use only
   void disableChecker()
   {
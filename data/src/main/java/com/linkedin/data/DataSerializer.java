@@ -0,0 +1,433 @@
+/*
+   Copyright (c) 2012 LinkedIn Corp.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.linkedin.data;
+
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+
+/**
+ * Writes Data objects of a known shape to a {@link Data.TraverseCallback}.
+ * <p>
+ *
+ * A {@link DataSerializer} produces the same sequence of callback events as
+ * {@link Data#traverse(Object, Data.TraverseCallback)}, but it knows the expected
+ * class of each value and the fields of each record ahead of time, so it does
+ * not have to dispatch on the class of every value. The fields of a record are
+ * written in the order they are declared, followed by the entries whose keys
+ * are not declared fields. Values that do not have the expected shape are written
+ * by {@link Data#traverse(Object, Data.TraverseCallback)}.
+ * <p>
+ *
+ * The shape is also available to codecs through {@link #getValueClass()},
+ * {@link #getItemSerializer()} and {@link #getEntrySerializer(String)}, so that
+ * they can parse each value directly into the expected class, see
+ * {@code com.linkedin.data.codec.JacksonDataCodec#bytesToMap(byte[], DataSerializer)}.
+ * <p>
+ *
+ * Serializers are usually emitted by the data template generator for each record schema,
+ * see {@code com.linkedin.data.template.DataTemplateUtil#getSerializer(Class)}.
+ */
+public abstract class DataSerializer
+{
+  /**
+   * Write a Data object.
+   *
+   * @param value provides the Data object to write, must not be null.
+   * @param callback provides the {@link Data.TraverseCallback} to write to.
+   * @throws IOException if the callback throws {@link IOException}.
+   */
+  public abstract void write(Object value, Data.TraverseCallback callback) throws IOException;
+
+  /**
+   * Return the class of the values this serializer expects.
+   *
+   * @return the class of the expected values, or null if values of any class are expected.
+   */
+  public Class<?> getValueClass()
+  {
+    return null;
+  }
+
+  /**
+   * Return the serializer for the items of the {@link DataList}s this serializer expects.
+   *
+   * @return the serializer for the items, or null if this serializer does not expect {@link DataList}s.
+   */
+  public DataSerializer getItemSerializer()
+  {
+    return null;
+  }
+
+  /**
+   * Return the serializer for the value of an entry of the {@link DataMap}s this serializer expects.
+   *
+   * @param key provides the key of the entry.
+   * @return the serializer for the value, or null if the shape of the value is not known.
+   */
+  public DataSerializer getEntrySerializer(String key)
+  {
+    return null;
+  }
+
+  /**
+   * Serializer for Data objects of any shape.
+   */
+  public static final DataSerializer GENERIC = new DataSerializer()
+  {
+    @Override
+    public void write(Object value, Data.TraverseCallback callback) throws IOException
+    {
+      Data.traverse(value, callback);
+    }
+  };
+
+  /**
+   * Serializer for {@link Boolean} values.
+   */
+  public static final DataSerializer BOOLEAN = new ValueSerializer(Boolean.class)
+  {
+    @Override
+    public void write(Object value, Data.TraverseCallback callback) throws IOException
+    {
+      if (value.getClass() == Boolean.class)
+      {
+        callback.booleanValue((Boolean) value);
+      }
+      else
+      {
+        Data.traverse(value, callback);
+      }
+    }
+  };
+
+  /**
+   * Serializer for {@link Integer} values.
+   */
+  public static final DataSerializer INTEGER = new ValueSerializer(Integer.class)
+  {
+    @Override
+    public void write(Object value, Data.TraverseCallback callback) throws IOException
+    {
+      if (value.getClass() == Integer.class)
+      {
+        callback.integerValue((Integer) value);
+      }
+      else
+      {
+        Data.traverse(value, callback);
+      }
+    }
+  };
+
+  /**
+   * Serializer for {@link Long} values.
+   */
+  public static final DataSerializer LONG = new ValueSerializer(Long.class)
+  {
+    @Override
+    public void write(Object value, Data.TraverseCallback callback) throws IOException
+    {
+      if (value.getClass() == Long.class)
+      {
+        callback.longValue((Long) value);
+      }
+      else
+      {
+        Data.traverse(value, callback);
+      }
+    }
+  };
+
+  /**
+   * Serializer for {@link Float} values.
+   */
+  public static final DataSerializer FLOAT = new ValueSerializer(Float.class)
+  {
+    @Override
+    public void write(Object value, Data.TraverseCallback callback) throws IOException
+    {
+      if (value.getClass() == Float.class)
+      {
+        callback.floatValue((Float) value);
+      }
+      else
+      {
+        Data.traverse(value, callback);
+      }
+    }
+  };
+
+  /**
+   * Serializer for {@link Double} values.
+   */
+  public static final DataSerializer DOUBLE = new ValueSerializer(Double.class)
+  {
+    @Override
+    public void write(Object value, Data.TraverseCallback callback) throws IOException
+    {
+      if (value.getClass() == Double.class)
+      {
+        callback.doubleValue((Double) value);
+      }
+      else
+      {
+        Data.traverse(value, callback);
+      }
+    }
+  };
+
+  /**
+   * Serializer for {@link String} values, also used for enum symbols.
+   */
+  public static final DataSerializer STRING = new ValueSerializer(String.class)
+  {
+    @Override
+    public void write(Object value, Data.TraverseCallback callback) throws IOException
+    {
+      if (value.getClass() == String.class)
+      {
+        callback.stringValue((String) value);
+      }
+      else
+      {
+        Data.traverse(value, callback);
+      }
+    }
+  };
+
+  /**
+   * Serializer for {@link ByteString} values, used for bytes and fixed.
+   */
+  public static final DataSerializer BYTES = new ValueSerializer(ByteString.class)
+  {
+    @Override
+    public void write(Object value, Data.TraverseCallback callback) throws IOException
+    {
+      if (value.getClass() == ByteString.class)
+      {
+        callback.byteStringValue((ByteString) value);
+      }
+      else
+      {
+        Data.traverse(value, callback);
+      }
+    }
+  };
+
+  /**
+   * Return a serializer for {@link DataList}s whose items are written by the given serializer.
+   *
+   * @param items provides the serializer for the items.
+   * @return the serializer.
+   */
+  public static DataSerializer array(final DataSerializer items)
+  {
+    return new DataSerializer()
+    {
+      @Override
+      public void write(Object value, Data.TraverseCallback callback) throws IOException
+      {
+        if (value.getClass() != DataList.class)
+        {
+          Data.traverse(value, callback);
+          return;
+        }
+        DataList list = (DataList) value;
+        if (list.isEmpty() || list.getPrimitiveClass() != null)
+        {
+          // unboxed lists are already written without dispatching on each item
+          Data.traverse(list, callback);
+          return;
+        }
+        callback.startList(list);
+        int size = list.size();
+        for (int i = 0; i < size; ++i)
+        {
+          callback.index(i);
+          items.write(list.get(i), callback);
+        }
+        callback.endList();
+      }
+
+      @Override
+      public Class<?> getValueClass()
+      {
+        return DataList.class;
+      }
+
+      @Override
+      public DataSerializer getItemSerializer()
+      {
+        return items;
+      }
+    };
+  }
+
+  /**
+   * Return a serializer for {@link DataMap}s whose values are written by the given serializer.
+   *
+   * @param values provides the serializer for the values.
+   * @return the serializer.
+   */
+  public static DataSerializer map(final DataSerializer values)
+  {
+    return new DataSerializer()
+    {
+      @Override
+      public void write(Object value, Data.TraverseCallback callback) throws IOException
+      {
+        if (value.getClass() != DataMap.class || ((DataMap) value).isEmpty())
+        {
+          Data.traverse(value, callback);
+          return;
+        }
+        DataMap map = (DataMap) value;
+        callback.startMap(map);
+        for (Map.Entry<String, Object> entry : callback.orderMap(map))
+        {
+          callback.key(entry.getKey());
+          values.write(entry.getValue(), callback);
+        }
+        callback.endMap();
+      }
+
+      @Override
+      public Class<?> getValueClass()
+      {
+        return DataMap.class;
+      }
+
+      @Override
+      public DataSerializer getEntrySerializer(String key)
+      {
+        return values;
+      }
+    };
+  }
+
+  /**
+   * Return a serializer for {@link DataMap}s that hold the fields of a record.
+   * <p>
+   *
+   * The fields that are present are written in the order of the given field names,
+   * followed by the entries whose keys are not field names, in the order provided
+   * by {@link Data.TraverseCallback#orderMap(DataMap)}.
+   *
+   * @param fieldNames provides the names of the record's fields.
+   * @param fieldSerializers provides the serializers for the values of the fields,
+   *                         in the same order as the field names.
+   * @return the serializer.
+   * @throws IllegalArgumentException if the number of field names and serializers differ.
+   */
+  public static DataSerializer record(String[] fieldNames, DataSerializer... fieldSerializers)
+  {
+    if (fieldNames.length != fieldSerializers.length)
+    {
+      throw new IllegalArgumentException("Record has " + fieldNames.length + " fields but " +
+                                         fieldSerializers.length + " field serializers");
+    }
+    return new RecordSerializer(fieldNames.clone(), fieldSerializers.clone());
+  }
+
+  private abstract static class ValueSerializer extends DataSerializer
+  {
+    private ValueSerializer(Class<?> valueClass)
+    {
+      _valueClass = valueClass;
+    }
+
+    @Override
+    public Class<?> getValueClass()
+    {
+      return _valueClass;
+    }
+
+    private final Class<?> _valueClass;
+  }
+
+  private static class RecordSerializer extends DataSerializer
+  {
+    private RecordSerializer(String[] fieldNames, DataSerializer[] fieldSerializers)
+    {
+      _fieldNames = fieldNames;
+      _fieldSerializers = fieldSerializers;
+      _fieldIndexes = new HashMap<String, Integer>(fieldNames.length * 2);
+      for (int i = 0; i < fieldNames.length; ++i)
+      {
+        _fieldIndexes.put(fieldNames[i], i);
+      }
+    }
+
+    @Override
+    public void write(Object value, Data.TraverseCallback callback) throws IOException
+    {
+      if (value.getClass() != DataMap.class || ((DataMap) value).isEmpty())
+      {
+        Data.traverse(value, callback);
+        return;
+      }
+      DataMap map = (DataMap) value;
+
+      callback.startMap(map);
+      int found = 0;
+      for (int i = 0; i < _fieldNames.length; ++i)
+      {
+        Object fieldValue = map.get(_fieldNames[i]);
+        if (fieldValue != null)
+        {
+          callback.key(_fieldNames[i]);
+          _fieldSerializers[i].write(fieldValue, callback);
+          ++found;
+        }
+      }
+      if (found < map.size())
+      {
+        for (Map.Entry<String, Object> entry : callback.orderMap(map))
+        {
+          String key = entry.getKey();
+          if (!_fieldIndexes.containsKey(key))
+          {
+            callback.key(key);
+            Data.traverse(entry.getValue(), callback);
+          }
+        }
+      }
+      callback.endMap();
+    }
+
+    @Override
+    public Class<?> getValueClass()
+    {
+      return DataMap.class;
+    }
+
+    @Override
+    public DataSerializer getEntrySerializer(String key)
+    {
+      Integer index = _fieldIndexes.get(key);
+      return index == null ? null : _fieldSerializers[index];
+    }
+
+    private final String[] _fieldNames;
+    private final DataSerializer[] _fieldSerializers;
+    // field name => index of the field in declaration order
+    private final Map<String, Integer> _fieldIndexes;
+  }
+}
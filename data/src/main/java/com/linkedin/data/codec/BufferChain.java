@@ -77,6 +77,8 @@ public class BufferChain
   private CharsetEncoder _encoder;
   private BufferChainInputStream _inputStream;
   private BufferChainOutputStream _outputStream;
+  private BufferPool _pool;
+  private ArrayList<byte[]> _pooledArrays;
 
   public static final class Position
   {
@@ -120,6 +122,22 @@ public class BufferChain
    * @param bufferSize provides the buffer size fo each buffer in the buffer chain.
    */
   public BufferChain(ByteOrder order, int bufferSize)
+  {
+    this(order, bufferSize, null);
+  }
+
+  /**
+   * Construct an empty {@link BufferChain} with the specified byte order and buffer size,
+   * whose buffers are taken from the specified {@link BufferPool}.
+   *
+   * Call {@link #release()} to return the buffers to the pool once the data in the
+   * buffer chain is no longer needed.
+   *
+   * @param order provides the byte order for the data in the buffer chain.
+   * @param bufferSize provides the buffer size fo each buffer in the buffer chain.
+   * @param pool provides the pool to take buffers from, or null to allocate them.
+   */
+  public BufferChain(ByteOrder order, int bufferSize, BufferPool pool)
   {
     if (bufferSize < MIN_BUFFER_SIZE)
     {
@@ -127,6 +145,11 @@ public class BufferChain
     }
     _bufferSize = bufferSize;
     _order = order;
+    if (pool != null)
+    {
+      _pool = pool;
+      _pooledArrays = new ArrayList<byte[]>();
+    }
     _currentBuffer = allocateByteBuffer(_bufferSize);
     _currentIndex = 0;
     initCoders();
@@ -967,6 +990,26 @@ public class BufferChain
     return bytes;
   }
 
+  /**
+   * Return the buffers of this buffer chain to the {@link BufferPool} it was constructed
+   * with, if any.  The buffer chain, and any {@link ByteBuffer} obtained from it, must not
+   * be used after this call.
+   */
+  public void release()
+  {
+    if (_pool != null)
+    {
+      for (byte[] array : _pooledArrays)
+      {
+        _pool.release(array);
+      }
+      _pooledArrays.clear();
+      _bufferList.clear();
+      _currentBuffer = null;
+      _pool = null;
+    }
+  }
+
   /**
    * Rewind the buffer chain, i.e. set the current position to
    * the beginning of the buffer chain.
@@ -1243,7 +1286,19 @@ public class BufferChain
 
   private ByteBuffer allocateByteBuffer(int size)
   {
-    ByteBuffer byteBuffer = ByteBuffer.allocate(size > _bufferSize ? size : _bufferSize);
+    int capacity = size > _bufferSize ? size : _bufferSize;
+    ByteBuffer byteBuffer;
+    if (_pool == null)
+    {
+      byteBuffer = ByteBuffer.allocate(capacity);
+    }
+    else
+    {
+      // pooled arrays may be larger than requested, slice to keep the requested capacity
+      byte[] array = _pool.acquire(capacity);
+      _pooledArrays.add(array);
+      byteBuffer = ByteBuffer.wrap(array, 0, capacity).slice();
+    }
     byteBuffer.order(_order);
     _bufferList.add(byteBuffer);
     return byteBuffer;
@@ -0,0 +1,189 @@
+/*
+   Copyright (c) 2012 LinkedIn Corp.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.linkedin.data.codec;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A thread-safe pool of byte arrays used by codecs to encode without allocating new buffers for
+ * every message.<p/>
+ *
+ * Buffers come in size classes which are powers of two from {@link #MIN_SIZE} to {@link #MAX_SIZE}.
+ * {@link #acquire(int)} returns a buffer of the smallest size class that fits the requested size,
+ * taking it from a cache of the current thread first, then from a cache shared by all threads, and
+ * allocating a new one if both are empty.  Larger sizes are always allocated and never pooled.<p/>
+ *
+ * The cache of each thread is bounded by a total number of bytes over all size classes, since it
+ * lives as long as the thread.  Released buffers which do not fit in it go to the shared cache.<p/>
+ *
+ * The pool does not keep references to acquired buffers, so a buffer which is never released,
+ * e.g. because encoding failed, is simply garbage collected.  A released buffer must not be used
+ * any more, and must not be released twice.
+ */
+public class BufferPool
+{
+  public static final int MIN_SIZE = 1 << 12;
+  public static final int MAX_SIZE = 1 << 16;
+
+  private static final int MIN_SHIFT = Integer.numberOfTrailingZeros(MIN_SIZE);
+  private static final int SIZE_CLASSES = Integer.numberOfTrailingZeros(MAX_SIZE) - MIN_SHIFT + 1;
+
+  /**
+   * Pool used by the codecs of this package, which caches up to 32 KB of buffers per thread, so
+   * that the largest buffers are only cached in the shared cache, and up to 1 MB per size class in
+   * the shared cache.
+   */
+  public static final BufferPool DEFAULT = new BufferPool(1 << 15, 1 << 20);
+
+  private static class ThreadCache
+  {
+    private final byte[][][] _buffers = new byte[SIZE_CLASSES][][];
+    private int _bytes;
+  }
+
+  private final int _threadCacheBytes;
+  private final int[] _threadCapacity = new int[SIZE_CLASSES];
+  private final int[] _sharedCapacity = new int[SIZE_CLASSES];
+  private final ConcurrentLinkedQueue<byte[]>[] _shared;
+  private final AtomicInteger[] _sharedCount = new AtomicInteger[SIZE_CLASSES];
+  private final ThreadLocal<ThreadCache> _threadCache = new ThreadLocal<ThreadCache>();
+
+  /**
+   * @param threadCacheBytes maximum bytes of buffers of all size classes cached by each thread.
+   * @param sharedCacheBytes maximum bytes of buffers of each size class cached for all threads.
+   */
+  @SuppressWarnings("unchecked")
+  public BufferPool(int threadCacheBytes, int sharedCacheBytes)
+  {
+    _threadCacheBytes = threadCacheBytes;
+    _shared = new ConcurrentLinkedQueue[SIZE_CLASSES];
+    for (int i = 0; i < SIZE_CLASSES; i++)
+    {
+      final int size = sizeOfClass(i);
+      _threadCapacity[i] = threadCacheBytes / size;
+      _sharedCapacity[i] = sharedCacheBytes / size;
+      _shared[i] = new ConcurrentLinkedQueue<byte[]>();
+      _sharedCount[i] = new AtomicInteger();
+    }
+  }
+
+  /**
+   * @param size the minimum size of the buffer.
+   * @return a buffer of at least the given size, whose content is undefined.
+   */
+  public byte[] acquire(int size)
+  {
+    if (size > MAX_SIZE)
+    {
+      return new byte[size];
+    }
+
+    final int sizeClass = sizeClass(size);
+    final ThreadCache threadCache = _threadCache.get();
+    if (threadCache != null)
+    {
+      final byte[][] buffers = threadCache._buffers[sizeClass];
+      for (int i = buffers.length - 1; i >= 0; i--)
+      {
+        final byte[] buffer = buffers[i];
+        if (buffer != null)
+        {
+          buffers[i] = null;
+          threadCache._bytes -= buffer.length;
+          return buffer;
+        }
+      }
+    }
+
+    final byte[] buffer = _shared[sizeClass].poll();
+    if (buffer != null)
+    {
+      _sharedCount[sizeClass].decrementAndGet();
+      return buffer;
+    }
+
+    return new byte[sizeOfClass(sizeClass)];
+  }
+
+  /**
+   * Return a buffer to the pool.  Buffers whose length is not one of the size classes, and buffers
+   * in excess of the capacity of the caches, are dropped.
+   *
+   * @param buffer the buffer to return, which must not be used after this call.
+   */
+  public void release(byte[] buffer)
+  {
+    final int length = buffer.length;
+    if (length < MIN_SIZE || length > MAX_SIZE || Integer.bitCount(length) != 1)
+    {
+      return;
+    }
+
+    final int sizeClass = sizeClass(length);
+    if (_threadCapacity[sizeClass] > 0)
+    {
+      ThreadCache threadCache = _threadCache.get();
+      if (threadCache == null)
+      {
+        threadCache = new ThreadCache();
+        for (int i = 0; i < SIZE_CLASSES; i++)
+        {
+          threadCache._buffers[i] = new byte[_threadCapacity[i]][];
+        }
+        _threadCache.set(threadCache);
+      }
+
+      if (threadCache._bytes + length <= _threadCacheBytes)
+      {
+        final byte[][] buffers = threadCache._buffers[sizeClass];
+        for (int i = 0; i < buffers.length; i++)
+        {
+          if (buffers[i] == null)
+          {
+            buffers[i] = buffer;
+            threadCache._bytes += length;
+            return;
+          }
+        }
+      }
+    }
+
+    if (_sharedCount[sizeClass].incrementAndGet() <= _sharedCapacity[sizeClass])
+    {
+      _shared[sizeClass].offer(buffer);
+    }
+    else
+    {
+      _sharedCount[sizeClass].decrementAndGet();
+    }
+  }
+
+  private static int sizeClass(int size)
+  {
+    if (size <= MIN_SIZE)
+    {
+      return 0;
+    }
+    return 32 - Integer.numberOfLeadingZeros(size - 1) - MIN_SHIFT;
+  }
+
+  private static int sizeOfClass(int sizeClass)
+  {
+    return 1 << (sizeClass + MIN_SHIFT);
+  }
+}
@@ -22,7 +22,7 @@ import com.linkedin.data.Data;
 import com.linkedin.data.DataComplex;
 import com.linkedin.data.DataList;
 import com.linkedin.data.DataMap;
-import java.io.ByteArrayOutputStream;
+import com.linkedin.data.DataSerializer;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
@@ -93,6 +93,31 @@ public class JacksonDataCodec implements TextDataCodec
     return objectToBytes(map);
   }
 
+  /**
+   * Encode a {@link DataMap} of a known shape to bytes.
+   *
+   * @param map provides the {@link DataMap} to encode.
+   * @param serializer provides the {@link DataSerializer} that knows the shape of the {@link DataMap}.
+   * @return the encoded bytes.
+   * @throws IOException if there is an error encoding the {@link DataMap}.
+   */
+  public byte[] mapToBytes(DataMap map, DataSerializer serializer) throws IOException
+  {
+    PooledByteArrayOutputStream out = new PooledByteArrayOutputStream(BufferPool.DEFAULT, _defaultBufferSize);
+    try
+    {
+      JsonGenerator generator = createJsonGenerator(out);
+      serializer.write(map, new JsonTraverseCallback(generator));
+      generator.flush();
+      generator.close();
+      return out.toByteArray();
+    }
+    finally
+    {
+      out.release();
+    }
+  }
+
   @Override
   public String mapToString(DataMap map) throws IOException
   {
@@ -113,9 +138,16 @@ public class JacksonDataCodec implements TextDataCodec
 
   protected byte[] objectToBytes(Object object) throws IOException
   {
-    ByteArrayOutputStream out = new ByteArrayOutputStream(_defaultBufferSize);
-    writeObject(object, createJsonGenerator(out));
-    return out.toByteArray();
+    PooledByteArrayOutputStream out = new PooledByteArrayOutputStream(BufferPool.DEFAULT, _defaultBufferSize);
+    try
+    {
+      writeObject(object, createJsonGenerator(out));
+      return out.toByteArray();
+    }
+    finally
+    {
+      out.release();
+    }
   }
 
   protected String objectToString(Object object) throws IOException
@@ -132,6 +164,25 @@ public class JacksonDataCodec implements TextDataCodec
     return parser.parse(_jsonFactory.createJsonParser(input), DataMap.class);
   }
 
+  /**
+   * Decode a {@link DataMap} of a known shape from bytes.
+   * <p>
+   *
+   * Values whose shape is known are parsed directly into the classes that the
+   * serializer expects, e.g. integral numbers of long fields are stored as {@link Long}s,
+   * and lists of numbers are stored unboxed. Other values are parsed as by {@link #bytesToMap(byte[])}.
+   *
+   * @param input provides the bytes to decode.
+   * @param serializer provides the {@link DataSerializer} that knows the shape of the {@link DataMap}.
+   * @return the decoded {@link DataMap}.
+   * @throws IOException if there is an error decoding the bytes.
+   */
+  public DataMap bytesToMap(byte[] input, DataSerializer serializer) throws IOException
+  {
+    final Parser parser = new Parser();
+    return parser.parse(_jsonFactory.createJsonParser(input), DataMap.class, serializer);
+  }
+
   @Override
   public DataMap stringToMap(String input) throws IOException
   {
@@ -212,6 +263,21 @@ public class JacksonDataCodec implements TextDataCodec
     return parser.parse(_jsonFactory.createJsonParser(in), DataMap.class);
   }
 
+  /**
+   * Read a {@link DataMap} of a known shape from an {@link InputStream}.
+   *
+   * @param in provides the {@link InputStream} to read from.
+   * @param serializer provides the {@link DataSerializer} that knows the shape of the {@link DataMap}.
+   * @return the decoded {@link DataMap}.
+   * @throws IOException if there is an error reading the {@link DataMap}.
+   * @see #bytesToMap(byte[], DataSerializer)
+   */
+  public DataMap readMap(InputStream in, DataSerializer serializer) throws IOException
+  {
+    final Parser parser = new Parser();
+    return parser.parse(_jsonFactory.createJsonParser(in), DataMap.class, serializer);
+  }
+
   @Override
   public DataMap readMap(Reader in) throws IOException
   {
@@ -533,7 +599,7 @@ public class JacksonDataCodec implements TextDataCodec
       JsonToken token;
       while ((token = _parser.nextToken()) != null)
       {
-        parse(list, null, null, token);
+        parse(list, null, null, token, null);
       }
       _errorBuilder = null;
 
@@ -541,6 +607,12 @@ public class JacksonDataCodec implements TextDataCodec
     }
 
     <T extends DataComplex> T parse(JsonParser parser, Class<T> expectType) throws IOException
+    {
+      return parse(parser, expectType, null);
+    }
+
+    <T extends DataComplex> T parse(JsonParser parser, Class<T> expectType, DataSerializer serializer)
+      throws IOException
     {
       _errorBuilder = null;
       if (_debug)
@@ -559,7 +631,7 @@ public class JacksonDataCodec implements TextDataCodec
         }
 
         final DataMap map = new DataMap();
-        parseDataMap(map);
+        parseDataMap(map, serializer);
         if (_errorBuilder != null)
         {
           map.addError(_errorBuilder.toString());
@@ -574,7 +646,7 @@ public class JacksonDataCodec implements TextDataCodec
         }
 
         final DataList list = new DataList();
-        parseDataList(list);
+        parseDataList(list, serializer == null ? null : serializer.getItemSerializer());
         if (_errorBuilder != null)
         {
           //list.addError(_errorBuilder.toString());
@@ -603,7 +675,7 @@ public class JacksonDataCodec implements TextDataCodec
       }
     }
 
-    private Object parse(DataList parentList, DataMap parentMap, String name, JsonToken token)
+    private Object parse(DataList parentList, DataMap parentMap, String name, JsonToken token, DataSerializer serializer)
         throws JsonParseException, IOException
     {
       if (token == null)
@@ -618,16 +690,16 @@ public class JacksonDataCodec implements TextDataCodec
           DataMap childMap = new DataMap();
           value = childMap;
           updateParent(parentList, parentMap, name, childMap);
-          parseDataMap(childMap);
+          parseDataMap(childMap, serializer);
           break;
         case START_ARRAY:
           DataList childList = new DataList();
           value = childList;
           updateParent(parentList, parentMap, name, childList);
-          parseDataList(childList);
+          parseDataList(childList, serializer == null ? null : serializer.getItemSerializer());
           break;
         default:
-          value = parsePrimitive(token);
+          value = serializer == null ? parsePrimitive(token) : parsePrimitive(token, serializer.getValueClass());
           if (value != null)
           {
             updateParent(parentList, parentMap, name, value);
@@ -658,6 +730,46 @@ public class JacksonDataCodec implements TextDataCodec
       }
     }
 
+    /**
+     * Parse a primitive value into the expected class if the token can be parsed into it
+     * without loss, otherwise parse it as by {@link #parsePrimitive(JsonToken)}.
+     */
+    private Object parsePrimitive(JsonToken token, Class<?> expectClass) throws JsonParseException, IOException
+    {
+      if (token == JsonToken.VALUE_NUMBER_INT || token == JsonToken.VALUE_NUMBER_FLOAT)
+      {
+        JsonParser.NumberType numberType = _parser.getNumberType();
+        if (expectClass == Integer.class && numberType == JsonParser.NumberType.INT)
+        {
+          return _parser.getIntValue();
+        }
+        else if (expectClass == Long.class &&
+                 (numberType == JsonParser.NumberType.INT || numberType == JsonParser.NumberType.LONG))
+        {
+          return _parser.getLongValue();
+        }
+        else if (expectClass == Float.class && numberType != JsonParser.NumberType.BIG_INTEGER &&
+                 numberType != JsonParser.NumberType.BIG_DECIMAL)
+        {
+          return _parser.getFloatValue();
+        }
+        else if (expectClass == Double.class && numberType != JsonParser.NumberType.BIG_INTEGER &&
+                 numberType != JsonParser.NumberType.BIG_DECIMAL)
+        {
+          return _parser.getDoubleValue();
+        }
+      }
+      else if (token == JsonToken.VALUE_STRING && expectClass == ByteString.class)
+      {
+        ByteString bytes = ByteString.copyAvroString(_parser.getText(), true);
+        if (bytes != null)
+        {
+          return bytes;
+        }
+      }
+      return parsePrimitive(token);
+    }
+
     private Object parsePrimitive(JsonToken token) throws JsonParseException, IOException
     {
       Object object;
@@ -734,7 +846,7 @@ public class JacksonDataCodec implements TextDataCodec
       return object;
     }
 
-    private void parseDataMap(DataMap map) throws JsonParseException, IOException
+    private void parseDataMap(DataMap map, DataSerializer serializer) throws JsonParseException, IOException
     {
       while (_parser.nextToken() != JsonToken.END_OBJECT)
       {
@@ -744,7 +856,7 @@ public class JacksonDataCodec implements TextDataCodec
           _nameStack.addLast(key);
         }
         JsonToken token = _parser.nextToken();
-        parse(null, map, key, token);
+        parse(null, map, key, token, serializer == null ? null : serializer.getEntrySerializer(key));
         if (_debug)
         {
           _nameStack.removeLast();
@@ -752,18 +864,24 @@ public class JacksonDataCodec implements TextDataCodec
       }
     }
 
-    private void parseDataList(DataList list) throws JsonParseException, IOException
+    private void parseDataList(DataList list, DataSerializer itemSerializer) throws JsonParseException, IOException
     {
+      final Class<?> itemClass = itemSerializer == null ? null : itemSerializer.getValueClass();
       JsonToken token;
       int index = 0;
       while ((token = _parser.nextToken()) != JsonToken.END_ARRAY)
       {
+        if (_locationMap == null && addNumber(list, token, itemClass))
+        {
+          index++;
+          continue;
+        }
         if (_debug)
         {
           _nameStack.addLast(index);
           index++;
         }
-        parse(list, null, null, token);
+        parse(list, null, null, token, itemSerializer);
         if (_debug)
         {
           _nameStack.removeLast();
@@ -771,6 +889,65 @@ public class JacksonDataCodec implements TextDataCodec
       }
     }
 
+    /**
+     * Add a number to the list without boxing it, so that arrays of numbers are stored in primitive arrays.
+     * If the class of the items is known, the number is added as an item of that class.
+     *
+     * @return false if the token is not a number that can be added without boxing.
+     */
+    private boolean addNumber(DataList list, JsonToken token, Class<?> itemClass) throws IOException
+    {
+      if (token == JsonToken.VALUE_NUMBER_INT)
+      {
+        JsonParser.NumberType numberType = _parser.getNumberType();
+        if (numberType == JsonParser.NumberType.INT && (itemClass == null || itemClass == Integer.class))
+        {
+          list.addInt(_parser.getIntValue());
+          return true;
+        }
+        else if (numberType == JsonParser.NumberType.INT || numberType == JsonParser.NumberType.LONG)
+        {
+          if (itemClass == Float.class)
+          {
+            list.addFloat(_parser.getFloatValue());
+            return true;
+          }
+          else if (itemClass == Double.class)
+          {
+            list.addDouble(_parser.getDoubleValue());
+            return true;
+          }
+          long longValue = _parser.getLongValue();
+          if (itemClass != Long.class && JACKSON_230_WORKAROUND && MIN_INT <= longValue && longValue <= MAX_INT)
+          {
+            list.addInt((int) longValue);
+          }
+          else
+          {
+            list.addLong(longValue);
+          }
+          return true;
+        }
+      }
+      else if (token == JsonToken.VALUE_NUMBER_FLOAT)
+      {
+        JsonParser.NumberType numberType = _parser.getNumberType();
+        if (numberType == JsonParser.NumberType.DOUBLE || numberType == JsonParser.NumberType.FLOAT)
+        {
+          if (itemClass == Float.class || (itemClass == null && numberType == JsonParser.NumberType.FLOAT))
+          {
+            list.addFloat(_parser.getFloatValue());
+          }
+          else
+          {
+            list.addDouble(_parser.getDoubleValue());
+          }
+          return true;
+        }
+      }
+      return false;
+    }
+
     private void error(JsonToken token, JsonParser.NumberType type) throws JsonParseException, IOException
     {
       if (_errorBuilder == null)
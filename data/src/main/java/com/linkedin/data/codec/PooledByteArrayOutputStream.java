@@ -0,0 +1,120 @@
+/*
+   Copyright (c) 2012 LinkedIn Corp.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.linkedin.data.codec;
+
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An {@link OutputStream} which collects the written bytes in a chain of buffers from a
+ * {@link BufferPool}.  Unlike {@link java.io.ByteArrayOutputStream}, it does not copy the bytes
+ * written so far when it runs out of space.<p/>
+ *
+ * The buffers are returned to the pool by {@link #release()}; the stream must not be used after.
+ */
+class PooledByteArrayOutputStream extends OutputStream
+{
+  private final BufferPool _pool;
+  private final List<byte[]> _fullBuffers = new ArrayList<byte[]>();
+  private byte[] _buffer;
+  private int _position;
+  private int _fullBufferBytes;
+
+  PooledByteArrayOutputStream(BufferPool pool, int initialSize)
+  {
+    _pool = pool;
+    _buffer = pool.acquire(initialSize);
+  }
+
+  @Override
+  public void write(int b)
+  {
+    if (_position == _buffer.length)
+    {
+      nextBuffer();
+    }
+    _buffer[_position++] = (byte) b;
+  }
+
+  @Override
+  public void write(byte[] b, int off, int len)
+  {
+    while (len > 0)
+    {
+      if (_position == _buffer.length)
+      {
+        nextBuffer();
+      }
+      final int length = Math.min(len, _buffer.length - _position);
+      System.arraycopy(b, off, _buffer, _position, length);
+      _position += length;
+      off += length;
+      len -= length;
+    }
+  }
+
+  /**
+   * @return the number of bytes written.
+   */
+  public int size()
+  {
+    return _fullBufferBytes + _position;
+  }
+
+  /**
+   * @return a new array with the bytes written.
+   */
+  public byte[] toByteArray()
+  {
+    final byte[] bytes = new byte[size()];
+    int offset = 0;
+    for (byte[] buffer : _fullBuffers)
+    {
+      System.arraycopy(buffer, 0, bytes, offset, buffer.length);
+      offset += buffer.length;
+    }
+    System.arraycopy(_buffer, 0, bytes, offset, _position);
+    return bytes;
+  }
+
+  /**
+   * Return the buffers of this stream to its pool.
+   */
+  public void release()
+  {
+    for (byte[] buffer : _fullBuffers)
+    {
+      _pool.release(buffer);
+    }
+    _fullBuffers.clear();
+    if (_buffer != null)
+    {
+      _pool.release(_buffer);
+      _buffer = null;
+    }
+  }
+
+  private void nextBuffer()
+  {
+    _fullBuffers.add(_buffer);
+    _fullBufferBytes += _buffer.length;
+    // grow geometrically, so that large outputs need few buffers
+    _buffer = _pool.acquire(Math.min(_buffer.length * 2, BufferPool.MAX_SIZE));
+    _position = 0;
+  }
+}
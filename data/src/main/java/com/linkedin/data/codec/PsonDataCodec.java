@@ -26,6 +26,7 @@ import com.linkedin.data.Data;
 import com.linkedin.data.DataComplex;
 import com.linkedin.data.DataList;
 import com.linkedin.data.DataMap;
+import com.linkedin.data.DataSerializer;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
@@ -160,9 +161,14 @@ public class PsonDataCodec implements DataCodec
   }
 
   private PsonSerializer serialize(DataComplex map) throws IOException
+  {
+    return serialize(map, DataSerializer.GENERIC);
+  }
+
+  private PsonSerializer serialize(DataComplex complex, DataSerializer dataSerializer) throws IOException
   {
     PsonSerializer serializer = new PsonSerializer();
-    serializer.serialize(map);
+    serializer.serialize(complex, dataSerializer);
     return serializer;
   }
 
@@ -206,6 +212,28 @@ public class PsonDataCodec implements DataCodec
     return complexToBytes(map);
   }
 
+  /**
+   * Encode a {@link DataMap} of a known shape to bytes.
+   *
+   * @param map provides the {@link DataMap} to encode.
+   * @param serializer provides the {@link DataSerializer} that knows the shape of the {@link DataMap}.
+   * @return the encoded bytes.
+   * @throws IOException if there is an error encoding the {@link DataMap}.
+   */
+  public byte[] mapToBytes(DataMap map, DataSerializer serializer) throws IOException
+  {
+    try
+    {
+      return serialize(map, serializer).toBytes();
+    }
+    catch (RuntimeException exc)
+    {
+      // do not want RuntimeException from BufferChain propagating
+      // as RuntimeException to client code.
+      throw new IOException("Unexpected RuntimeException", exc);
+    }
+  }
+
   @Override
   public byte[] listToBytes(DataList list) throws IOException
   {
@@ -326,9 +354,9 @@ public class PsonDataCodec implements DataCodec
     protected PsonSerializer()
     {
       _buffer =
-        _options.getBufferSize() == null ?
-          new BufferChain(ByteOrder.LITTLE_ENDIAN) :
-          new BufferChain(ByteOrder.LITTLE_ENDIAN, _options.getBufferSize());
+        new BufferChain(ByteOrder.LITTLE_ENDIAN,
+                        _options.getBufferSize() == null ? BufferChain.DEFAULT_BUFFER_SIZE : _options.getBufferSize(),
+                        BufferPool.DEFAULT);
     }
 
     @Override
@@ -514,20 +542,35 @@ public class PsonDataCodec implements DataCodec
       }
     }
 
-    private void serialize(DataComplex map) throws IOException
+    private void serialize(DataComplex complex, DataSerializer serializer) throws IOException
     {
       _buffer.put(HEADER, 0, HEADER.length);
-      Data.traverse(map, this);
+      serializer.write(complex, this);
     }
 
+    // the serializer is done once its output is taken, so its buffers go back to the pool
     private final byte[] toBytes()
     {
-      return _buffer.toBytes();
+      try
+      {
+        return _buffer.toBytes();
+      }
+      finally
+      {
+        _buffer.release();
+      }
     }
 
     private final void writeToOutputStream(OutputStream out) throws IOException
     {
-      _buffer.writeToOutputStream(out);
+      try
+      {
+        _buffer.writeToOutputStream(out);
+      }
+      finally
+      {
+        _buffer.release();
+      }
     }
 
     private void start(byte psonType) throws CharacterCodingException
@@ -578,7 +621,29 @@ public class PsonDataCodec implements DataCodec
       int count = 0;
       for (count = 0; ; count++)
       {
-        Object item = parseValue();
+        // numbers are added unboxed so that arrays of numbers are stored in primitive arrays
+        byte psonType = _buffer.get();
+        if (psonType == PSON_INT)
+        {
+          list.addInt(_buffer.getInt());
+          continue;
+        }
+        else if (psonType == PSON_LONG)
+        {
+          list.addLong(_buffer.getLong());
+          continue;
+        }
+        else if (psonType == PSON_FLOAT)
+        {
+          list.addFloat(_buffer.getFloat());
+          continue;
+        }
+        else if (psonType == PSON_DOUBLE)
+        {
+          list.addDouble(_buffer.getDouble());
+          continue;
+        }
+        Object item = parseValue(psonType);
         if (item == null)
         {
           break;
@@ -653,8 +718,11 @@ public class PsonDataCodec implements DataCodec
 
     Object parseValue() throws IOException
     {
-      byte psonType = _buffer.get();
+      return parseValue(_buffer.get());
+    }
 
+    private Object parseValue(byte psonType) throws IOException
+    {
       Object o = null;
       boolean valid = true;
       switch (psonType)
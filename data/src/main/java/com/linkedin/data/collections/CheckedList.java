@@ -35,6 +35,12 @@ import java.util.List;
  * with this {@link CheckedList}.
  * <p>
  *
+ * A subclass may store its elements in a {@link PrimitiveList} instead, see
+ * {@link #CheckedList(PrimitiveList, ListChecker)}. The elements are moved to an
+ * {@link ArrayList} when an element that the {@link PrimitiveList} does not accept
+ * is added.
+ * <p>
+ *
  * A {@link CheckedList} may be marked read-only to disable mutations,
  * and to avoid unintentional changes. It may also be invalidated to
  * release its reference and decrease the reference count on the underlying
@@ -115,11 +121,31 @@ public class CheckedList<E> extends AbstractList<E> implements CommonList<E>, Cl
     _list = new InternalList<E>(initialCapacity);
   }
 
+  /**
+   * Construct a new list that stores its elements in the specified {@link PrimitiveList}
+   * with the specified {@link ListChecker}.
+   *
+   * The new list takes ownership of the {@link PrimitiveList}, which should not
+   * be accessed directly afterwards.
+   *
+   * @param list provides the storage and the initial elements of the new list.
+   * @param checker provides the {@link ListChecker}.
+   */
+  @SuppressWarnings("unchecked")
+  protected CheckedList(PrimitiveList list, ListChecker<E> checker)
+  {
+    _checker = checker;
+    checkAll((List<E>) list);
+    _list = (List<E>) list;
+    _primitiveList = list;
+  }
+
   @Override
   public boolean add(E e)
   {
     check(e);
     checkMutability();
+    checkStorage(e);
     return _list.add(e);
   }
 
@@ -128,6 +154,7 @@ public class CheckedList<E> extends AbstractList<E> implements CommonList<E>, Cl
   {
     check(element);
     checkMutability();
+    checkStorage(element);
     _list.add(index, element);
   }
 
@@ -136,6 +163,7 @@ public class CheckedList<E> extends AbstractList<E> implements CommonList<E>, Cl
   {
     checkAll(c);
     checkMutability();
+    checkStorageAll(c);
     return _list.addAll(c);
   }
 
@@ -144,6 +172,7 @@ public class CheckedList<E> extends AbstractList<E> implements CommonList<E>, Cl
   {
     checkAll(c);
     checkMutability();
+    checkStorageAll(c);
     return _list.addAll(index, c);
   }
 
@@ -159,7 +188,15 @@ public class CheckedList<E> extends AbstractList<E> implements CommonList<E>, Cl
   public CheckedList<E> clone() throws CloneNotSupportedException
   {
     CheckedList<E> o = (CheckedList<E>) super.clone();
-    o._list = (InternalList<E>) _list.clone();
+    if (_primitiveList != null)
+    {
+      o._primitiveList = _primitiveList.clone();
+      o._list = (List<E>) o._primitiveList;
+    }
+    else
+    {
+      o._list = (InternalList<E>) ((InternalList<E>) _list).clone();
+    }
     o._readOnly = false;
     return o;
   }
@@ -244,7 +281,14 @@ public class CheckedList<E> extends AbstractList<E> implements CommonList<E>, Cl
   public void removeRange(int fromIndex, int toIndex)
   {
     checkMutability();
-    _list.removeRange(fromIndex, toIndex);
+    if (_primitiveList != null)
+    {
+      _primitiveList.removeRange(fromIndex, toIndex);
+    }
+    else
+    {
+      ((InternalList<E>) _list).removeRange(fromIndex, toIndex);
+    }
   }
 
   @Override
@@ -252,6 +296,7 @@ public class CheckedList<E> extends AbstractList<E> implements CommonList<E>, Cl
   {
     check(element);
     checkMutability();
+    checkStorage(element);
     return _list.set(index, element);
   }
 
@@ -295,6 +340,7 @@ public class CheckedList<E> extends AbstractList<E> implements CommonList<E>, Cl
   public void invalidate()
   {
     _list = null;
+    _primitiveList = null;
   }
 
   /**
@@ -309,6 +355,7 @@ public class CheckedList<E> extends AbstractList<E> implements CommonList<E>, Cl
   protected boolean addWithoutChecking(E element)
   {
     checkMutability();
+    checkStorage(element);
     return _list.add(element);
   }
 
@@ -324,10 +371,44 @@ public class CheckedList<E> extends AbstractList<E> implements CommonList<E>, Cl
   protected E setWithoutChecking(int index, E element)
   {
     checkMutability();
+    checkStorage(element);
     return _list.set(index, element);
   }
 
-  private final void checkMutability()
+  /**
+   * Returns the {@link PrimitiveList} that stores the elements of this list.
+   *
+   * @return the {@link PrimitiveList} that stores the elements of this list,
+   *         or null if the elements are stored as objects.
+   */
+  protected final PrimitiveList getPrimitiveList()
+  {
+    return _primitiveList;
+  }
+
+  /**
+   * Store the elements of this empty list in the specified {@link PrimitiveList}.
+   *
+   * The list takes ownership of the {@link PrimitiveList}, which should not
+   * be accessed directly afterwards.
+   *
+   * @param list provides the storage, it must be empty.
+   * @throws UnsupportedOperationException if the list is read-only.
+   * @throws IllegalStateException if this list or the {@link PrimitiveList} is not empty.
+   */
+  @SuppressWarnings("unchecked")
+  protected final void setPrimitiveList(PrimitiveList list)
+  {
+    checkMutability();
+    if (_list.isEmpty() == false || list.isEmpty() == false)
+    {
+      throw new IllegalStateException("Cannot change the storage of a non-empty list");
+    }
+    _list = (List<E>) list;
+    _primitiveList = list;
+  }
+
+  protected final void checkMutability()
   {
     if (_readOnly)
     {
@@ -335,6 +416,28 @@ public class CheckedList<E> extends AbstractList<E> implements CommonList<E>, Cl
     }
   }
 
+  private final void checkStorage(E e)
+  {
+    if (_primitiveList != null && _primitiveList.accepts(e) == false)
+    {
+      useObjectStorage();
+    }
+  }
+
+  private final void checkStorageAll(Collection<? extends E> c)
+  {
+    if (_primitiveList != null && _primitiveList.acceptsAll(c) == false)
+    {
+      useObjectStorage();
+    }
+  }
+
+  private void useObjectStorage()
+  {
+    _list = new InternalList<E>(_list);
+    _primitiveList = null;
+  }
+
   private final void check(E e)
   {
     if (_checker != null)
@@ -387,5 +490,6 @@ public class CheckedList<E> extends AbstractList<E> implements CommonList<E>, Cl
 
   protected ListChecker<E> _checker;
   private boolean _readOnly = false;
-  private InternalList<E> _list;
+  private List<E> _list;
+  private PrimitiveList _primitiveList;
 }
\ No newline at end of file
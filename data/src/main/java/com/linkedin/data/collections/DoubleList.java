@@ -0,0 +1,155 @@
+/*
+   Copyright (c) 2012 LinkedIn Corp.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+
+package com.linkedin.data.collections;
+
+
+import java.util.Arrays;
+
+
+/**
+ * {@link PrimitiveList} that stores {@link Double} elements in a double array.
+ */
+public final class DoubleList extends PrimitiveList
+{
+  /**
+   * Construct an empty list.
+   */
+  public DoubleList()
+  {
+    this(DEFAULT_CAPACITY);
+  }
+
+  /**
+   * Construct an empty list with the specified initial capacity.
+   *
+   * @param initialCapacity provides the initial capacity.
+   */
+  public DoubleList(int initialCapacity)
+  {
+    _values = new double[initialCapacity];
+  }
+
+  /**
+   * Construct a list with a copy of the specified values.
+   *
+   * @param values provides the initial elements of the list.
+   */
+  public DoubleList(double[] values)
+  {
+    _values = values.clone();
+    _size = values.length;
+  }
+
+  /**
+   * Returns the element at the specified position without boxing it.
+   *
+   * @param index of the element to return.
+   * @return the element at the specified position.
+   */
+  public double getDouble(int index)
+  {
+    checkIndex(index);
+    return _values[index];
+  }
+
+  /**
+   * Replace the element at the specified position without boxing it.
+   *
+   * @param index of the element to replace.
+   * @param value to be stored at the specified position.
+   * @return the element previously at the specified position.
+   */
+  public double setDouble(int index, double value)
+  {
+    checkIndex(index);
+    double previous = _values[index];
+    _values[index] = value;
+    return previous;
+  }
+
+  /**
+   * Append an element without boxing it.
+   *
+   * @param value to be appended.
+   */
+  public void addDouble(double value)
+  {
+    insert(_size);
+    _values[_size - 1] = value;
+  }
+
+  /**
+   * Returns a copy of the elements of this list.
+   *
+   * @return a double array containing the elements of this list.
+   */
+  public double[] toDoubleArray()
+  {
+    return Arrays.copyOf(_values, _size);
+  }
+
+  @Override
+  public Class<?> getElementClass()
+  {
+    return Double.class;
+  }
+
+  @Override
+  public Object get(int index)
+  {
+    return getDouble(index);
+  }
+
+  @Override
+  public Object set(int index, Object element)
+  {
+    return setDouble(index, (Double) element);
+  }
+
+  @Override
+  protected Object array()
+  {
+    return _values;
+  }
+
+  @Override
+  protected int capacity()
+  {
+    return _values.length;
+  }
+
+  @Override
+  protected void resize(int capacity)
+  {
+    _values = Arrays.copyOf(_values, capacity);
+  }
+
+  @Override
+  protected void copyArray()
+  {
+    _values = _values.clone();
+  }
+
+  @Override
+  protected void store(int index, Object element)
+  {
+    _values[index] = (Double) element;
+  }
+
+  private double[] _values;
+}
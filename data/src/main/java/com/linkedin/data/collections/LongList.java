@@ -0,0 +1,155 @@
+/*
+   Copyright (c) 2012 LinkedIn Corp.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+
+package com.linkedin.data.collections;
+
+
+import java.util.Arrays;
+
+
+/**
+ * {@link PrimitiveList} that stores {@link Long} elements in a long array.
+ */
+public final class LongList extends PrimitiveList
+{
+  /**
+   * Construct an empty list.
+   */
+  public LongList()
+  {
+    this(DEFAULT_CAPACITY);
+  }
+
+  /**
+   * Construct an empty list with the specified initial capacity.
+   *
+   * @param initialCapacity provides the initial capacity.
+   */
+  public LongList(int initialCapacity)
+  {
+    _values = new long[initialCapacity];
+  }
+
+  /**
+   * Construct a list with a copy of the specified values.
+   *
+   * @param values provides the initial elements of the list.
+   */
+  public LongList(long[] values)
+  {
+    _values = values.clone();
+    _size = values.length;
+  }
+
+  /**
+   * Returns the element at the specified position without boxing it.
+   *
+   * @param index of the element to return.
+   * @return the element at the specified position.
+   */
+  public long getLong(int index)
+  {
+    checkIndex(index);
+    return _values[index];
+  }
+
+  /**
+   * Replace the element at the specified position without boxing it.
+   *
+   * @param index of the element to replace.
+   * @param value to be stored at the specified position.
+   * @return the element previously at the specified position.
+   */
+  public long setLong(int index, long value)
+  {
+    checkIndex(index);
+    long previous = _values[index];
+    _values[index] = value;
+    return previous;
+  }
+
+  /**
+   * Append an element without boxing it.
+   *
+   * @param value to be appended.
+   */
+  public void addLong(long value)
+  {
+    insert(_size);
+    _values[_size - 1] = value;
+  }
+
+  /**
+   * Returns a copy of the elements of this list.
+   *
+   * @return a long array containing the elements of this list.
+   */
+  public long[] toLongArray()
+  {
+    return Arrays.copyOf(_values, _size);
+  }
+
+  @Override
+  public Class<?> getElementClass()
+  {
+    return Long.class;
+  }
+
+  @Override
+  public Object get(int index)
+  {
+    return getLong(index);
+  }
+
+  @Override
+  public Object set(int index, Object element)
+  {
+    return setLong(index, (Long) element);
+  }
+
+  @Override
+  protected Object array()
+  {
+    return _values;
+  }
+
+  @Override
+  protected int capacity()
+  {
+    return _values.length;
+  }
+
+  @Override
+  protected void resize(int capacity)
+  {
+    _values = Arrays.copyOf(_values, capacity);
+  }
+
+  @Override
+  protected void copyArray()
+  {
+    _values = _values.clone();
+  }
+
+  @Override
+  protected void store(int index, Object element)
+  {
+    _values[index] = (Long) element;
+  }
+
+  private long[] _values;
+}
@@ -0,0 +1,254 @@
+/*
+   Copyright (c) 2012 LinkedIn Corp.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+
+package com.linkedin.data.collections;
+
+
+import java.util.AbstractList;
+import java.util.Collection;
+import java.util.RandomAccess;
+
+
+/**
+ * List that stores its elements in an array of primitive values.
+ * <p>
+ *
+ * Elements are boxed only when they are accessed through the {@link java.util.List}
+ * methods. Subclasses provide accessors that read and write the primitive values
+ * directly, e.g. {@link IntList#getInt(int)} and {@link IntList#addInt(int)}.
+ * <p>
+ *
+ * A {@link PrimitiveList} only stores elements of a single wrapper class, see
+ * {@link #accepts(Object)}. A {@link CheckedList} that uses a {@link PrimitiveList}
+ * as its storage switches to storing objects when an element of another class is added.
+ */
+public abstract class PrimitiveList extends AbstractList<Object> implements RandomAccess, Cloneable
+{
+  protected static final int DEFAULT_CAPACITY = 10;
+
+  /**
+   * Returns the wrapper class of the elements stored in this list, e.g. {@link Integer}.
+   *
+   * @return the wrapper class of the elements stored in this list.
+   */
+  public abstract Class<?> getElementClass();
+
+  /**
+   * Returns whether the specified element can be stored in this list without changing its class.
+   *
+   * @param element to check.
+   * @return true if the element's class is the class returned by {@link #getElementClass()}.
+   */
+  public boolean accepts(Object element)
+  {
+    return element != null && element.getClass() == getElementClass();
+  }
+
+  /**
+   * Returns whether all the elements of the specified collection can be stored in this list.
+   *
+   * @param c provides the elements to check.
+   * @return true if {@link #accepts(Object)} returns true for all the elements.
+   */
+  public boolean acceptsAll(Collection<?> c)
+  {
+    for (Object e : c)
+    {
+      if (accepts(e) == false)
+      {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public boolean add(Object element)
+  {
+    add(_size, element);
+    return true;
+  }
+
+  @Override
+  public void add(int index, Object element)
+  {
+    checkPositionIndex(index);
+    checkElement(element);
+    insert(index);
+    store(index, element);
+  }
+
+  @Override
+  public boolean addAll(Collection<? extends Object> c)
+  {
+    return addAll(_size, c);
+  }
+
+  @Override
+  public boolean addAll(int index, Collection<? extends Object> c)
+  {
+    checkPositionIndex(index);
+    Object[] elements = c.toArray();
+    for (Object e : elements)
+    {
+      checkElement(e);
+    }
+    int count = elements.length;
+    ensureCapacity(_size + count);
+    int end = index + count;
+    System.arraycopy(array(), index, array(), end, _size - index);
+    _size += count;
+    modCount++;
+    for (Object e : elements)
+    {
+      store(index, e);
+      index++;
+    }
+    return count != 0;
+  }
+
+  @Override
+  public Object remove(int index)
+  {
+    Object removed = get(index);
+    removeRange(index, index + 1);
+    return removed;
+  }
+
+  @Override
+  public void removeRange(int fromIndex, int toIndex)
+  {
+    if (fromIndex < 0 || fromIndex > toIndex || toIndex > _size)
+    {
+      throw new IndexOutOfBoundsException("fromIndex: " + fromIndex + ", toIndex: " + toIndex + ", size: " + _size);
+    }
+    System.arraycopy(array(), toIndex, array(), fromIndex, _size - toIndex);
+    _size -= toIndex - fromIndex;
+    modCount++;
+  }
+
+  @Override
+  public void clear()
+  {
+    _size = 0;
+    modCount++;
+  }
+
+  @Override
+  public int size()
+  {
+    return _size;
+  }
+
+  @Override
+  public PrimitiveList clone()
+  {
+    try
+    {
+      PrimitiveList o = (PrimitiveList) super.clone();
+      o.copyArray();
+      return o;
+    }
+    catch (CloneNotSupportedException e)
+    {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /**
+   * Ensure this list can hold the specified number of elements without growing its array.
+   *
+   * @param minCapacity provides the number of elements.
+   */
+  public void ensureCapacity(int minCapacity)
+  {
+    int capacity = capacity();
+    if (minCapacity > capacity)
+    {
+      resize(Math.max(minCapacity, capacity + (capacity >> 1) + 1));
+    }
+  }
+
+  /**
+   * Make room for one element at the specified index, the caller is expected to store the element.
+   *
+   * @param index of the new element.
+   */
+  protected final void insert(int index)
+  {
+    ensureCapacity(_size + 1);
+    if (index < _size)
+    {
+      System.arraycopy(array(), index, array(), index + 1, _size - index);
+    }
+    _size++;
+    modCount++;
+  }
+
+  protected final void checkIndex(int index)
+  {
+    if (index < 0 || index >= _size)
+    {
+      throw new IndexOutOfBoundsException("Index: " + index + ", size: " + _size);
+    }
+  }
+
+  private void checkElement(Object element)
+  {
+    if (accepts(element) == false)
+    {
+      throw new ClassCastException(element + " is not a " + getElementClass().getName());
+    }
+  }
+
+  private void checkPositionIndex(int index)
+  {
+    if (index < 0 || index > _size)
+    {
+      throw new IndexOutOfBoundsException("Index: " + index + ", size: " + _size);
+    }
+  }
+
+  /**
+   * Returns the array that holds the elements of this list.
+   */
+  protected abstract Object array();
+
+  /**
+   * Returns the length of the array that holds the elements of this list.
+   */
+  protected abstract int capacity();
+
+  /**
+   * Replace the array that holds the elements of this list with a copy of the specified length.
+   */
+  protected abstract void resize(int capacity);
+
+  /**
+   * Replace the array that holds the elements of this list with a copy, used by {@link #clone()}.
+   */
+  protected abstract void copyArray();
+
+  /**
+   * Store an element unboxed at the specified index, which must be less than the size of this list.
+   *
+   * @throws ClassCastException if the element is not an instance of the class returned by {@link #getElementClass()}.
+   */
+  protected abstract void store(int index, Object element);
+
+  protected int _size;
+}
@@ -0,0 +1,521 @@
+/*
+   Copyright (c) 2012 LinkedIn Corp.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+
+package com.linkedin.data.schema.validation;
+
+
+import com.linkedin.data.DataList;
+import com.linkedin.data.DataMap;
+import com.linkedin.data.element.DataElement;
+import com.linkedin.data.element.MutableDataElement;
+import com.linkedin.data.element.SimpleDataElement;
+import com.linkedin.data.schema.ArrayDataSchema;
+import com.linkedin.data.schema.BytesDataSchema;
+import com.linkedin.data.schema.DataSchema;
+import com.linkedin.data.schema.EnumDataSchema;
+import com.linkedin.data.schema.FixedDataSchema;
+import com.linkedin.data.schema.MapDataSchema;
+import com.linkedin.data.schema.RecordDataSchema;
+import com.linkedin.data.schema.TyperefDataSchema;
+import com.linkedin.data.schema.UnionDataSchema;
+import com.linkedin.data.schema.validation.ValidateDataAgainstSchema.State;
+import com.linkedin.data.schema.validator.Validator;
+import com.linkedin.util.ArgumentUtil;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+
+/**
+ * Validates and fixes up Data objects against a {@link DataSchema} that has been compiled
+ * with {@link ValidationOptions} into a graph of per-schema checks.
+ * <p>
+ *
+ * {@link ValidateDataAgainstSchema} interprets the {@link DataSchema} on every call. A
+ * {@link CompiledSchemaValidator} resolves the schema of every record field, union member,
+ * map value and array item, the class of every primitive type and the required fields
+ * of every record once, and is meant to be kept and reused. It returns the same
+ * {@link ValidationResult} as {@link ValidateDataAgainstSchema#validate(DataElement, ValidationOptions, Validator)}.
+ * <p>
+ *
+ * The {@link ValidationOptions} must not be modified after compilation. Avro union mode
+ * is not compiled, validation is delegated to {@link ValidateDataAgainstSchema}.
+ * <p>
+ *
+ * A {@link CompiledSchemaValidator} may be used concurrently if its {@link Validator},
+ * if any, may be used concurrently.
+ */
+public final class CompiledSchemaValidator
+{
+  /**
+   * Compile a {@link DataSchema} with the specified {@link ValidationOptions}.
+   *
+   * @param schema provides the {@link DataSchema} to validate against.
+   * @param options provides the {@link ValidationOptions}.
+   * @return a {@link CompiledSchemaValidator}.
+   */
+  public static CompiledSchemaValidator compile(DataSchema schema, ValidationOptions options)
+  {
+    return compile(schema, options, null);
+  }
+
+  /**
+   * Compile a {@link DataSchema} with the specified {@link ValidationOptions} and {@link Validator}.
+   *
+   * @param schema provides the {@link DataSchema} to validate against.
+   * @param options provides the {@link ValidationOptions}.
+   * @param validator provides the {@link Validator} invoked on every validated value, may be null.
+   * @return a {@link CompiledSchemaValidator}.
+   */
+  public static CompiledSchemaValidator compile(DataSchema schema, ValidationOptions options, Validator validator)
+  {
+    ArgumentUtil.notNull(schema, "schema");
+    ArgumentUtil.notNull(options, "options");
+    return new CompiledSchemaValidator(schema, options, validator);
+  }
+
+  private CompiledSchemaValidator(DataSchema schema, ValidationOptions options, Validator validator)
+  {
+    _schema = schema;
+    _options = options;
+    _validator = validator;
+    _root = options.isAvroUnionMode() ? null : new Compiler(options).compile(schema);
+  }
+
+  /**
+   * Return the {@link DataSchema} this validator was compiled from.
+   *
+   * @return the {@link DataSchema}.
+   */
+  public DataSchema getSchema()
+  {
+    return _schema;
+  }
+
+  /**
+   * Return the {@link ValidationOptions} this validator was compiled with.
+   *
+   * @return the {@link ValidationOptions}.
+   */
+  public ValidationOptions getOptions()
+  {
+    return _options;
+  }
+
+  /**
+   * Validate and fix up a Data object.
+   *
+   * @param object provides the Data object to validate.
+   * @return the {@link ValidationResult}.
+   */
+  public ValidationResult validate(Object object)
+  {
+    return validate(new SimpleDataElement(object, _schema));
+  }
+
+  /**
+   * Validate and fix up the Data object of a {@link DataElement}.
+   *
+   * @param element provides the Data object, its {@link DataSchema} must be the schema this validator was compiled from.
+   * @return the {@link ValidationResult}.
+   * @throws IllegalArgumentException if the element has another {@link DataSchema}.
+   */
+  public ValidationResult validate(DataElement element)
+  {
+    if (element.getSchema() != _schema)
+    {
+      throw new IllegalArgumentException("Schema of element " + element.path() + " is not the compiled schema");
+    }
+    if (_root == null)
+    {
+      return ValidateDataAgainstSchema.validate(element, _options, _validator);
+    }
+    State state = new State(_options, _validator);
+    state.startIterative(element);
+    visit(state, element, _root);
+    return state;
+  }
+
+  /**
+   * Validate the children of a complex value before the value itself, in the order
+   * {@link ValidateDataAgainstSchema} validates them.
+   */
+  private static void visit(State state, DataElement element, Node node)
+  {
+    Object value = element.getValue();
+    if (value instanceof DataMap)
+    {
+      MutableDataElement childElement = null;
+      for (Map.Entry<String, Object> entry : ((DataMap) value).entrySet())
+      {
+        String key = entry.getKey();
+        Node childNode = node.mapChild(element, key);
+        if (childNode != null)
+        {
+          if (childElement == null)
+          {
+            childElement = new MutableDataElement(element);
+          }
+          childElement.setValueNameSchema(entry.getValue(), key, childNode._schema);
+          visit(state, childElement, childNode);
+        }
+      }
+    }
+    else if (value instanceof DataList)
+    {
+      Node itemsNode = node.listItems();
+      if (itemsNode != null)
+      {
+        DataList list = (DataList) value;
+        MutableDataElement childElement = new MutableDataElement(element);
+        for (int i = 0; i < list.size(); ++i)
+        {
+          childElement.setValueNameSchema(list.get(i), i, itemsNode._schema);
+          visit(state, childElement, itemsNode);
+        }
+      }
+    }
+    node.validate(state, element, value);
+  }
+
+  /**
+   * Compiled checks of a {@link DataSchema}.
+   */
+  private abstract static class Node
+  {
+    protected Node(DataSchema schema)
+    {
+      _schema = schema;
+    }
+
+    /**
+     * Validate and fix up a value, see {@link State#validate(DataElement, DataSchema, Object)}.
+     */
+    final Object validate(State state, DataElement element, Object object)
+    {
+      Object fixed = check(state, element, object);
+      if (fixed != object)
+      {
+        state.fixValue(element, fixed);
+      }
+      if (state.hasValidator() && element.getSchema() == _schema)
+      {
+        state.callValidator(element, _schema, object, fixed);
+      }
+      return fixed;
+    }
+
+    /**
+     * Validate a value without its children.
+     *
+     * @return the fixed value, or the value if it has not been fixed.
+     */
+    protected abstract Object check(State state, DataElement element, Object object);
+
+    /**
+     * Return the node of the entry with the specified key of a {@link DataMap} backing this schema.
+     *
+     * @return the node of the entry, or null if the entry has no schema.
+     */
+    protected Node mapChild(DataElement element, String key)
+    {
+      throw new IllegalStateException("Unknown dereferenced type " + _schema.getDereferencedType() + " for DataMap's schema " + element.getSchema());
+    }
+
+    /**
+     * Return the node of the items of a {@link DataList} backing this schema.
+     *
+     * @return the node of the items, or null if the items are not validated.
+     */
+    protected Node listItems()
+    {
+      return null;
+    }
+
+    protected final DataSchema _schema;
+  }
+
+  private static final class PrimitiveNode extends Node
+  {
+    private PrimitiveNode(DataSchema schema, Class<?> primitiveClass)
+    {
+      super(schema);
+      _primitiveClass = primitiveClass;
+    }
+
+    @Override
+    protected Object check(State state, DataElement element, Object object)
+    {
+      return state.validatePrimitive(element, _schema, object, _primitiveClass);
+    }
+
+    private final Class<?> _primitiveClass;
+  }
+
+  private static final class BytesNode extends Node
+  {
+    private BytesNode(BytesDataSchema schema)
+    {
+      super(schema);
+    }
+
+    @Override
+    protected Object check(State state, DataElement element, Object object)
+    {
+      return state.validateBytes(element, (BytesDataSchema) _schema, object);
+    }
+  }
+
+  private static final class EnumNode extends Node
+  {
+    private EnumNode(EnumDataSchema schema)
+    {
+      super(schema);
+    }
+
+    @Override
+    protected Object check(State state, DataElement element, Object object)
+    {
+      return state.validateEnum(element, (EnumDataSchema) _schema, object);
+    }
+  }
+
+  private static final class FixedNode extends Node
+  {
+    private FixedNode(FixedDataSchema schema)
+    {
+      super(schema);
+    }
+
+    @Override
+    protected Object check(State state, DataElement element, Object object)
+    {
+      return state.validateFixed(element, (FixedDataSchema) _schema, object);
+    }
+  }
+
+  private static final class ArrayNode extends Node
+  {
+    private ArrayNode(ArrayDataSchema schema)
+    {
+      super(schema);
+    }
+
+    @Override
+    protected Object check(State state, DataElement element, Object object)
+    {
+      return state.validateArray(element, (ArrayDataSchema) _schema, object);
+    }
+
+    @Override
+    protected Node listItems()
+    {
+      return _items;
+    }
+
+    private Node _items;
+  }
+
+  private static final class MapNode extends Node
+  {
+    private MapNode(MapDataSchema schema)
+    {
+      super(schema);
+    }
+
+    @Override
+    protected Object check(State state, DataElement element, Object object)
+    {
+      return state.validateMap(element, (MapDataSchema) _schema, object);
+    }
+
+    @Override
+    protected Node mapChild(DataElement element, String key)
+    {
+      return _values;
+    }
+
+    private Node _values;
+  }
+
+  private static final class RecordNode extends Node
+  {
+    private RecordNode(RecordDataSchema schema, List<RecordDataSchema.Field> requiredFields)
+    {
+      super(schema);
+      _requiredFields = requiredFields;
+    }
+
+    @Override
+    protected Object check(State state, DataElement element, Object object)
+    {
+      return state.validateRecord(element, (RecordDataSchema) _schema, object, _requiredFields);
+    }
+
+    @Override
+    protected Node mapChild(DataElement element, String key)
+    {
+      return _fields.get(key);
+    }
+
+    private final List<RecordDataSchema.Field> _requiredFields;
+    private final Map<String, Node> _fields = new HashMap<String, Node>();
+  }
+
+  private static final class UnionNode extends Node
+  {
+    private UnionNode(UnionDataSchema schema)
+    {
+      super(schema);
+    }
+
+    @Override
+    protected Object check(State state, DataElement element, Object object)
+    {
+      return state.validateUnion(element, (UnionDataSchema) _schema, object);
+    }
+
+    @Override
+    protected Node mapChild(DataElement element, String key)
+    {
+      return _members.get(key);
+    }
+
+    private final Map<String, Node> _members = new HashMap<String, Node>();
+  }
+
+  private static final class TyperefNode extends Node
+  {
+    private TyperefNode(TyperefDataSchema schema)
+    {
+      super(schema);
+    }
+
+    @Override
+    protected Object check(State state, DataElement element, Object object)
+    {
+      return _ref.validate(state, element, object);
+    }
+
+    @Override
+    protected Node mapChild(DataElement element, String key)
+    {
+      return _ref.mapChild(element, key);
+    }
+
+    // the items of a DataList backing a typeref are not validated, as with ValidateDataAgainstSchema
+
+    private Node _ref;
+  }
+
+  private static final class Compiler
+  {
+    private Compiler(ValidationOptions options)
+    {
+      _checkRequiredFields = options.getRequiredMode() != RequiredMode.IGNORE;
+    }
+
+    private Node compile(DataSchema schema)
+    {
+      Node node = _nodes.get(schema);
+      if (node != null)
+      {
+        return node;
+      }
+      // nodes are registered before their children are compiled to support recursive schemas
+      switch (schema.getType())
+      {
+        case ARRAY:
+          ArrayNode arrayNode = new ArrayNode((ArrayDataSchema) schema);
+          _nodes.put(schema, arrayNode);
+          arrayNode._items = compile(((ArrayDataSchema) schema).getItems());
+          node = arrayNode;
+          break;
+        case MAP:
+          MapNode mapNode = new MapNode((MapDataSchema) schema);
+          _nodes.put(schema, mapNode);
+          mapNode._values = compile(((MapDataSchema) schema).getValues());
+          node = mapNode;
+          break;
+        case RECORD:
+          RecordDataSchema recordSchema = (RecordDataSchema) schema;
+          List<RecordDataSchema.Field> requiredFields = new ArrayList<RecordDataSchema.Field>();
+          if (_checkRequiredFields)
+          {
+            for (RecordDataSchema.Field field : recordSchema.getFields())
+            {
+              if (field.getOptional() == false)
+              {
+                requiredFields.add(field);
+              }
+            }
+          }
+          RecordNode recordNode = new RecordNode(recordSchema, Collections.unmodifiableList(requiredFields));
+          _nodes.put(schema, recordNode);
+          for (RecordDataSchema.Field field : recordSchema.getFields())
+          {
+            recordNode._fields.put(field.getName(), compile(field.getType()));
+          }
+          node = recordNode;
+          break;
+        case UNION:
+          UnionNode unionNode = new UnionNode((UnionDataSchema) schema);
+          _nodes.put(schema, unionNode);
+          for (DataSchema memberSchema : ((UnionDataSchema) schema).getTypes())
+          {
+            unionNode._members.put(memberSchema.getUnionMemberKey(), compile(memberSchema));
+          }
+          node = unionNode;
+          break;
+        case TYPEREF:
+          TyperefNode typerefNode = new TyperefNode((TyperefDataSchema) schema);
+          _nodes.put(schema, typerefNode);
+          typerefNode._ref = compile(((TyperefDataSchema) schema).getRef());
+          node = typerefNode;
+          break;
+        case BYTES:
+          node = new BytesNode((BytesDataSchema) schema);
+          _nodes.put(schema, node);
+          break;
+        case ENUM:
+          node = new EnumNode((EnumDataSchema) schema);
+          _nodes.put(schema, node);
+          break;
+        case FIXED:
+          node = new FixedNode((FixedDataSchema) schema);
+          _nodes.put(schema, node);
+          break;
+        default:
+          node = new PrimitiveNode(schema, ValidateDataAgainstSchema._primitiveTypeToClassMap.get(schema.getType()));
+          _nodes.put(schema, node);
+          break;
+      }
+      return node;
+    }
+
+    private final boolean _checkRequiredFields;
+    private final IdentityHashMap<DataSchema, Node> _nodes = new IdentityHashMap<DataSchema, Node>();
+  }
+
+  private final DataSchema _schema;
+  private final ValidationOptions _options;
+  private final Validator _validator;
+  private final Node _root;
+}
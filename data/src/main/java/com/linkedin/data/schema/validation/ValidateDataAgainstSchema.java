@@ -61,7 +61,7 @@ public final class ValidateDataAgainstSchema
   }
 
   @SuppressWarnings("serial")
-  private static final HashMap<DataSchema.Type, Class<?>> _primitiveTypeToClassMap = new HashMap<DataSchema.Type, Class<?>>()
+  static final HashMap<DataSchema.Type, Class<?>> _primitiveTypeToClassMap = new HashMap<DataSchema.Type, Class<?>>()
   {
     {
       put(DataSchema.Type.INT, Integer.class);
@@ -96,7 +96,10 @@ public final class ValidateDataAgainstSchema
     return state;
   }
 
-  private static class State implements ValidationResult
+  /**
+   * Holds the result of a validation, also used by {@link CompiledSchemaValidator}.
+   */
+  static class State implements ValidationResult
   {
     private boolean _recursive;
     private final ValidationOptions _options;
@@ -107,7 +110,7 @@ public final class ValidateDataAgainstSchema
     private boolean _valid = true;
     private final Context _context;
 
-    private State(ValidationOptions options, Validator validator)
+    State(ValidationOptions options, Validator validator)
     {
       _options = options;
       _validator = validator;
@@ -134,8 +137,7 @@ public final class ValidateDataAgainstSchema
 
     protected void validateIterative(DataElement element)
     {
-      _recursive = false;
-      _fixed = element.getValue();
+      startIterative(element);
       ObjectIterator it = new ObjectIterator(element, IterationOrder.POST_ORDER);
       DataElement nextElement;
       while ((nextElement = it.next()) != null)
@@ -148,6 +150,16 @@ public final class ValidateDataAgainstSchema
       }
     }
 
+    /**
+     * Prepare to validate the specified element without recursing into
+     * the children of complex objects, which are validated first.
+     */
+    void startIterative(DataElement element)
+    {
+      _recursive = false;
+      _fixed = element.getValue();
+    }
+
     protected Object validate(DataElement element, DataSchema schema, Object object)
     {
       Object fixed;
@@ -187,26 +199,39 @@ public final class ValidateDataAgainstSchema
       }
       if (_validator != null && element.getSchema() == schema)
       {
-        DataElement validatorElement;
-        if (fixed == object)
-        {
-          validatorElement = element;
-        }
-        else if (element instanceof MutableDataElement)
-        {
-          ((MutableDataElement) element).setValue(fixed);
-          validatorElement = element;
-        }
-        else
-        {
-           validatorElement = new SimpleDataElement(fixed, element.getName(), schema, element.getParent());
-        }
-        _context._dataElement = validatorElement;
-        _validator.validate(_context);
+        callValidator(element, schema, object, fixed);
       }
       return fixed;
     }
 
+    /**
+     * Invoke the {@link Validator} on an element that has been validated and fixed.
+     */
+    void callValidator(DataElement element, DataSchema schema, Object object, Object fixed)
+    {
+      DataElement validatorElement;
+      if (fixed == object)
+      {
+        validatorElement = element;
+      }
+      else if (element instanceof MutableDataElement)
+      {
+        ((MutableDataElement) element).setValue(fixed);
+        validatorElement = element;
+      }
+      else
+      {
+         validatorElement = new SimpleDataElement(fixed, element.getName(), schema, element.getParent());
+      }
+      _context._dataElement = validatorElement;
+      _validator.validate(_context);
+    }
+
+    boolean hasValidator()
+    {
+      return _validator != null;
+    }
+
     protected void fixValue(DataElement element, Object fixed)
     {
       assert(_options.getCoercionMode() != CoercionMode.OFF);
@@ -271,6 +296,14 @@ public final class ValidateDataAgainstSchema
     }
 
     protected Object validateRecord(DataElement element, RecordDataSchema schema, Object object)
+    {
+      return validateRecord(element, schema, object, schema.getFields());
+    }
+
+    /**
+     * Validate a record, only the specified fields are checked for presence.
+     */
+    protected Object validateRecord(DataElement element, RecordDataSchema schema, Object object, List<RecordDataSchema.Field> fields)
     {
       if (object instanceof DataMap)
       {
@@ -282,7 +315,7 @@ public final class ValidateDataAgainstSchema
         RequiredMode requiredMode = _options.getRequiredMode();
         if (requiredMode != RequiredMode.IGNORE)
         {
-          for (RecordDataSchema.Field field : schema.getFields())
+          for (RecordDataSchema.Field field : fields)
           {
             if (field.getOptional() == false && map.containsKey(field.getName()) == false)
             {
@@ -566,8 +599,11 @@ public final class ValidateDataAgainstSchema
 
     protected Object validatePrimitive(DataElement element, DataSchema schema, Object object)
     {
-      Class<?> primitiveClass = _primitiveTypeToClassMap.get(schema.getType());
+      return validatePrimitive(element, schema, object, _primitiveTypeToClassMap.get(schema.getType()));
+    }
 
+    protected Object validatePrimitive(DataElement element, DataSchema schema, Object object, Class<?> primitiveClass)
+    {
       Object fixed = object;
       if (object.getClass() != primitiveClass)
       {
@@ -18,6 +18,7 @@ package com.linkedin.data.template;
 
 import java.io.FileDescriptor;
 import java.io.FileOutputStream;
+import java.io.IOException;
 import java.io.PrintStream;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
@@ -25,16 +26,23 @@ import java.lang.reflect.InvocationTargetException;
 import java.util.Collections;
 import java.util.IdentityHashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import com.linkedin.data.ByteString;
+import com.linkedin.data.Data;
 import com.linkedin.data.DataList;
 import com.linkedin.data.DataMap;
+import com.linkedin.data.DataSerializer;
 import com.linkedin.data.schema.DataSchema;
 import com.linkedin.data.schema.DataSchemaResolver;
 import com.linkedin.data.schema.DataSchemaUtil;
+import com.linkedin.data.schema.Name;
 import com.linkedin.data.schema.NamedDataSchema;
 import com.linkedin.data.schema.SchemaParser;
 import com.linkedin.data.schema.SchemaParserFactory;
+import com.linkedin.data.schema.resolver.ClassNameDataSchemaLocation;
+import com.linkedin.data.schema.resolver.DefaultDataSchemaResolver;
 
 public class DataTemplateUtil
 {
@@ -303,6 +311,39 @@ public class DataTemplateUtil
     return parser.topLevelDataSchemas().get(0);
   }
 
+  /**
+   * Parse data schema in JSON format that refers by name to the schemas of other data templates.
+   *
+   * The generated data templates use this so that a named schema is parsed once, by the class
+   * that it binds to, and then shared by the schemas that refer to it.
+   *
+   * @param schemaText provides the data schema in JSON format.
+   * @param referencedTemplates provides the data template classes whose named schemas are
+   *                            referred to by name in the schema text.
+   * @return the {@link DataSchema} parsed from the data schema in JSON format.
+   * @throws IllegalArgumentException if the data schema in JSON format is invalid,
+   *                                  there is more than one top level schema, or a referenced
+   *                                  class does not have a named schema.
+   */
+  public static DataSchema parseSchemaWithReferences(String schemaText, Class<?>... referencedTemplates)
+    throws IllegalArgumentException
+  {
+    DataSchemaResolver resolver = new DefaultDataSchemaResolver();
+    for (Class<?> templateClass : referencedTemplates)
+    {
+      DataSchema schema = getSchema(templateClass);
+      if (schema instanceof NamedDataSchema == false)
+      {
+        throw new IllegalArgumentException("Class' schema is unnamed: " + templateClass.getName());
+      }
+      NamedDataSchema namedSchema = (NamedDataSchema) schema;
+      resolver.bindNameToSchema(new Name(namedSchema.getFullName()),
+                                namedSchema,
+                                new ClassNameDataSchemaLocation(templateClass.getName()));
+    }
+    return parseSchema(schemaText, resolver);
+  }
+
   /**
    * Gets the {@link TyperefInfo} for a given data template.
    *
@@ -725,6 +766,102 @@ public class DataTemplateUtil
     }
   }
 
+  /**
+   * Register the {@link DataSerializer} for the data of a generated record template class.
+   * <p>
+   *
+   * Generated record template classes register their serializers when they are initialized
+   * if the data template generator is asked to emit serializers. Codecs also use the
+   * registered serializer to parse the data of the class directly into the classes of its fields.
+   *
+   * @param templateClass provides the record template class.
+   * @param serializer provides the serializer for the {@link DataMap}s of the class.
+   */
+  public static void registerSerializer(Class<? extends RecordTemplate> templateClass, DataSerializer serializer)
+  {
+    _classToSerializerMap.put(templateClass, serializer);
+  }
+
+  /**
+   * Return the {@link DataSerializer} registered for a record template class,
+   * initializing the class if necessary.
+   *
+   * @param templateClass provides the record template class.
+   * @return the serializer for the {@link DataMap}s of the class,
+   *         or null if no serializer has been registered for the class.
+   */
+  public static DataSerializer getSerializer(Class<?> templateClass)
+  {
+    DataSerializer serializer = _classToSerializerMap.get(templateClass);
+    if (serializer == null)
+    {
+      initializeClass(templateClass);
+      _classToSerializerMap.putIfAbsent(templateClass, NO_SERIALIZER);
+      serializer = _classToSerializerMap.get(templateClass);
+    }
+    return serializer == NO_SERIALIZER ? null : serializer;
+  }
+
+  /**
+   * Return a {@link DataSerializer} that writes with the serializer registered for a
+   * record template class.
+   * <p>
+   *
+   * The registered serializer is looked up when the returned serializer is first used,
+   * so that generated classes whose schemas refer to each other can be initialized in any order.
+   * If no serializer has been registered for the class, the returned serializer writes with
+   * {@link DataSerializer#GENERIC}.
+   *
+   * @param templateClass provides the record template class.
+   * @return the serializer.
+   */
+  public static DataSerializer serializerFor(final Class<? extends RecordTemplate> templateClass)
+  {
+    return new DataSerializer()
+    {
+      @Override
+      public void write(Object value, Data.TraverseCallback callback) throws IOException
+      {
+        getRegistered().write(value, callback);
+      }
+
+      @Override
+      public Class<?> getValueClass()
+      {
+        return getRegistered().getValueClass();
+      }
+
+      @Override
+      public DataSerializer getItemSerializer()
+      {
+        return getRegistered().getItemSerializer();
+      }
+
+      @Override
+      public DataSerializer getEntrySerializer(String key)
+      {
+        return getRegistered().getEntrySerializer(key);
+      }
+
+      private DataSerializer getRegistered()
+      {
+        DataSerializer serializer = _serializer;
+        if (serializer == null)
+        {
+          serializer = getSerializer(templateClass);
+          _serializer = serializer = (serializer == null ? DataSerializer.GENERIC : serializer);
+        }
+        return serializer;
+      }
+
+      private volatile DataSerializer _serializer;
+    };
+  }
+
+  private static final DataSerializer NO_SERIALIZER = DataSerializer.GENERIC;
+  private static final ConcurrentMap<Class<?>, DataSerializer> _classToSerializerMap =
+      new ConcurrentHashMap<Class<?>, DataSerializer>();
+
   /* package scope */
   static void initializeClass(Class<?> clazz)
   {
@@ -17,6 +17,7 @@
 package com.linkedin.data.template;
 
 import com.linkedin.data.DataList;
+import com.linkedin.data.collections.DoubleList;
 import com.linkedin.data.schema.ArrayDataSchema;
 import java.util.Collection;
 
@@ -44,11 +45,54 @@ public final class DoubleArray extends DirectArrayTemplate<Double>
     addAll(c);
   }
 
+  public DoubleArray(double[] values)
+  {
+    this(new DataList(new DoubleList(values)));
+  }
+
   public DoubleArray(DataList list)
   {
     super(list, SCHEMA, Double.class, Double.class);
   }
 
+  /**
+   * Returns the element at the specified position without boxing it
+   * if the underlying {@link DataList} stores its elements unboxed.
+   *
+   * @param index of the element to return.
+   * @return the element at the specified position.
+   * @throws TemplateOutputCastException if the element is not a number.
+   */
+  public double getDouble(int index) throws TemplateOutputCastException
+  {
+    try
+    {
+      return _list.getDouble(index);
+    }
+    catch (ClassCastException e)
+    {
+      throw new TemplateOutputCastException("Output " + _list.get(index) + " is not a Number or a " + Double.class.getName(), e);
+    }
+  }
+
+  /**
+   * Returns the elements of this array as a double array.
+   *
+   * @return a double array containing the elements of this array.
+   * @throws TemplateOutputCastException if an element is not a number.
+   */
+  public double[] toDoubleArray() throws TemplateOutputCastException
+  {
+    try
+    {
+      return _list.toDoubleArray();
+    }
+    catch (ClassCastException e)
+    {
+      throw new TemplateOutputCastException("Output array has an element that is not a Number or a " + Double.class.getName(), e);
+    }
+  }
+
   @Override
   public DoubleArray clone() throws CloneNotSupportedException
   {
@@ -17,6 +17,7 @@
 package com.linkedin.data.template;
 
 import com.linkedin.data.DataList;
+import com.linkedin.data.collections.FloatList;
 import com.linkedin.data.schema.ArrayDataSchema;
 import java.util.Collection;
 
@@ -44,11 +45,54 @@ public final class FloatArray extends DirectArrayTemplate<Float>
     addAll(c);
   }
 
+  public FloatArray(float[] values)
+  {
+    this(new DataList(new FloatList(values)));
+  }
+
   public FloatArray(DataList list)
   {
     super(list, SCHEMA, Float.class, Float.class);
   }
 
+  /**
+   * Returns the element at the specified position without boxing it
+   * if the underlying {@link DataList} stores its elements unboxed.
+   *
+   * @param index of the element to return.
+   * @return the element at the specified position.
+   * @throws TemplateOutputCastException if the element is not a number.
+   */
+  public float getFloat(int index) throws TemplateOutputCastException
+  {
+    try
+    {
+      return _list.getFloat(index);
+    }
+    catch (ClassCastException e)
+    {
+      throw new TemplateOutputCastException("Output " + _list.get(index) + " is not a Number or a " + Float.class.getName(), e);
+    }
+  }
+
+  /**
+   * Returns the elements of this array as a float array.
+   *
+   * @return a float array containing the elements of this array.
+   * @throws TemplateOutputCastException if an element is not a number.
+   */
+  public float[] toFloatArray() throws TemplateOutputCastException
+  {
+    try
+    {
+      return _list.toFloatArray();
+    }
+    catch (ClassCastException e)
+    {
+      throw new TemplateOutputCastException("Output array has an element that is not a Number or a " + Float.class.getName(), e);
+    }
+  }
+
   @Override
   public FloatArray clone() throws CloneNotSupportedException
   {
@@ -17,6 +17,7 @@
 package com.linkedin.data.template;
 
 import com.linkedin.data.DataList;
+import com.linkedin.data.collections.IntList;
 import com.linkedin.data.schema.ArrayDataSchema;
 import java.util.Collection;
 
@@ -44,11 +45,54 @@ public final class IntegerArray extends DirectArrayTemplate<Integer>
     addAll(c);
   }
 
+  public IntegerArray(int[] values)
+  {
+    this(new DataList(new IntList(values)));
+  }
+
   public IntegerArray(DataList list)
   {
     super(list, SCHEMA, Integer.class, Integer.class);
   }
 
+  /**
+   * Returns the element at the specified position without boxing it
+   * if the underlying {@link DataList} stores its elements unboxed.
+   *
+   * @param index of the element to return.
+   * @return the element at the specified position.
+   * @throws TemplateOutputCastException if the element is not a number.
+   */
+  public int getInt(int index) throws TemplateOutputCastException
+  {
+    try
+    {
+      return _list.getInt(index);
+    }
+    catch (ClassCastException e)
+    {
+      throw new TemplateOutputCastException("Output " + _list.get(index) + " is not a Number or a " + Integer.class.getName(), e);
+    }
+  }
+
+  /**
+   * Returns the elements of this array as an int array.
+   *
+   * @return an int array containing the elements of this array.
+   * @throws TemplateOutputCastException if an element is not a number.
+   */
+  public int[] toIntArray() throws TemplateOutputCastException
+  {
+    try
+    {
+      return _list.toIntArray();
+    }
+    catch (ClassCastException e)
+    {
+      throw new TemplateOutputCastException("Output array has an element that is not a Number or a " + Integer.class.getName(), e);
+    }
+  }
+
   @Override
   public IntegerArray clone() throws CloneNotSupportedException
   {
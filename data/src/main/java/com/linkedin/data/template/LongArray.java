@@ -17,6 +17,7 @@
 package com.linkedin.data.template;
 
 import com.linkedin.data.DataList;
+import com.linkedin.data.collections.LongList;
 import com.linkedin.data.schema.ArrayDataSchema;
 import java.util.Collection;
 
@@ -44,11 +45,54 @@ public final class LongArray extends DirectArrayTemplate<Long>
     addAll(c);
   }
 
+  public LongArray(long[] values)
+  {
+    this(new DataList(new LongList(values)));
+  }
+
   public LongArray(DataList list)
   {
     super(list, SCHEMA, Long.class, Long.class);
   }
 
+  /**
+   * Returns the element at the specified position without boxing it
+   * if the underlying {@link DataList} stores its elements unboxed.
+   *
+   * @param index of the element to return.
+   * @return the element at the specified position.
+   * @throws TemplateOutputCastException if the element is not a number.
+   */
+  public long getLong(int index) throws TemplateOutputCastException
+  {
+    try
+    {
+      return _list.getLong(index);
+    }
+    catch (ClassCastException e)
+    {
+      throw new TemplateOutputCastException("Output " + _list.get(index) + " is not a Number or a " + Long.class.getName(), e);
+    }
+  }
+
+  /**
+   * Returns the elements of this array as a long array.
+   *
+   * @return a long array containing the elements of this array.
+   * @throws TemplateOutputCastException if an element is not a number.
+   */
+  public long[] toLongArray() throws TemplateOutputCastException
+  {
+    try
+    {
+      return _list.toLongArray();
+    }
+    catch (ClassCastException e)
+    {
+      throw new TemplateOutputCastException("Output array has an element that is not a Number or a " + Long.class.getName(), e);
+    }
+  }
+
   @Override
   public LongArray clone() throws CloneNotSupportedException
   {
@@ -1494,6 +1494,42 @@ public class TestData
     testCodecNumbers(codec);
   }
 
+  @Test
+  public void testCodecPrimitiveLists() throws IOException
+  {
+    DataList ints = new DataList();
+    DataList longs = new DataList();
+    DataList doubles = new DataList();
+    DataList mixed = new DataList();
+    for (int i = 0; i < 1000; ++i)
+    {
+      ints.addInt(i * 1000);
+      longs.addLong(Long.MAX_VALUE - i);
+      doubles.addDouble(i + 0.5);
+    }
+    mixed.addInt(1);
+    mixed.add("two");
+    mixed.addLong(3L);
+    DataMap map = new DataMap();
+    map.put("ints", ints);
+    map.put("longs", longs);
+    map.put("doubles", doubles);
+    map.put("mixed", mixed);
+    assertSame(ints.getPrimitiveClass(), Integer.class);
+    assertSame(mixed.getPrimitiveClass(), null);
+
+    for (DataCodec codec : Arrays.<DataCodec>asList(new JacksonDataCodec(), new PsonDataCodec()))
+    {
+      DataMap decoded = codec.bytesToMap(codec.mapToBytes(map));
+      assertEquals(decoded, map);
+      assertSame(decoded.getDataList("ints").getPrimitiveClass(), Integer.class);
+      assertSame(decoded.getDataList("longs").getPrimitiveClass(), Long.class);
+      assertSame(decoded.getDataList("doubles").getPrimitiveClass(), Double.class);
+      assertSame(decoded.getDataList("mixed").getPrimitiveClass(), null);
+      assertSame(decoded.getDataList("mixed").get(2).getClass(), Long.class);
+    }
+  }
+
   @Test
   public void testObjectIsAcyclic()
   {
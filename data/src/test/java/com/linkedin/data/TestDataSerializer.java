@@ -0,0 +1,254 @@
+/*
+   Copyright (c) 2012 LinkedIn Corp.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.linkedin.data;
+
+
+import java.io.IOException;
+import java.util.Map;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.fail;
+
+
+public class TestDataSerializer
+{
+  /**
+   * Records traversal events, with the entries of maps in key order.
+   */
+  private static class RecordingCallback implements Data.TraverseCallback
+  {
+    @Override
+    public Iterable<Map.Entry<String, Object>> orderMap(DataMap map)
+    {
+      return Data.orderMapEntries(map);
+    }
+
+    @Override
+    public void nullValue()
+    {
+      _events.append("null ");
+    }
+
+    @Override
+    public void booleanValue(boolean value)
+    {
+      _events.append("boolean:").append(value).append(' ');
+    }
+
+    @Override
+    public void integerValue(int value)
+    {
+      _events.append("int:").append(value).append(' ');
+    }
+
+    @Override
+    public void longValue(long value)
+    {
+      _events.append("long:").append(value).append(' ');
+    }
+
+    @Override
+    public void floatValue(float value)
+    {
+      _events.append("float:").append(value).append(' ');
+    }
+
+    @Override
+    public void doubleValue(double value)
+    {
+      _events.append("double:").append(value).append(' ');
+    }
+
+    @Override
+    public void stringValue(String value)
+    {
+      _events.append("string:").append(value).append(' ');
+    }
+
+    @Override
+    public void byteStringValue(ByteString value)
+    {
+      _events.append("bytes:").append(value.length()).append(' ');
+    }
+
+    @Override
+    public void illegalValue(Object value)
+    {
+      _events.append("illegal ");
+    }
+
+    @Override
+    public void emptyMap()
+    {
+      _events.append("{} ");
+    }
+
+    @Override
+    public void startMap(DataMap map)
+    {
+      _events.append("{").append(map.size()).append(' ');
+    }
+
+    @Override
+    public void key(String key)
+    {
+      _events.append(key).append(": ");
+    }
+
+    @Override
+    public void endMap()
+    {
+      _events.append("} ");
+    }
+
+    @Override
+    public void emptyList()
+    {
+      _events.append("[] ");
+    }
+
+    @Override
+    public void startList(DataList list)
+    {
+      _events.append("[").append(list.size()).append(' ');
+    }
+
+    @Override
+    public void index(int index)
+    {
+      _events.append(index).append(": ");
+    }
+
+    @Override
+    public void endList()
+    {
+      _events.append("] ");
+    }
+
+    private final StringBuilder _events = new StringBuilder();
+  }
+
+  private static String traverse(Object value) throws IOException
+  {
+    RecordingCallback callback = new RecordingCallback();
+    Data.traverse(value, callback);
+    return callback._events.toString();
+  }
+
+  private static String write(DataSerializer serializer, Object value) throws IOException
+  {
+    RecordingCallback callback = new RecordingCallback();
+    serializer.write(value, callback);
+    return callback._events.toString();
+  }
+
+  private static DataMap item(int id, String name)
+  {
+    DataMap item = new DataMap();
+    item.put("id", id);
+    item.put("name", name);
+    return item;
+  }
+
+  @Test
+  public void testSameEventsAsTraverse() throws IOException
+  {
+    DataSerializer itemSerializer =
+      DataSerializer.record(new String[] { "id", "name" }, DataSerializer.INTEGER, DataSerializer.STRING);
+    DataSerializer serializer =
+      DataSerializer.record(new String[] { "bytes", "double", "float", "items", "long", "map", "ok", "union" },
+                            DataSerializer.BYTES,
+                            DataSerializer.DOUBLE,
+                            DataSerializer.FLOAT,
+                            DataSerializer.array(itemSerializer),
+                            DataSerializer.LONG,
+                            DataSerializer.map(itemSerializer),
+                            DataSerializer.BOOLEAN,
+                            DataSerializer.GENERIC);
+
+    DataMap map = new DataMap();
+    map.put("bytes", ByteString.copy(new byte[] { 1, 2, 3 }));
+    map.put("double", 1.5);
+    map.put("float", 2.5f);
+    DataList items = new DataList();
+    items.add(item(1, "a"));
+    items.add(item(2, "b"));
+    map.put("items", items);
+    map.put("long", 3L);
+    DataMap itemMap = new DataMap();
+    itemMap.put("y", item(4, "d"));
+    itemMap.put("x", item(3, "c"));
+    map.put("map", itemMap);
+    map.put("ok", true);
+    DataMap union = new DataMap();
+    union.put("string", "u");
+    map.put("union", union);
+    map.put("unknown", item(5, "e"));
+    assertEquals(write(serializer, map), traverse(map));
+
+    // values that do not have the expected shape
+    DataMap mismatched = new DataMap();
+    mismatched.put("bytes", "abc");
+    mismatched.put("double", 1);
+    mismatched.put("float", 2.5);
+    mismatched.put("items", new DataMap());
+    mismatched.put("long", 3);
+    mismatched.put("map", new DataList());
+    mismatched.put("ok", "true");
+    mismatched.put("union", Data.NULL);
+    assertEquals(write(serializer, mismatched), traverse(mismatched));
+
+    // empty collections and unboxed lists
+    DataMap empty = new DataMap();
+    assertEquals(write(serializer, empty), traverse(empty));
+    DataList emptyList = new DataList();
+    assertEquals(write(DataSerializer.array(DataSerializer.INTEGER), emptyList), traverse(emptyList));
+    DataList ints = new DataList();
+    ints.addInt(1);
+    ints.addInt(2);
+    assertEquals(write(DataSerializer.array(DataSerializer.INTEGER), ints), traverse(ints));
+    assertEquals(write(DataSerializer.GENERIC, map), traverse(map));
+  }
+
+  @Test
+  public void testRecordFieldOrder() throws IOException
+  {
+    DataSerializer serializer =
+      DataSerializer.record(new String[] { "z", "a", "m" }, DataSerializer.INTEGER, DataSerializer.INTEGER, DataSerializer.INTEGER);
+
+    DataMap map = new DataMap();
+    map.put("a", 1);
+    map.put("b", 2);
+    map.put("m", 3);
+    map.put("z", 4);
+    assertEquals(write(serializer, map), "{4 z: int:4 a: int:1 m: int:3 b: int:2 } ");
+  }
+
+  @Test
+  public void testRecordFieldCount()
+  {
+    try
+    {
+      DataSerializer.record(new String[] { "a", "b" }, DataSerializer.INTEGER);
+      fail("Expected IllegalArgumentException");
+    }
+    catch (IllegalArgumentException e)
+    {
+    }
+  }
+}
@@ -0,0 +1,163 @@
+/*
+   Copyright (c) 2012 LinkedIn Corp.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.linkedin.data.codec;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+
+public class TestBufferPool
+{
+  @Test
+  public void testSizeClasses()
+  {
+    BufferPool pool = new BufferPool(0, 0);
+    assertEquals(pool.acquire(0).length, BufferPool.MIN_SIZE);
+    assertEquals(pool.acquire(17).length, BufferPool.MIN_SIZE);
+    assertEquals(pool.acquire(BufferPool.MIN_SIZE).length, BufferPool.MIN_SIZE);
+    assertEquals(pool.acquire(BufferPool.MIN_SIZE + 1).length, BufferPool.MIN_SIZE * 2);
+    assertEquals(pool.acquire(BufferPool.MAX_SIZE).length, BufferPool.MAX_SIZE);
+    assertEquals(pool.acquire(BufferPool.MAX_SIZE + 1).length, BufferPool.MAX_SIZE + 1);
+  }
+
+  @Test
+  public void testThreadCache()
+  {
+    BufferPool pool = new BufferPool(BufferPool.MIN_SIZE * 2, 0);
+    byte[] first = pool.acquire(100);
+    byte[] second = pool.acquire(100);
+    byte[] third = pool.acquire(100);
+    pool.release(first);
+    pool.release(second);
+    // exceeds the capacity of the thread cache
+    pool.release(third);
+
+    byte[] reacquired1 = pool.acquire(100);
+    byte[] reacquired2 = pool.acquire(100);
+    assertTrue(reacquired1 == first || reacquired1 == second);
+    assertTrue(reacquired2 == first || reacquired2 == second);
+    assertNotSame(reacquired1, reacquired2);
+    assertNotSame(pool.acquire(100), third);
+  }
+
+  @Test
+  public void testThreadCacheTotal()
+  {
+    BufferPool pool = new BufferPool(BufferPool.MIN_SIZE * 2, BufferPool.MAX_SIZE);
+    byte[] small = pool.acquire(BufferPool.MIN_SIZE);
+    byte[] medium = pool.acquire(BufferPool.MIN_SIZE * 2);
+    byte[] large = pool.acquire(BufferPool.MAX_SIZE);
+    pool.release(medium);
+    // the thread cache is full, so these go to the shared cache
+    pool.release(small);
+    pool.release(large);
+
+    assertSame(pool.acquire(BufferPool.MIN_SIZE * 2), medium);
+    assertSame(pool.acquire(BufferPool.MIN_SIZE), small);
+    assertSame(pool.acquire(BufferPool.MAX_SIZE), large);
+  }
+
+  @Test
+  public void testSharedCache() throws InterruptedException
+  {
+    final BufferPool pool = new BufferPool(0, BufferPool.MAX_SIZE);
+    final byte[] buffer = pool.acquire(BufferPool.MAX_SIZE);
+    Thread thread = new Thread()
+    {
+      @Override
+      public void run()
+      {
+        pool.release(buffer);
+      }
+    };
+    thread.start();
+    thread.join();
+
+    assertSame(pool.acquire(BufferPool.MAX_SIZE), buffer);
+  }
+
+  @Test
+  public void testReleaseUnpooledSize()
+  {
+    BufferPool pool = new BufferPool(BufferPool.MAX_SIZE, BufferPool.MAX_SIZE);
+    byte[] odd = new byte[BufferPool.MIN_SIZE + 1];
+    byte[] large = pool.acquire(BufferPool.MAX_SIZE * 2);
+    pool.release(odd);
+    pool.release(large);
+
+    assertEquals(pool.acquire(BufferPool.MIN_SIZE + 1).length, BufferPool.MIN_SIZE * 2);
+    assertNotSame(pool.acquire(BufferPool.MAX_SIZE * 2), large);
+  }
+
+  @Test
+  public void testPooledByteArrayOutputStream()
+  {
+    BufferPool pool = new BufferPool(BufferPool.MAX_SIZE * 4, 0);
+    ByteArrayOutputStream expected = new ByteArrayOutputStream();
+    PooledByteArrayOutputStream out = new PooledByteArrayOutputStream(pool, 16);
+
+    byte[] chunk = new byte[1000];
+    for (int i = 0; i < 300; i++)
+    {
+      Arrays.fill(chunk, (byte) i);
+      out.write(chunk, 0, i);
+      expected.write(chunk, 0, i);
+      out.write(i);
+      expected.write(i);
+    }
+
+    assertEquals(out.size(), expected.size());
+    assertEquals(out.toByteArray(), expected.toByteArray());
+    out.release();
+
+    // the released buffers are reused
+    PooledByteArrayOutputStream reused = new PooledByteArrayOutputStream(pool, 16);
+    reused.write(1);
+    assertEquals(reused.toByteArray(), new byte[] { 1 });
+    reused.release();
+  }
+
+  @Test
+  public void testPooledBufferChain() throws Exception
+  {
+    BufferPool pool = new BufferPool(BufferPool.MAX_SIZE, 0);
+    for (int bufferSize : new int[] { 17, 31, BufferChain.DEFAULT_BUFFER_SIZE })
+    {
+      for (int round = 0; round < 2; round++)
+      {
+        BufferChain unpooled = new BufferChain(ByteOrder.LITTLE_ENDIAN, bufferSize);
+        BufferChain pooled = new BufferChain(ByteOrder.LITTLE_ENDIAN, bufferSize, pool);
+        for (int i = 0; i < 500; i++)
+        {
+          String value = "value " + i;
+          unpooled.putInt(i).putUtf8CString(value);
+          pooled.putInt(i).putUtf8CString(value);
+        }
+
+        assertEquals(pooled.toBytes(), unpooled.toBytes());
+        pooled.release();
+      }
+    }
+  }
+}
@@ -1,8 +1,11 @@
 package com.linkedin.data.codec;
 
 
+import com.linkedin.data.ByteString;
 import com.linkedin.data.Data;
+import com.linkedin.data.DataList;
 import com.linkedin.data.DataMap;
+import com.linkedin.data.DataSerializer;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
@@ -10,6 +13,7 @@ import org.codehaus.jackson.JsonFactory;
 import org.codehaus.jackson.JsonParser;
 import org.testng.annotations.Test;
 
+import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertNotEquals;
 import static org.testng.Assert.assertTrue;
@@ -67,6 +71,39 @@ public class TestJacksonCodec
     }
   }
 
+  @Test
+  public void testBytesToMapWithSerializer() throws IOException
+  {
+    DataSerializer itemSerializer =
+      DataSerializer.record(new String[] { "id", "score" }, DataSerializer.LONG, DataSerializer.FLOAT);
+    DataSerializer serializer =
+      DataSerializer.record(new String[] { "bytes", "double", "items", "longs", "other" },
+                            DataSerializer.BYTES,
+                            DataSerializer.DOUBLE,
+                            DataSerializer.array(itemSerializer),
+                            DataSerializer.array(DataSerializer.LONG),
+                            DataSerializer.INTEGER);
+    String json = "{ \"unknown\" : 1, \"items\" : [ { \"id\" : 1, \"score\" : 2 } ], \"double\" : 3, " +
+      "\"bytes\" : \"abc\", \"longs\" : [ 4, 5 ], \"other\" : \"six\" }";
+
+    JacksonDataCodec codec = new JacksonDataCodec();
+    DataMap map = codec.bytesToMap(json.getBytes(Data.UTF_8_CHARSET), serializer);
+    assertEquals(map.get("bytes"), ByteString.copyAvroString("abc", false));
+    assertEquals(map.get("double"), 3.0);
+    DataMap item = (DataMap) ((DataList) map.get("items")).get(0);
+    assertEquals(item.get("id"), 1L);
+    assertEquals(item.get("score"), 2.0f);
+    DataList longs = (DataList) map.get("longs");
+    assertEquals(longs.get(0), 4L);
+    assertEquals(longs.get(1), 5L);
+    // values without a declared shape, or with a different shape, are parsed as without a serializer
+    assertEquals(map.get("unknown"), 1);
+    assertEquals(map.get("other"), "six");
+
+    // the typed map survives a round trip
+    assertEquals(codec.bytesToMap(codec.mapToBytes(map, serializer), serializer), map);
+  }
+
   private void consumeMemory(JacksonDataCodec codec, String commonPrefix, long memToConsume) throws IOException
   {
     String previousKey = "";
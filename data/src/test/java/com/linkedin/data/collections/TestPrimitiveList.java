@@ -0,0 +1,168 @@
+/*
+   Copyright (c) 2012 LinkedIn Corp.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+
+package com.linkedin.data.collections;
+
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+
+public class TestPrimitiveList
+{
+  @Test
+  public void testIntList()
+  {
+    IntList list = new IntList(1);
+    List<Object> reference = new ArrayList<Object>();
+    for (int i = 0; i < 100; ++i)
+    {
+      list.addInt(i * 1000);
+      reference.add(i * 1000);
+    }
+    assertEquals(list, reference);
+    assertEquals(reference, list);
+    assertEquals(list.hashCode(), reference.hashCode());
+    assertEquals(list.getInt(99), 99000);
+    assertEquals(list.get(99), 99000);
+
+    list.add(0, -1);
+    reference.add(0, -1);
+    list.remove(50);
+    reference.remove(50);
+    list.removeRange(10, 20);
+    reference.subList(10, 20).clear();
+    list.addAll(5, Arrays.asList(7, 8, 9));
+    reference.addAll(5, Arrays.asList(7, 8, 9));
+    assertEquals(list.set(1, 42), reference.set(1, 42));
+    assertEquals(list, reference);
+
+    int[] values = list.toIntArray();
+    assertEquals(values.length, reference.size());
+    for (int i = 0; i < values.length; ++i)
+    {
+      assertEquals(values[i], reference.get(i));
+    }
+
+    list.clear();
+    assertTrue(list.isEmpty());
+  }
+
+  @Test
+  public void testAccepts()
+  {
+    assertTrue(new IntList().accepts(1));
+    assertFalse(new IntList().accepts(1L));
+    assertFalse(new IntList().accepts(null));
+    assertTrue(new LongList().accepts(1L));
+    assertTrue(new FloatList().accepts(1.0f));
+    assertFalse(new FloatList().accepts(1.0));
+    assertTrue(new DoubleList().accepts(1.0));
+    assertFalse(new DoubleList().acceptsAll(Arrays.asList(1.0, "a")));
+
+    IntList list = new IntList(new int[] { 1, 2, 3 });
+    try
+    {
+      list.add(4L);
+      fail("Expected ClassCastException");
+    }
+    catch (ClassCastException e)
+    {
+    }
+    try
+    {
+      list.addAll(Arrays.<Object>asList(4, 5L));
+      fail("Expected ClassCastException");
+    }
+    catch (ClassCastException e)
+    {
+    }
+    assertEquals(list, Arrays.asList(1, 2, 3));
+  }
+
+  @Test
+  public void testClone()
+  {
+    DoubleList list = new DoubleList(new double[] { 1.0, 2.0 });
+    DoubleList clone = (DoubleList) list.clone();
+    clone.addDouble(3.0);
+    clone.setDouble(0, 0.5);
+    assertEquals(list, Arrays.asList(1.0, 2.0));
+    assertEquals(clone, Arrays.asList(0.5, 2.0, 3.0));
+  }
+
+  @Test
+  public void testCheckedList() throws CloneNotSupportedException
+  {
+    PrimitiveCheckedList list = new PrimitiveCheckedList(new LongList(new long[] { 1L, 2L }));
+    list.add(3L);
+    assertSame(list.getPrimitiveList().getElementClass(), Long.class);
+
+    PrimitiveCheckedList clone = (PrimitiveCheckedList) list.clone();
+    assertEquals(clone, Arrays.asList(1L, 2L, 3L));
+
+    // an element of another class moves the elements to object storage
+    list.add("four");
+    assertEquals(list, Arrays.<Object>asList(1L, 2L, 3L, "four"));
+    assertEquals(list.getPrimitiveList(), null);
+    assertSame(clone.getPrimitiveList().getElementClass(), Long.class);
+
+    clone.setReadOnly();
+    try
+    {
+      clone.add(4L);
+      fail("Expected UnsupportedOperationException");
+    }
+    catch (UnsupportedOperationException e)
+    {
+    }
+
+    PrimitiveCheckedList empty = new PrimitiveCheckedList(new IntList());
+    empty.set(new FloatList());
+    empty.add(1.0f);
+    assertSame(empty.getPrimitiveList().getElementClass(), Float.class);
+    try
+    {
+      empty.set(new IntList());
+      fail("Expected IllegalStateException");
+    }
+    catch (IllegalStateException e)
+    {
+    }
+  }
+
+  private static class PrimitiveCheckedList extends CheckedList<Object>
+  {
+    PrimitiveCheckedList(PrimitiveList list)
+    {
+      super(list, null);
+    }
+
+    void set(PrimitiveList list)
+    {
+      setPrimitiveList(list);
+    }
+  }
+}
@@ -24,8 +24,10 @@ import com.linkedin.data.DataList;
 import com.linkedin.data.DataMap;
 import com.linkedin.data.element.DataElement;
 import com.linkedin.data.element.DataElementUtil;
+import com.linkedin.data.element.SimpleDataElement;
 import com.linkedin.data.message.Message;
 import com.linkedin.data.schema.DataSchema;
+import com.linkedin.data.schema.DataSchemaConstants;
 import com.linkedin.data.schema.RecordDataSchema;
 import com.linkedin.data.schema.validator.VisitedTrackingValidator;
 import java.io.IOException;
@@ -45,12 +47,45 @@ public class TestValidation
 {
   public static ValidationResult validate(DataMap map, DataSchema schema, ValidationOptions options)
   {
+    // the compiled validator validates a copy and must produce the same result
+    ValidationResult compiledResult = validateCompiled(copy(map), schema, options);
     VisitedTrackingValidator visitedTrackingValidator = new VisitedTrackingValidator(null);
     ValidationResult result = ValidateDataAgainstSchema.validate(map, schema, options, visitedTrackingValidator);
     assertEquals(visitedTrackingValidator.getVisitedMoreThanOnce(), Collections.EMPTY_SET);
+    assertSameResult(compiledResult, result);
     return result;
   }
 
+  public static ValidationResult validateCompiled(DataMap map, DataSchema schema, ValidationOptions options)
+  {
+    VisitedTrackingValidator visitedTrackingValidator = new VisitedTrackingValidator(null);
+    CompiledSchemaValidator validator = CompiledSchemaValidator.compile(schema, options, visitedTrackingValidator);
+    ValidationResult result = validator.validate(map);
+    assertEquals(visitedTrackingValidator.getVisitedMoreThanOnce(), Collections.EMPTY_SET);
+    return result;
+  }
+
+  public static void assertSameResult(ValidationResult compiledResult, ValidationResult result)
+  {
+    assertEquals(compiledResult.isValid(), result.isValid());
+    assertEquals(compiledResult.hasFix(), result.hasFix());
+    assertEquals(compiledResult.hasFixupReadOnlyError(), result.hasFixupReadOnlyError());
+    assertEquals(compiledResult.getFixed(), result.getFixed());
+    assertEquals(compiledResult.getMessages().toString(), result.getMessages().toString());
+  }
+
+  private static DataMap copy(DataMap map)
+  {
+    try
+    {
+      return map.copy();
+    }
+    catch (CloneNotSupportedException e)
+    {
+      throw new IllegalStateException(e);
+    }
+  }
+
   public static ValidationResult validate(DataElement element, ValidationOptions options)
   {
     VisitedTrackingValidator visitedTrackingValidator = new VisitedTrackingValidator(null);
@@ -1979,6 +2014,58 @@ public class TestValidation
     }
   }
 
+  @Test
+  public void testCompiledSchemaValidator() throws IOException
+  {
+    String schemaText =
+      "{\n" +
+      "  \"name\" : \"Foo\",\n" +
+      "  \"type\" : \"record\",\n" +
+      "  \"fields\" : [\n" +
+      "    { \"name\" : \"intField\", \"type\" : \"int\" },\n" +
+      "    { \"name\" : \"longField\", \"type\" : \"long\", \"default\" : 5 },\n" +
+      "    { \"name\" : \"arrayField\", \"type\" : { \"type\" : \"typeref\", \"name\" : \"LongArray\", \"ref\" : { \"type\" : \"array\", \"items\" : \"long\" } }, \"optional\" : true },\n" +
+      "    { \"name\" : \"fooField\", \"type\" : \"Foo\", \"optional\" : true }\n" +
+      "  ]\n" +
+      "}\n";
+
+    DataSchema schema = dataSchemaFromString(schemaText);
+    ValidationOptions options = new ValidationOptions(RequiredMode.FIXUP_ABSENT_WITH_DEFAULT, CoercionMode.NORMAL);
+    CompiledSchemaValidator validator = CompiledSchemaValidator.compile(schema, options);
+    assertSame(validator.getSchema(), schema);
+
+    String[] inputs =
+      {
+        "{ \"intField\" : 1, \"fooField\" : { \"intField\" : 2.5, \"fooField\" : { \"longField\" : 3 } } }",
+        "{ \"intField\" : 1, \"arrayField\" : [ 1, 2.5, \"bad\" ] }",
+        "{ \"intField\" : \"bad\", \"unknown\" : { \"intField\" : \"bad\" } }"
+      };
+    for (String input : inputs)
+    {
+      // the same compiled validator is reused for every input
+      ValidationResult compiledResult = validator.validate(dataMapFromString(input));
+      ValidationResult result = ValidateDataAgainstSchema.validate(dataMapFromString(input), schema, options);
+      assertSameResult(compiledResult, result);
+    }
+
+    ValidationResult result = validator.validate(dataMapFromString(inputs[0]));
+    assertTrue(result.hasFix());
+    assertFalse(result.isValid());
+    DataMap fixed = (DataMap) result.getFixed();
+    assertEquals(fixed.getDataMap("fooField").get("intField"), 2);
+    assertEquals(fixed.getDataMap("fooField").getDataMap("fooField").get("longField"), 3L);
+    assertEquals(fixed.get("longField"), 5L);
+
+    try
+    {
+      validator.validate(new SimpleDataElement(new DataMap(), DataSchemaConstants.INTEGER_DATA_SCHEMA));
+      fail("Expected IllegalArgumentException");
+    }
+    catch (IllegalArgumentException e)
+    {
+    }
+  }
+
   @Test
   public void testNonRootStartDataElement() throws IOException
   {
@@ -2066,7 +2153,10 @@ public class TestValidation
       DataMap map = dataMapFromString(dataString);
       DataElement startElement = DataElementUtil.element(map, schema, startPath);
       assertNotSame(startElement, null);
+      DataElement compiledStartElement = DataElementUtil.element(dataMapFromString(dataString), schema, startPath);
+      ValidationResult compiledResult = CompiledSchemaValidator.compile(compiledStartElement.getSchema(), new ValidationOptions()).validate(compiledStartElement);
       ValidationResult result = validate(startElement, new ValidationOptions());
+      assertSameResult(compiledResult, result);
       String message = result.getMessages().toString();
       for (String expected : expectedStrings)
       {
@@ -40,6 +40,7 @@ import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertSame;
 import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
 
 /**
  * Unit tests for array {@link DataTemplate}'s.
@@ -990,6 +991,46 @@ public class TestArrayTemplate
     }
   }
 
+  @Test
+  public void testPrimitiveAccessors()
+  {
+    IntegerArray intArray = new IntegerArray(new int[] { 1, 3, 5 });
+    intArray.add(7);
+    assertEquals(intArray, Arrays.asList(1, 3, 5, 7));
+    assertEquals(intArray.getInt(3), 7);
+    assertTrue(Arrays.equals(intArray.toIntArray(), new int[] { 1, 3, 5, 7 }));
+
+    // elements of other number classes are converted
+    LongArray longArray = new LongArray(new DataList(Arrays.<Object>asList(1, 2L, 3.0)));
+    assertEquals(longArray.getLong(0), 1L);
+    assertTrue(Arrays.equals(longArray.toLongArray(), new long[] { 1L, 2L, 3L }));
+
+    DoubleArray doubleArray = new DoubleArray(new double[] { 0.5, 1.5 });
+    doubleArray.add(2.5);
+    assertEquals(doubleArray.getDouble(2), 2.5);
+    assertTrue(Arrays.equals(doubleArray.toDoubleArray(), new double[] { 0.5, 1.5, 2.5 }));
+
+    FloatArray floatArray = new FloatArray(new float[] { 0.5f });
+    floatArray.data().add("bad");
+    assertEquals(floatArray.getFloat(0), 0.5f);
+    try
+    {
+      floatArray.getFloat(1);
+      fail("Expected TemplateOutputCastException");
+    }
+    catch (TemplateOutputCastException e)
+    {
+    }
+    try
+    {
+      floatArray.toFloatArray();
+      fail("Expected TemplateOutputCastException");
+    }
+    catch (TemplateOutputCastException e)
+    {
+    }
+  }
+
   @Test
   public void testLegacyConstructor()
   {
@@ -0,0 +1,75 @@
+/*
+   Copyright (c) 2012 LinkedIn Corp.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.linkedin.pegasus.generator.test;
+
+
+import com.linkedin.data.DataMap;
+import com.linkedin.data.DataSerializer;
+import com.linkedin.data.codec.JacksonDataCodec;
+import com.linkedin.data.codec.PsonDataCodec;
+import com.linkedin.data.template.DataTemplateUtil;
+import java.io.IOException;
+import org.testng.annotations.Test;
+
+import static com.linkedin.data.TestUtil.dataMapFromString;
+import static org.testng.Assert.*;
+
+
+public class TestDataSerializer
+{
+  private static final String SELF_REFERENCE_JSON =
+    "{ \"unknown\" : [ 1, 2 ], " +
+    "\"listRef\" : [ { \"simpleString\" : \"b\", \"listRef\" : [], \"mapRef\" : {} } ], " +
+    "\"mapRef\" : { \"x\" : { \"simpleString\" : \"c\", \"indirectRef\" : { \"simpleInt\" : 1, \"ref\" : { \"simpleString\" : \"d\" } } } }, " +
+    "\"unionRef\" : { \"string\" : \"u\" }, " +
+    "\"directRef\" : { \"simpleString\" : 5 }, " +
+    "\"simpleString\" : \"a\" }";
+
+  @Test
+  public void testSerializerRegistered()
+  {
+    assertNotNull(DataTemplateUtil.getSerializer(SelfReference.class));
+    assertNotNull(DataTemplateUtil.getSerializer(SelfReferenceSeparator.class));
+    assertNotNull(DataTemplateUtil.getSerializer(RecordTest.class));
+  }
+
+  @Test
+  public void testJsonRoundTrip() throws IOException
+  {
+    DataSerializer serializer = DataTemplateUtil.getSerializer(SelfReference.class);
+    DataMap map = dataMapFromString(SELF_REFERENCE_JSON);
+    JacksonDataCodec codec = new JacksonDataCodec();
+
+    byte[] bytes = codec.mapToBytes(map, serializer);
+    assertEquals(codec.bytesToMap(bytes), map);
+
+    // fields are written in the order they are declared, followed by unknown fields
+    String json = new String(bytes, "UTF-8");
+    assertTrue(json.startsWith("{\"simpleString\":\"a\",\"directRef\":"), json);
+    assertTrue(json.endsWith(",\"unknown\":[1,2]}"), json);
+  }
+
+  @Test
+  public void testPsonRoundTrip() throws IOException
+  {
+    DataSerializer serializer = DataTemplateUtil.getSerializer(SelfReference.class);
+    DataMap map = dataMapFromString(SELF_REFERENCE_JSON);
+    PsonDataCodec codec = new PsonDataCodec();
+
+    assertEquals(codec.bytesToMap(codec.mapToBytes(map, serializer)), map);
+  }
+}
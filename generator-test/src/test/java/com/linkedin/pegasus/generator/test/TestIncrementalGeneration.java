@@ -0,0 +1,215 @@
+/*
+   Copyright (c) 2012 LinkedIn Corp.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.linkedin.pegasus.generator.test;
+
+
+import com.linkedin.data.TestUtil;
+import com.linkedin.pegasus.generator.GeneratorResult;
+import com.linkedin.pegasus.generator.PegasusDataTemplateGenerator;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.testng.annotations.Test;
+
+import static com.linkedin.data.TestUtil.asMap;
+import static com.linkedin.data.TestUtil.ensureEmptyOutputDir;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+
+public class TestIncrementalGeneration
+{
+  private final static String _sourceDirName = "testIncrementalGeneration/pegasus";
+  private final static String _targetDirName = "testIncrementalGeneration/codegen/out";
+  private final static String _dependentSourceDirName = "testIncrementalGeneration/dependent/pegasus";
+  private final static String _dependentTargetDirName = "testIncrementalGeneration/dependent/codegen/out";
+
+  private final static String _fooPath = "/com/linkedin/pegasus/generator/test/incremental/Foo.pdsc";
+  private final static String _barPath = "/com/linkedin/pegasus/generator/test/incremental/Bar.pdsc";
+  private final static String _bazPath = "/com/linkedin/pegasus/generator/test/incremental/Baz.pdsc";
+
+  private final static String _fooSchema =
+    "{ \"type\" : \"record\", \"name\" : \"Foo\", \"namespace\" : \"com.linkedin.pegasus.generator.test.incremental\", " +
+    "\"fields\" : [ { \"name\" : \"i\", \"type\" : \"int\" } ] }";
+  private final static String _barSchema =
+    "{ \"type\" : \"record\", \"name\" : \"Bar\", \"namespace\" : \"com.linkedin.pegasus.generator.test.incremental\", " +
+    "\"fields\" : [ { \"name\" : \"s\", \"type\" : \"string\" } ] }";
+  private final static String _barSchemaChanged =
+    "{ \"type\" : \"record\", \"name\" : \"Bar\", \"namespace\" : \"com.linkedin.pegasus.generator.test.incremental\", " +
+    "\"fields\" : [ { \"name\" : \"s\", \"type\" : \"string\" }, { \"name\" : \"l\", \"type\" : \"long\" } ] }";
+  private final static String _fooWithBarSchema =
+    "{ \"type\" : \"record\", \"name\" : \"Foo\", \"namespace\" : \"com.linkedin.pegasus.generator.test.incremental\", " +
+    "\"fields\" : [ { \"name\" : \"bar\", \"type\" : \"com.linkedin.pegasus.generator.test.incremental.Bar\" } ] }";
+  private final static String _bazSchema =
+    "{ \"type\" : \"record\", \"name\" : \"Baz\", \"namespace\" : \"com.linkedin.pegasus.generator.test.incremental\", " +
+    "\"fields\" : [ { \"name\" : \"d\", \"type\" : \"double\" } ] }";
+
+  @Test
+  public void testUnchangedFilesAreNotRewritten() throws IOException, InterruptedException
+  {
+    boolean debug = false;
+
+    System.setProperty("generator.resolver.path", "");
+
+    File testDir = TestUtil.testDir(_sourceDirName, debug);
+    Map<String,String> testSchemas = asMap(_fooPath, _fooSchema, _barPath, _barSchema);
+    Map<File, Map.Entry<String,String>> files = TestUtil.createSchemaFiles(testDir, testSchemas, debug);
+
+    File targetDir = TestUtil.testDir(_targetDirName, debug);
+    ensureEmptyOutputDir(targetDir, debug);
+
+    String[] sources = new String[files.size()];
+    int i = 0;
+    for (File file : files.keySet())
+    {
+      sources[i++] = file.getCanonicalPath();
+    }
+
+    GeneratorResult first = generate(targetDir, sources);
+    assertEquals(first.getModifiedFiles().size(), first.getTargetFiles().size());
+    File fooTarget = targetFile(first, "Foo.java");
+    File barTarget = targetFile(first, "Bar.java");
+    long fooModified = fooTarget.lastModified();
+    long barModified = barTarget.lastModified();
+
+    // unchanged inputs are skipped entirely
+    GeneratorResult second = generate(targetDir, sources);
+    assertTrue(second.getModifiedFiles().isEmpty());
+
+    // touched but unchanged inputs do not rewrite any output
+    File fooSource = new File(testDir.getCanonicalPath() + _fooPath);
+    File barSource = new File(testDir.getCanonicalPath() + _barPath);
+    Thread.sleep(1000L);
+    assertTrue(fooSource.setLastModified(System.currentTimeMillis()));
+    GeneratorResult third = generate(targetDir, sources);
+    assertTrue(third.getModifiedFiles().isEmpty());
+    assertEquals(fooTarget.lastModified(), fooModified);
+    assertEquals(barTarget.lastModified(), barModified);
+
+    // only the outputs of a changed input are rewritten
+    Thread.sleep(1000L);
+    writeFile(barSource, _barSchemaChanged);
+    GeneratorResult fourth = generate(targetDir, sources);
+    assertTrue(fourth.getModifiedFiles().contains(barTarget));
+    assertFalse(fourth.getModifiedFiles().contains(fooTarget));
+    assertEquals(fooTarget.lastModified(), fooModified);
+    assertTrue(barTarget.lastModified() > barModified);
+  }
+
+  @Test
+  public void testOnlyDependentSourcesAreRegenerated() throws IOException, InterruptedException
+  {
+    boolean debug = false;
+
+    File testDir = TestUtil.testDir(_dependentSourceDirName, debug);
+    Map<String,String> testSchemas = asMap(_fooPath, _fooWithBarSchema, _barPath, _barSchema, _bazPath, _bazSchema);
+    Map<File, Map.Entry<String,String>> files = TestUtil.createSchemaFiles(testDir, testSchemas, debug);
+
+    // with a resolver path, the sources may be generated in parallel groups
+    System.setProperty("generator.resolver.path", testDir.getCanonicalPath());
+
+    File targetDir = TestUtil.testDir(_dependentTargetDirName, debug);
+    ensureEmptyOutputDir(targetDir, debug);
+
+    String[] sources = new String[files.size()];
+    int i = 0;
+    for (File file : files.keySet())
+    {
+      sources[i++] = file.getCanonicalPath();
+    }
+
+    GeneratorResult first = generate(targetDir, sources);
+    assertEquals(first.getModifiedFiles().size(), first.getTargetFiles().size());
+    File fooTarget = targetFile(first, "Foo.java");
+    File barTarget = targetFile(first, "Bar.java");
+    File bazTarget = targetFile(first, "Baz.java");
+
+    // mark the output of the unrelated source, which is not regenerated if it is skipped
+    assertTrue(bazTarget.setWritable(true));
+    writeFile(bazTarget, "// skipped");
+    long bazModified = bazTarget.lastModified();
+
+    // a changed source regenerates the sources that refer to it, and only those
+    Thread.sleep(1000L);
+    writeFile(new File(testDir.getCanonicalPath() + _barPath), _barSchemaChanged);
+    GeneratorResult second = generate(targetDir, sources);
+    assertTrue(second.getModifiedFiles().contains(barTarget));
+    assertTrue(second.getModifiedFiles().contains(fooTarget), "Foo embeds the schema of Bar");
+    assertFalse(second.getModifiedFiles().contains(bazTarget));
+    assertEquals(bazTarget.lastModified(), bazModified);
+    assertEquals(new String(readFile(bazTarget), "UTF-8"), "// skipped");
+
+    System.setProperty("generator.resolver.path", "");
+  }
+
+  private static GeneratorResult generate(File targetDir, String[] sources) throws IOException
+  {
+    return new PegasusDataTemplateGenerator().run(targetDir.getCanonicalPath(), sources);
+  }
+
+  private static File targetFile(GeneratorResult result, String name)
+  {
+    List<File> matches = new ArrayList<File>();
+    for (File file : result.getTargetFiles())
+    {
+      if (file.getName().equals(name))
+      {
+        matches.add(file);
+      }
+    }
+    assertEquals(matches.size(), 1, name + " not in " + result.getTargetFiles());
+    return matches.get(0);
+  }
+
+  private static byte[] readFile(File file) throws IOException
+  {
+    FileInputStream in = new FileInputStream(file);
+    try
+    {
+      byte[] content = new byte[(int) file.length()];
+      int offset = 0;
+      int read;
+      while (offset < content.length && (read = in.read(content, offset, content.length - offset)) != -1)
+      {
+        offset += read;
+      }
+      return content;
+    }
+    finally
+    {
+      in.close();
+    }
+  }
+
+  private static void writeFile(File file, String content) throws IOException
+  {
+    FileOutputStream out = new FileOutputStream(file);
+    try
+    {
+      out.write(content.getBytes("UTF-8"));
+    }
+    finally
+    {
+      out.close();
+    }
+  }
+}
@@ -0,0 +1,73 @@
+/*
+   Copyright (c) 2012 LinkedIn Corp.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.linkedin.pegasus.generator.test;
+
+
+import com.linkedin.data.schema.DataSchema;
+import com.linkedin.data.schema.RecordDataSchema;
+import com.linkedin.data.schema.UnionDataSchema;
+import com.linkedin.data.template.DataTemplateUtil;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertSame;
+
+
+public class TestSchemaReferences
+{
+  @Test
+  public void testNamedSchemasAreShared()
+  {
+    RecordDataSchema schema = (RecordDataSchema) DataTemplateUtil.getSchema(RecordTest.class);
+
+    assertSame(schema.getField("enumField").getType(), DataTemplateUtil.getSchema(EnumFruits.class));
+    assertSame(schema.getField("recordField").getType(), DataTemplateUtil.getSchema(RecordBar.class));
+    assertSame(schema.getField("fixedField").getType(), DataTemplateUtil.getSchema(FixedMD5.class));
+    assertSame(schema.getField("enumInlineField").getType(), DataTemplateUtil.getSchema(EnumInRecord.class));
+    assertSame(schema.getField("recordInlineField").getType(), DataTemplateUtil.getSchema(RecordInRecord.class));
+    assertSame(schema.getField("fixedInlineField").getType(), DataTemplateUtil.getSchema(FixedInRecord.class));
+
+    UnionDataSchema unionSchema = (UnionDataSchema) schema.getField("unionField").getType();
+    assertSame(unionSchema.getType(RecordBar.class.getName()), DataTemplateUtil.getSchema(RecordBar.class));
+  }
+
+  @Test
+  public void testIncludedSchemasAreShared()
+  {
+    RecordDataSchema schema = (RecordDataSchema) DataTemplateUtil.getSchema(IncludeB.class);
+
+    assertSame(schema.getInclude().get(0), DataTemplateUtil.getSchema(IncludeA.class));
+  }
+
+  @Test
+  public void testCircularSchemas()
+  {
+    DataSchema a = DataTemplateUtil.getSchema(CircularImportA.class);
+    DataSchema b = DataTemplateUtil.getSchema(CircularImportB.class);
+    RecordDataSchema schema = (RecordDataSchema) DataTemplateUtil.getSchema(CircularImport.class);
+
+    // schemas that refer back to a class are inlined into its schema instead of shared
+    RecordDataSchema inlinedB = (RecordDataSchema) ((UnionDataSchema) ((RecordDataSchema) a).getField("link").getType())
+      .getType(CircularImportB.class.getName());
+    assertNotSame(inlinedB, b);
+    assertEquals(inlinedB.toString(), b.toString());
+
+    assertSame(schema.getField("a").getType(), a);
+    assertSame(schema.getField("b").getType(), b);
+  }
+}
@@ -0,0 +1,229 @@
+/*
+   Copyright (c) 2012 LinkedIn Corp.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.linkedin.pegasus.generator;
+
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.regex.Pattern;
+
+import com.sun.codemodel.CodeWriter;
+import com.sun.codemodel.JPackage;
+
+
+/**
+ * A {@link CodeWriter} that only writes files whose content has changed.
+ * <p>
+ *
+ * Files whose content is the same as the existing file, apart from the date of the
+ * {@link javax.annotation.Generated} annotation, are left untouched so that their
+ * timestamps do not trigger recompilation. Comparing and writing the files is done
+ * by a pool of threads while the code model is being written.
+ */
+class ChangedFileCodeWriter extends CodeWriter
+{
+  private static final Pattern GENERATED_DATE_PATTERN = Pattern.compile("(@Generated\\(.*date = \")[^\"]*\"");
+  private static final String GENERATED_DATE_REPLACEMENT = "$1\"";
+  // ISO-8859-1 maps each byte to one char, so contents compare the same in any encoding
+  private static final String COMPARE_CHARSET = "ISO-8859-1";
+
+  private final File _targetDirectory;
+  private final boolean _readOnly;
+  private final ExecutorService _executor;
+  private final List<Future<File>> _writes = new ArrayList<Future<File>>();
+  private final List<File> _modifiedFiles = new ArrayList<File>();
+
+  /**
+   * @param targetDirectory provides the root directory of the generated files.
+   * @param readOnly provides whether the generated files should be made read-only.
+   */
+  ChangedFileCodeWriter(File targetDirectory, boolean readOnly)
+  {
+    _targetDirectory = targetDirectory;
+    _readOnly = readOnly;
+    _executor = CodeGenerator.newDaemonThreadPool();
+  }
+
+  @Override
+  public OutputStream openBinary(JPackage pkg, String fileName) throws IOException
+  {
+    final File file = new File(packageDirectory(pkg), fileName);
+    return new ByteArrayOutputStream()
+    {
+      @Override
+      public void close() throws IOException
+      {
+        super.close();
+        final byte[] content = toByteArray();
+        _writes.add(_executor.submit(new Callable<File>()
+        {
+          @Override
+          public File call() throws IOException
+          {
+            return writeIfChanged(file, content) ? file : null;
+          }
+        }));
+      }
+    };
+  }
+
+  /**
+   * Wait for the pending writes to complete.
+   * <p>
+   *
+   * {@link com.sun.codemodel.JCodeModel#build(CodeWriter)} closes the writer once for sources
+   * and once for resources, so closing more than once is allowed.
+   *
+   * @throws IOException if any file could not be read or written.
+   */
+  @Override
+  public void close() throws IOException
+  {
+    try
+    {
+      for (Future<File> write : _writes)
+      {
+        File file = write.get();
+        if (file != null)
+        {
+          _modifiedFiles.add(file);
+        }
+      }
+      _writes.clear();
+    }
+    catch (InterruptedException e)
+    {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while writing generated files", e);
+    }
+    catch (ExecutionException e)
+    {
+      if (e.getCause() instanceof IOException)
+      {
+        throw (IOException) e.getCause();
+      }
+      throw new IOException("Unable to write generated files", e.getCause());
+    }
+    finally
+    {
+      shutdown();
+    }
+  }
+
+  /**
+   * Stop the threads writing the files, e.g. if the code model could not be written and the
+   * writer is never closed.
+   */
+  void shutdown()
+  {
+    _executor.shutdownNow();
+  }
+
+  /**
+   * @return the files that have been written because they were new or their content has changed.
+   */
+  List<File> getModifiedFiles()
+  {
+    return Collections.unmodifiableList(_modifiedFiles);
+  }
+
+  private File packageDirectory(JPackage pkg)
+  {
+    if (pkg.isUnnamed())
+    {
+      return _targetDirectory;
+    }
+    return new File(_targetDirectory, pkg.name().replace('.', File.separatorChar));
+  }
+
+  private boolean writeIfChanged(File file, byte[] content) throws IOException
+  {
+    if (file.exists() && sameContent(readFile(file), content))
+    {
+      return false;
+    }
+
+    File directory = file.getParentFile();
+    if (!directory.exists() && !directory.mkdirs() && !directory.exists())
+    {
+      throw new IOException("Unable to create directory " + directory);
+    }
+    if (file.exists() && !file.canWrite() && !file.setWritable(true))
+    {
+      throw new IOException("Unable to make " + file + " writable");
+    }
+
+    OutputStream out = new FileOutputStream(file);
+    try
+    {
+      out.write(content);
+    }
+    finally
+    {
+      out.close();
+    }
+    if (_readOnly)
+    {
+      file.setReadOnly();
+    }
+    return true;
+  }
+
+  private static boolean sameContent(byte[] existing, byte[] generated) throws IOException
+  {
+    if (Arrays.equals(existing, generated))
+    {
+      return true;
+    }
+    String existingText = GENERATED_DATE_PATTERN.matcher(new String(existing, COMPARE_CHARSET)).replaceFirst(GENERATED_DATE_REPLACEMENT);
+    String generatedText = GENERATED_DATE_PATTERN.matcher(new String(generated, COMPARE_CHARSET)).replaceFirst(GENERATED_DATE_REPLACEMENT);
+    return existingText.equals(generatedText);
+  }
+
+  static byte[] readFile(File file) throws IOException
+  {
+    InputStream in = new FileInputStream(file);
+    try
+    {
+      ByteArrayOutputStream out = new ByteArrayOutputStream((int) file.length());
+      byte[] buffer = new byte[8192];
+      int read;
+      while ((read = in.read(buffer)) != -1)
+      {
+        out.write(buffer, 0, read);
+      }
+      return out.toByteArray();
+    }
+    finally
+    {
+      in.close();
+    }
+  }
+}
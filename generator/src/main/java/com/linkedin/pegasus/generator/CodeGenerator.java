@@ -17,10 +17,16 @@
 package com.linkedin.pegasus.generator;
 
 import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
 import java.net.MalformedURLException;
 import java.net.URI;
 import java.net.URL;
 import java.net.URLClassLoader;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -28,8 +34,13 @@ import java.util.Date;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Properties;
 import java.util.Set;
 import java.util.StringTokenizer;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.annotation.Generated;
 
@@ -87,6 +98,28 @@ public abstract class CodeGenerator extends AbstractGenerator
     generatedAnnotation.param("date", new Date().toString());
   }
 
+  /**
+   * Return a pool of one daemon thread per processor, so that a generator which fails before
+   * shutting the pool down does not keep the JVM from exiting.
+   *
+   * @return the pool.
+   */
+  protected static ExecutorService newDaemonThreadPool()
+  {
+    return Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), new ThreadFactory()
+    {
+      private final AtomicInteger _count = new AtomicInteger();
+
+      @Override
+      public Thread newThread(Runnable runnable)
+      {
+        Thread thread = new Thread(runnable, "pegasus-generator-" + _count.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+      }
+    });
+  }
+
   protected static String capitalize(String name)
   {
     return Character.toUpperCase(name.charAt(0)) + name.substring(1);
@@ -237,6 +270,169 @@ public abstract class CodeGenerator extends AbstractGenerator
     return false;
   }
 
+  /**
+   * Whether the files that would be generated into the specified target directory are up-to-date.
+   * <p>
+   *
+   * The target files are up-to-date if they are more recent than the source files, see
+   * {@link #upToDate(List, List)}, or if the manifest written by {@link #writeChangedFiles(File, List, List)}
+   * records the same contents of the source files, the same target files and the same generator
+   * system properties. The manifest is needed because unchanged target files keep their timestamps.
+   *
+   * @param sourceFiles provides the source files that were parsed.
+   * @param targetFiles provides the files that would have been generated.
+   * @param targetDirectory provides the target directory.
+   * @return true if the target files are up-to-date.
+   * @throws IOException if the source files or the manifest cannot be read.
+   */
+  protected boolean upToDate(List<File> sourceFiles, List<File> targetFiles, File targetDirectory) throws IOException
+  {
+    if (upToDate(sourceFiles, targetFiles))
+    {
+      return true;
+    }
+
+    File manifestFile = manifestFile(targetDirectory);
+    if (!manifestFile.exists())
+    {
+      return false;
+    }
+    for (File targetFile : targetFiles)
+    {
+      if (!targetFile.exists())
+      {
+        return false;
+      }
+    }
+    String manifest = new String(ChangedFileCodeWriter.readFile(manifestFile), MANIFEST_CHARSET);
+    return manifest.equals(manifest(sourceFiles, targetFiles));
+  }
+
+  /**
+   * Write the generated classes into the target directory, leaving the files whose content
+   * has not changed untouched, and record the manifest of the source files.
+   *
+   * @param targetDirectory provides the target directory.
+   * @param sourceFiles provides the source files that were parsed.
+   * @param targetFiles provides the files that are generated.
+   * @return the files that have been written because they were new or their content has changed.
+   * @throws IOException if the files cannot be read or written.
+   */
+  protected List<File> writeChangedFiles(File targetDirectory, List<File> sourceFiles, List<File> targetFiles) throws IOException
+  {
+    ChangedFileCodeWriter codeWriter = new ChangedFileCodeWriter(targetDirectory, true);
+    try
+    {
+      getCodeModel().build(codeWriter);
+    }
+    finally
+    {
+      codeWriter.shutdown();
+    }
+
+    File manifestFile = manifestFile(targetDirectory);
+    OutputStream out = new FileOutputStream(manifestFile);
+    try
+    {
+      out.write(manifest(sourceFiles, targetFiles).getBytes(MANIFEST_CHARSET));
+    }
+    finally
+    {
+      out.close();
+    }
+
+    return codeWriter.getModifiedFiles();
+  }
+
+  protected File manifestFile(File targetDirectory)
+  {
+    return new File(targetDirectory, "." + getClass().getSimpleName() + ".manifest");
+  }
+
+  /**
+   * Return a digest of the contents of the source files, the paths of the target files
+   * and the generator system properties.
+   */
+  private static String manifest(List<File> sourceFiles, List<File> targetFiles) throws IOException
+  {
+    MessageDigest digest = newDigest();
+    for (File sourceFile : sortedFiles(sourceFiles))
+    {
+      digest.update(sourceFile.getAbsolutePath().getBytes(MANIFEST_CHARSET));
+      digest.update((byte) 0);
+      digest.update(ChangedFileCodeWriter.readFile(sourceFile));
+      digest.update((byte) 0);
+    }
+    for (File targetFile : sortedFiles(targetFiles))
+    {
+      digest.update(targetFile.getAbsolutePath().getBytes(MANIFEST_CHARSET));
+      digest.update((byte) 0);
+    }
+    updateWithGeneratorProperties(digest);
+    return toHex(digest.digest());
+  }
+
+  /**
+   * @return a digest of the generator system properties.
+   */
+  static String generatorPropertiesDigest()
+  {
+    MessageDigest digest = newDigest();
+    updateWithGeneratorProperties(digest);
+    return toHex(digest.digest());
+  }
+
+  private static void updateWithGeneratorProperties(MessageDigest digest)
+  {
+    Properties properties = System.getProperties();
+    List<String> names = new ArrayList<String>(properties.stringPropertyNames());
+    Collections.sort(names);
+    for (String name : names)
+    {
+      if (name.startsWith(GENERATOR_PROPERTY_PREFIX))
+      {
+        try
+        {
+          digest.update((name + '=' + properties.getProperty(name)).getBytes(MANIFEST_CHARSET));
+        }
+        catch (UnsupportedEncodingException e)
+        {
+          throw new IllegalStateException(MANIFEST_CHARSET + " should always be supported", e);
+        }
+        digest.update((byte) 0);
+      }
+    }
+  }
+
+  static MessageDigest newDigest()
+  {
+    try
+    {
+      return MessageDigest.getInstance("SHA-1");
+    }
+    catch (NoSuchAlgorithmException e)
+    {
+      throw new IllegalStateException("SHA-1 should always be supported", e);
+    }
+  }
+
+  static String toHex(byte[] bytes)
+  {
+    StringBuilder hex = new StringBuilder(bytes.length * 2);
+    for (byte b : bytes)
+    {
+      hex.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+    }
+    return hex.toString();
+  }
+
+  private static List<File> sortedFiles(List<File> files)
+  {
+    List<File> sorted = new ArrayList<File>(files);
+    Collections.sort(sorted);
+    return sorted;
+  }
+
   /**
    * The main code generator
    */
@@ -244,4 +440,7 @@ public abstract class CodeGenerator extends AbstractGenerator
   {
     return _codeModel;
   }
+
+  private static final String GENERATOR_PROPERTY_PREFIX = "generator.";
+  private static final String MANIFEST_CHARSET = "UTF-8";
 }
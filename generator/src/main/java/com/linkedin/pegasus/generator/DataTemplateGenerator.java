@@ -20,6 +20,7 @@ package com.linkedin.pegasus.generator;
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Deque;
@@ -38,6 +39,7 @@ import org.slf4j.LoggerFactory;
 import com.linkedin.data.ByteString;
 import com.linkedin.data.DataList;
 import com.linkedin.data.DataMap;
+import com.linkedin.data.DataSerializer;
 import com.linkedin.data.schema.ArrayDataSchema;
 import com.linkedin.data.schema.ComplexDataSchema;
 import com.linkedin.data.schema.DataSchema;
@@ -82,6 +84,7 @@ import com.linkedin.data.template.UnionTemplate;
 import com.linkedin.data.template.WrappingArrayTemplate;
 import com.linkedin.data.template.WrappingMapTemplate;
 import com.sun.codemodel.ClassType;
+import com.sun.codemodel.JArray;
 import com.sun.codemodel.JBlock;
 import com.sun.codemodel.JClass;
 import com.sun.codemodel.JClassAlreadyExistsException;
@@ -109,6 +112,11 @@ public abstract class DataTemplateGenerator extends CodeGenerator
    */
   public static final String GENERATOR_GENERATE_IMPORTED = "generator.generate.imported";
 
+  /**
+   * The system property that specifies whether to generate and register a {@link DataSerializer} for each record
+   */
+  public static final String GENERATOR_GENERATE_SERIALIZERS = "generator.generate.serializers";
+
   @SuppressWarnings("unused")
   private static final Logger log = LoggerFactory.getLogger(DataTemplateGenerator.class);
   protected static final String SUPER = "super";
@@ -134,6 +142,7 @@ public abstract class DataTemplateGenerator extends CodeGenerator
   protected final JClass _collectionClass = getCodeModel().ref(Collection.class);
   private final JClass _mapClass = getCodeModel().ref(Map.class);
   private final JClass _dataTemplateUtilClass = getCodeModel().ref(DataTemplateUtil.class);
+  private final JClass _dataSerializerClass = getCodeModel().ref(DataSerializer.class);
   private final JClass _getModeClass = getCodeModel().ref(GetMode.class);
   private final JClass _setModeClass = getCodeModel().ref(SetMode.class);
   protected final JClass _directArrayClass = getCodeModel().ref(DirectArrayTemplate.class);
@@ -150,6 +159,7 @@ public abstract class DataTemplateGenerator extends CodeGenerator
   private final Deque<DataSchemaLocation> _locationStack = new ArrayDeque<DataSchemaLocation>();
   private final Set<File> _sourceFiles = new HashSet<File>();
   private boolean _generateImported = true;
+  private boolean _generateSerializers = false;
 
   private static final Class<?> _nativeJavaClasses[] =
     {
@@ -264,6 +274,8 @@ public abstract class DataTemplateGenerator extends CodeGenerator
     {
       _generateImported = Boolean.parseBoolean(property);
     }
+
+    _generateSerializers = Boolean.parseBoolean(System.getProperty(GENERATOR_GENERATE_SERIALIZERS));
   }
 
   @Override
@@ -374,6 +386,17 @@ public abstract class DataTemplateGenerator extends CodeGenerator
     }
   }
 
+  /**
+   * Return the location of the schema a generated class was generated for.
+   *
+   * @param clazz provides the generated class.
+   * @return the location, or null if the class has not been registered.
+   */
+  protected DataSchemaLocation getGeneratedClassLocation(JDefinedClass clazz)
+  {
+    return _classToDataSchemaLocationMap.get(clazz);
+  }
+
   DataSchemaLocation currentLocation()
   {
     return _locationStack.getLast();
@@ -1062,6 +1085,11 @@ public abstract class DataTemplateGenerator extends CodeGenerator
       }
     }
 
+    if (_generateSerializers)
+    {
+      generateSerializerRegistration(templateClass, schema);
+    }
+
     overrideCopier(templateClass, "clone");
     overrideCopier(templateClass, "copy");
 
@@ -1074,6 +1102,55 @@ public abstract class DataTemplateGenerator extends CodeGenerator
     return templateClass;
   }
 
+  /**
+   * Register a {@link DataSerializer} that knows the record's fields and their types.
+   *
+   * @see DataTemplateUtil#registerSerializer(Class, DataSerializer)
+   */
+  private void generateSerializerRegistration(JDefinedClass templateClass, RecordDataSchema schema)
+  {
+    JArray fieldNames = JExpr.newArray(_stringClass);
+    JInvocation serializer = _dataSerializerClass.staticInvoke("record").arg(fieldNames);
+    for (RecordDataSchema.Field field : schema.getFields())
+    {
+      fieldNames.add(JExpr.lit(field.getName()));
+      serializer.arg(serializerForSchema(field.getType(), templateClass));
+    }
+    templateClass.init().add(_dataTemplateUtilClass.staticInvoke("registerSerializer").arg(templateClass.dotclass()).arg(serializer));
+  }
+
+  private JExpression serializerForSchema(DataSchema schema, JDefinedClass parentClass)
+  {
+    DataSchema dereferencedSchema = schema.getDereferencedDataSchema();
+    switch (dereferencedSchema.getType())
+    {
+      case BOOLEAN:
+        return _dataSerializerClass.staticRef("BOOLEAN");
+      case INT:
+        return _dataSerializerClass.staticRef("INTEGER");
+      case LONG:
+        return _dataSerializerClass.staticRef("LONG");
+      case FLOAT:
+        return _dataSerializerClass.staticRef("FLOAT");
+      case DOUBLE:
+        return _dataSerializerClass.staticRef("DOUBLE");
+      case STRING:
+      case ENUM:
+        return _dataSerializerClass.staticRef("STRING");
+      case BYTES:
+      case FIXED:
+        return _dataSerializerClass.staticRef("BYTES");
+      case ARRAY:
+        return _dataSerializerClass.staticInvoke("array").arg(serializerForSchema(((ArrayDataSchema) dereferencedSchema).getItems(), parentClass));
+      case MAP:
+        return _dataSerializerClass.staticInvoke("map").arg(serializerForSchema(((MapDataSchema) dereferencedSchema).getValues(), parentClass));
+      case RECORD:
+        return _dataTemplateUtilClass.staticInvoke("serializerFor").arg(getClassRefForSchema(dereferencedSchema, parentClass).dotclass());
+      default:
+        return _dataSerializerClass.staticRef("GENERIC");
+    }
+  }
+
   private static void overrideCopier(JDefinedClass templateClass, String methodName)
   {
     JMethod copierMethod = templateClass.method(JMod.PUBLIC, templateClass, methodName);
@@ -1219,12 +1296,127 @@ public abstract class DataTemplateGenerator extends CodeGenerator
     JFieldVar schemaField = templateClass.field(JMod.PRIVATE | JMod.STATIC | JMod.FINAL,
                                                 schema.getClass(),
                                                 DataTemplateUtil.SCHEMA_FIELD_NAME);
-    String schemaJson = SchemaToJsonEncoder.schemaToJson(schema, JsonBuilder.Pretty.COMPACT);
-    schemaField.init(JExpr.cast(getCodeModel()._ref(schema.getClass()),
-                                _dataTemplateUtilClass.staticInvoke("parseSchema").arg(schemaJson)));
+    JInvocation parseSchema;
+    try
+    {
+      JsonBuilder builder = new JsonBuilder(JsonBuilder.Pretty.COMPACT);
+      SchemaFieldEncoder encoder = new SchemaFieldEncoder(builder, schema);
+      encoder.encode(schema);
+      String schemaJson = builder.result();
+      if (encoder._references.isEmpty())
+      {
+        parseSchema = _dataTemplateUtilClass.staticInvoke("parseSchema").arg(schemaJson);
+      }
+      else
+      {
+        parseSchema = _dataTemplateUtilClass.staticInvoke("parseSchemaWithReferences").arg(schemaJson);
+        for (NamedDataSchema reference : encoder._references)
+        {
+          parseSchema.arg(getClassRefForSchema(reference, templateClass).dotclass());
+        }
+      }
+    }
+    catch (IOException exc)
+    {
+      throw new IllegalStateException("Unable to encode schema of " + templateClass.fullName(), exc);
+    }
+    schemaField.init(JExpr.cast(getCodeModel()._ref(schema.getClass()), parseSchema));
     return schemaField;
   }
 
+  /**
+   * Encodes the schema of a generated class, referring by name to the record, enum and fixed
+   * schemas that have their own generated classes instead of inlining them, so that each
+   * named schema is parsed once and shared.
+   *
+   * A named schema that can reach the schema being encoded is still inlined. Otherwise the
+   * static initializers of the two classes would each need the other's schema.
+   */
+  private static class SchemaFieldEncoder extends SchemaToJsonEncoder
+  {
+    private final DataSchema _root;
+    private final List<NamedDataSchema> _references = new ArrayList<NamedDataSchema>();
+
+    private SchemaFieldEncoder(JsonBuilder builder, DataSchema root)
+    {
+      super(builder);
+      _root = root;
+    }
+
+    @Override
+    protected void encodeNamed(NamedDataSchema schema) throws IOException
+    {
+      if (schema != _root &&
+          _alreadyDumped.contains(schema.getFullName()) == false &&
+          _referencedTypes.contains(schema.getType()) &&
+          reaches(schema, _root, new IdentityHashMap<DataSchema, Boolean>()) == false)
+      {
+        _alreadyDumped.add(schema.getFullName());
+        _references.add(schema);
+        writeSchemaName(schema);
+      }
+      else
+      {
+        super.encodeNamed(schema);
+      }
+    }
+
+    private static boolean reaches(DataSchema from, DataSchema to, IdentityHashMap<DataSchema, Boolean> visited)
+    {
+      if (from == to)
+      {
+        return true;
+      }
+      if (visited.put(from, Boolean.TRUE) != null)
+      {
+        return false;
+      }
+      switch (from.getType())
+      {
+        case RECORD:
+          RecordDataSchema recordSchema = (RecordDataSchema) from;
+          for (NamedDataSchema includedSchema : recordSchema.getInclude())
+          {
+            if (reaches(includedSchema, to, visited))
+            {
+              return true;
+            }
+          }
+          for (RecordDataSchema.Field field : recordSchema.getFields())
+          {
+            if (reaches(field.getType(), to, visited))
+            {
+              return true;
+            }
+          }
+          return false;
+        case TYPEREF:
+          return reaches(((TyperefDataSchema) from).getRef(), to, visited);
+        case ARRAY:
+          return reaches(((ArrayDataSchema) from).getItems(), to, visited);
+        case MAP:
+          return reaches(((MapDataSchema) from).getValues(), to, visited);
+        case UNION:
+          for (DataSchema memberSchema : ((UnionDataSchema) from).getTypes())
+          {
+            if (reaches(memberSchema, to, visited))
+            {
+              return true;
+            }
+          }
+          return false;
+        default:
+          return false;
+      }
+    }
+
+    private static final Set<DataSchema.Type> _referencedTypes = EnumSet.of(
+      DataSchema.Type.RECORD,
+      DataSchema.Type.ENUM,
+      DataSchema.Type.FIXED
+    );
+  }
+
   private static void generateConstructorWithNoArg(JDefinedClass cls, JVar schemaField, JClass newClass)
   {
     JMethod noArgConstructor = cls.constructor(JMod.PUBLIC);
@@ -19,19 +19,38 @@ package com.linkedin.pegasus.generator;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.linkedin.data.schema.ArrayDataSchema;
 import com.linkedin.data.schema.DataSchema;
+import com.linkedin.data.schema.DataSchemaLocation;
 import com.linkedin.data.schema.MapDataSchema;
+import com.linkedin.data.schema.NamedDataSchema;
+import com.linkedin.data.schema.RecordDataSchema;
+import com.linkedin.data.schema.TyperefDataSchema;
+import com.linkedin.data.schema.UnionDataSchema;
 import com.linkedin.data.schema.resolver.FileDataSchemaLocation;
-import com.sun.codemodel.JClass;
-import com.sun.codemodel.writer.FileCodeWriter;
+import com.linkedin.data.schema.resolver.FileDataSchemaResolver;
+import com.sun.codemodel.JDefinedClass;
+import com.sun.codemodel.JPackage;
 
 
 /**
@@ -43,6 +62,155 @@ public class PegasusDataTemplateGenerator extends DataTemplateGenerator
 {
   private static final Logger log = LoggerFactory.getLogger(PegasusDataTemplateGenerator.class);
 
+  /**
+   * Sources that are parsed and generated by one generator, see {@link #generate(File, List)}.
+   */
+  private static class Group
+  {
+    private final PegasusDataTemplateGenerator _generator = new PegasusDataTemplateGenerator();
+    private final List<String> _sources;
+    // canonical source file => full names of the schemas bound to a location in the file
+    private final Map<File, List<String>> _namesByFile = new HashMap<File, List<String>>();
+    private final Map<File, File> _canonicalFiles = new HashMap<File, File>();
+
+    private Group(List<String> sources)
+    {
+      _sources = sources;
+    }
+
+    private void generate(File targetDirectory) throws IOException
+    {
+      _generator.initializeDefaultPackage();
+      _generator.initSchemaResolver();
+      _generator.parseSources(_sources.toArray(new String[_sources.size()]));
+      _generator.targetFiles(targetDirectory);
+      _generator.validateDefinedClassRegistration();
+
+      for (Map.Entry<String, DataSchemaLocation> entry : _generator.getSchemaResolver().nameToDataSchemaLocations().entrySet())
+      {
+        File file = canonicalFile(entry.getValue());
+        if (file != null)
+        {
+          List<String> names = _namesByFile.get(file);
+          if (names == null)
+          {
+            names = new ArrayList<String>();
+            _namesByFile.put(file, names);
+          }
+          names.add(entry.getKey());
+        }
+      }
+    }
+
+    /**
+     * Return the canonical source files of the schemas defined by a source and of the schemas
+     * they refer to transitively.
+     */
+    private Set<File> getDependencies(String source) throws IOException
+    {
+      Set<File> dependencies = new HashSet<File>();
+      Set<DataSchema> visited = Collections.newSetFromMap(new IdentityHashMap<DataSchema, Boolean>());
+      File sourceFile = new File(source);
+      if (sourceFile.exists())
+      {
+        sourceFile = sourceFile.getCanonicalFile();
+        dependencies.add(sourceFile);
+        List<String> names = _namesByFile.get(sourceFile);
+        if (names != null)
+        {
+          for (String name : names)
+          {
+            addDependencies(_generator.getSchemaResolver().existingDataSchema(name), dependencies, visited);
+          }
+        }
+      }
+      else
+      {
+        addDependencies(_generator.getSchemaResolver().existingDataSchema(source), dependencies, visited);
+      }
+      return dependencies;
+    }
+
+    private void addDependencies(DataSchema schema, Set<File> dependencies, Set<DataSchema> visited) throws IOException
+    {
+      if (schema == null || !visited.add(schema))
+      {
+        return;
+      }
+      if (schema instanceof NamedDataSchema)
+      {
+        String name = ((NamedDataSchema) schema).getFullName();
+        File file = canonicalFile(_generator.getSchemaResolver().nameToDataSchemaLocations().get(name));
+        if (file != null)
+        {
+          dependencies.add(file);
+        }
+      }
+      switch (schema.getType())
+      {
+        case RECORD:
+          RecordDataSchema recordSchema = (RecordDataSchema) schema;
+          for (NamedDataSchema includedSchema : recordSchema.getInclude())
+          {
+            addDependencies(includedSchema, dependencies, visited);
+          }
+          for (RecordDataSchema.Field field : recordSchema.getFields())
+          {
+            addDependencies(field.getType(), dependencies, visited);
+          }
+          break;
+        case ARRAY:
+          addDependencies(((ArrayDataSchema) schema).getItems(), dependencies, visited);
+          break;
+        case MAP:
+          addDependencies(((MapDataSchema) schema).getValues(), dependencies, visited);
+          break;
+        case UNION:
+          for (DataSchema memberSchema : ((UnionDataSchema) schema).getTypes())
+          {
+            addDependencies(memberSchema, dependencies, visited);
+          }
+          break;
+        case TYPEREF:
+          addDependencies(((TyperefDataSchema) schema).getRef(), dependencies, visited);
+          break;
+        default:
+          break;
+      }
+    }
+
+    private File canonicalFile(DataSchemaLocation location) throws IOException
+    {
+      File file = (location == null ? null : location.getSourceFile());
+      if (file == null)
+      {
+        return null;
+      }
+      File canonicalFile = _canonicalFiles.get(file);
+      if (canonicalFile == null)
+      {
+        canonicalFile = file.getCanonicalFile();
+        _canonicalFiles.put(file, canonicalFile);
+      }
+      return canonicalFile;
+    }
+  }
+
+  /**
+   * A generated class, and the source it is written for if more than one group generates it.
+   */
+  private static class Candidate
+  {
+    private final JDefinedClass _definedClass;
+    private final String _owner;
+
+    private Candidate(JDefinedClass definedClass, String owner)
+    {
+      _definedClass = definedClass;
+      _owner = owner;
+    }
+  }
+
   public static void main(String[] args) throws IOException
   {
     if (args.length < 2)
@@ -57,6 +225,12 @@ public class PegasusDataTemplateGenerator extends DataTemplateGenerator
 
   /**
    * Parses data schema files and generates stubs for them.
+   * <p>
+   *
+   * Source files that have not changed since the previous run into the same target directory,
+   * and whose schemas refer only to schemas that have not changed either, are skipped, see
+   * {@link SchemaManifest}. The other sources are parsed and generated in parallel groups.
+   *
    * @param sources provides the paths to schema files and/or fully qualified schema names.
    * @param targetDirectoryPath path to target root java source directory
    * @return a result that includes collection of files accessed, would have generated and actually modified.
@@ -64,28 +238,41 @@ public class PegasusDataTemplateGenerator extends DataTemplateGenerator
    */
   public GeneratorResult run(String targetDirectoryPath, String sources[]) throws IOException
   {
-    initializeDefaultPackage();
-    initSchemaResolver();
+    File targetDirectory = new File(targetDirectoryPath).getAbsoluteFile();
+    File manifestFile = manifestFile(targetDirectory);
+    SchemaManifest previousManifest = SchemaManifest.read(manifestFile);
+    SchemaManifest manifest = new SchemaManifest();
 
-    List<File> sourceFiles = parseSources(sources);
-
-    File targetDirectory = new File(targetDirectoryPath);
-    List<File> targetFiles = targetFiles(targetDirectory);
+    List<String> changedSources = new ArrayList<String>();
+    for (String source : expandSources(sources))
+    {
+      File sourceFile = new File(source);
+      if (!sourceFile.exists() || !previousManifest.copyIfUnchanged(sourceFile.getCanonicalFile(), manifest))
+      {
+        changedSources.add(source);
+      }
+    }
 
+    Set<File> sourceFiles = new LinkedHashSet<File>();
+    Set<File> targetFiles = new LinkedHashSet<File>();
     List<File> modifiedFiles;
-    if (upToDate(sourceFiles, targetFiles))
+    if (changedSources.isEmpty())
     {
       modifiedFiles = Collections.emptyList();
-      log.info("Target files are up-to-date: " + targetFiles);
+      log.info("Target files are up-to-date: " + manifest.getTargetFiles());
     }
     else
     {
-      modifiedFiles = targetFiles;
-      log.info("Generating " + targetFiles.size() + " files: " + targetFiles);
-      validateDefinedClassRegistration();
-      getCodeModel().build(new FileCodeWriter(targetDirectory, true));
+      log.info("Generating data templates for " + changedSources.size() + " changed sources: " + changedSources);
+      List<Group> groups = generate(targetDirectory, changedSources);
+      modifiedFiles = write(targetDirectory, groups, manifest, sourceFiles, targetFiles);
+      log.info("Modified " + modifiedFiles.size() + " files: " + modifiedFiles);
     }
-    return new Result(sourceFiles, targetFiles, modifiedFiles);
+    manifest.write(manifestFile);
+
+    sourceFiles.addAll(manifest.getSourceFiles());
+    targetFiles.addAll(manifest.getTargetFiles());
+    return new Result(new ArrayList<File>(sourceFiles), new ArrayList<File>(targetFiles), modifiedFiles);
   }
 
   @Override
@@ -96,4 +283,286 @@ public class PegasusDataTemplateGenerator extends DataTemplateGenerator
     super.parseFile(schemaSourceFile);
     popCurrentLocation();
   }
+
+  /**
+   * Replace the directories among the sources with the schema files they contain.
+   */
+  private static List<String> expandSources(String sources[])
+  {
+    List<String> expandedSources = new ArrayList<String>(sources.length);
+    for (String source : sources)
+    {
+      File sourceFile = new File(source);
+      if (sourceFile.isDirectory())
+      {
+        for (File file : sourceFilesInDirectory(sourceFile, new NameEndsWithFilter(FileDataSchemaResolver.DEFAULT_EXTENSION)))
+        {
+          expandedSources.add(file.getPath());
+        }
+      }
+      else
+      {
+        expandedSources.add(source);
+      }
+    }
+    return expandedSources;
+  }
+
+  /**
+   * Parse the sources and generate their classes.
+   * <p>
+   *
+   * The sources are split into one group per processor, and each group is parsed and generated
+   * by its own generator, with its own schema resolver and code model. A group can only refer to
+   * schemas of other groups if they can be found through the resolver path, so the sources are
+   * generated as one group if there is no resolver path or if any group fails.
+   */
+  private static List<Group> generate(final File targetDirectory, List<String> sources) throws IOException
+  {
+    int groupCount = Math.min(sources.size(), Runtime.getRuntime().availableProcessors());
+    String resolverPath = System.getProperty(GENERATOR_RESOLVER_PATH);
+    if (groupCount > 1 && resolverPath != null && !resolverPath.isEmpty())
+    {
+      ExecutorService executor = newDaemonThreadPool();
+      try
+      {
+        List<Future<Group>> futures = new ArrayList<Future<Group>>(groupCount);
+        for (int i = 0; i < groupCount; ++i)
+        {
+          // contiguous sources are likely to be in the same namespace and to share references
+          final Group group = new Group(sources.subList(sources.size() * i / groupCount,
+                                                        sources.size() * (i + 1) / groupCount));
+          futures.add(executor.submit(new Callable<Group>()
+          {
+            @Override
+            public Group call() throws IOException
+            {
+              group.generate(targetDirectory);
+              return group;
+            }
+          }));
+        }
+        List<Group> groups = new ArrayList<Group>(groupCount);
+        for (Future<Group> future : futures)
+        {
+          groups.add(future.get());
+        }
+        return groups;
+      }
+      catch (InterruptedException e)
+      {
+        Thread.currentThread().interrupt();
+        throw new IOException("Interrupted while generating data templates", e);
+      }
+      catch (ExecutionException e)
+      {
+        log.info("Unable to generate data templates in " + groupCount + " groups, generating them in one group: " + e.getCause());
+      }
+      finally
+      {
+        executor.shutdownNow();
+      }
+    }
+
+    Group group = new Group(sources);
+    group.generate(targetDirectory);
+    return Collections.singletonList(group);
+  }
+
+  /**
+   * Write the classes generated by the groups and record them in the manifest.
+   * <p>
+   *
+   * Each target file is written by one group only. A class may be generated by several groups,
+   * e.g. for a schema that several sources refer to, in which case it is written for the source
+   * that defines the schema if there is one, otherwise for the first source that refers to it.
+   * Classes that belong to unchanged sources are not written at all.
+   *
+   * @return the files that have been written because they were new or their content has changed.
+   */
+  private static List<File> write(File targetDirectory,
+                                  List<Group> groups,
+                                  SchemaManifest manifest,
+                                  Set<File> sourceFiles,
+                                  Set<File> targetFiles) throws IOException
+  {
+    Set<File> unchangedTargets = new HashSet<File>(manifest.getTargetFiles());
+
+    // the sources each file belongs to, first for the source that is the file itself
+    Map<String, Set<File>> dependencies = new HashMap<String, Set<File>>();
+    Map<File, String> fileOwners = new HashMap<File, String>();
+    Set<String> sortedSources = new TreeSet<String>();
+    for (Group group : groups)
+    {
+      for (String source : group._sources)
+      {
+        Set<File> sourceDependencies = group.getDependencies(source);
+        dependencies.put(source, sourceDependencies);
+        sortedSources.add(source);
+        File sourceFile = new File(source);
+        if (sourceFile.exists())
+        {
+          fileOwners.put(sourceFile.getCanonicalFile(), source);
+        }
+      }
+    }
+    for (String source : sortedSources)
+    {
+      for (File file : dependencies.get(source))
+      {
+        if (!fileOwners.containsKey(file))
+        {
+          fileOwners.put(file, source);
+        }
+      }
+    }
+
+    Map<File, Candidate> candidates = new HashMap<File, Candidate>();
+    for (Group group : groups)
+    {
+      for (JDefinedClass definedClass : topLevelClasses(group._generator))
+      {
+        File targetFile = new File(targetDirectory, definedClass.fullName().replace('.', File.separatorChar) + ".java");
+        if (unchangedTargets.contains(targetFile))
+        {
+          continue;
+        }
+        String owner = fileOwners.get(group.canonicalFile(group._generator.getGeneratedClassLocation(definedClass)));
+        if (owner == null)
+        {
+          owner = group._sources.get(0);
+        }
+        Candidate candidate = candidates.get(targetFile);
+        if (candidate == null || owner.compareTo(candidate._owner) < 0)
+        {
+          candidates.put(targetFile, new Candidate(definedClass, owner));
+        }
+      }
+    }
+
+    Map<String, List<File>> ownedTargets = new HashMap<String, List<File>>();
+    Set<JDefinedClass> writtenClasses = Collections.newSetFromMap(new IdentityHashMap<JDefinedClass, Boolean>());
+    for (Map.Entry<File, Candidate> entry : candidates.entrySet())
+    {
+      Candidate candidate = entry.getValue();
+      writtenClasses.add(candidate._definedClass);
+      List<File> owned = ownedTargets.get(candidate._owner);
+      if (owned == null)
+      {
+        owned = new ArrayList<File>();
+        ownedTargets.put(candidate._owner, owned);
+      }
+      owned.add(entry.getKey());
+    }
+
+    for (String source : sortedSources)
+    {
+      List<File> owned = ownedTargets.get(source);
+      if (owned == null)
+      {
+        owned = Collections.emptyList();
+      }
+      File sourceFile = new File(source);
+      if (sourceFile.exists())
+      {
+        manifest.put(sourceFile.getCanonicalFile(), dependencies.get(source), owned);
+      }
+      else
+      {
+        // schemas given by name are always generated, so they are not recorded in the manifest
+        sourceFiles.addAll(dependencies.get(source));
+        targetFiles.addAll(owned);
+      }
+    }
+
+    return writeChangedFiles(targetDirectory, groups, writtenClasses);
+  }
+
+  /**
+   * Write the classes of the groups in parallel, hiding the classes that are not to be written.
+   */
+  private static List<File> writeChangedFiles(final File targetDirectory,
+                                              List<Group> groups,
+                                              Set<JDefinedClass> writtenClasses) throws IOException
+  {
+    for (Group group : groups)
+    {
+      for (JDefinedClass definedClass : topLevelClasses(group._generator))
+      {
+        if (!writtenClasses.contains(definedClass))
+        {
+          definedClass.hide();
+        }
+      }
+    }
+
+    ExecutorService executor = newDaemonThreadPool();
+    try
+    {
+      List<Future<List<File>>> futures = new ArrayList<Future<List<File>>>(groups.size());
+      for (final Group group : groups)
+      {
+        futures.add(executor.submit(new Callable<List<File>>()
+        {
+          @Override
+          public List<File> call() throws IOException
+          {
+            ChangedFileCodeWriter codeWriter = new ChangedFileCodeWriter(targetDirectory, true);
+            try
+            {
+              group._generator.getCodeModel().build(codeWriter);
+            }
+            finally
+            {
+              codeWriter.shutdown();
+            }
+            return codeWriter.getModifiedFiles();
+          }
+        }));
+      }
+      List<File> modifiedFiles = new ArrayList<File>();
+      for (Future<List<File>> future : futures)
+      {
+        modifiedFiles.addAll(future.get());
+      }
+      return modifiedFiles;
+    }
+    catch (InterruptedException e)
+    {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while writing data templates", e);
+    }
+    catch (ExecutionException e)
+    {
+      if (e.getCause() instanceof IOException)
+      {
+        throw (IOException) e.getCause();
+      }
+      throw new IOException("Unable to write data templates", e.getCause());
+    }
+    finally
+    {
+      executor.shutdownNow();
+    }
+  }
+
+  /**
+   * Return the top-level classes of a generator's code model that are not hidden.
+   */
+  private static List<JDefinedClass> topLevelClasses(PegasusDataTemplateGenerator generator)
+  {
+    List<JDefinedClass> classes = new ArrayList<JDefinedClass>();
+    for (Iterator<JPackage> packageIterator = generator.getCodeModel().packages(); packageIterator.hasNext();)
+    {
+      for (Iterator<JDefinedClass> classIterator = packageIterator.next().classes(); classIterator.hasNext();)
+      {
+        JDefinedClass definedClass = classIterator.next();
+        if (definedClass.outer() == null && !definedClass.isHidden())
+        {
+          classes.add(definedClass);
+        }
+      }
+    }
+    return classes;
+  }
 }
@@ -0,0 +1,274 @@
+/*
+   Copyright (c) 2012 LinkedIn Corp.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.linkedin.pegasus.generator;
+
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+
+/**
+ * Records, for each schema source file, a hash of the file and of the files of all the
+ * schemas it refers to transitively, together with the files generated for it.
+ * <p>
+ *
+ * A source file whose hash is unchanged and whose generated files all exist does not
+ * have to be parsed or generated again. The manifest also records the generator system
+ * properties, so that changing them regenerates everything.
+ */
+class SchemaManifest
+{
+  private static final String MANIFEST_CHARSET = "UTF-8";
+  private static final String PROPERTIES = "properties ";
+  private static final String SOURCE = "source ";
+  private static final String DEPENDENCY = "dependency ";
+  private static final String TARGET = "target ";
+
+  private static class Entry
+  {
+    private final String _hash;
+    private final Set<File> _dependencies;
+    private final Set<File> _targets;
+
+    private Entry(String hash, Set<File> dependencies, Set<File> targets)
+    {
+      _hash = hash;
+      _dependencies = dependencies;
+      _targets = targets;
+    }
+  }
+
+  private final String _properties;
+  private final Map<File, Entry> _entries = new TreeMap<File, Entry>();
+  // source file => hex digest of its content, so that each file is read once
+  private final Map<File, String> _fileDigests = new HashMap<File, String>();
+
+  SchemaManifest()
+  {
+    _properties = CodeGenerator.generatorPropertiesDigest();
+  }
+
+  /**
+   * Read a manifest written by {@link #write(File)}.
+   *
+   * @param manifestFile provides the manifest file.
+   * @return the manifest, which is empty if the file does not exist, cannot be parsed
+   *         or was written with different generator system properties.
+   * @throws IOException if the manifest file cannot be read.
+   */
+  static SchemaManifest read(File manifestFile) throws IOException
+  {
+    SchemaManifest manifest = new SchemaManifest();
+    if (!manifestFile.exists())
+    {
+      return manifest;
+    }
+
+    Map<File, Entry> entries = new HashMap<File, Entry>();
+    BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(manifestFile), MANIFEST_CHARSET));
+    try
+    {
+      String line = reader.readLine();
+      if (line == null || !line.equals(PROPERTIES + manifest._properties))
+      {
+        return manifest;
+      }
+      Entry entry = null;
+      while ((line = reader.readLine()) != null)
+      {
+        if (line.startsWith(SOURCE))
+        {
+          int separator = line.indexOf(' ', SOURCE.length());
+          if (separator < 0)
+          {
+            return manifest;
+          }
+          entry = new Entry(line.substring(SOURCE.length(), separator), new TreeSet<File>(), new TreeSet<File>());
+          entries.put(new File(line.substring(separator + 1)), entry);
+        }
+        else if (entry != null && line.startsWith(DEPENDENCY))
+        {
+          entry._dependencies.add(new File(line.substring(DEPENDENCY.length())));
+        }
+        else if (entry != null && line.startsWith(TARGET))
+        {
+          entry._targets.add(new File(line.substring(TARGET.length())));
+        }
+        else
+        {
+          return manifest;
+        }
+      }
+    }
+    finally
+    {
+      reader.close();
+    }
+
+    manifest._entries.putAll(entries);
+    return manifest;
+  }
+
+  /**
+   * Copy the entry of a source file to another manifest if the source file and the files
+   * it depends on have not changed and all the files generated for it exist.
+   *
+   * @param sourceFile provides the canonical source file.
+   * @param to provides the manifest to copy the entry to.
+   * @return true if the entry has been copied.
+   * @throws IOException if the files cannot be read.
+   */
+  boolean copyIfUnchanged(File sourceFile, SchemaManifest to) throws IOException
+  {
+    Entry entry = _entries.get(sourceFile);
+    if (entry == null)
+    {
+      return false;
+    }
+    for (File file : entry._dependencies)
+    {
+      if (!file.exists())
+      {
+        return false;
+      }
+    }
+    for (File file : entry._targets)
+    {
+      if (!file.exists())
+      {
+        return false;
+      }
+    }
+    if (!entry._hash.equals(to.hash(entry._dependencies)))
+    {
+      return false;
+    }
+    to._entries.put(sourceFile, entry);
+    return true;
+  }
+
+  /**
+   * Record the files a source file depends on and the files generated for it.
+   *
+   * @param sourceFile provides the canonical source file.
+   * @param dependencies provides the canonical source files of the schemas the source file
+   *                     refers to transitively, including the source file itself.
+   * @param targets provides the files generated for the source file.
+   * @throws IOException if the files cannot be read.
+   */
+  void put(File sourceFile, Collection<File> dependencies, Collection<File> targets) throws IOException
+  {
+    Set<File> sortedDependencies = new TreeSet<File>(dependencies);
+    _entries.put(sourceFile, new Entry(hash(sortedDependencies), sortedDependencies, new TreeSet<File>(targets)));
+  }
+
+  /**
+   * @return the source files and the files they depend on.
+   */
+  List<File> getSourceFiles()
+  {
+    Set<File> files = new LinkedHashSet<File>();
+    for (Map.Entry<File, Entry> entry : _entries.entrySet())
+    {
+      files.add(entry.getKey());
+      files.addAll(entry.getValue()._dependencies);
+    }
+    return new ArrayList<File>(files);
+  }
+
+  /**
+   * @return the files generated for the source files.
+   */
+  List<File> getTargetFiles()
+  {
+    Set<File> files = new LinkedHashSet<File>();
+    for (Entry entry : _entries.values())
+    {
+      files.addAll(entry._targets);
+    }
+    return new ArrayList<File>(files);
+  }
+
+  /**
+   * Write the manifest.
+   *
+   * @param manifestFile provides the manifest file.
+   * @throws IOException if the manifest file cannot be written.
+   */
+  void write(File manifestFile) throws IOException
+  {
+    Writer writer = new OutputStreamWriter(new FileOutputStream(manifestFile), MANIFEST_CHARSET);
+    try
+    {
+      writer.write(PROPERTIES + _properties + '\n');
+      for (Map.Entry<File, Entry> entry : _entries.entrySet())
+      {
+        writer.write(SOURCE + entry.getValue()._hash + ' ' + entry.getKey().getPath() + '\n');
+        for (File file : entry.getValue()._dependencies)
+        {
+          writer.write(DEPENDENCY + file.getPath() + '\n');
+        }
+        for (File file : entry.getValue()._targets)
+        {
+          writer.write(TARGET + file.getPath() + '\n');
+        }
+      }
+    }
+    finally
+    {
+      writer.close();
+    }
+  }
+
+  /**
+   * Return a digest of the paths and the contents of the given files.
+   */
+  private String hash(Set<File> sortedFiles) throws IOException
+  {
+    MessageDigest digest = CodeGenerator.newDigest();
+    for (File file : sortedFiles)
+    {
+      String fileDigest = _fileDigests.get(file);
+      if (fileDigest == null)
+      {
+        fileDigest = CodeGenerator.toHex(CodeGenerator.newDigest().digest(ChangedFileCodeWriter.readFile(file)));
+        _fileDigests.put(file, fileDigest);
+      }
+      digest.update(file.getPath().getBytes(MANIFEST_CHARSET));
+      digest.update((byte) 0);
+      digest.update(fileDigest.getBytes(MANIFEST_CHARSET));
+      digest.update((byte) 0);
+    }
+    return CodeGenerator.toHex(digest.digest());
+  }
+}
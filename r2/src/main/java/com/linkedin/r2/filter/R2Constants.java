@@ -0,0 +1,47 @@
+/*
+   Copyright (c) 2012 LinkedIn Corp.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+/* $Id$ */
+package com.linkedin.r2.filter;
+
+/**
+ * Names of {@link com.linkedin.r2.message.RequestContext} local attributes and wire attributes
+ * which are shared between r2 transports and filters.
+ */
+public class R2Constants
+{
+  /**
+   * Local attribute holding the {@link System#nanoTime()} at which the server transport received
+   * the request, before it was queued for dispatch.  The value is a {@link Long}.
+   */
+  public static final String RECEIVE_TIME_NANOS = "com.linkedin.r2.receiveTimeNanos";
+
+  /**
+   * Local attribute holding the {@link System#nanoTime()} by which the caller expects a response.
+   * The value is a {@link Long}.
+   *
+   * @see com.linkedin.r2.util.DeadlineUtil
+   */
+  public static final String REQUEST_DEADLINE_NANOS = "com.linkedin.r2.requestDeadlineNanos";
+
+  /**
+   * Wire attribute holding the time, in milliseconds, that the caller is still willing to wait
+   * for a response at the time the request was sent.
+   */
+  public static final String REQUEST_TIMEOUT_WIRE_ATTR = "Request-Timeout";
+
+  private R2Constants() {}
+}
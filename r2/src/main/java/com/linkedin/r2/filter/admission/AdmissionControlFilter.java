@@ -0,0 +1,171 @@
+/*
+   Copyright (c) 2012 LinkedIn Corp.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+/* $Id$ */
+package com.linkedin.r2.filter.admission;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.linkedin.r2.filter.NextFilter;
+import com.linkedin.r2.filter.R2Constants;
+import com.linkedin.r2.filter.message.rest.RestFilter;
+import com.linkedin.r2.message.RequestContext;
+import com.linkedin.r2.message.rest.RestException;
+import com.linkedin.r2.message.rest.RestRequest;
+import com.linkedin.r2.message.rest.RestResponse;
+import com.linkedin.r2.message.rest.RestResponseBuilder;
+import com.linkedin.r2.message.rest.RestStatus;
+import com.linkedin.r2.util.DeadlineUtil;
+
+/**
+ * Server-side filter which sheds load before it reaches the dispatcher.  Each request is offered
+ * to an {@link AdmissionController}; requests it rejects, as well as requests whose caller has
+ * already given up waiting (see {@link DeadlineUtil}), are answered
+ * immediately with a 503 response carrying a Retry-After hint.<p/>
+ *
+ * The time a request spent queued in the transport is taken from the
+ * {@link R2Constants#RECEIVE_TIME_NANOS} local attribute when the transport provides it.<p/>
+ *
+ * The filter is not part of any default filter chain.  To enable it, add it to the server's chain,
+ * e.g. {@code new HttpServerFactory(FilterChains.create(new AdmissionControlFilter(new AdmissionController())))},
+ * or start the standalone rest.li launcher with -admissioncontrol.
+ */
+public class AdmissionControlFilter implements RestFilter
+{
+  public static final String RETRY_AFTER_HEADER = "Retry-After";
+
+  private static final String ADMIT_TIME_ATTR = AdmissionControlFilter.class.getName() + ".admitTime";
+  private static final Logger _log = LoggerFactory.getLogger(AdmissionControlFilter.class);
+
+  private static final PriorityResolver UNIFORM_PRIORITY = new PriorityResolver()
+  {
+    @Override
+    public double getLimitShare(RestRequest req, RequestContext requestContext)
+    {
+      return 1.0;
+    }
+  };
+
+  private final AdmissionController _controller;
+  private final PriorityResolver _priorityResolver;
+  private final int _retryAfterSeconds;
+
+  /**
+   * Construct a new instance.
+   *
+   * @param controller the {@link AdmissionController} which decides whether to admit requests.
+   * @param priorityResolver determines the share of the limit available to each request.
+   * @param retryAfterSeconds value of the Retry-After header sent with rejected requests.
+   */
+  public AdmissionControlFilter(AdmissionController controller,
+                                PriorityResolver priorityResolver,
+                                int retryAfterSeconds)
+  {
+    _controller = controller;
+    _priorityResolver = priorityResolver;
+    _retryAfterSeconds = retryAfterSeconds;
+  }
+
+  /**
+   * Construct a new instance which treats all requests alike.
+   *
+   * @param controller the {@link AdmissionController} which decides whether to admit requests.
+   */
+  public AdmissionControlFilter(AdmissionController controller)
+  {
+    this(controller, UNIFORM_PRIORITY, 1);
+  }
+
+  /**
+   * @return the {@link AdmissionController} used by this filter.
+   */
+  public AdmissionController getController()
+  {
+    return _controller;
+  }
+
+  @Override
+  public void onRestRequest(RestRequest req, RequestContext requestContext,
+                            Map<String, String> wireAttrs,
+                            NextFilter<RestRequest, RestResponse> nextFilter)
+  {
+    final long now = System.nanoTime();
+    final Long receiveTime = (Long) requestContext.getLocalAttr(R2Constants.RECEIVE_TIME_NANOS);
+    final long queueDelay = receiveTime == null ? 0 : Math.max(0, now - receiveTime);
+
+    if (DeadlineUtil.isExpired(requestContext))
+    {
+      reject(req, "Request expired while queued for " + TimeUnit.NANOSECONDS.toMillis(queueDelay) + " ms",
+             requestContext, nextFilter);
+      return;
+    }
+
+    if (!_controller.tryAcquire(queueDelay, _priorityResolver.getLimitShare(req, requestContext)))
+    {
+      reject(req, "Server is overloaded", requestContext, nextFilter);
+      return;
+    }
+
+    requestContext.putLocalAttr(ADMIT_TIME_ATTR, now);
+    nextFilter.onRequest(req, requestContext, wireAttrs);
+  }
+
+  @Override
+  public void onRestResponse(RestResponse res, RequestContext requestContext,
+                             Map<String, String> wireAttrs,
+                             NextFilter<RestRequest, RestResponse> nextFilter)
+  {
+    final Long admitTime = (Long) requestContext.removeLocalAttr(ADMIT_TIME_ATTR);
+    if (admitTime != null)
+    {
+      _controller.release(System.nanoTime() - admitTime);
+    }
+    nextFilter.onResponse(res, requestContext, wireAttrs);
+  }
+
+  @Override
+  public void onRestError(Throwable ex, RequestContext requestContext,
+                          Map<String, String> wireAttrs,
+                          NextFilter<RestRequest, RestResponse> nextFilter)
+  {
+    // Errors often complete much faster or slower than real work, so they do not contribute
+    // latency samples.  Rejected requests never set the admit time and pass straight through.
+    if (requestContext.removeLocalAttr(ADMIT_TIME_ATTR) != null)
+    {
+      _controller.release(-1);
+    }
+    nextFilter.onError(ex, requestContext, wireAttrs);
+  }
+
+  private void reject(RestRequest req, String detail, RequestContext requestContext,
+                      NextFilter<RestRequest, RestResponse> nextFilter)
+  {
+    _log.debug("Rejecting request for " + req.getURI() + ": " + detail);
+
+    final RestResponse res = new RestResponseBuilder(RestStatus.responseForStatus(RestStatus.SERVICE_UNAVAILABLE, detail))
+        .setHeader(RETRY_AFTER_HEADER, Integer.toString(_retryAfterSeconds))
+        .build();
+
+    // We create an empty map instead of Collections.emptyMap, because upstream filters may
+    // try to modify the map.
+    nextFilter.onError(new RestException(res), requestContext, new HashMap<String, String>());
+  }
+}
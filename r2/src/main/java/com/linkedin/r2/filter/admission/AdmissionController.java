@@ -0,0 +1,266 @@
+/*
+   Copyright (c) 2012 LinkedIn Corp.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+/* $Id$ */
+package com.linkedin.r2.filter.admission;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Adaptive admission controller which bounds the number of requests a server works on
+ * concurrently.<p/>
+ *
+ * The concurrency limit is adjusted with a gradient algorithm: every completed request provides a
+ * latency sample, and the limit is scaled by the ratio between the lowest latency observed in the
+ * current window and the sample, plus a small allowance for queueing.  While latency stays near
+ * its floor the limit grows, and as soon as requests start to wait the limit shrinks.  The limit
+ * only grows while the server is using at least half of it; a server which is not limited by
+ * the controller (e.g. during a quiet period) gives no evidence that it could handle more.<p/>
+ *
+ * In addition, the time a request spent queued before reaching the controller is tracked in the
+ * manner of CoDel: once the queueing delay has stayed above the target for a full interval, new
+ * requests are rejected until the delay falls below the target again.<p/>
+ *
+ * This class is thread-safe.
+ */
+public class AdmissionController
+{
+  private final int _minLimit;
+  private final int _maxLimit;
+  private final double _smoothing;
+  private final long _minLatencyWindowNanos;
+  private final long _targetQueueDelayNanos;
+  private final long _queueDelayIntervalNanos;
+  private final Clock _clock;
+
+  private final Object _lock = new Object();
+
+  // All fields below are guarded by _lock
+  private double _limit;
+  private int _inFlight;
+  private long _minLatencyNanos = Long.MAX_VALUE;
+  private long _minLatencyWindowStart;
+  private boolean _aboveTarget;
+  private long _firstAboveTargetTime;
+  private boolean _dropping;
+  private long _admittedCount;
+  private long _rejectedCount;
+
+  /**
+   * Construct a new instance.
+   *
+   * @param initialLimit the initial concurrency limit.
+   * @param minLimit the lowest value the concurrency limit may be reduced to.
+   * @param maxLimit the highest value the concurrency limit may be increased to.
+   * @param smoothing weight, in (0, 1], given to a newly computed limit relative to the current one.
+   * @param minLatencyWindow how long the lowest observed latency is remembered before it is
+   *                         re-measured, in milliseconds.
+   * @param targetQueueDelay queueing delay tolerated before the controller starts to shed load,
+   *                         in milliseconds.
+   * @param queueDelayInterval how long the queueing delay must stay above the target before
+   *                           requests are rejected, in milliseconds.
+   * @param clock the clock used to measure time.
+   */
+  public AdmissionController(int initialLimit,
+                             int minLimit,
+                             int maxLimit,
+                             double smoothing,
+                             long minLatencyWindow,
+                             long targetQueueDelay,
+                             long queueDelayInterval,
+                             Clock clock)
+  {
+    if (minLimit < 1 || maxLimit < minLimit || initialLimit < minLimit || initialLimit > maxLimit)
+    {
+      throw new IllegalArgumentException("Invalid limits: initial=" + initialLimit + ", min=" + minLimit +
+                                             ", max=" + maxLimit);
+    }
+    if (smoothing <= 0 || smoothing > 1)
+    {
+      throw new IllegalArgumentException("smoothing must be in (0, 1]: " + smoothing);
+    }
+
+    _limit = initialLimit;
+    _minLimit = minLimit;
+    _maxLimit = maxLimit;
+    _smoothing = smoothing;
+    _minLatencyWindowNanos = TimeUnit.MILLISECONDS.toNanos(minLatencyWindow);
+    _targetQueueDelayNanos = TimeUnit.MILLISECONDS.toNanos(targetQueueDelay);
+    _queueDelayIntervalNanos = TimeUnit.MILLISECONDS.toNanos(queueDelayInterval);
+    _clock = clock;
+    _minLatencyWindowStart = clock.nanoTime();
+  }
+
+  /**
+   * Construct a new instance with default tuning: an initial limit of 20 concurrent requests,
+   * allowed to vary between 1 and 1000, a 10 second latency window, and a 5 ms queueing delay target
+   * measured over 100 ms intervals.
+   */
+  public AdmissionController()
+  {
+    this(20, 1, 1000, 0.2, 10000, 5, 100, SYSTEM_CLOCK);
+  }
+
+  /**
+   * Attempt to admit a request.  If this method returns true, the caller must invoke
+   * {@link #release(long)} when the request completes.
+   *
+   * @param queueDelayNanos the time the request spent queued before reaching the controller.
+   * @param limitShare the fraction, in (0, 1], of the concurrency limit this request may use.
+   *                   Low priority requests use a smaller share so they are shed first.
+   * @return true if the request was admitted, false if it should be rejected.
+   */
+  public boolean tryAcquire(long queueDelayNanos, double limitShare)
+  {
+    final long now = _clock.nanoTime();
+    synchronized (_lock)
+    {
+      if (isQueueCongested(queueDelayNanos, now) || _inFlight >= Math.max(1, (int) (_limit * limitShare)))
+      {
+        _rejectedCount++;
+        return false;
+      }
+
+      _inFlight++;
+      _admittedCount++;
+      return true;
+    }
+  }
+
+  /**
+   * Release a request previously admitted with {@link #tryAcquire(long, double)}.
+   *
+   * @param latencyNanos the time it took to process the request, or a negative value if the
+   *                     latency should not be used to adjust the limit (e.g. the request failed
+   *                     before doing any meaningful work).
+   */
+  public void release(long latencyNanos)
+  {
+    final long now = _clock.nanoTime();
+    synchronized (_lock)
+    {
+      final int inFlight = _inFlight--;
+      if (latencyNanos < 0)
+      {
+        return;
+      }
+
+      if (now - _minLatencyWindowStart > _minLatencyWindowNanos)
+      {
+        _minLatencyNanos = Long.MAX_VALUE;
+        _minLatencyWindowStart = now;
+      }
+      _minLatencyNanos = Math.min(_minLatencyNanos, Math.max(1, latencyNanos));
+
+      final double gradient = Math.max(0.5, Math.min(1.0, (double) _minLatencyNanos / Math.max(1, latencyNanos)));
+      double newLimit = _limit * gradient + Math.sqrt(_limit);
+      if (newLimit > _limit && inFlight < _limit / 2)
+      {
+        // app-limited: keep the limit rather than let it grow without bound
+        newLimit = _limit;
+      }
+      _limit = Math.max(_minLimit, Math.min(_maxLimit, (1 - _smoothing) * _limit + _smoothing * newLimit));
+    }
+  }
+
+  private boolean isQueueCongested(long queueDelayNanos, long now)
+  {
+    if (queueDelayNanos < _targetQueueDelayNanos)
+    {
+      _aboveTarget = false;
+      _dropping = false;
+    }
+    else if (!_dropping)
+    {
+      if (!_aboveTarget)
+      {
+        // nanoTime() values may be zero or negative, so track the state with a flag and compare
+        // differences rather than absolute values
+        _aboveTarget = true;
+        _firstAboveTargetTime = now + _queueDelayIntervalNanos;
+      }
+      else if (now - _firstAboveTargetTime >= 0)
+      {
+        _dropping = true;
+      }
+    }
+    return _dropping;
+  }
+
+  /**
+   * @return the current concurrency limit.
+   */
+  public int getLimit()
+  {
+    synchronized (_lock)
+    {
+      return (int) _limit;
+    }
+  }
+
+  /**
+   * @return the number of admitted requests which have not yet been released.
+   */
+  public int getInFlight()
+  {
+    synchronized (_lock)
+    {
+      return _inFlight;
+    }
+  }
+
+  /**
+   * @return the total number of requests admitted by this controller.
+   */
+  public long getAdmittedCount()
+  {
+    synchronized (_lock)
+    {
+      return _admittedCount;
+    }
+  }
+
+  /**
+   * @return the total number of requests rejected by this controller.
+   */
+  public long getRejectedCount()
+  {
+    synchronized (_lock)
+    {
+      return _rejectedCount;
+    }
+  }
+
+  /**
+   * Source of time for the controller; replaceable for testing.
+   */
+  public interface Clock
+  {
+    /**
+     * @return the current value of a monotonic clock, in nanoseconds.
+     */
+    long nanoTime();
+  }
+
+  public static final Clock SYSTEM_CLOCK = new Clock()
+  {
+    @Override
+    public long nanoTime()
+    {
+      return System.nanoTime();
+    }
+  };
+}
@@ -0,0 +1,37 @@
+/*
+   Copyright (c) 2012 LinkedIn Corp.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+/* $Id$ */
+package com.linkedin.r2.filter.admission;
+
+import com.linkedin.r2.message.RequestContext;
+import com.linkedin.r2.message.rest.RestRequest;
+
+/**
+ * Determines how much of the admission limit a request may use, so that less important traffic
+ * is shed before more important traffic when a server is overloaded.
+ */
+public interface PriorityResolver
+{
+  /**
+   * Return the fraction of the concurrency limit available to the specified request.
+   *
+   * @param req the request being admitted.
+   * @param requestContext the {@link RequestContext} of the request.
+   * @return a value in (0, 1]; 1 means the request may use the whole limit.
+   */
+  double getLimitShare(RestRequest req, RequestContext requestContext);
+}
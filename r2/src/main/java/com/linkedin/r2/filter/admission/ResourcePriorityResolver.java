@@ -0,0 +1,106 @@
+/*
+   Copyright (c) 2012 LinkedIn Corp.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+/* $Id$ */
+package com.linkedin.r2.filter.admission;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.linkedin.r2.message.RequestContext;
+import com.linkedin.r2.message.rest.RestRequest;
+
+/**
+ * {@link PriorityResolver} which assigns limit shares by resource and by REST method.  The
+ * resource of a request is the first segment of its URI path.  When both a resource share and a
+ * method share apply to a request, the smaller of the two is used.
+ */
+public class ResourcePriorityResolver implements PriorityResolver
+{
+  private final Map<String, Double> _resourceShares;
+  private final Map<String, Double> _methodShares;
+  private final double _defaultShare;
+
+  /**
+   * Construct a new instance.
+   *
+   * @param resourceShares limit share keyed by resource name.
+   * @param methodShares limit share keyed by REST method, e.g. "GET".
+   * @param defaultShare limit share of requests which match neither map.
+   */
+  public ResourcePriorityResolver(Map<String, Double> resourceShares,
+                                  Map<String, Double> methodShares,
+                                  double defaultShare)
+  {
+    _resourceShares = new HashMap<String, Double>(resourceShares);
+    _methodShares = new HashMap<String, Double>();
+    for (Map.Entry<String, Double> entry : methodShares.entrySet())
+    {
+      _methodShares.put(entry.getKey().toUpperCase(), entry.getValue());
+    }
+    _defaultShare = defaultShare;
+  }
+
+  /**
+   * Construct a new instance which only assigns shares by resource.
+   *
+   * @param resourceShares limit share keyed by resource name.
+   * @param defaultShare limit share of requests for any other resource.
+   */
+  public ResourcePriorityResolver(Map<String, Double> resourceShares, double defaultShare)
+  {
+    this(resourceShares, Collections.<String, Double>emptyMap(), defaultShare);
+  }
+
+  @Override
+  public double getLimitShare(RestRequest req, RequestContext requestContext)
+  {
+    final Double resourceShare = _resourceShares.get(getResourceName(req));
+    final Double methodShare = _methodShares.get(req.getMethod().toUpperCase());
+
+    if (resourceShare == null && methodShare == null)
+    {
+      return _defaultShare;
+    }
+    if (resourceShare == null)
+    {
+      return methodShare;
+    }
+    if (methodShare == null)
+    {
+      return resourceShare;
+    }
+    return Math.min(resourceShare, methodShare);
+  }
+
+  private static String getResourceName(RestRequest req)
+  {
+    final String path = req.getURI().getRawPath();
+    if (path == null)
+    {
+      return "";
+    }
+
+    final int start = path.startsWith("/") ? 1 : 0;
+    int end = start;
+    while (end < path.length() && path.charAt(end) != '/' && path.charAt(end) != ';')
+    {
+      end++;
+    }
+    return path.substring(start, end);
+  }
+}
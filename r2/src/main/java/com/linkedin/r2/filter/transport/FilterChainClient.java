@@ -25,9 +25,11 @@ import com.linkedin.r2.message.rest.RestResponse;
 import com.linkedin.r2.message.rpc.RpcRequest;
 import com.linkedin.r2.message.rpc.RpcResponse;
 import com.linkedin.r2.transport.common.bridge.client.TransportClient;
+import com.linkedin.r2.transport.common.bridge.client.WarmableTransportClient;
 import com.linkedin.r2.transport.common.bridge.common.TransportCallback;
 import com.linkedin.common.util.None;
 
+import java.net.URI;
 import java.util.Map;
 
 /**
@@ -37,7 +39,7 @@ import java.util.Map;
  * @author Chris Pettitt
  * @version $Revision$
  */
-public class FilterChainClient implements TransportClient
+public class FilterChainClient implements WarmableTransportClient
 {
   private final TransportClient _client;
   private final FilterChain _filters;
@@ -81,6 +83,15 @@ public class FilterChainClient implements TransportClient
     _filters.onRpcRequest(request, requestContext, wireAttrs);
   }
 
+  @Override
+  public void warmUp(URI uri)
+  {
+    if (_client instanceof WarmableTransportClient)
+    {
+      ((WarmableTransportClient) _client).warmUp(uri);
+    }
+  }
+
   @Override
   public void shutdown(Callback<None> callback)
   {
@@ -36,6 +36,7 @@ public class RestStatus
   public static int BAD_REQUEST = 400;
   public static int NOT_FOUND = 404;
   public static int INTERNAL_SERVER_ERROR = 500;
+  public static int SERVICE_UNAVAILABLE = 503;
 
   /**
    * Return true iff the status code indicates an HTTP 2xx status.
@@ -0,0 +1,35 @@
+/*
+   Copyright (c) 2012 LinkedIn Corp.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.linkedin.r2.transport.common.bridge.client;
+
+import java.net.URI;
+
+/**
+ * A {@link TransportClient} which keeps connections to the hosts it sends requests to, and can
+ * open them ahead of the first request.
+ */
+public interface WarmableTransportClient extends TransportClient
+{
+  /**
+   * Asynchronously opens connections to the host of the given URI, so that they are ready when
+   * requests are sent to it.  Does nothing if the client is not configured to keep idle
+   * connections, or if it is shut down.
+   *
+   * @param uri URI of the host
+   */
+  void warmUp(URI uri);
+}
@@ -48,10 +48,15 @@ public class AsyncPoolImpl<T> implements AsyncPool<T>
 {
   private static final Logger LOG = LoggerFactory.getLogger(AsyncPoolImpl.class);
 
+  // Fraction of the idle timeout after which replacements for idle objects needed for the
+  // minimum size are created, so that they are ready before the idle objects time out
+  private static final double REPLACE_AT_IDLE_FRACTION = 0.75;
+
   // Configured
   private final String _poolName;
   private final Lifecycle<T> _lifecycle;
   private final int _maxSize;
+  private final int _minSize;
   private final long _idleTimeout;
   private final ScheduledExecutorService _timeoutExecutor;
   private volatile ScheduledFuture _objectTimeoutFuture;
@@ -84,10 +89,26 @@ public class AsyncPoolImpl<T> implements AsyncPool<T>
                        int maxSize,
                        long idleTimeout,
                        ScheduledExecutorService timeoutExecutor)
+  {
+    this(name, lifecycle, maxSize, idleTimeout, timeoutExecutor, 0);
+  }
+
+  /**
+   * @param minSize number of objects the pool creates when it starts and keeps even when they are
+   *                unused; objects which approach the idle timeout are replaced by new ones, which
+   *                are created before the old ones are destroyed.
+   */
+  public AsyncPoolImpl(String name,
+                       Lifecycle<T> lifecycle,
+                       int maxSize,
+                       long idleTimeout,
+                       ScheduledExecutorService timeoutExecutor,
+                       int minSize)
   {
     _poolName = name;
     _lifecycle = lifecycle;
     _maxSize = maxSize;
+    _minSize = Math.min(minSize, maxSize);
     _idleTimeout = idleTimeout;
     _timeoutExecutor = timeoutExecutor;
   }
@@ -114,6 +135,7 @@ public class AsyncPoolImpl<T> implements AsyncPool<T>
         }, freq, freq, TimeUnit.MILLISECONDS);
       }
     }
+    ensureMinSize();
   }
 
   @Override
@@ -284,6 +306,7 @@ public class AsyncPoolImpl<T> implements AsyncPool<T>
         {
           create();
         }
+        ensureMinSize();
       }
 
       @Override
@@ -299,6 +322,7 @@ public class AsyncPoolImpl<T> implements AsyncPool<T>
         {
           create();
         }
+        ensureMinSize();
         // TODO log this error!
       }
     });
@@ -401,8 +425,75 @@ public class AsyncPoolImpl<T> implements AsyncPool<T>
     });
   }
 
+  /**
+   * Initiates object creations until the pool holds its minimum size.  After a failed creation,
+   * this does nothing until a creation for a waiter succeeds, so that a pool for an unreachable
+   * host does not keep trying to connect.
+   * DO NOT call this method while holding the lock!  It invokes user code.
+   */
+  private void ensureMinSize()
+  {
+    int toCreate;
+    synchronized (_lock)
+    {
+      if (_state != State.RUNNING || _lastCreateError != null || _poolSize >= _minSize)
+      {
+        return;
+      }
+      toCreate = _minSize - _poolSize;
+      _poolSize += toCreate;
+    }
+    trc("initiating creations to reach the minimum pool size");
+    for (int i = 0; i < toCreate; i++)
+    {
+      create();
+    }
+  }
+
+  /**
+   * Initiates the creation of replacements for the idle objects which will soon reach the idle
+   * timeout and are needed for the minimum size, so that the pool does not drop below its minimum
+   * size while the replacements are being created.  Replacements count towards the pool size as
+   * soon as they are initiated, so each idle object is replaced once.
+   * DO NOT call this method while holding the lock!  It invokes user code.
+   */
+  private void replaceExpiringObjects()
+  {
+    int toCreate;
+    synchronized (_lock)
+    {
+      if (_minSize == 0 || _state != State.RUNNING || _lastCreateError != null)
+      {
+        return;
+      }
+      // idle objects are ordered from the oldest to the newest
+      long target = System.currentTimeMillis() - (long) (_idleTimeout * REPLACE_AT_IDLE_FRACTION);
+      int expiring = 0;
+      for (TimedObject<T> obj : _idle)
+      {
+        if (obj.getTime() >= target)
+        {
+          break;
+        }
+        expiring++;
+      }
+      toCreate = Math.min(_minSize - (_poolSize - expiring), _maxSize - _poolSize);
+      if (toCreate <= 0)
+      {
+        return;
+      }
+      _poolSize += toCreate;
+    }
+    trc("initiating creations to replace objects reaching the idle timeout");
+    for (int i = 0; i < toCreate; i++)
+    {
+      create();
+    }
+  }
+
   private void timeoutObjects()
   {
+    replaceExpiringObjects();
     Collection<T> idle = reap(_idle, _idleTimeout);
     if (idle.size() > 0)
     {
@@ -412,6 +503,8 @@ public class AsyncPoolImpl<T> implements AsyncPool<T>
         destroy(obj, false);
       }
     }
+    // in case the replacements could not be created in time
+    ensureMinSize();
   }
 
   private <U> Collection<U> reap(Queue<TimedObject<U>> queue, long timeout)
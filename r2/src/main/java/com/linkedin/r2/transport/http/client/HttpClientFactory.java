@@ -17,6 +17,7 @@
 /* $Id$ */
 package com.linkedin.r2.transport.http.client;
 
+import java.net.URI;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.Executors;
@@ -43,6 +44,7 @@ import com.linkedin.r2.message.rpc.RpcRequest;
 import com.linkedin.r2.message.rpc.RpcResponse;
 import com.linkedin.r2.transport.common.TransportClientFactory;
 import com.linkedin.r2.transport.common.bridge.client.TransportClient;
+import com.linkedin.r2.transport.common.bridge.client.WarmableTransportClient;
 import com.linkedin.r2.transport.common.bridge.common.TransportCallback;
 import com.linkedin.r2.util.NamedThreadFactory;
 
@@ -77,12 +79,14 @@ public class HttpClientFactory implements TransportClientFactory
   public static final String HTTP_REQUEST_TIMEOUT = "http.requestTimeout";
   public static final String HTTP_MAX_RESPONSE_SIZE = "http.maxResponseSize";
   public static final String HTTP_POOL_SIZE = "http.poolSize";
+  public static final String HTTP_POOL_MIN_SIZE = "http.poolMinSize";
   public static final String HTTP_IDLE_TIMEOUT = "http.idleTimeout";
   public static final String HTTP_SHUTDOWN_TIMEOUT = "http.shutdownTimeout";
   public static final String HTTP_SSL_CONTEXT = "http.sslContext";
   public static final String HTTP_SSL_PARAMS = "http.sslParams";
 
   public static final int DEFAULT_POOL_SIZE = 200;
+  public static final int DEFAULT_POOL_MIN_SIZE = 0;
   public static final int DEFAULT_REQUEST_TIMEOUT = 10000;
   public static final int DEFAULT_IDLE_TIMEOUT = 30000;
   public static final int DEFAULT_SHUTDOWN_TIMEOUT = 5000;
@@ -302,6 +306,7 @@ public class HttpClientFactory implements TransportClientFactory
   {
     Integer queryPostThreshold = getIntValue(properties, HTTP_QUERY_POST_THRESHOLD, null);
     Integer poolSize = getIntValue(properties, HTTP_POOL_SIZE, null);
+    Integer poolMinSize = getIntValue(properties, HTTP_POOL_MIN_SIZE, null);
     Integer requestTimeout = getIntValue(properties, HTTP_REQUEST_TIMEOUT, null);
     Integer idleTimeout = getIntValue(properties, HTTP_IDLE_TIMEOUT, null);
     Integer shutdownTimeout = getIntValue(properties, HTTP_SHUTDOWN_TIMEOUT, null);
@@ -365,7 +370,8 @@ public class HttpClientFactory implements TransportClientFactory
                                maxResponseSize,
                                sslContext,
                                sslParameters,
-                               queryPostThreshold);
+                               queryPostThreshold,
+                               poolMinSize == null ? DEFAULT_POOL_MIN_SIZE : poolMinSize);
   }
 
   /**
@@ -527,7 +533,7 @@ public class HttpClientFactory implements TransportClientFactory
    * It introduces no synchronization overhead in the per-request code path, only the
    * shutdown code path.
    */
-  private class FactoryClient implements TransportClient
+  private class FactoryClient implements WarmableTransportClient
   {
     private final TransportClient _client;
 
@@ -551,6 +557,15 @@ public class HttpClientFactory implements TransportClientFactory
       _client.rpcRequest(request, requestContext, wireAttrs, callback);
     }
 
+    @Override
+    public void warmUp(URI uri)
+    {
+      if (_client instanceof WarmableTransportClient)
+      {
+        ((WarmableTransportClient) _client).warmUp(uri);
+      }
+    }
+
     @Override
     public void shutdown(final Callback<None> callback)
     {
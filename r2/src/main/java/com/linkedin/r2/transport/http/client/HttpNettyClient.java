@@ -56,6 +56,7 @@ import org.slf4j.LoggerFactory;
 
 import com.linkedin.common.callback.Callback;
 import com.linkedin.common.util.None;
+import com.linkedin.r2.filter.R2Constants;
 import com.linkedin.r2.message.RequestContext;
 import com.linkedin.r2.message.rest.RestRequest;
 import com.linkedin.r2.message.rest.RestRequestBuilder;
@@ -65,11 +66,12 @@ import com.linkedin.r2.message.rpc.RpcRequest;
 import com.linkedin.r2.message.rpc.RpcResponse;
 import com.linkedin.r2.transport.common.MessageType;
 import com.linkedin.r2.transport.common.WireAttributeHelper;
-import com.linkedin.r2.transport.common.bridge.client.TransportClient;
+import com.linkedin.r2.transport.common.bridge.client.WarmableTransportClient;
 import com.linkedin.r2.transport.common.bridge.common.TransportCallback;
 import com.linkedin.r2.transport.common.bridge.common.TransportResponseImpl;
 import com.linkedin.r2.transport.http.common.HttpBridge;
 import com.linkedin.r2.util.Cancellable;
+import com.linkedin.r2.util.DeadlineUtil;
 import com.linkedin.r2.util.TimeoutRunnable;
 
 /**
@@ -77,7 +79,7 @@ import com.linkedin.r2.util.TimeoutRunnable;
  * @version $Revision: $
  */
 
-/* package private */ class HttpNettyClient implements TransportClient
+/* package private */ class HttpNettyClient implements WarmableTransportClient
 {
   static final Logger LOG = LoggerFactory.getLogger(HttpNettyClient.class);
   private static final int HTTP_DEFAULT_PORT = 80;
@@ -97,6 +99,7 @@ import com.linkedin.r2.util.TimeoutRunnable;
   private final int _requestTimeout;
   private final int _shutdownTimeout;
   private final int _maxResponseSize;
+  private final int _poolMinSize;
 
   private final String _requestTimeoutMessage;
   private final int _queryPostThreshold;
@@ -152,11 +155,45 @@ import com.linkedin.r2.util.TimeoutRunnable;
                          SSLContext sslContext,
                          SSLParameters sslParameters,
                          int queryPostThreshold)
+  {
+    this(factory,
+         executor,
+         poolSize,
+         requestTimeout,
+         idleTimeout,
+         shutdownTimeout,
+         maxResponseSize,
+         sslContext,
+         sslParameters,
+         queryPostThreshold,
+         0);
+  }
+
+  /**
+   * Creates a new HttpNettyClient
+   *
+   * @see #HttpNettyClient(ClientSocketChannelFactory,ScheduledExecutorService,int,int,int,int,int,SSLContext,SSLParameters,int)
+   * @param poolMinSize number of connections to each host opened when its pool is created, and
+   *          kept open (replaced when they reach the idle timeout) even when unused
+   */
+  public HttpNettyClient(ClientSocketChannelFactory factory,
+                         ScheduledExecutorService executor,
+                         int poolSize,
+                         int requestTimeout,
+                         int idleTimeout,
+                         int shutdownTimeout,
+                         int maxResponseSize,
+                         SSLContext sslContext,
+                         SSLParameters sslParameters,
+                         int queryPostThreshold,
+                         int poolMinSize)
   {
     _maxResponseSize = maxResponseSize;
+    _poolMinSize = poolMinSize;
     _channelPoolManager =
         new ChannelPoolManager(new ChannelPoolFactoryImpl(new ClientBootstrap(factory),
                                                           poolSize,
+                                                          poolMinSize,
                                                           idleTimeout,
                                                           sslContext,
                                                           sslParameters));
@@ -174,6 +211,7 @@ import com.linkedin.r2.util.TimeoutRunnable;
                   int maxResponseSize)
   {
     _maxResponseSize = maxResponseSize;
+    _poolMinSize = 0;
     _channelPoolManager = new ChannelPoolManager(factory);
     _scheduler = executor;
     _requestTimeout = requestTimeout;
@@ -189,7 +227,30 @@ import com.linkedin.r2.util.TimeoutRunnable;
                           TransportCallback<RestResponse> callback)
   {
     MessageType.setMessageType(MessageType.Type.REST, wireAttrs);
-    writeRequestWithTimeout(request, wireAttrs, HttpBridge.restToHttpCallback(callback, request));
+
+    // The request may not take longer than the caller's deadline, if it has one.  The time left
+    // is sent along so the server can stop working on the request once we have given up on it.
+    int requestTimeout = _requestTimeout;
+    String requestTimeoutMessage = _requestTimeoutMessage;
+    final Long remaining = DeadlineUtil.getRemainingTime(requestContext, TimeUnit.MILLISECONDS);
+    if (remaining != null)
+    {
+      if (remaining <= 0)
+      {
+        errorResponse(HttpBridge.restToHttpCallback(callback, request),
+                      new TimeoutException("Request deadline exceeded before the request was sent"));
+        return;
+      }
+      if (remaining < requestTimeout)
+      {
+        requestTimeout = remaining.intValue();
+        requestTimeoutMessage = "Exceeded request deadline of " + requestTimeout + "ms";
+      }
+      wireAttrs.put(R2Constants.REQUEST_TIMEOUT_WIRE_ATTR, Integer.toString(requestTimeout));
+    }
+
+    writeRequestWithTimeout(request, wireAttrs, requestTimeout, requestTimeoutMessage,
+                            HttpBridge.restToHttpCallback(callback, request));
   }
 
   @Override
@@ -200,6 +261,7 @@ import com.linkedin.r2.util.TimeoutRunnable;
   {
     MessageType.setMessageType(MessageType.Type.RPC, wireAttrs);
     writeRequestWithTimeout(HttpBridge.toHttpRequest(request), wireAttrs,
+                            _requestTimeout, _requestTimeoutMessage,
                             HttpBridge.rpcToHttpCallback(callback, request));
   }
 
@@ -283,7 +345,37 @@ import com.linkedin.r2.util.TimeoutRunnable;
     }
   }
 
+  @Override
+  public void warmUp(URI uri)
+  {
+    // without a minimum pool size there is nothing to open ahead of requests
+    if (_poolMinSize <= 0 || _state.get() != State.RUNNING)
+    {
+      return;
+    }
+    String scheme = uri.getScheme();
+    if (!"http".equalsIgnoreCase(scheme) && !"https".equalsIgnoreCase(scheme))
+    {
+      return;
+    }
+    int port = uri.getPort();
+    if (port == -1)
+    {
+      port = scheme.equalsIgnoreCase("http") ? HTTP_DEFAULT_PORT : HTTPS_DEFAULT_PORT;
+    }
+    try
+    {
+      // a new pool opens its minimum number of connections when it starts
+      _channelPoolManager.getPoolForAddress(new InetSocketAddress(uri.getHost(), port));
+    }
+    catch (IllegalStateException e)
+    {
+      // shutting down
+    }
+  }
+
   private void writeRequestWithTimeout(RestRequest request, Map<String, String> wireAttrs,
+                                       int requestTimeout, String requestTimeoutMessage,
                                        TransportCallback<RestResponse> callback)
   {
     // By wrapping the callback in a Timeout callback before passing it along, we deny the rest
@@ -292,10 +384,10 @@ import com.linkedin.r2.util.TimeoutRunnable;
     // 2. The user callback is never invoked more than once
     TimeoutTransportCallback<RestResponse> timeoutCallback =
         new TimeoutTransportCallback<RestResponse>(_scheduler,
-                                                   _requestTimeout,
+                                                   requestTimeout,
                                                    TimeUnit.MILLISECONDS,
                                                    callback,
-                                                   _requestTimeoutMessage);
+                                                   requestTimeoutMessage);
     writeRequest(request, wireAttrs, timeoutCallback);
   }
 
@@ -536,10 +628,12 @@ import com.linkedin.r2.util.TimeoutRunnable;
   {
     private final ClientBootstrap _bootstrap;
     private final int _maxPoolSize;
+    private final int _minPoolSize;
     private final int _idleTimeout;
 
     private ChannelPoolFactoryImpl(ClientBootstrap bootstrap,
                                    int maxPoolSize,
+                                   int minPoolSize,
                                    int idleTimeout,
                                    SSLContext sslContext,
                                    SSLParameters sslParameters)
@@ -548,6 +642,7 @@ import com.linkedin.r2.util.TimeoutRunnable;
       _bootstrap.setPipelineFactory(new HttpClientPipelineFactory(sslContext,
                                                                   sslParameters));
       _maxPoolSize = maxPoolSize;
+      _minPoolSize = minPoolSize;
       _idleTimeout = idleTimeout;
     }
 
@@ -562,7 +657,8 @@ import com.linkedin.r2.util.TimeoutRunnable;
                                                                  _allChannels),
                                         _maxPoolSize,
                                         _idleTimeout,
-                                        _scheduler);
+                                        _scheduler,
+                                        _minPoolSize);
     }
   }
 
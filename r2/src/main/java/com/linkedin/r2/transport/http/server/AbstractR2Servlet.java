@@ -37,6 +37,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.linkedin.data.ByteString;
+import com.linkedin.r2.filter.R2Constants;
+import com.linkedin.r2.message.RequestContext;
 import com.linkedin.r2.message.rest.RestException;
 import com.linkedin.r2.message.rest.RestRequest;
 import com.linkedin.r2.message.rest.RestRequestBuilder;
@@ -99,6 +101,9 @@ public abstract class AbstractR2Servlet extends HttpServlet
   private void serviceNoContinuation(final HttpServletRequest req, final HttpServletResponse resp)
       throws ServletException, IOException
   {
+    final RequestContext requestContext = new RequestContext();
+    requestContext.putLocalAttr(R2Constants.RECEIVE_TIME_NANOS, System.nanoTime());
+
     RestRequest restRequest;
     try
     {
@@ -128,7 +133,7 @@ public abstract class AbstractR2Servlet extends HttpServlet
         latch.countDown();
       }
     };
-    getDispatcher().handleRequest(restRequest, callback);
+    getDispatcher().handleRequest(restRequest, requestContext, callback);
     try
     {
       latch.await();
@@ -20,7 +20,12 @@ package com.linkedin.r2.transport.http.server;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.linkedin.r2.filter.R2Constants;
 import com.linkedin.r2.message.RequestContext;
 import com.linkedin.r2.message.rest.RestRequest;
 import com.linkedin.r2.message.rest.RestResponse;
@@ -30,6 +35,7 @@ import com.linkedin.r2.transport.common.bridge.common.TransportCallback;
 import com.linkedin.r2.transport.common.bridge.common.TransportResponseImpl;
 import com.linkedin.r2.transport.common.bridge.server.TransportDispatcher;
 import com.linkedin.r2.transport.http.common.HttpBridge;
+import com.linkedin.r2.util.DeadlineUtil;
 
 /**
  * @author Chris Pettitt
@@ -37,6 +43,8 @@ import com.linkedin.r2.transport.http.common.HttpBridge;
  */
 public class HttpDispatcher
 {
+  private static final Logger _log = LoggerFactory.getLogger(HttpDispatcher.class);
+
   private final TransportDispatcher _dispatcher;
 
   /**
@@ -58,6 +66,23 @@ public class HttpDispatcher
    */
   public void handleRequest(RestRequest req,
                             TransportCallback<RestResponse> callback)
+  {
+    handleRequest(req, new RequestContext(), callback);
+  }
+
+  /**
+   * handle a {@link RestRequest} using the given {@link RequestContext}.  Transports use this
+   * variant to pass along local attributes they collected while receiving the request, such as
+   * {@link com.linkedin.r2.filter.R2Constants#RECEIVE_TIME_NANOS}.
+   * @see TransportDispatcher#handleRestRequest
+   *
+   * @param req the request to be handled.
+   * @param context the request context.
+   * @param callback the callback to be invoked with the response or error.
+   */
+  public void handleRequest(RestRequest req,
+                            RequestContext context,
+                            TransportCallback<RestResponse> callback)
   {
     final Map<String, String> headers = new HashMap<String, String>(req.getHeaders());
     final Map<String, String> wireAttrs = WireAttributeHelper.removeWireAttributes(headers);
@@ -76,9 +101,10 @@ public class HttpDispatcher
         // default is REST
         default:
         case REST:
+          applyRequestTimeout(wireAttrs, context);
           _dispatcher.handleRestRequest(HttpBridge.toRestRequest(req, headers),
                                         wireAttrs,
-                                        new RequestContext(), HttpBridge.httpToRestCallback(callback)
+                                        context, HttpBridge.httpToRestCallback(callback)
           );
       }
     }
@@ -87,4 +113,32 @@ public class HttpDispatcher
       callback.onResponse(TransportResponseImpl.<RestResponse>error(e, Collections.<String, String>emptyMap()));
     }
   }
+
+  /**
+   * Convert the caller's remaining time, if sent, into a deadline relative to the time the
+   * request was received.
+   */
+  private static void applyRequestTimeout(Map<String, String> wireAttrs, RequestContext context)
+  {
+    final String timeout = wireAttrs.get(R2Constants.REQUEST_TIMEOUT_WIRE_ATTR);
+    if (timeout == null)
+    {
+      return;
+    }
+
+    final long timeoutMillis;
+    try
+    {
+      timeoutMillis = Long.parseLong(timeout);
+    }
+    catch (NumberFormatException e)
+    {
+      _log.debug("Ignoring malformed " + R2Constants.REQUEST_TIMEOUT_WIRE_ATTR + " wire attribute: " + timeout);
+      return;
+    }
+
+    final Long receiveTime = (Long) context.getLocalAttr(R2Constants.RECEIVE_TIME_NANOS);
+    final long start = receiveTime == null ? System.nanoTime() : receiveTime;
+    DeadlineUtil.setDeadline(context, start + TimeUnit.MILLISECONDS.toNanos(timeoutMillis));
+  }
 }
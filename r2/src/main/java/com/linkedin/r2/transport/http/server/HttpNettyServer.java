@@ -42,9 +42,12 @@ import org.jboss.netty.channel.socket.nio.NioServerSocketChannelFactory;
 import org.jboss.netty.handler.codec.http.HttpChunkAggregator;
 import org.jboss.netty.handler.codec.http.HttpRequestDecoder;
 import org.jboss.netty.handler.codec.http.HttpResponseEncoder;
+import org.jboss.netty.handler.codec.oneone.OneToOneDecoder;
 import org.jboss.netty.handler.execution.ExecutionHandler;
 import org.jboss.netty.handler.execution.OrderedMemoryAwareThreadPoolExecutor;
 
+import com.linkedin.r2.filter.R2Constants;
+import com.linkedin.r2.message.RequestContext;
 import com.linkedin.r2.message.rest.RestRequest;
 import com.linkedin.r2.message.rest.RestResponse;
 import com.linkedin.r2.message.rest.RestResponseBuilder;
@@ -100,6 +103,7 @@ import com.linkedin.r2.transport.common.bridge.common.TransportResponseImpl;
         pipeline.addLast("aggregator", new HttpChunkAggregator(1048576));
         pipeline.addLast("encoder", new HttpResponseEncoder());
         pipeline.addLast("rapi", new RAPServerCodec());
+        pipeline.addLast("receiveTime", new ReceiveTimeDecoder());
         pipeline.addLast("execution", _executionHandler);
         pipeline.addLast("handler", new Handler());
         return pipeline;
@@ -126,6 +130,32 @@ import com.linkedin.r2.transport.common.bridge.common.TransportResponseImpl;
     stop();
   }
 
+  /**
+   * Records the time at which a request was decoded on the I/O thread, so that the time it then
+   * spends queued in the {@link ExecutionHandler} is visible to the dispatcher and its filters.
+   */
+  private static class ReceiveTimeDecoder extends OneToOneDecoder
+  {
+    @Override
+    protected Object decode(ChannelHandlerContext ctx, Channel channel, Object msg)
+            throws Exception
+    {
+      return new ReceivedRequest((RestRequest) msg, System.nanoTime());
+    }
+  }
+
+  private static class ReceivedRequest
+  {
+    private final RestRequest _request;
+    private final long _receiveTimeNanos;
+
+    ReceivedRequest(RestRequest request, long receiveTimeNanos)
+    {
+      _request = request;
+      _receiveTimeNanos = receiveTimeNanos;
+    }
+  }
+
   private class Handler extends SimpleChannelUpstreamHandler
   {
     // By virtue of being upstream  from the ExecutionHandler, all events in this handler will
@@ -163,10 +193,12 @@ import com.linkedin.r2.transport.common.bridge.common.TransportResponseImpl;
           ch.write(responseBuilder.build());
         }
       };
-      RestRequest request = (RestRequest) e.getMessage();
+      ReceivedRequest received = (ReceivedRequest) e.getMessage();
+      RequestContext requestContext = new RequestContext();
+      requestContext.putLocalAttr(R2Constants.RECEIVE_TIME_NANOS, received._receiveTimeNanos);
       try
       {
-        _dispatcher.handleRequest(request, writeResponseCallback);
+        _dispatcher.handleRequest(received._request, requestContext, writeResponseCallback);
       }
       catch (Exception ex)
       {
@@ -0,0 +1,149 @@
+/*
+   Copyright (c) 2012 LinkedIn Corp.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+/* $Id$ */
+package com.linkedin.r2.util;
+
+import java.util.concurrent.TimeUnit;
+
+import com.linkedin.r2.filter.R2Constants;
+import com.linkedin.r2.message.RequestContext;
+
+/**
+ * Helpers for the end-to-end request deadline carried in a {@link RequestContext}.<p/>
+ *
+ * Deadlines are absolute values of {@link System#nanoTime()} and therefore only meaningful within
+ * a single process.  Between processes the remaining time is sent as the
+ * {@link R2Constants#REQUEST_TIMEOUT_WIRE_ATTR} wire attribute, and the receiving transport turns
+ * it back into a local deadline.<p/>
+ *
+ * Servers may also publish the deadline of the request being processed on the current thread
+ * with {@link #setCurrentDeadline(Long)}, so that downstream calls made while processing it
+ * inherit the deadline (see {@link #inheritCurrentDeadline(RequestContext)}).
+ */
+public class DeadlineUtil
+{
+  private static final ThreadLocal<Long> CURRENT_DEADLINE = new ThreadLocal<Long>();
+
+  private DeadlineUtil() {}
+
+  /**
+   * @param requestContext the {@link RequestContext} of the request.
+   * @return the deadline of the request, in {@link System#nanoTime()} units, or null if the
+   *         request has no deadline.
+   */
+  public static Long getDeadline(RequestContext requestContext)
+  {
+    return (Long) requestContext.getLocalAttr(R2Constants.REQUEST_DEADLINE_NANOS);
+  }
+
+  /**
+   * Set the deadline of a request.  If the request already has an earlier deadline, the earlier
+   * deadline is kept, since a callee can never be given more time than its caller has.
+   *
+   * @param requestContext the {@link RequestContext} of the request.
+   * @param deadlineNanos the deadline, in {@link System#nanoTime()} units.
+   */
+  public static void setDeadline(RequestContext requestContext, long deadlineNanos)
+  {
+    final Long current = getDeadline(requestContext);
+    if (current == null || deadlineNanos - current < 0)
+    {
+      requestContext.putLocalAttr(R2Constants.REQUEST_DEADLINE_NANOS, deadlineNanos);
+    }
+  }
+
+  /**
+   * Set the deadline of a request relative to the current time.
+   *
+   * @param requestContext the {@link RequestContext} of the request.
+   * @param timeout the time the caller is willing to wait for a response.
+   * @param unit the unit of {@code timeout}.
+   */
+  public static void setTimeout(RequestContext requestContext, long timeout, TimeUnit unit)
+  {
+    setDeadline(requestContext, System.nanoTime() + unit.toNanos(timeout));
+  }
+
+  /**
+   * @param requestContext the {@link RequestContext} of the request.
+   * @param unit the unit of the returned value.
+   * @return the time left until the deadline of the request, which is negative once the deadline
+   *         has passed, or null if the request has no deadline.
+   */
+  public static Long getRemainingTime(RequestContext requestContext, TimeUnit unit)
+  {
+    final Long deadline = getDeadline(requestContext);
+    if (deadline == null)
+    {
+      return null;
+    }
+    return unit.convert(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+  }
+
+  /**
+   * @param requestContext the {@link RequestContext} of the request.
+   * @return true if the request has a deadline and the deadline has passed.
+   */
+  public static boolean isExpired(RequestContext requestContext)
+  {
+    final Long deadline = getDeadline(requestContext);
+    return deadline != null && deadline - System.nanoTime() <= 0;
+  }
+
+  /**
+   * @return the deadline published for the current thread, or null if there is none.
+   */
+  public static Long getCurrentDeadline()
+  {
+    return CURRENT_DEADLINE.get();
+  }
+
+  /**
+   * Publish the deadline of the request being processed on the current thread.  Callers must
+   * restore the previous value once processing on this thread is done.
+   *
+   * @param deadlineNanos the deadline, or null to clear it.
+   * @return the previously published deadline, or null if there was none.
+   */
+  public static Long setCurrentDeadline(Long deadlineNanos)
+  {
+    final Long previous = CURRENT_DEADLINE.get();
+    if (deadlineNanos == null)
+    {
+      CURRENT_DEADLINE.remove();
+    }
+    else
+    {
+      CURRENT_DEADLINE.set(deadlineNanos);
+    }
+    return previous;
+  }
+
+  /**
+   * Apply the deadline published for the current thread, if any, to the given request.
+   *
+   * @param requestContext the {@link RequestContext} of an outgoing request.
+   */
+  public static void inheritCurrentDeadline(RequestContext requestContext)
+  {
+    final Long current = CURRENT_DEADLINE.get();
+    if (current != null)
+    {
+      setDeadline(requestContext, current);
+    }
+  }
+}
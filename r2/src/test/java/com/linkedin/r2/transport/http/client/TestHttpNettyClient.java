@@ -27,6 +27,7 @@ import java.nio.channels.UnresolvedAddressException;
 import java.security.NoSuchAlgorithmException;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.Map;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
@@ -48,6 +49,7 @@ import com.linkedin.common.callback.Callback;
 import com.linkedin.common.callback.FutureCallback;
 import com.linkedin.common.util.None;
 import com.linkedin.r2.RemoteInvocationException;
+import com.linkedin.r2.filter.R2Constants;
 import com.linkedin.r2.message.RequestContext;
 import com.linkedin.r2.message.rest.RestRequest;
 import com.linkedin.r2.message.rest.RestRequestBuilder;
@@ -55,6 +57,7 @@ import com.linkedin.r2.message.rest.RestResponse;
 import com.linkedin.r2.transport.common.bridge.client.TransportCallbackAdapter;
 import com.linkedin.r2.transport.common.bridge.client.TransportClient;
 import com.linkedin.r2.transport.common.bridge.common.TransportCallback;
+import com.linkedin.r2.util.DeadlineUtil;
 
 /**
  * @author Steven Ihde
@@ -116,6 +119,51 @@ public class TestHttpNettyClient
     }
   }
 
+  @Test
+  public void testRequestDeadline() throws InterruptedException
+  {
+    HttpNettyClient client = new HttpNettyClient(new NoCreations(), _scheduler, 60000, 500, 1024*1024*2);
+
+    RestRequest r = new RestRequestBuilder(URI.create("http://localhost/")).build();
+    FutureCallback<RestResponse> cb = new FutureCallback<RestResponse>();
+    TransportCallback<RestResponse> callback = new TransportCallbackAdapter<RestResponse>(cb);
+    RequestContext requestContext = new RequestContext();
+    DeadlineUtil.setTimeout(requestContext, 500, TimeUnit.MILLISECONDS);
+    Map<String, String> wireAttrs = new HashMap<String, String>();
+    client.restRequest(r, requestContext, wireAttrs, callback);
+
+    long timeout = Long.parseLong(wireAttrs.get(R2Constants.REQUEST_TIMEOUT_WIRE_ATTR));
+    Assert.assertTrue(timeout > 0 && timeout <= 500, "Unexpected request timeout " + timeout);
+    try
+    {
+      // The deadline is much shorter than the client's own request timeout, so the request
+      // must fail long before this.
+      cb.get(30, TimeUnit.SECONDS);
+      Assert.fail("Get was supposed to time out");
+    }
+    catch (TimeoutException e)
+    {
+      Assert.fail("Unexpected TimeoutException, should have been ExecutionException", e);
+    }
+    catch (ExecutionException e)
+    {
+      verifyCauseChain(e, RemoteInvocationException.class, TimeoutException.class);
+    }
+  }
+
+  @Test
+  public void testNoDeadlineNotSent()
+  {
+    HttpNettyClient client = new HttpNettyClient(new NoCreations(), _scheduler, 500, 500, 1024*1024*2);
+
+    RestRequest r = new RestRequestBuilder(URI.create("http://localhost/")).build();
+    FutureCallback<RestResponse> cb = new FutureCallback<RestResponse>();
+    Map<String, String> wireAttrs = new HashMap<String, String>();
+    client.restRequest(r, new RequestContext(), wireAttrs, new TransportCallbackAdapter<RestResponse>(cb));
+
+    Assert.assertFalse(wireAttrs.containsKey(R2Constants.REQUEST_TIMEOUT_WIRE_ATTR));
+  }
+
   @Test
   public void testNoResponseTimeout() throws InterruptedException, IOException
   {
@@ -0,0 +1,77 @@
+/*
+   Copyright (c) 2012 LinkedIn Corp.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+/**
+ * $Id: $
+ */
+
+package com.linkedin.r2.util;
+
+import java.util.concurrent.TimeUnit;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.linkedin.r2.message.RequestContext;
+
+/**
+ * @version $Revision: $
+ */
+public class TestDeadlineUtil
+{
+  @Test
+  public void testNoDeadline()
+  {
+    RequestContext context = new RequestContext();
+    Assert.assertNull(DeadlineUtil.getDeadline(context));
+    Assert.assertNull(DeadlineUtil.getRemainingTime(context, TimeUnit.MILLISECONDS));
+    Assert.assertFalse(DeadlineUtil.isExpired(context));
+  }
+
+  @Test
+  public void testEarliestDeadlineWins()
+  {
+    RequestContext context = new RequestContext();
+    DeadlineUtil.setTimeout(context, 10, TimeUnit.SECONDS);
+    DeadlineUtil.setTimeout(context, 60, TimeUnit.SECONDS);
+    long remaining = DeadlineUtil.getRemainingTime(context, TimeUnit.SECONDS);
+    Assert.assertTrue(remaining <= 10 && remaining >= 9, "Unexpected remaining time " + remaining);
+
+    DeadlineUtil.setDeadline(context, System.nanoTime() - 1);
+    Assert.assertTrue(DeadlineUtil.isExpired(context));
+  }
+
+  @Test
+  public void testInheritCurrentDeadline()
+  {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    Long previous = DeadlineUtil.setCurrentDeadline(deadline);
+    try
+    {
+      RequestContext context = new RequestContext();
+      DeadlineUtil.inheritCurrentDeadline(context);
+      Assert.assertEquals(DeadlineUtil.getDeadline(context), Long.valueOf(deadline));
+    }
+    finally
+    {
+      DeadlineUtil.setCurrentDeadline(previous);
+    }
+
+    RequestContext context = new RequestContext();
+    DeadlineUtil.inheritCurrentDeadline(context);
+    Assert.assertNull(DeadlineUtil.getDeadline(context));
+  }
+}
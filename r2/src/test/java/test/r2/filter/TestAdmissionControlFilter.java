@@ -0,0 +1,182 @@
+/*
+   Copyright (c) 2012 LinkedIn Corp.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+/* $Id$ */
+package test.r2.filter;
+
+import com.linkedin.r2.filter.Filter;
+import com.linkedin.r2.filter.R2Constants;
+import com.linkedin.r2.filter.admission.AdmissionControlFilter;
+import com.linkedin.r2.filter.admission.AdmissionController;
+import com.linkedin.r2.filter.admission.ResourcePriorityResolver;
+import com.linkedin.r2.message.RequestContext;
+import com.linkedin.r2.message.rest.RestException;
+import com.linkedin.r2.message.rest.RestRequestBuilder;
+import com.linkedin.r2.message.rest.RestStatus;
+import com.linkedin.r2.util.DeadlineUtil;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.net.URI;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+public class TestAdmissionControlFilter extends BaseFilterTest
+{
+  private AdmissionController _controller;
+
+  @Override
+  protected Filter getFilter()
+  {
+    _controller = new AdmissionController(1, 1, 10, 0.2, 10000, 5, 100, AdmissionController.SYSTEM_CLOCK);
+    return new AdmissionControlFilter(_controller);
+  }
+
+  @Test
+  public void testRejectsOverLimit()
+  {
+    final RequestContext first = new RequestContext();
+    getFilterChain().onRestRequest(FilterUtil.simpleRestRequest(), first, FilterUtil.emptyWireAttrs());
+    Assert.assertEquals(getAfterFilter().getRestReqCount(), 1);
+    Assert.assertEquals(_controller.getInFlight(), 1);
+
+    final CaptureLastCallFilter capture = new CaptureLastCallFilter();
+    getFilterChain().addFirst(capture).onRestRequest(FilterUtil.simpleRestRequest(),
+                                                     new RequestContext(),
+                                                     FilterUtil.emptyWireAttrs());
+    Assert.assertEquals(getAfterFilter().getRestReqCount(), 1);
+    assertServiceUnavailable(capture.getLastErr());
+    Assert.assertEquals(_controller.getRejectedCount(), 1);
+    Assert.assertEquals(_controller.getInFlight(), 1);
+
+    getFilterChain().onRestResponse(FilterUtil.simpleRestResponse(), first, FilterUtil.emptyWireAttrs());
+    Assert.assertEquals(_controller.getInFlight(), 0);
+  }
+
+  @Test
+  public void testRejectsExpiredRequest()
+  {
+    final RequestContext context = new RequestContext();
+    context.putLocalAttr(R2Constants.RECEIVE_TIME_NANOS, System.nanoTime() - TimeUnit.SECONDS.toNanos(2));
+    DeadlineUtil.setDeadline(context, System.nanoTime() - TimeUnit.SECONDS.toNanos(1));
+
+    final CaptureLastCallFilter capture = new CaptureLastCallFilter();
+    getFilterChain().addFirst(capture).onRestRequest(FilterUtil.simpleRestRequest(), context,
+                                                     FilterUtil.emptyWireAttrs());
+
+    Assert.assertEquals(getAfterFilter().getRestReqCount(), 0);
+    assertServiceUnavailable(capture.getLastErr());
+    Assert.assertEquals(_controller.getInFlight(), 0);
+  }
+
+  @Test
+  public void testLimitAdaptsToLatency()
+  {
+    final SettableClock clock = new SettableClock();
+    final AdmissionController controller = new AdmissionController(10, 1, 100, 1.0, 10000, 5, 100, clock);
+
+    for (int i = 0; i < 5; i++)
+    {
+      Assert.assertTrue(controller.tryAcquire(0, 1.0));
+    }
+    controller.release(TimeUnit.MILLISECONDS.toNanos(10));
+    final int steadyLimit = controller.getLimit();
+    Assert.assertTrue(steadyLimit > 10);
+
+    controller.release(TimeUnit.MILLISECONDS.toNanos(40));
+    Assert.assertTrue(controller.getLimit() < steadyLimit);
+  }
+
+  @Test
+  public void testLimitDoesNotGrowWhenAppLimited()
+  {
+    final AdmissionController controller = new AdmissionController(10, 1, 100, 1.0, 10000, 5, 100, new SettableClock());
+
+    for (int i = 0; i < 100; i++)
+    {
+      Assert.assertTrue(controller.tryAcquire(0, 1.0));
+      controller.release(TimeUnit.MILLISECONDS.toNanos(10));
+    }
+    Assert.assertEquals(controller.getLimit(), 10);
+  }
+
+  @Test
+  public void testShedsOnPersistentQueueDelay()
+  {
+    final SettableClock clock = new SettableClock();
+    final AdmissionController controller = new AdmissionController(10, 1, 100, 0.2, 10000, 5, 100, clock);
+    final long delay = TimeUnit.MILLISECONDS.toNanos(10);
+
+    Assert.assertTrue(controller.tryAcquire(delay, 1.0));
+    clock._nanos += TimeUnit.MILLISECONDS.toNanos(50);
+    Assert.assertTrue(controller.tryAcquire(delay, 1.0));
+    clock._nanos += TimeUnit.MILLISECONDS.toNanos(50);
+    Assert.assertFalse(controller.tryAcquire(delay, 1.0));
+    Assert.assertTrue(controller.tryAcquire(0, 1.0));
+  }
+
+  @Test
+  public void testShedsWhenClockIsNegative()
+  {
+    final SettableClock clock = new SettableClock();
+    clock._nanos = -TimeUnit.MILLISECONDS.toNanos(100);
+    final AdmissionController controller = new AdmissionController(10, 1, 100, 0.2, 10000, 5, 100, clock);
+    final long delay = TimeUnit.MILLISECONDS.toNanos(10);
+
+    Assert.assertTrue(controller.tryAcquire(delay, 1.0));
+    clock._nanos += TimeUnit.MILLISECONDS.toNanos(50);
+    Assert.assertTrue(controller.tryAcquire(delay, 1.0));
+    clock._nanos += TimeUnit.MILLISECONDS.toNanos(50);
+    Assert.assertFalse(controller.tryAcquire(delay, 1.0));
+  }
+
+  @Test
+  public void testLimitShare()
+  {
+    final AdmissionController controller = new AdmissionController(4, 1, 4, 0.2, 10000, 5, 100, new SettableClock());
+    Assert.assertTrue(controller.tryAcquire(0, 1.0));
+    Assert.assertTrue(controller.tryAcquire(0, 0.5));
+    Assert.assertFalse(controller.tryAcquire(0, 0.5));
+    Assert.assertTrue(controller.tryAcquire(0, 1.0));
+
+    final ResourcePriorityResolver resolver =
+        new ResourcePriorityResolver(Collections.singletonMap("reports", 0.25),
+                                     Collections.singletonMap("POST", 0.5),
+                                     1.0);
+    Assert.assertEquals(resolver.getLimitShare(new RestRequestBuilder(URI.create("/reports/1")).build(), null), 0.25);
+    Assert.assertEquals(resolver.getLimitShare(new RestRequestBuilder(URI.create("/greetings/1")).setMethod("POST").build(), null), 0.5);
+    Assert.assertEquals(resolver.getLimitShare(new RestRequestBuilder(URI.create("/greetings/1")).build(), null), 1.0);
+  }
+
+  private static void assertServiceUnavailable(Throwable ex)
+  {
+    Assert.assertTrue(ex instanceof RestException);
+    final RestException restException = (RestException) ex;
+    Assert.assertEquals(restException.getResponse().getStatus(), RestStatus.SERVICE_UNAVAILABLE);
+    Assert.assertEquals(restException.getResponse().getHeader(AdmissionControlFilter.RETRY_AFTER_HEADER), "1");
+  }
+
+  private static class SettableClock implements AdmissionController.Clock
+  {
+    private long _nanos = 1;
+
+    @Override
+    public long nanoTime()
+    {
+      return _nanos;
+    }
+  }
+}
@@ -212,14 +212,60 @@ public class TestAsyncPool
 
   }
 
+  @Test
+  public void testMinSize() throws InterruptedException
+  {
+    final int POOL_SIZE = 25;
+    final int MIN_SIZE = 3;
+    final long IDLE_TIMEOUT = 100;
+    SynchronousLifecycle lifecycle = new SynchronousLifecycle();
+    final AsyncPool<Object> pool = new AsyncPoolImpl<Object>("object pool",
+                                                             lifecycle,
+                                                             POOL_SIZE,
+                                                             IDLE_TIMEOUT,
+                                                             _executor,
+                                                             MIN_SIZE
+                                                             );
+    pool.start();
+    Assert.assertEquals(lifecycle.getLive(), MIN_SIZE);
+
+    // idle objects are replaced before they time out, so the pool never drops below its minimum size
+    long deadline = System.currentTimeMillis() + IDLE_TIMEOUT * 10;
+    while (lifecycle.getDestroyed() < MIN_SIZE * 2 && System.currentTimeMillis() < deadline)
+    {
+      Thread.sleep(IDLE_TIMEOUT / 10);
+    }
+    Assert.assertTrue(lifecycle.getDestroyed() >= MIN_SIZE * 2, "Idle objects were not replaced");
+    Assert.assertTrue(lifecycle.getLowWaterMark() >= MIN_SIZE,
+                      "Pool dropped to " + lifecycle.getLowWaterMark() + " objects");
+    // each idle object was replaced once
+    Assert.assertTrue(lifecycle.getHighWaterMark() <= MIN_SIZE * 2,
+                      "High water mark exceeded " + MIN_SIZE * 2);
+
+    FutureCallback<None> shutdown = new FutureCallback<None>();
+    pool.shutdown(shutdown);
+    try
+    {
+      shutdown.get();
+    }
+    catch (Exception e)
+    {
+      Assert.fail("unexpected error", e);
+    }
+  }
+
   public static class SynchronousLifecycle implements AsyncPool.Lifecycle<Object>
   {
     private int _live = 0;
     private int _highWaterMark = 0;
+    private int _lowWaterMark = Integer.MAX_VALUE;
+    private int _created = 0;
+    private int _destroyed = 0;
 
     @Override
     public synchronized void create(Callback<Object> callback)
     {
+      _created++;
       _live++;
       if (_highWaterMark < _live)
       {
@@ -244,6 +290,11 @@ public class TestAsyncPool
     public synchronized void destroy(Object obj, boolean error, Callback<Object> callback)
     {
       _live--;
+      _destroyed++;
+      if (_lowWaterMark > _live)
+      {
+        _lowWaterMark = _live;
+      }
       callback.onSuccess(obj);
     }
 
@@ -252,10 +303,28 @@ public class TestAsyncPool
       return _highWaterMark;
     }
 
-    public int getLive()
+    public synchronized int getLive()
     {
       return _live;
     }
+
+    public synchronized int getCreated()
+    {
+      return _created;
+    }
+
+    /**
+     * @return the lowest number of live objects after an object was destroyed
+     */
+    public synchronized int getLowWaterMark()
+    {
+      return _lowWaterMark;
+    }
+
+    public synchronized int getDestroyed()
+    {
+      return _destroyed;
+    }
   }
 
 }
@@ -31,6 +31,8 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import com.linkedin.data.DataList;
 import com.linkedin.data.DataMap;
@@ -43,8 +45,8 @@ import com.linkedin.restli.common.ComplexResourceKey;
 import com.linkedin.restli.common.CompoundKey;
 import com.linkedin.restli.common.ResourceSpec;
 import com.linkedin.restli.common.RestConstants;
+import com.linkedin.restli.internal.client.RequestUriBuilder;
 import com.linkedin.restli.internal.client.URIUtil;
-import com.linkedin.restli.internal.common.QueryParamsDataMap;
 import com.linkedin.restli.internal.common.URLEscaper;
 import com.linkedin.restli.internal.common.URLEscaper.Escaping;
 import com.linkedin.util.ArgumentUtil;
@@ -57,6 +59,10 @@ import com.linkedin.util.ArgumentUtil;
 public abstract class AbstractRequestBuilder<K, V, R extends Request<?>> implements
     RequestBuilder<R>
 {
+  // parsed templates are immutable, so they are shared by all builders of a resource
+  private static final ConcurrentMap<String, UriTemplate> _uriTemplates =
+      new ConcurrentHashMap<String, UriTemplate>();
+
   private final String                _baseURITemplate;
   protected final Map<String, String> _headers     = new HashMap<String, String>();
   protected final CompoundKey         _assocKey    = new CompoundKey();
@@ -193,6 +199,11 @@ public abstract class AbstractRequestBuilder<K, V, R extends Request<?>> impleme
   }
 
   protected void appendKeyToPath(UriBuilder uriBuilder, Object key)
+  {
+    appendKeyToPath(new RequestUriBuilder(uriBuilder), key);
+  }
+
+  protected void appendKeyToPath(RequestUriBuilder uriBuilder, Object key)
   {
     uriBuilder.path(keyToString(key, Escaping.URL_ESCAPING));
   }
@@ -281,33 +292,56 @@ public abstract class AbstractRequestBuilder<K, V, R extends Request<?>> impleme
 
   protected void appendQueryParams(UriBuilder b)
   {
-    QueryParamsDataMap.addSortedParams(b, _queryParams);
+    appendQueryParams(new RequestUriBuilder(b));
+  }
+
+  protected void appendQueryParams(RequestUriBuilder b)
+  {
+    b.sortedQueryParams(_queryParams);
   }
 
   protected final void appendAssocKeys(UriBuilder uriBuilder)
+  {
+    appendAssocKeys(new RequestUriBuilder(uriBuilder));
+  }
+
+  protected final void appendAssocKeys(RequestUriBuilder uriBuilder)
   {
     uriBuilder.path(_assocKey.toString());
   }
 
   protected URI bindPathKeys()
   {
-    UriTemplate template = new UriTemplate(_baseURITemplate);
+    UriTemplate template = getUriTemplate(_baseURITemplate);
+    Map<String, String> escapedKeys = new HashMap<String, String>();
     for (String key : template.getTemplateVariables())
     {
-      if (!_pathKeys.containsKey(key))
+      String value = _pathKeys.get(key);
+      if (value == null)
       {
         throw new IllegalStateException("Missing path key: '" + key + "'");
       }
-    }
-    Map<String, String> escapedKeys = new HashMap<String, String>();
-    for(Map.Entry<String, String> key : _pathKeys.entrySet())
-    {
-      escapedKeys.put(key.getKey(), URLEscaper.escape(key.getValue(), Escaping.URL_ESCAPING));
+      escapedKeys.put(key, URLEscaper.escape(value, Escaping.URL_ESCAPING));
     }
 
     return URI.create(template.createURI(escapedKeys));
   }
 
+  private static UriTemplate getUriTemplate(String baseURITemplate)
+  {
+    UriTemplate template = _uriTemplates.get(baseURITemplate);
+    if (template == null)
+    {
+      template = new UriTemplate(baseURITemplate);
+      UriTemplate existing = _uriTemplates.putIfAbsent(baseURITemplate, template);
+      if (existing != null)
+      {
+        template = existing;
+      }
+    }
+    return template;
+  }
+
   protected void addFields(PathSpec... fieldPaths)
   {
     if (_queryParams.containsKey(RestConstants.FIELDS_PARAM))
@@ -30,11 +30,11 @@ import com.linkedin.data.template.DataTemplateUtil;
 import com.linkedin.data.template.DynamicRecordMetadata;
 import com.linkedin.data.template.DynamicRecordTemplate;
 import com.linkedin.data.template.FieldDef;
-import com.linkedin.jersey.api.uri.UriBuilder;
 import com.linkedin.restli.common.ActionResponse;
 import com.linkedin.restli.common.ResourceSpec;
 import com.linkedin.restli.common.RestConstants;
 import com.linkedin.restli.internal.client.ActionResponseDecoder;
+import com.linkedin.restli.internal.client.RequestUriBuilder;
 
 /**
  * @author Josh Walker
@@ -95,7 +95,7 @@ public class ActionRequestBuilder<K, V> extends AbstractRequestBuilder<K, V, Act
       throw new IllegalStateException("name required to build action request");
     }
 
-    UriBuilder b = UriBuilder.fromUri(bindPathKeys());
+    RequestUriBuilder b = new RequestUriBuilder(bindPathKeys());
     if (_id != null)
     {
       b.path(_id.toString());
@@ -25,9 +25,9 @@ import java.util.List;
 
 import com.linkedin.data.DataMap;
 import com.linkedin.data.template.RecordTemplate;
-import com.linkedin.jersey.api.uri.UriBuilder;
 import com.linkedin.restli.common.CollectionRequest;
 import com.linkedin.restli.common.ResourceSpec;
+import com.linkedin.restli.internal.client.RequestUriBuilder;
 
 /**
  * @author Josh Walker
@@ -89,7 +89,7 @@ public class BatchCreateRequestBuilder<K, V extends RecordTemplate> extends
   public BatchCreateRequest<V> build()
   {
     URI baseUri = bindPathKeys();
-    UriBuilder b = UriBuilder.fromUri(baseUri);
+    RequestUriBuilder b = new RequestUriBuilder(baseUri);
     appendQueryParams(b);
 
     return new BatchCreateRequest<V>(b.build(),
@@ -25,8 +25,8 @@ import java.util.Arrays;
 import java.util.Collection;
 
 import com.linkedin.data.template.RecordTemplate;
-import com.linkedin.jersey.api.uri.UriBuilder;
 import com.linkedin.restli.common.ResourceSpec;
+import com.linkedin.restli.internal.client.RequestUriBuilder;
 
 /**
  * @author Josh Walker
@@ -87,7 +87,7 @@ public class BatchDeleteRequestBuilder<K, V extends RecordTemplate> extends
   public BatchDeleteRequest<K, V> build()
   {
     URI baseUri = bindPathKeys();
-    UriBuilder b = UriBuilder.fromUri(baseUri);
+    RequestUriBuilder b = new RequestUriBuilder(baseUri);
     appendQueryParams(b);
 
     return new BatchDeleteRequest<K, V>(b.build(),
@@ -30,7 +30,6 @@ import com.linkedin.data.DataList;
 import com.linkedin.data.DataMap;
 import com.linkedin.data.schema.PathSpec;
 import com.linkedin.data.template.RecordTemplate;
-import com.linkedin.jersey.api.uri.UriBuilder;
 import com.linkedin.restli.common.BatchResponse;
 import com.linkedin.restli.common.ComplexResourceKey;
 import com.linkedin.restli.common.ResourceMethod;
@@ -38,9 +37,9 @@ import com.linkedin.restli.common.ResourceSpec;
 import com.linkedin.restli.common.RestConstants;
 import com.linkedin.restli.internal.client.BatchKVResponseDecoder;
 import com.linkedin.restli.internal.client.BatchResponseDecoder;
+import com.linkedin.restli.internal.client.RequestUriBuilder;
 import com.linkedin.restli.internal.client.RestResponseDecoder;
 import com.linkedin.restli.internal.client.URIUtil;
-import com.linkedin.restli.internal.common.QueryParamsDataMap;
 
 
 /**
@@ -197,8 +196,8 @@ public class BatchGetRequestBuilder<K, V extends RecordTemplate> extends
                            URIUtil.encodeFields(fields.toArray(new PathSpec[0])));
     }
 
-    UriBuilder urlBuilder = UriBuilder.fromUri(baseURI);
-    QueryParamsDataMap.addSortedParams(urlBuilder, firstQueryParams);
+    RequestUriBuilder urlBuilder = new RequestUriBuilder(baseURI);
+    urlBuilder.sortedQueryParams(firstQueryParams);
 
     URI uri = urlBuilder.build();
 
@@ -227,8 +226,8 @@ public class BatchGetRequestBuilder<K, V extends RecordTemplate> extends
     queryParams.put(RestConstants.QUERY_BATCH_IDS_PARAM,
                     new DataList(Collections.singletonList(idsParam)));
 
-    UriBuilder urlBuilder = UriBuilder.fromUri(baseURI);
-    QueryParamsDataMap.addSortedParams(urlBuilder, queryParams);
+    RequestUriBuilder urlBuilder = new RequestUriBuilder(baseURI);
+    urlBuilder.sortedQueryParams(queryParams);
 
     return new BatchGetRequest<RT>(urlBuilder.build(),
                                    request.getHeaders(),
@@ -299,7 +298,7 @@ public class BatchGetRequestBuilder<K, V extends RecordTemplate> extends
   public BatchGetRequest<V> build()
   {
     URI baseUri = bindPathKeys();
-    UriBuilder b = UriBuilder.fromUri(baseUri);
+    RequestUriBuilder b = new RequestUriBuilder(baseUri);
     appendQueryParams(b);
 
     return new BatchGetRequest<V>(b.build(),
@@ -313,7 +312,7 @@ public class BatchGetRequestBuilder<K, V extends RecordTemplate> extends
   public BatchGetKVRequest<K, V> buildKV()
   {
     URI baseUri = bindPathKeys();
-    UriBuilder b = UriBuilder.fromUri(baseUri);
+    RequestUriBuilder b = new RequestUriBuilder(baseUri);
     appendQueryParams(b);
 
     //Framework code should ensure that the ResourceSpec matches the static types of these parameters
@@ -25,10 +25,10 @@ import java.util.Map;
 
 import com.linkedin.data.DataMap;
 import com.linkedin.data.template.RecordTemplate;
-import com.linkedin.jersey.api.uri.UriBuilder;
 import com.linkedin.restli.common.BatchRequest;
 import com.linkedin.restli.common.PatchRequest;
 import com.linkedin.restli.common.ResourceSpec;
+import com.linkedin.restli.internal.client.RequestUriBuilder;
 
 /**
  * @author Josh Walker
@@ -98,7 +98,7 @@ public class BatchPartialUpdateRequestBuilder<K, V extends RecordTemplate> exten
   public BatchPartialUpdateRequest<K, V> build()
   {
     URI baseUri = bindPathKeys();
-    UriBuilder b = UriBuilder.fromUri(baseUri);
+    RequestUriBuilder b = new RequestUriBuilder(baseUri);
     appendQueryParams(b);
 
     return new BatchPartialUpdateRequest<K, V>(b.build(),
@@ -25,9 +25,9 @@ import java.util.Map;
 
 import com.linkedin.data.DataMap;
 import com.linkedin.data.template.RecordTemplate;
-import com.linkedin.jersey.api.uri.UriBuilder;
 import com.linkedin.restli.common.BatchRequest;
 import com.linkedin.restli.common.ResourceSpec;
+import com.linkedin.restli.internal.client.RequestUriBuilder;
 
 /**
  * @author Josh Walker
@@ -96,7 +96,7 @@ public class BatchUpdateRequestBuilder<K, V extends RecordTemplate> extends
   public BatchUpdateRequest<K, V> build()
   {
     URI baseUri = bindPathKeys();
-    UriBuilder b = UriBuilder.fromUri(baseUri);
+    RequestUriBuilder b = new RequestUriBuilder(baseUri);
     appendQueryParams(b);
 
     return new BatchUpdateRequest<K, V>(b.build(),
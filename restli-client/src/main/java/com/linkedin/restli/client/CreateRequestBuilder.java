@@ -23,8 +23,8 @@ package com.linkedin.restli.client;
 import java.net.URI;
 
 import com.linkedin.data.template.RecordTemplate;
-import com.linkedin.jersey.api.uri.UriBuilder;
 import com.linkedin.restli.common.ResourceSpec;
+import com.linkedin.restli.internal.client.RequestUriBuilder;
 
 /**
  * @author Josh Walker
@@ -84,7 +84,7 @@ public class CreateRequestBuilder<K, V extends RecordTemplate>
   public CreateRequest<V> build()
   {
     URI baseUri = bindPathKeys();
-    UriBuilder b = UriBuilder.fromUri(baseUri);
+    RequestUriBuilder b = new RequestUriBuilder(baseUri);
     appendQueryParams(b);
 
     return new CreateRequest<V>(b.build(), _input, _headers, _resourceSpec);
@@ -21,8 +21,8 @@
 package com.linkedin.restli.client;
 
 import com.linkedin.data.template.RecordTemplate;
-import com.linkedin.jersey.api.uri.UriBuilder;
 import com.linkedin.restli.common.ResourceSpec;
+import com.linkedin.restli.internal.client.RequestUriBuilder;
 
 /**
  * @author Josh Walker
@@ -80,7 +80,7 @@ public class DeleteRequestBuilder<K, V extends RecordTemplate>
     {
       throw new IllegalArgumentException("id required to build delete request");
     }
-    UriBuilder b = UriBuilder.fromUri(bindPathKeys());
+    RequestUriBuilder b = new RequestUriBuilder(bindPathKeys());
     appendKeyToPath(b, _id);
     appendQueryParams(b);
 
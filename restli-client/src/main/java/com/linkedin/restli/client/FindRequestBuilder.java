@@ -19,9 +19,9 @@ package com.linkedin.restli.client;
 
 import com.linkedin.data.schema.PathSpec;
 import com.linkedin.data.template.RecordTemplate;
-import com.linkedin.jersey.api.uri.UriBuilder;
 import com.linkedin.restli.common.ResourceSpec;
 import com.linkedin.restli.common.RestConstants;
+import com.linkedin.restli.internal.client.RequestUriBuilder;
 
 /**
  * REST collection finder request builder.
@@ -99,7 +99,7 @@ public class FindRequestBuilder<K, V extends RecordTemplate> extends
   @Override
   public FindRequest<V> build()
   {
-    UriBuilder b = UriBuilder.fromUri(bindPathKeys());
+    RequestUriBuilder b = new RequestUriBuilder(bindPathKeys());
     appendAssocKeys(b);
     appendQueryParams(b);
 
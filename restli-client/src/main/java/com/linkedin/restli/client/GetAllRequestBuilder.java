@@ -19,9 +19,9 @@ package com.linkedin.restli.client;
 
 import com.linkedin.data.schema.PathSpec;
 import com.linkedin.data.template.RecordTemplate;
-import com.linkedin.jersey.api.uri.UriBuilder;
 import com.linkedin.restli.common.ResourceSpec;
 import com.linkedin.restli.common.RestConstants;
+import com.linkedin.restli.internal.client.RequestUriBuilder;
 
 /**
  * REST collection GetAll request builder.
@@ -86,7 +86,7 @@ public class GetAllRequestBuilder<K, V extends RecordTemplate> extends
   @Override
   public GetAllRequest<V> build()
   {
-    UriBuilder b = UriBuilder.fromUri(bindPathKeys());
+    RequestUriBuilder b = new RequestUriBuilder(bindPathKeys());
     appendAssocKeys(b);
     appendQueryParams(b);
 
@@ -24,8 +24,8 @@ import java.net.URI;
 
 import com.linkedin.data.schema.PathSpec;
 import com.linkedin.data.template.RecordTemplate;
-import com.linkedin.jersey.api.uri.UriBuilder;
 import com.linkedin.restli.common.ResourceSpec;
+import com.linkedin.restli.internal.client.RequestUriBuilder;
 
 /**
  * @author Josh Walker
@@ -87,7 +87,7 @@ public class GetRequestBuilder<K, V extends RecordTemplate> extends
       throw new IllegalArgumentException("id required to build get request");
     }
     URI baseUri = bindPathKeys();
-    UriBuilder b = UriBuilder.fromUri(baseUri);
+    RequestUriBuilder b = new RequestUriBuilder(baseUri);
     appendKeyToPath(b, _id);
     appendQueryParams(b);
 
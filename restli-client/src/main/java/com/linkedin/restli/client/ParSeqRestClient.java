@@ -24,6 +24,7 @@ import com.linkedin.parseq.promise.Promise;
 import com.linkedin.parseq.promise.Promises;
 import com.linkedin.parseq.promise.SettablePromise;
 import com.linkedin.r2.message.RequestContext;
+import com.linkedin.r2.util.DeadlineUtil;
 
 /**
  * Wrapper around {@link RestClient} that facilitates usage with ParSeq.
@@ -144,6 +145,7 @@ public class ParSeqRestClient
   {
     private final Request<T>     _request;
     private final RequestContext _requestContext;
+    private final Long           _deadline;
 
     public RestLiCallable(final String name,
                           final Request<T> request,
@@ -152,11 +154,18 @@ public class ParSeqRestClient
       super(name);
       this._request = request;
       this._requestContext = requestContext;
+      // tasks usually run on a different thread than the one that created them, so capture
+      // the deadline of the request being served now
+      this._deadline = DeadlineUtil.getCurrentDeadline();
     }
 
     @Override
     protected Promise<? extends Response<T>> run(final Context context) throws Exception
     {
+      if (_deadline != null)
+      {
+        DeadlineUtil.setDeadline(_requestContext, _deadline);
+      }
       return sendRequest(_request, _requestContext);
     }
   }
@@ -21,9 +21,9 @@
 package com.linkedin.restli.client;
 
 import com.linkedin.data.template.RecordTemplate;
-import com.linkedin.jersey.api.uri.UriBuilder;
 import com.linkedin.restli.common.PatchRequest;
 import com.linkedin.restli.common.ResourceSpec;
+import com.linkedin.restli.internal.client.RequestUriBuilder;
 
 /**
  * @author Josh Walker
@@ -89,7 +89,7 @@ public class PartialUpdateRequestBuilder<K, V extends RecordTemplate> extends
     {
       throw new IllegalArgumentException("id required to build partial update request");
     }
-    UriBuilder b = UriBuilder.fromUri(bindPathKeys());
+    RequestUriBuilder b = new RequestUriBuilder(bindPathKeys());
     appendKeyToPath(b, _id);
     appendQueryParams(b);
 
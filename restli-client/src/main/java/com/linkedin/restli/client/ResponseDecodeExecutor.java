@@ -0,0 +1,119 @@
+/*
+   Copyright (c) 2012 LinkedIn Corp.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.linkedin.restli.client;
+
+import com.linkedin.r2.util.NamedThreadFactory;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded {@link Executor} on which a {@link RestClient} decodes large responses, so that
+ * decoding does not block the transport's I/O threads.
+ *
+ * When all threads are busy and the queue is full, the response is rejected with a
+ * {@link RejectedExecutionException} and the {@link RestClient} fails the request, instead of
+ * decoding it on the I/O thread that received it.
+ */
+public class ResponseDecodeExecutor implements Executor
+{
+  private final ThreadPoolExecutor _executor;
+  private final AtomicLong _rejectedCount = new AtomicLong();
+
+  /**
+   * @param threads number of decoding threads.
+   * @param queueCapacity maximum number of responses waiting to be decoded.
+   */
+  public ResponseDecodeExecutor(int threads, int queueCapacity)
+  {
+    if (threads <= 0)
+    {
+      throw new IllegalArgumentException("threads must be positive: " + threads);
+    }
+    if (queueCapacity <= 0)
+    {
+      throw new IllegalArgumentException("queueCapacity must be positive: " + queueCapacity);
+    }
+
+    _executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                                       new ArrayBlockingQueue<Runnable>(queueCapacity),
+                                       new NamedThreadFactory("RestClient Response Decoder"),
+                                       new RejectedExecutionHandler()
+                                       {
+                                         @Override
+                                         public void rejectedExecution(Runnable r, ThreadPoolExecutor executor)
+                                         {
+                                           _rejectedCount.incrementAndGet();
+                                           throw new RejectedExecutionException(executor.isShutdown() ?
+                                               "Response decode executor has been shut down" :
+                                               "Response decode queue is full");
+                                         }
+                                       });
+  }
+
+  @Override
+  public void execute(Runnable command)
+  {
+    _executor.execute(command);
+  }
+
+  /**
+   * @return number of responses waiting to be decoded.
+   */
+  public int getQueueSize()
+  {
+    return _executor.getQueue().size();
+  }
+
+  /**
+   * @return approximate number of responses being decoded.
+   */
+  public int getActiveCount()
+  {
+    return _executor.getActiveCount();
+  }
+
+  /**
+   * @return approximate number of responses decoded by this executor's threads.
+   */
+  public long getCompletedCount()
+  {
+    return _executor.getCompletedTaskCount();
+  }
+
+  /**
+   * @return number of responses rejected because the queue was full, or because the executor
+   *         was shut down.
+   */
+  public long getRejectedCount()
+  {
+    return _rejectedCount.get();
+  }
+
+  /**
+   * Stops accepting responses; queued responses are still decoded.
+   */
+  public void shutdown()
+  {
+    _executor.shutdown();
+  }
+}
@@ -20,15 +20,18 @@ import com.linkedin.common.callback.Callback;
 import com.linkedin.common.callback.CallbackAdapter;
 import com.linkedin.common.callback.FutureCallback;
 import com.linkedin.common.util.None;
+import com.linkedin.data.ByteString;
 import com.linkedin.data.DataMap;
 import com.linkedin.data.codec.JacksonDataCodec;
 import com.linkedin.data.codec.PsonDataCodec;
 import com.linkedin.data.template.RecordTemplate;
 import com.linkedin.r2.message.RequestContext;
+import com.linkedin.r2.message.rest.RestException;
 import com.linkedin.r2.message.rest.RestRequest;
 import com.linkedin.r2.message.rest.RestRequestBuilder;
 import com.linkedin.r2.message.rest.RestResponse;
 import com.linkedin.r2.transport.common.Client;
+import com.linkedin.r2.util.DeadlineUtil;
 import com.linkedin.restli.common.HttpMethod;
 import com.linkedin.restli.common.ResourceMethod;
 import com.linkedin.restli.common.RestConstants;
@@ -45,6 +48,8 @@ import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
  * Subset of Jersey's REST client, omitting things we probably won't use for internal API calls +
@@ -100,8 +105,12 @@ public class RestClient
 
   private final Client _client;
   private final String _uriPrefix;
+  // the URI prefix, if request URIs can be resolved against it instead of being appended and parsed again
+  private final URI _baseUri;
   private final List<AcceptType> _acceptTypes;
   private final ContentType _contentType;
+  private final Executor _decodeExecutor;
+  private final int _inlineDecodeThreshold;
 
   public RestClient(Client client, String uriPrefix)
   {
@@ -114,15 +123,39 @@ public class RestClient
   }
 
   public RestClient(Client client, String uriPrefix, ContentType contentType, List<AcceptType> acceptTypes)
+  {
+    this(client, uriPrefix, contentType, acceptTypes, null, 0);
+  }
+
+  /**
+   * @param decodeExecutor executor on which responses are decoded, instead of the thread on which
+   *                       the underlying {@link Client} completes the request, usually an I/O thread.
+   *                       If null, all responses are decoded on the completing thread. If the
+   *                       executor rejects a response, the request fails with the rejection.
+   *                       See {@link ResponseDecodeExecutor}.
+   * @param inlineDecodeThreshold responses, including error responses, with an entity shorter than
+   *                              this many bytes are decoded on the completing thread, since
+   *                              handing them off costs more than decoding them.
+   */
+  public RestClient(Client client,
+                    String uriPrefix,
+                    ContentType contentType,
+                    List<AcceptType> acceptTypes,
+                    Executor decodeExecutor,
+                    int inlineDecodeThreshold)
   {
     _client = client;
     _uriPrefix = uriPrefix;
+    _baseUri = getBaseUri(uriPrefix);
     _acceptTypes = acceptTypes;
     _contentType = contentType;
+    _decodeExecutor = decodeExecutor;
+    _inlineDecodeThreshold = inlineDecodeThreshold;
   }
 
   /**
-   * Shuts down the underlying {@link Client} which this RestClient wraps.
+   * Shuts down the underlying {@link Client} which this RestClient wraps. The decode executor,
+   * if any, is owned by the caller and is not shut down.
    * @param callback
    */
   public void shutdown(Callback<None> callback)
@@ -174,8 +207,14 @@ public class RestClient
                               RequestContext requestContext,
                               Callback<Response<T>> callback)
   {
+    // requests sent while a Rest.li server is processing a request inherit that request's deadline
+    DeadlineUtil.inheritCurrentDeadline(requestContext);
+
     RecordTemplate input = request.getInput();
-    RestLiCallbackAdapter<T> adapter = new RestLiCallbackAdapter<T>(request.getResponseDecoder(), callback);
+    RestLiCallbackAdapter<T> adapter = new RestLiCallbackAdapter<T>(request.getResponseDecoder(),
+                                                                  callback,
+                                                                  _decodeExecutor,
+                                                                  _inlineDecodeThreshold);
     sendRequestImpl(requestContext, request.getUri(), request.getMethod(),
                     input != null ? input.data() : null, request.getHeaders(), adapter);
   }
@@ -254,10 +293,10 @@ public class RestClient
       switch (type)
       {
         case PSON:
-          builder.setEntity(PSON_DATA_CODEC.mapToBytes(dataMap));
+          builder.setEntity(ByteString.unsafeWrap(PSON_DATA_CODEC.mapToBytes(dataMap)));
           break;
         case JSON:
-          builder.setEntity(JACKSON_DATA_CODEC.mapToBytes(dataMap));
+          builder.setEntity(ByteString.unsafeWrap(JACKSON_DATA_CODEC.mapToBytes(dataMap)));
           break;
         default:
           throw new IllegalStateException("Unknown ContentType:" + type);
@@ -372,7 +411,7 @@ public class RestClient
   {
     try
     {
-      uri = new URI(_uriPrefix + uri.toString());
+      uri = (_baseUri != null && isResolvable(uri)) ? _baseUri.resolve(uri) : new URI(_uriPrefix + uri.toString());
     }
     catch (URISyntaxException e)
     {
@@ -394,6 +433,71 @@ public class RestClient
     return requestBuilder.build();
   }
 
+  /**
+   * Return the URI prefix as a URI that relative request URIs can be resolved against,
+   * or null if the prefix is not an absolute, normalized URI whose path ends with a '/'.
+   */
+  private static URI getBaseUri(String uriPrefix)
+  {
+    if (uriPrefix == null)
+    {
+      return null;
+    }
+    try
+    {
+      URI baseUri = new URI(uriPrefix);
+      if (baseUri.isAbsolute() && !baseUri.isOpaque() &&
+          baseUri.getRawPath() != null && baseUri.getRawPath().endsWith("/") &&
+          baseUri.getRawQuery() == null && baseUri.getRawFragment() == null &&
+          baseUri.normalize().equals(baseUri))
+      {
+        return baseUri;
+      }
+    }
+    catch (URISyntaxException e)
+    {
+      // request URIs are appended to the prefix, which reports the error for each request
+    }
+    return null;
+  }
+
+  /**
+   * Whether resolving a request URI against the base URI is the same as appending it to the
+   * URI prefix, which is the case for relative paths without empty, "." or ".." segments.
+   */
+  private static boolean isResolvable(URI uri)
+  {
+    if (uri.getScheme() != null || uri.getRawAuthority() != null || uri.getRawFragment() != null)
+    {
+      return false;
+    }
+    String path = uri.getRawPath();
+    if (path == null || path.isEmpty() || path.charAt(0) == '/')
+    {
+      return false;
+    }
+    int start = 0;
+    while (start <= path.length())
+    {
+      int end = path.indexOf('/', start);
+      if (end < 0)
+      {
+        end = path.length();
+      }
+      int length = end - start;
+      if (length == 0 && end < path.length())
+      {
+        return false;
+      }
+      if (length > 0 && length <= 2 && path.charAt(start) == '.' && path.charAt(end - 1) == '.')
+      {
+        return false;
+      }
+      start = end + 1;
+    }
+    return true;
+  }
+
   public static enum AcceptType
   {
     PSON(RestConstants.HEADER_VALUE_APPLICATION_PSON),
@@ -434,11 +538,78 @@ public class RestClient
   private static class RestLiCallbackAdapter<T> extends CallbackAdapter<Response<T>,RestResponse>
   {
     private final RestResponseDecoder<T> _decoder;
+    private final Executor _decodeExecutor;
+    private final int _inlineDecodeThreshold;
 
-    private RestLiCallbackAdapter(RestResponseDecoder<T> decoder, Callback<Response<T>> callback)
+    private RestLiCallbackAdapter(RestResponseDecoder<T> decoder,
+                                  Callback<Response<T>> callback,
+                                  Executor decodeExecutor,
+                                  int inlineDecodeThreshold)
     {
       super(callback);
       _decoder = decoder;
+      _decodeExecutor = decodeExecutor;
+      _inlineDecodeThreshold = inlineDecodeThreshold;
+    }
+
+    @Override
+    public void onSuccess(final RestResponse response)
+    {
+      if (!decodeOnExecutor(response))
+      {
+        super.onSuccess(response);
+        return;
+      }
+
+      execute(new Runnable()
+      {
+        @Override
+        public void run()
+        {
+          RestLiCallbackAdapter.super.onSuccess(response);
+        }
+      });
+    }
+
+    @Override
+    public void onError(final Throwable e)
+    {
+      // error responses carry an ErrorResponse entity, which is decoded by convertError()
+      if (!(e instanceof RestException) || !decodeOnExecutor(((RestException) e).getResponse()))
+      {
+        super.onError(e);
+        return;
+      }
+
+      execute(new Runnable()
+      {
+        @Override
+        public void run()
+        {
+          RestLiCallbackAdapter.super.onError(e);
+        }
+      });
+    }
+
+    private boolean decodeOnExecutor(RestResponse response)
+    {
+      return _decodeExecutor != null && response.getEntity().length() >= _inlineDecodeThreshold;
+    }
+
+    /**
+     * Run the decoding on the decode executor, failing the request if the executor rejects it
+     * rather than decoding on the calling I/O thread.
+     */
+    private void execute(Runnable decode)
+    {
+      try
+      {
+        _decodeExecutor.execute(decode);
+      }
+      catch (RejectedExecutionException e)
+      {
+        super.onError(e);
+      }
     }
 
     @Override
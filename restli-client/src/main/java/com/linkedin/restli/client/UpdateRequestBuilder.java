@@ -21,8 +21,8 @@
 package com.linkedin.restli.client;
 
 import com.linkedin.data.template.RecordTemplate;
-import com.linkedin.jersey.api.uri.UriBuilder;
 import com.linkedin.restli.common.ResourceSpec;
+import com.linkedin.restli.internal.client.RequestUriBuilder;
 
 /**
  * @author Josh Walker
@@ -88,7 +88,7 @@ public class UpdateRequestBuilder<K, V extends RecordTemplate> extends
     {
       throw new IllegalArgumentException("id required to build update request");
     }
-    UriBuilder b = UriBuilder.fromUri(bindPathKeys());
+    RequestUriBuilder b = new RequestUriBuilder(bindPathKeys());
     appendKeyToPath(b, _id);
     appendQueryParams(b);
 
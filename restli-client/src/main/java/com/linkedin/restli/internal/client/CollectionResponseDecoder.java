@@ -21,6 +21,8 @@
 package com.linkedin.restli.internal.client;
 
 import com.linkedin.data.DataMap;
+import com.linkedin.data.DataSerializer;
+import com.linkedin.data.template.DataTemplateUtil;
 import com.linkedin.data.template.RecordTemplate;
 import com.linkedin.restli.common.CollectionResponse;
 
@@ -33,10 +35,14 @@ import com.linkedin.restli.common.CollectionResponse;
 public class CollectionResponseDecoder<T extends RecordTemplate> extends RestResponseDecoder<CollectionResponse<T>>
 {
   private final Class<T> _elementClass;
+  private final DataSerializer _serializer;
 
   public CollectionResponseDecoder(Class<T> elementClass)
   {
     _elementClass = elementClass;
+    DataSerializer elementSerializer = DataTemplateUtil.getSerializer(elementClass);
+    _serializer = (elementSerializer == null ? null :
+        DataSerializer.record(new String[] { CollectionResponse.ELEMENTS }, DataSerializer.array(elementSerializer)));
   }
 
   @Override
@@ -45,6 +51,12 @@ public class CollectionResponseDecoder<T extends RecordTemplate> extends RestRes
     return _elementClass;
   }
 
+  @Override
+  protected DataSerializer getEntitySerializer()
+  {
+    return _serializer;
+  }
+
   @Override
   protected CollectionResponse<T> wrapResponse(DataMap dataMap)
   {
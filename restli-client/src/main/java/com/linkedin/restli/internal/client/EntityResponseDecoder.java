@@ -23,6 +23,8 @@ package com.linkedin.restli.internal.client;
 import java.lang.reflect.InvocationTargetException;
 
 import com.linkedin.data.DataMap;
+import com.linkedin.data.DataSerializer;
+import com.linkedin.data.template.DataTemplateUtil;
 import com.linkedin.data.template.RecordTemplate;
 
 /**
@@ -46,6 +48,12 @@ public class EntityResponseDecoder<T extends RecordTemplate> extends RestRespons
     return _entityClass;
   }
 
+  @Override
+  protected DataSerializer getEntitySerializer()
+  {
+    return DataTemplateUtil.getSerializer(_entityClass);
+  }
+
   @Override
   protected T wrapResponse(DataMap dataMap)
                   throws NoSuchMethodException, InvocationTargetException, InstantiationException, IllegalAccessException
@@ -0,0 +1,229 @@
+/*
+   Copyright (c) 2012 LinkedIn Corp.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.linkedin.restli.internal.client;
+
+
+import com.linkedin.data.DataMap;
+import com.linkedin.jersey.api.uri.UriBuilder;
+import com.linkedin.jersey.api.uri.UriComponent;
+import com.linkedin.restli.internal.common.QueryParamsDataMap;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+
+/**
+ * Builds the URI of a request by appending path segments and query parameters of the
+ * request's base URI to a single {@link StringBuilder}.
+ *
+ * The result is the same as building the URI with a {@link UriBuilder} created from the base
+ * URI, but values are encoded once and the URI is parsed once.  Base URIs with a scheme,
+ * authority, query or fragment are built with a {@link UriBuilder}.
+ *
+ * The buffers are reused by the next builder created on the same thread once {@link #build()}
+ * has been called, so a builder builds one URI only.
+ */
+public class RequestUriBuilder
+{
+  // buffers that grew beyond this many chars, e.g. for batch requests with many keys, are not kept
+  private static final int MAX_REUSED_CAPACITY = 16 * 1024;
+
+  private static final ThreadLocal<StringBuilder> _pathBuffers = new ThreadLocal<StringBuilder>();
+  private static final ThreadLocal<StringBuilder> _queryBuffers = new ThreadLocal<StringBuilder>();
+
+  private StringBuilder _path;
+  private StringBuilder _query;
+  private final UriBuilder _uriBuilder;
+
+  public RequestUriBuilder(URI baseUri)
+  {
+    if (baseUri.isOpaque() ||
+        baseUri.getScheme() != null ||
+        baseUri.getRawAuthority() != null ||
+        baseUri.getRawQuery() != null ||
+        baseUri.getRawFragment() != null)
+    {
+      _uriBuilder = UriBuilder.fromUri(baseUri);
+    }
+    else
+    {
+      _path = takeBuffer(_pathBuffers).append(baseUri.getRawPath());
+      _query = takeBuffer(_queryBuffers);
+      _uriBuilder = null;
+    }
+  }
+
+  /**
+   * Create a builder that appends to a {@link UriBuilder}, with the same encoding as
+   * a builder created from a base URI.
+   *
+   * @param uriBuilder provides the {@link UriBuilder} to append to.
+   */
+  public RequestUriBuilder(UriBuilder uriBuilder)
+  {
+    _uriBuilder = uriBuilder;
+  }
+
+  /**
+   * Append to the path, inserting a '/' separator if needed.
+   *
+   * @param path provides the path to append. Characters which are not allowed in a path are
+   *             percent-encoded, percent-encoded characters are left as they are.
+   * @return this
+   */
+  public RequestUriBuilder path(String path)
+  {
+    if (_uriBuilder != null)
+    {
+      _uriBuilder.path(path);
+      return this;
+    }
+
+    if (path == null)
+    {
+      throw new IllegalArgumentException("Path segment is null");
+    }
+    checkNotBuilt();
+    if (path.length() == 0)
+    {
+      return this;
+    }
+
+    String encoded = UriComponent.contextualEncode(path, UriComponent.Type.PATH);
+    final boolean pathEndsInSlash = _path.length() > 0 && _path.charAt(_path.length() - 1) == '/';
+    final boolean segmentStartsWithSlash = encoded.charAt(0) == '/';
+    if (_path.length() > 0 && !pathEndsInSlash && !segmentStartsWithSlash)
+    {
+      _path.append('/');
+    }
+    else if (pathEndsInSlash && segmentStartsWithSlash)
+    {
+      encoded = encoded.substring(1);
+    }
+    _path.append(encoded);
+    return this;
+  }
+
+  /**
+   * Append a query parameter.
+   *
+   * @param name provides the unencoded name of the parameter.
+   * @param value provides the unencoded value of the parameter.
+   * @return this
+   */
+  public RequestUriBuilder queryParam(String name, String value)
+  {
+    final String encodedName = UriComponent.encode(name, UriComponent.Type.QUERY_PARAM);
+    final String encodedValue = UriComponent.encode(value, UriComponent.Type.QUERY_PARAM);
+    if (_uriBuilder != null)
+    {
+      _uriBuilder.queryParam(encodedName, encodedValue);
+      return this;
+    }
+
+    checkNotBuilt();
+    if (_query.length() > 0)
+    {
+      _query.append('&');
+    }
+    _query.append(encodedName);
+    if (encodedValue.length() > 0)
+    {
+      _query.append('=').append(encodedValue);
+    }
+    return this;
+  }
+
+  /**
+   * Append the query parameters, sorted by name and then by value.
+   *
+   * @param params provides the query parameters, as flattened by {@link QueryParamsDataMap#queryString(DataMap)}.
+   * @return this
+   */
+  public RequestUriBuilder sortedQueryParams(DataMap params)
+  {
+    final Map<String, List<String>> queryString = QueryParamsDataMap.queryString(params);
+    final List<String> names = new ArrayList<String>(queryString.keySet());
+    Collections.sort(names);
+
+    for (String name : names)
+    {
+      // copy to make sure the values can be sorted
+      final List<String> values = new ArrayList<String>(queryString.get(name));
+      Collections.sort(values);
+      for (String value : values)
+      {
+        queryParam(name, value);
+      }
+    }
+    return this;
+  }
+
+  public URI build()
+  {
+    if (_uriBuilder != null)
+    {
+      return _uriBuilder.build();
+    }
+
+    checkNotBuilt();
+    if (_query.length() > 0)
+    {
+      _path.append('?').append(_query);
+    }
+    final URI uri = URI.create(_path.toString());
+    returnBuffer(_pathBuffers, _path);
+    returnBuffer(_queryBuffers, _query);
+    _path = null;
+    _query = null;
+    return uri;
+  }
+
+  private void checkNotBuilt()
+  {
+    if (_path == null)
+    {
+      throw new IllegalStateException("URI has already been built");
+    }
+  }
+
+  /**
+   * Take the thread's buffer out of its slot, so that a builder created before this one is built
+   * gets a buffer of its own.
+   */
+  private static StringBuilder takeBuffer(ThreadLocal<StringBuilder> slot)
+  {
+    final StringBuilder buffer = slot.get();
+    if (buffer == null)
+    {
+      return new StringBuilder(128);
+    }
+    slot.set(null);
+    buffer.setLength(0);
+    return buffer;
+  }
+
+  private static void returnBuffer(ThreadLocal<StringBuilder> slot, StringBuilder buffer)
+  {
+    if (buffer.capacity() <= MAX_REUSED_CAPACITY)
+    {
+      slot.set(buffer);
+    }
+  }
+}
@@ -26,6 +26,7 @@ import java.lang.reflect.InvocationTargetException;
 
 import com.linkedin.data.ByteString;
 import com.linkedin.data.DataMap;
+import com.linkedin.data.DataSerializer;
 import com.linkedin.data.codec.JacksonDataCodec;
 import com.linkedin.data.codec.PsonDataCodec;
 import com.linkedin.r2.message.rest.RestResponse;
@@ -67,7 +68,9 @@ public abstract class RestResponseDecoder<T>
       }
       else
       {
-        dataMap = JACKSON_DATA_CODEC.readMap(inputStream);
+        DataSerializer serializer = getEntitySerializer();
+        dataMap = (serializer == null ? JACKSON_DATA_CODEC.readMap(inputStream)
+                                      : JACKSON_DATA_CODEC.readMap(inputStream, serializer));
       }
       response.setEntity(wrapResponse(dataMap));
       return response;
@@ -96,6 +99,17 @@ public abstract class RestResponseDecoder<T>
 
   public abstract Class<?> getEntityClass();
 
+  /**
+   * Return the {@link DataSerializer} that knows the shape of the response entity, so that
+   * JSON entities are parsed directly into the classes of their fields.
+   *
+   * @return the serializer, or null if the shape of the entity is not known.
+   */
+  protected DataSerializer getEntitySerializer()
+  {
+    return null;
+  }
+
   protected abstract T wrapResponse(DataMap dataMap)
                   throws InstantiationException, IllegalAccessException, InvocationTargetException, NoSuchMethodException;
 }
@@ -27,9 +27,13 @@ import java.net.URI;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.easymock.Capture;
 import org.easymock.EasyMock;
@@ -115,6 +119,151 @@ public class RestClientTest
 
   }
 
+  @DataProvider(name = "decodeThresholds")
+  private Object[][] decodeThresholds()
+  {
+    return new Object[][] {
+      { 0, 1 },
+      { Integer.MAX_VALUE, 0 }
+    };
+  }
+
+  @Test(dataProvider = "decodeThresholds")
+  public void testDecodeExecutor(int inlineDecodeThreshold, int expectedExecutions)
+    throws ExecutionException, InterruptedException, TimeoutException
+  {
+    final AtomicInteger executions = new AtomicInteger();
+    Executor executor = new Executor()
+    {
+      @Override
+      public void execute(Runnable command)
+      {
+        executions.incrementAndGet();
+        command.run();
+      }
+    };
+
+    RestClient client = mockClient("someErr", "WHOOPS!", "whoops2", 200, 666, executor, inlineDecodeThreshold);
+    Response<ErrorResponse> response = client.sendRequest(mockRequest(ErrorResponse.class)).get(1, TimeUnit.SECONDS);
+
+    Assert.assertEquals(response.getEntity().getMessage(), "whoops2");
+    Assert.assertEquals(executions.get(), expectedExecutions);
+  }
+
+  @Test(dataProvider = "decodeThresholds")
+  public void testDecodeExecutorErrorResponse(int inlineDecodeThreshold, int expectedExecutions)
+    throws InterruptedException, TimeoutException
+  {
+    final AtomicInteger executions = new AtomicInteger();
+    Executor executor = new Executor()
+    {
+      @Override
+      public void execute(Runnable command)
+      {
+        executions.incrementAndGet();
+        command.run();
+      }
+    };
+
+    RestClient client = mockClient("someErr", "WHOOPS!", "whoops2", 400, 666, executor, inlineDecodeThreshold);
+    try
+    {
+      client.sendRequest(mockRequest(ErrorResponse.class)).get(1, TimeUnit.SECONDS);
+      Assert.fail("Should have thrown");
+    }
+    catch (ExecutionException e)
+    {
+      RestLiResponseException cause = (RestLiResponseException) e.getCause();
+      Assert.assertEquals(cause.getServiceErrorMessage(), "whoops2");
+    }
+    Assert.assertEquals(executions.get(), expectedExecutions);
+  }
+
+  @Test
+  public void testDecodeExecutorRejected()
+    throws InterruptedException, TimeoutException
+  {
+    Executor executor = new Executor()
+    {
+      @Override
+      public void execute(Runnable command)
+      {
+        throw new RejectedExecutionException();
+      }
+    };
+
+    RestClient client = mockClient("someErr", "WHOOPS!", "whoops2", 200, 666, executor, 0);
+    try
+    {
+      client.sendRequest(mockRequest(ErrorResponse.class)).get(1, TimeUnit.SECONDS);
+      Assert.fail("Should have thrown");
+    }
+    catch (ExecutionException e)
+    {
+      Assert.assertTrue(e.getCause() instanceof RemoteInvocationException);
+      Assert.assertTrue(e.getCause().getCause() instanceof RejectedExecutionException);
+    }
+  }
+
+  @Test
+  public void testResponseDecodeExecutorQueueFull() throws InterruptedException
+  {
+    ResponseDecodeExecutor executor = new ResponseDecodeExecutor(1, 1);
+    final CountDownLatch blocked = new CountDownLatch(1);
+    final CountDownLatch release = new CountDownLatch(1);
+    try
+    {
+      executor.execute(new Runnable()
+      {
+        @Override
+        public void run()
+        {
+          blocked.countDown();
+          try
+          {
+            release.await();
+          }
+          catch (InterruptedException e)
+          {
+            Thread.currentThread().interrupt();
+          }
+        }
+      });
+      Assert.assertTrue(blocked.await(5, TimeUnit.SECONDS));
+
+      final AtomicInteger ran = new AtomicInteger();
+      Runnable count = new Runnable()
+      {
+        @Override
+        public void run()
+        {
+          ran.incrementAndGet();
+        }
+      };
+
+      // the first task waits in the queue, the second is rejected instead of run by the calling thread
+      executor.execute(count);
+      try
+      {
+        executor.execute(count);
+        Assert.fail("Should have been rejected");
+      }
+      catch (RejectedExecutionException e)
+      {
+        // expected
+      }
+
+      Assert.assertEquals(executor.getQueueSize(), 1);
+      Assert.assertEquals(executor.getRejectedCount(), 1);
+      Assert.assertEquals(ran.get(), 0);
+    }
+    finally
+    {
+      release.countDown();
+      executor.shutdown();
+    }
+  }
+
   private enum SendRequestOption
   {
     REQUEST_NO_CONTEXT(false, false),
@@ -481,6 +630,17 @@ public class RestClientTest
   }
 
   private RestClient mockClient(String errKey, String errValue, String errMsg, int httpCode, int appCode)
+  {
+    return mockClient(errKey, errValue, errMsg, httpCode, appCode, null, 0);
+  }
+
+  private RestClient mockClient(String errKey,
+                                String errValue,
+                                String errMsg,
+                                int httpCode,
+                                int appCode,
+                                Executor decodeExecutor,
+                                int inlineDecodeThreshold)
   {
     ErrorResponse er = new ErrorResponse();
 
@@ -505,6 +665,11 @@ public class RestClientTest
     headers.put(RestConstants.HEADER_LINKEDIN_TYPE, er.getClass().getName());
     headers.put(RestConstants.HEADER_LINKEDIN_ERROR_RESPONSE, RestConstants.HEADER_VALUE_ERROR_APPLICATION);
 
-    return new RestClient(new MyMockClient(httpCode, headers, mapBytes), "http://localhost");
+    return new RestClient(new MyMockClient(httpCode, headers, mapBytes),
+                          "http://localhost",
+                          RestClient.ContentType.JSON,
+                          Collections.<RestClient.AcceptType>emptyList(),
+                          decodeExecutor,
+                          inlineDecodeThreshold);
   }
 }
@@ -0,0 +1,122 @@
+/*
+   Copyright (c) 2012 LinkedIn Corp.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.linkedin.restli.internal.client;
+
+import java.net.URI;
+import java.util.Arrays;
+
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import com.linkedin.data.DataList;
+import com.linkedin.data.DataMap;
+import com.linkedin.jersey.api.uri.UriBuilder;
+import com.linkedin.restli.internal.common.QueryParamsDataMap;
+import com.linkedin.restli.internal.common.URLEscaper;
+import com.linkedin.restli.internal.common.URLEscaper.Escaping;
+
+public class TestRequestUriBuilder
+{
+  @DataProvider(name = "baseUris")
+  public Object[][] baseUris()
+  {
+    return new Object[][] {
+      { "" },
+      { "foo" },
+      { "foo/" },
+      { "/foo/1/bar" },
+      { "foo/a%20b/bar" },
+      { "http://localhost:1338/foo" },
+      { "foo?a=b" }
+    };
+  }
+
+  @Test(dataProvider = "baseUris")
+  public void testPath(String base)
+  {
+    URI baseUri = URI.create(base);
+    for (String segment : Arrays.asList("1", "/1", "", "a b", "a%20b", "{x}", "x/y",
+                                        URLEscaper.escape("http://example.com/images/1.png", Escaping.URL_ESCAPING),
+                                        "\u00e9t\u00e9"))
+    {
+      URI expected = UriBuilder.fromUri(baseUri).path(segment).path("baz").build();
+      URI actual = new RequestUriBuilder(baseUri).path(segment).path("baz").build();
+      Assert.assertEquals(actual, expected, "segment: " + segment);
+    }
+  }
+
+  @Test(dataProvider = "baseUris")
+  public void testSortedQueryParams(String base)
+  {
+    URI baseUri = URI.create(base);
+    DataMap params = new DataMap();
+    params.put("ids", new DataList(Arrays.asList("3", "1", "a&b=c", "%41", "")));
+    params.put("fields", "message,id");
+    params.put("empty", "");
+    params.put("q", "search term+");
+    DataMap complex = new DataMap();
+    complex.put("b", "2");
+    complex.put("a", "1");
+    params.put("key", complex);
+
+    UriBuilder uriBuilder = UriBuilder.fromUri(baseUri).path("1");
+    QueryParamsDataMap.addSortedParams(uriBuilder, params);
+
+    URI actual = new RequestUriBuilder(baseUri).path("1").sortedQueryParams(params).build();
+    Assert.assertEquals(actual, uriBuilder.build());
+  }
+
+  @Test
+  public void testNoQueryParams()
+  {
+    URI actual = new RequestUriBuilder(URI.create("foo/1/bar")).sortedQueryParams(new DataMap()).build();
+    Assert.assertEquals(actual, URI.create("foo/1/bar"));
+  }
+
+  @Test
+  public void testBuffersReusedAcrossBuilders()
+  {
+    RequestUriBuilder outer = new RequestUriBuilder(URI.create("foo")).path("1");
+    // created before outer is built, so it must not share outer's buffers
+    RequestUriBuilder inner = new RequestUriBuilder(URI.create("bar")).queryParam("a", "b");
+    Assert.assertEquals(outer.queryParam("c", "d").build(), URI.create("foo/1?c=d"));
+    Assert.assertEquals(inner.path("2").build(), URI.create("bar/2?a=b"));
+
+    // reuses the buffers returned above, which must not keep their content
+    Assert.assertEquals(new RequestUriBuilder(URI.create("baz")).build(), URI.create("baz"));
+  }
+
+  @Test(expectedExceptions = IllegalStateException.class)
+  public void testBuildTwice()
+  {
+    RequestUriBuilder builder = new RequestUriBuilder(URI.create("foo"));
+    builder.build();
+    builder.build();
+  }
+
+  @Test
+  public void testWrappedUriBuilder()
+  {
+    DataMap params = new DataMap();
+    params.put("q", "search term+");
+    UriBuilder uriBuilder = UriBuilder.fromUri(URI.create("foo"));
+    new RequestUriBuilder(uriBuilder).path("a b").sortedQueryParams(params);
+    URI expected = new RequestUriBuilder(URI.create("foo")).path("a b").sortedQueryParams(params).build();
+    Assert.assertEquals(uriBuilder.build(), expected);
+  }
+}
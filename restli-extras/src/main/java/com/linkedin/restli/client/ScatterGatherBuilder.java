@@ -20,7 +20,6 @@
 
 package com.linkedin.restli.client;
 
-import java.lang.reflect.InvocationTargetException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.ArrayList;
@@ -35,7 +34,6 @@ import com.linkedin.common.callback.Callback;
 import com.linkedin.d2.balancer.KeyMapper;
 import com.linkedin.d2.balancer.ServiceUnavailableException;
 import com.linkedin.d2.balancer.util.MapKeyResult;
-import com.linkedin.data.DataMap;
 import com.linkedin.data.schema.PathSpec;
 import com.linkedin.data.template.RecordTemplate;
 import com.linkedin.r2.message.RequestContext;
@@ -178,11 +176,13 @@ public class ScatterGatherBuilder<T extends RecordTemplate>
    */
   private <U, K> Map<U, Map<K, T>> keyMapToInput(MapKeyResult<U, K> mapKeyResult, BatchRequest batchRequest, Class<T> tClass)
   {
-    DataMap dataMap = batchRequest.getInput().data().getDataMap(com.linkedin.restli.common.BatchRequest.ENTITIES);
-    if (dataMap == null)
+    if (!(batchRequest.getInput() instanceof com.linkedin.restli.common.BatchRequest))
     {
       throw new IllegalArgumentException("given BatchRequest must have input data");
     }
+    // the input's entity map wraps each record once, with a constructor looked up once per map
+    @SuppressWarnings("unchecked")
+    Map<String, T> entities = ((com.linkedin.restli.common.BatchRequest<T>) batchRequest.getInput()).getEntities();
     Map<U, Collection<K>> map = mapKeyResult.getMapResult();
     Map<U, Map<K, T>> result = new HashMap<U, Map<K, T>>(map.size());
     for(Map.Entry<U, Collection<K>> entry : map.entrySet())
@@ -191,32 +191,11 @@ public class ScatterGatherBuilder<T extends RecordTemplate>
       Map<K, T> keyRecordMap = new HashMap<K, T>(keyList.size());
       for(K key : keyList)
       {
-        DataMap recordDataMap = dataMap.getDataMap(key.toString());
-        if (recordDataMap == null)
+        T record = entities.get(key.toString());
+        if (record == null)
         {
           throw new IllegalArgumentException("given BatchRequest input must have all keys present in mapKeyResult");
         }
-        T record;
-        try
-        {
-          record = tClass.getConstructor(DataMap.class).newInstance(recordDataMap);
-        }
-        catch (InstantiationException e)
-        {
-          throw new IllegalArgumentException("RecordTemplate class " + tClass + " should have a public DataMap constructor", e);
-        }
-        catch (IllegalAccessException e)
-        {
-          throw new IllegalArgumentException("RecordTemplate class " + tClass + " should have a public DataMap constructor", e);
-        }
-        catch (InvocationTargetException e)
-        {
-          throw new IllegalArgumentException("RecordTemplate class " + tClass + " should have a public DataMap constructor", e);
-        }
-        catch (NoSuchMethodException e)
-        {
-          throw new IllegalArgumentException("RecordTemplate class " + tClass + " should have a public DataMap constructor", e);
-        }
         keyRecordMap.put(key, record);
       }
       result.put(entry.getKey(), keyRecordMap);
@@ -0,0 +1,286 @@
+/*
+   Copyright (c) 2012 LinkedIn Corp.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.linkedin.restli.client;
+
+import java.util.Collection;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import com.linkedin.common.callback.Callback;
+import com.linkedin.d2.balancer.ServiceUnavailableException;
+import com.linkedin.d2.balancer.util.MapKeyResult;
+import com.linkedin.data.DataMap;
+import com.linkedin.data.template.RecordTemplate;
+import com.linkedin.r2.message.RequestContext;
+import com.linkedin.r2.transport.http.client.TimeoutCallback;
+import com.linkedin.r2.util.DeadlineUtil;
+import com.linkedin.restli.common.BatchResponse;
+import com.linkedin.restli.common.ErrorResponse;
+import com.linkedin.restli.common.HttpStatus;
+
+/**
+ * Sends the partitions of a {@link BatchGetRequest}, as built by {@link ScatterGatherBuilder}, and
+ * gathers their responses into a single {@link BatchResponse}.<p/>
+ *
+ * Each partition has a deadline.  A partition that fails or does not respond by its deadline does
+ * not fail the whole batch: each of its keys gets an {@link ErrorResponse} in the gathered
+ * response instead, with status 504 for a timeout, the status of the error response if the
+ * partition returned one, or 500 otherwise.  Keys that could not be mapped to a host get status
+ * 503.<p/>
+ *
+ * The results of each partition are merged as they arrive, without being re-wrapped.
+ *
+ * @param <T> the entity type of the batch request.
+ */
+public class ScatterGatherExecutor<T extends RecordTemplate>
+{
+  private final ScatterGatherBuilder<T> _builder;
+  private final RestClient _client;
+  private final ScheduledExecutorService _scheduler;
+
+  /**
+   * @param builder the {@link ScatterGatherBuilder} used to partition requests.
+   * @param client the {@link RestClient} used to send the partitions.
+   * @param scheduler the {@link ScheduledExecutorService} used to schedule partition timeouts.
+   */
+  public ScatterGatherExecutor(ScatterGatherBuilder<T> builder, RestClient client, ScheduledExecutorService scheduler)
+  {
+    _builder = builder;
+    _client = client;
+    _scheduler = scheduler;
+  }
+
+  /**
+   * Listener notified with the response of each partition as it completes, fails or times out,
+   * for callers which can use partial results before the whole batch is gathered.  It is invoked
+   * on the thread that completed the partition, possibly concurrently for different partitions.
+   */
+  public interface PartitionListener<T extends RecordTemplate>
+  {
+    /**
+     * @param requestInfo the request sent to the partition.
+     * @param partitionResponse the results of the partition, or errors for each of its keys if
+     *                          it failed or timed out.
+     */
+    void onPartition(ScatterGatherBuilder.RequestInfo<T> requestInfo, BatchResponse<T> partitionResponse);
+  }
+
+  /**
+   * Same as {@link #execute(BatchGetRequest, RequestContext, long, TimeUnit, PartitionListener, Callback)}
+   * without a {@link PartitionListener}.
+   */
+  public void execute(BatchGetRequest<T> request,
+                      RequestContext requestContext,
+                      long partitionTimeout,
+                      TimeUnit unit,
+                      Callback<BatchResponse<T>> callback)
+    throws ServiceUnavailableException
+  {
+    execute(request, requestContext, partitionTimeout, unit, null, callback);
+  }
+
+  /**
+   * Sends the partitions of the request concurrently and gathers their responses.
+   *
+   * @param request the batch get request.
+   * @param requestContext the original request context; each partition gets a clone.
+   * @param partitionTimeout the time each partition is given to respond, which is also set as the
+   *                         deadline of its request context.
+   * @param unit the {@link TimeUnit} of partitionTimeout.
+   * @param listener notified with the response of each partition, may be null.
+   * @param callback invoked once with the gathered response when every partition has completed,
+   *                 failed or timed out. Its onError is not invoked for partition failures.
+   * @throws ServiceUnavailableException if the request cannot be partitioned.
+   */
+  public void execute(BatchGetRequest<T> request,
+                      RequestContext requestContext,
+                      long partitionTimeout,
+                      TimeUnit unit,
+                      PartitionListener<T> listener,
+                      Callback<BatchResponse<T>> callback)
+    throws ServiceUnavailableException
+  {
+    ScatterGatherBuilder.ScatterGatherResult<T> scatterGatherResult = _builder.buildRequestsV2(request, requestContext);
+    Collection<ScatterGatherBuilder.RequestInfo<T>> requestInfos = scatterGatherResult.getRequestInfo();
+
+    @SuppressWarnings("unchecked")
+    Class<T> valueClass = (Class<T>) request.getResourceSpec().getValueClass();
+    Gatherer gatherer = new Gatherer(valueClass, requestInfos.size(), listener, callback);
+
+    for (MapKeyResult.UnmappedKey<String> unmappedKey : scatterGatherResult.getUnmappedKeys())
+    {
+      gatherer.addError(unmappedKey.getKey(),
+                        errorResponse(HttpStatus.S_503_SERVICE_UNAVAILABLE.getCode(),
+                                      "Unable to map key: " + unmappedKey.getErrorType()));
+    }
+
+    if (requestInfos.isEmpty())
+    {
+      gatherer.complete();
+      return;
+    }
+
+    for (ScatterGatherBuilder.RequestInfo<T> requestInfo : requestInfos)
+    {
+      DeadlineUtil.setTimeout(requestInfo.getRequestContext(), partitionTimeout, unit);
+      Callback<Response<BatchResponse<T>>> partitionCallback =
+          new TimeoutCallback<Response<BatchResponse<T>>>(_scheduler,
+                                                          partitionTimeout,
+                                                          unit,
+                                                          new PartitionCallback(gatherer, requestInfo),
+                                                          "Partition " + requestInfo.getRequest().getUri() + " timed out");
+      _client.sendRequest(requestInfo.getRequest(), requestInfo.getRequestContext(), partitionCallback);
+    }
+  }
+
+  private static ErrorResponse errorResponse(int status, String message)
+  {
+    ErrorResponse errorResponse = new ErrorResponse();
+    errorResponse.setStatus(status);
+    if (message != null)
+    {
+      errorResponse.setMessage(message);
+    }
+    return errorResponse;
+  }
+
+  private class PartitionCallback implements Callback<Response<BatchResponse<T>>>
+  {
+    private final Gatherer _gatherer;
+    private final ScatterGatherBuilder.RequestInfo<T> _requestInfo;
+
+    private PartitionCallback(Gatherer gatherer, ScatterGatherBuilder.RequestInfo<T> requestInfo)
+    {
+      _gatherer = gatherer;
+      _requestInfo = requestInfo;
+    }
+
+    @Override
+    public void onSuccess(Response<BatchResponse<T>> response)
+    {
+      _gatherer.onPartition(_requestInfo, response.getEntity());
+    }
+
+    @Override
+    public void onError(Throwable e)
+    {
+      int status;
+      String message;
+      if (e instanceof TimeoutException)
+      {
+        status = HttpStatus.S_504_GATEWAY_TIMEOUT.getCode();
+        message = e.getMessage();
+      }
+      else if (e instanceof RestLiResponseException)
+      {
+        status = ((RestLiResponseException) e).getStatus();
+        message = e.getMessage();
+      }
+      else
+      {
+        status = HttpStatus.S_500_INTERNAL_SERVER_ERROR.getCode();
+        message = e.toString();
+      }
+
+      // each key gets its own ErrorResponse, so that changing the error of one key does not
+      // change the others
+      BatchResponse<T> partitionResponse = _gatherer.newResponse();
+      DataMap errors = partitionResponse.data().getDataMap(BatchResponse.ERRORS);
+      for (Object id : _requestInfo.getBatchRequest().getIdObjects())
+      {
+        errors.put(id.toString(), errorResponse(status, message).data());
+      }
+      _gatherer.onPartition(_requestInfo, partitionResponse);
+    }
+  }
+
+  private class Gatherer
+  {
+    private final Class<T> _valueClass;
+    private final PartitionListener<T> _listener;
+    private final Callback<BatchResponse<T>> _callback;
+    private final DataMap _results = new DataMap();
+    private final DataMap _errors = new DataMap();
+    private int _remaining;
+
+    private Gatherer(Class<T> valueClass, int partitions, PartitionListener<T> listener, Callback<BatchResponse<T>> callback)
+    {
+      _valueClass = valueClass;
+      _remaining = partitions;
+      _listener = listener;
+      _callback = callback;
+    }
+
+    private BatchResponse<T> newResponse()
+    {
+      return new BatchResponse<T>(new DataMap(), _valueClass);
+    }
+
+    private synchronized void addError(String key, ErrorResponse error)
+    {
+      _errors.put(key, error.data());
+    }
+
+    private void onPartition(ScatterGatherBuilder.RequestInfo<T> requestInfo, BatchResponse<T> partitionResponse)
+    {
+      // the listener is notified before the partition is counted, so that every notification
+      // has returned by the time the callback is invoked
+      try
+      {
+        if (_listener != null)
+        {
+          _listener.onPartition(requestInfo, partitionResponse);
+        }
+      }
+      finally
+      {
+        boolean complete;
+        synchronized (this)
+        {
+          DataMap results = partitionResponse.data().getDataMap(BatchResponse.RESULTS);
+          if (results != null)
+          {
+            _results.putAll(results);
+          }
+          DataMap errors = partitionResponse.data().getDataMap(BatchResponse.ERRORS);
+          if (errors != null)
+          {
+            _errors.putAll(errors);
+          }
+          complete = --_remaining == 0;
+        }
+
+        if (complete)
+        {
+          complete();
+        }
+      }
+    }
+
+    private void complete()
+    {
+      DataMap data = new DataMap();
+      synchronized (this)
+      {
+        data.put(BatchResponse.RESULTS, _results);
+        data.put(BatchResponse.ERRORS, _errors);
+      }
+      _callback.onSuccess(new BatchResponse<T>(data, _valueClass));
+    }
+  }
+}
@@ -0,0 +1,243 @@
+/*
+   Copyright (c) 2012 LinkedIn Corp.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.linkedin.restli.client;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.Test;
+
+import com.linkedin.common.callback.Callback;
+import com.linkedin.common.callback.FutureCallback;
+import com.linkedin.common.util.None;
+import com.linkedin.d2.balancer.KeyMapper;
+import com.linkedin.d2.balancer.util.hashing.ConsistentHashKeyMapper;
+import com.linkedin.d2.balancer.util.hashing.ConsistentHashRing;
+import com.linkedin.d2.balancer.util.hashing.Ring;
+import com.linkedin.d2.balancer.util.hashing.StaticRingProvider;
+import com.linkedin.data.DataMap;
+import com.linkedin.data.codec.JacksonDataCodec;
+import com.linkedin.data.template.DynamicRecordMetadata;
+import com.linkedin.jersey.api.uri.UriComponent;
+import com.linkedin.r2.RemoteInvocationException;
+import com.linkedin.r2.message.RequestContext;
+import com.linkedin.r2.message.rest.RestRequest;
+import com.linkedin.r2.message.rest.RestResponse;
+import com.linkedin.r2.message.rest.RestResponseBuilder;
+import com.linkedin.r2.message.rpc.RpcRequest;
+import com.linkedin.r2.message.rpc.RpcResponse;
+import com.linkedin.r2.transport.common.AbstractClient;
+import com.linkedin.r2.util.DeadlineUtil;
+import com.linkedin.restli.common.BatchResponse;
+import com.linkedin.restli.common.ErrorResponse;
+import com.linkedin.restli.common.ResourceMethod;
+import com.linkedin.restli.common.ResourceSpec;
+import com.linkedin.restli.common.ResourceSpecImpl;
+import com.linkedin.restli.common.RestConstants;
+import com.linkedin.restli.examples.greetings.api.Greeting;
+
+public class TestScatterGatherExecutor
+{
+  private static final String TEST_URI = "test";
+  private static final ResourceSpec _COLL_SPEC =
+      new ResourceSpecImpl(EnumSet.allOf(ResourceMethod.class),
+                           Collections.<String, DynamicRecordMetadata> emptyMap(),
+                           Collections.<String, DynamicRecordMetadata> emptyMap(),
+                           String.class,
+                           null,
+                           null,
+                           Greeting.class,
+                           Collections.<String, Class<?>> emptyMap());
+
+  private final ScheduledExecutorService _scheduler = Executors.newSingleThreadScheduledExecutor();
+
+  @AfterClass
+  public void tearDown()
+  {
+    _scheduler.shutdownNow();
+  }
+
+  @Test
+  public void testPartialResults() throws Exception
+  {
+    // partition 0 responds, partition 1 fails and partition 2 never responds
+    ScatterGatherBuilder<Greeting> builder = new ScatterGatherBuilder<Greeting>(getKeyToHostMapper(3));
+    RestClient client = new RestClient(new PartitionedClient(), "d2://");
+    ScatterGatherExecutor<Greeting> executor = new ScatterGatherExecutor<Greeting>(builder, client, _scheduler);
+
+    BatchGetRequest<Greeting> request =
+        new BatchGetRequestBuilder<String, Greeting>(TEST_URI, Greeting.class, _COLL_SPEC)
+            .ids("0", "1", "2", "3", "4", "5", "abc")
+            .build();
+
+    final List<BatchResponse<Greeting>> partitionResponses = new ArrayList<BatchResponse<Greeting>>();
+    ScatterGatherExecutor.PartitionListener<Greeting> listener = new ScatterGatherExecutor.PartitionListener<Greeting>()
+    {
+      @Override
+      public void onPartition(ScatterGatherBuilder.RequestInfo<Greeting> requestInfo,
+                              BatchResponse<Greeting> partitionResponse)
+      {
+        Assert.assertNotNull(DeadlineUtil.getDeadline(requestInfo.getRequestContext()));
+        synchronized (partitionResponses)
+        {
+          partitionResponses.add(partitionResponse);
+        }
+      }
+    };
+
+    final FutureCallback<BatchResponse<Greeting>> callback = new FutureCallback<BatchResponse<Greeting>>();
+    final AtomicInteger notifiedPartitions = new AtomicInteger();
+    Callback<BatchResponse<Greeting>> countingCallback = new Callback<BatchResponse<Greeting>>()
+    {
+      @Override
+      public void onSuccess(BatchResponse<Greeting> result)
+      {
+        // every partition has been notified by the time the callback is invoked
+        synchronized (partitionResponses)
+        {
+          notifiedPartitions.set(partitionResponses.size());
+        }
+        callback.onSuccess(result);
+      }
+
+      @Override
+      public void onError(Throwable e)
+      {
+        callback.onError(e);
+      }
+    };
+    executor.execute(request, new RequestContext(), 100, TimeUnit.MILLISECONDS, listener, countingCallback);
+    BatchResponse<Greeting> response = callback.get(5, TimeUnit.SECONDS);
+
+    Assert.assertEquals(notifiedPartitions.get(), 3);
+
+    Map<String, Greeting> results = response.getResults();
+    Assert.assertEquals(results.keySet(), asSet("0", "3"));
+    Assert.assertEquals(results.get("3").getMessage(), "message 3");
+
+    Map<String, ErrorResponse> errors = response.getErrors();
+    Assert.assertEquals(errors.keySet(), asSet("1", "4", "2", "5", "abc"));
+    Assert.assertEquals(errors.get("1").getStatus(), 500);
+    Assert.assertEquals(errors.get("4").getStatus(), 500);
+    Assert.assertEquals(errors.get("2").getStatus(), 504);
+    Assert.assertEquals(errors.get("5").getStatus(), 504);
+    Assert.assertEquals(errors.get("abc").getStatus(), 503);
+    Assert.assertNotSame(errors.get("1").data(), errors.get("4").data());
+    Assert.assertNotSame(errors.get("2").data(), errors.get("5").data());
+  }
+
+  @Test
+  public void testNoMappedKeys() throws Exception
+  {
+    ScatterGatherBuilder<Greeting> builder = new ScatterGatherBuilder<Greeting>(getKeyToHostMapper(3));
+    RestClient client = new RestClient(new PartitionedClient(), "d2://");
+    ScatterGatherExecutor<Greeting> executor = new ScatterGatherExecutor<Greeting>(builder, client, _scheduler);
+
+    BatchGetRequest<Greeting> request =
+        new BatchGetRequestBuilder<String, Greeting>(TEST_URI, Greeting.class, _COLL_SPEC).ids("abc").build();
+
+    FutureCallback<BatchResponse<Greeting>> callback = new FutureCallback<BatchResponse<Greeting>>();
+    executor.execute(request, new RequestContext(), 100, TimeUnit.MILLISECONDS, callback);
+    BatchResponse<Greeting> response = callback.get(5, TimeUnit.SECONDS);
+
+    Assert.assertTrue(response.getResults().isEmpty());
+    Assert.assertEquals(response.getErrors().keySet(), asSet("abc"));
+  }
+
+  private static Set<String> asSet(String... values)
+  {
+    return new HashSet<String>(Arrays.asList(values));
+  }
+
+  private static ConsistentHashKeyMapper getKeyToHostMapper(int partitionNum) throws URISyntaxException
+  {
+    List<Ring<URI>> rings = new ArrayList<Ring<URI>>();
+    for (int i = 0; i < partitionNum; i++)
+    {
+      rings.add(new ConsistentHashRing<URI>(Collections.singletonMap(new URI(TEST_URI + i), 100)));
+    }
+    return new ConsistentHashKeyMapper(new StaticRingProvider(rings));
+  }
+
+  /**
+   * Responds to batch gets sent to host "test0", fails those sent to "test1" and never responds to
+   * those sent to "test2".
+   */
+  private static class PartitionedClient extends AbstractClient
+  {
+    @Override
+    public void restRequest(RestRequest request, RequestContext requestContext, Callback<RestResponse> callback)
+    {
+      URI host = KeyMapper.TargetHostHints.getRequestContextTargetHost(requestContext);
+      if (host.toString().equals(TEST_URI + 0))
+      {
+        DataMap results = new DataMap();
+        for (String id : UriComponent.decodeQuery(request.getURI(), true).get(RestConstants.QUERY_BATCH_IDS_PARAM))
+        {
+          Greeting greeting = new Greeting();
+          greeting.setMessage("message " + id);
+          results.put(id, greeting.data());
+        }
+        DataMap data = new DataMap();
+        data.put(BatchResponse.RESULTS, results);
+        data.put(BatchResponse.ERRORS, new DataMap());
+
+        try
+        {
+          callback.onSuccess(new RestResponseBuilder().setStatus(200)
+                                 .setEntity(new JacksonDataCodec().mapToBytes(data))
+                                 .build());
+        }
+        catch (IOException e)
+        {
+          callback.onError(e);
+        }
+      }
+      else if (host.toString().equals(TEST_URI + 1))
+      {
+        callback.onError(new RemoteInvocationException("partition 1 is down"));
+      }
+    }
+
+    @Override
+    public void rpcRequest(RpcRequest request, RequestContext requestContext, Callback<RpcResponse> callback)
+    {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void shutdown(Callback<None> callback)
+    {
+      callback.onSuccess(None.none());
+    }
+  }
+}
@@ -25,7 +25,10 @@ import org.apache.log4j.BasicConfigurator;
 
 import com.linkedin.parseq.Engine;
 import com.linkedin.parseq.EngineBuilder;
+import com.linkedin.r2.filter.FilterChain;
 import com.linkedin.r2.filter.FilterChains;
+import com.linkedin.r2.filter.admission.AdmissionControlFilter;
+import com.linkedin.r2.filter.admission.AdmissionController;
 import com.linkedin.r2.transport.common.bridge.server.TransportDispatcher;
 import com.linkedin.r2.transport.http.server.HttpServer;
 import com.linkedin.r2.transport.http.server.HttpServerFactory;
@@ -53,6 +56,20 @@ public class StandaloneLauncher
    * @param packages package names to scan for RestLi resources
    */
   public StandaloneLauncher(final int port, final String... packages)
+  {
+    this(port, false, packages);
+  }
+
+  /**
+   * Construct a new standalone RestLi server that will listen on the given port and serve RestLi
+   * resources from the given packages.
+   *
+   * @param port the port to listen on
+   * @param admissionControl true to shed load with an {@link AdmissionControlFilter} using the
+   *                         default {@link AdmissionController} tuning
+   * @param packages package names to scan for RestLi resources
+   */
+  public StandaloneLauncher(final int port, final boolean admissionControl, final String... packages)
   {
     _port = port;
     _packages = packages;
@@ -71,7 +88,10 @@ public class StandaloneLauncher
 
     final RestLiServer restServer = new RestLiServer(config, new PrototypeResourceFactory(), engine);
     final TransportDispatcher dispatcher = new DelegatingTransportDispatcher(restServer);
-    _server = new HttpServerFactory(FilterChains.empty()).createServer(_port, dispatcher);
+    final FilterChain filters = admissionControl
+        ? FilterChains.create(new AdmissionControlFilter(new AdmissionController()))
+        : FilterChains.empty();
+    _server = new HttpServerFactory(filters).createServer(_port, dispatcher);
   }
 
   /**
@@ -114,7 +134,7 @@ public class StandaloneLauncher
    * Start a standalone launcher using configuration specified in args. The port defaults to 1338
    * and is optional, but the packages are required.
    *
-   * @param args <code>[-port port] [-packages package1,package2,...]</code>
+   * @param args <code>[-port port] [-admissioncontrol] [-packages package1,package2,...]</code>
    * @throws IOException startup/shutdown fails
    */
   public static void main(final String[] args) throws IOException
@@ -142,6 +162,7 @@ public class StandaloneLauncher
     }
 
     int port = 1338;
+    boolean admissionControl = false;
     String[] packages = null;
     for (int i = 0; i < args.length; i++)
     {
@@ -166,6 +187,10 @@ public class StandaloneLauncher
           help();
         }
       }
+      else if (args[i].equals("-admissioncontrol"))
+      {
+        admissionControl = true;
+      }
       else if (args[i].equals("-packages"))
       {
         if (hasValueArg)
@@ -184,7 +209,7 @@ public class StandaloneLauncher
       help();
     }
 
-    return new StandaloneLauncher(port, packages);
+    return new StandaloneLauncher(port, admissionControl, packages);
   }
 
   /**
@@ -192,7 +217,7 @@ public class StandaloneLauncher
    */
   private static void help()
   {
-    System.out.println("Usage: launcher [-port port] [-packages package1,package2,...]");
+    System.out.println("Usage: launcher [-port port] [-admissioncontrol] [-packages package1,package2,...]");
     System.exit(0);
   }
 }
@@ -0,0 +1,485 @@
+/*
+   Copyright (c) 2012 LinkedIn Corp.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.linkedin.restli.internal.server;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.linkedin.data.template.RecordTemplate;
+import com.linkedin.data.transform.filter.request.MaskTree;
+import com.linkedin.parseq.BaseTask;
+import com.linkedin.parseq.Context;
+import com.linkedin.parseq.Engine;
+import com.linkedin.parseq.Task;
+import com.linkedin.parseq.promise.Promise;
+import com.linkedin.parseq.promise.PromiseListener;
+import com.linkedin.parseq.promise.Promises;
+import com.linkedin.r2.message.RequestContext;
+import com.linkedin.r2.message.rest.RestRequest;
+import com.linkedin.r2.util.DeadlineUtil;
+import com.linkedin.restli.common.HttpStatus;
+import com.linkedin.restli.common.ResourceMethod;
+import com.linkedin.restli.internal.server.methods.arguments.ArgumentBuilder;
+import com.linkedin.restli.internal.server.model.Parameter;
+import com.linkedin.restli.internal.server.model.ResourceMethodDescriptor;
+import com.linkedin.restli.internal.server.model.ResourceMethodDescriptor.InterfaceType;
+import com.linkedin.restli.internal.server.model.ResourceModel;
+import com.linkedin.restli.internal.server.model.ResourceType;
+import com.linkedin.restli.internal.server.util.ArgumentUtils;
+import com.linkedin.restli.internal.server.util.DataMapUtils;
+import com.linkedin.restli.server.BatchResult;
+import com.linkedin.restli.server.BatchUpdateResult;
+import com.linkedin.restli.server.PathKeys;
+import com.linkedin.restli.server.ResourceContext;
+import com.linkedin.restli.server.RestLiCallback;
+import com.linkedin.restli.server.RestLiServiceException;
+import com.linkedin.restli.server.UpdateResponse;
+import com.linkedin.restli.server.resources.BaseResource;
+import com.linkedin.restli.server.resources.ResourceFactory;
+
+/**
+ * Executes BATCH_GET, BATCH_UPDATE and BATCH_DELETE requests for resources which only implement
+ * the single-key variant of the method, by invoking the single-key method for every key of the
+ * batch.<p/>
+ *
+ * Each key is run as a separate ParSeq plan, so that blocking resource methods for different keys
+ * execute concurrently on the engine's threads.  At most {@code parallelism} keys of a batch are in
+ * flight at a time.  Failures are reported per key, as they would have been had the resource
+ * implemented the batch method itself.<p/>
+ *
+ * Since the keys run concurrently, each key's resource gets its own {@link ResourceContext}, with
+ * its own response headers and copy of the {@link RequestContext}.  The response headers of all
+ * keys are merged into the request's context once every key has completed.
+ */
+public class ParallelBatchInvoker
+{
+  private static final Map<ResourceMethod, ResourceMethod> PER_KEY_METHODS;
+  static
+  {
+    PER_KEY_METHODS = new LinkedHashMap<ResourceMethod, ResourceMethod>();
+    PER_KEY_METHODS.put(ResourceMethod.BATCH_GET, ResourceMethod.GET);
+    PER_KEY_METHODS.put(ResourceMethod.BATCH_UPDATE, ResourceMethod.UPDATE);
+    PER_KEY_METHODS.put(ResourceMethod.BATCH_DELETE, ResourceMethod.DELETE);
+  }
+
+  private final ResourceFactory _resourceFactory;
+  private final Engine _engine;
+  private final int _parallelism;
+
+  /**
+   * Constructor.
+   *
+   * @param resourceFactory {@link ResourceFactory} used to create a resource instance per key
+   * @param engine {@link Engine} the per-key invocations are run on
+   * @param parallelism maximum number of keys of a batch processed concurrently
+   */
+  public ParallelBatchInvoker(final ResourceFactory resourceFactory,
+                              final Engine engine,
+                              final int parallelism)
+  {
+    if (parallelism < 1)
+    {
+      throw new IllegalArgumentException("parallelism must be positive: " + parallelism);
+    }
+    _resourceFactory = resourceFactory;
+    _engine = engine;
+    _parallelism = parallelism;
+  }
+
+  /**
+   * Add batch methods executed by this class to the given resources and their sub-resources.
+   * A batch method is only added to a collection resource which does not implement it, but
+   * implements the corresponding single-key method synchronously.
+   *
+   * @param resources resource models to augment
+   */
+  public static void addParallelBatchMethods(final Iterable<ResourceModel> resources)
+  {
+    for (ResourceModel model : resources)
+    {
+      if (model.getResourceType() == ResourceType.COLLECTION)
+      {
+        for (Map.Entry<ResourceMethod, ResourceMethod> entry : PER_KEY_METHODS.entrySet())
+        {
+          final ResourceMethodDescriptor perKey = model.findMethod(entry.getValue());
+          if (model.findMethod(entry.getKey()) == null && isFanOutCandidate(perKey))
+          {
+            model.addResourceMethodDescriptor(ResourceMethodDescriptor.createForParallelBatch(entry.getKey(),
+                                                                                               perKey));
+          }
+        }
+      }
+      addParallelBatchMethods(model.getSubResources());
+    }
+  }
+
+  private static boolean isFanOutCandidate(final ResourceMethodDescriptor descriptor)
+  {
+    // association keys are resolved from the request path, which has none for a batch request
+    return descriptor != null
+        && descriptor.getInterfaceType() == InterfaceType.SYNC
+        && descriptor.indexOfParameterType(Parameter.ParamType.KEY) == -1;
+  }
+
+  /**
+   * Invoke the single-key method for each key of the batch and complete the callback with the
+   * combined {@link BatchResult} or {@link BatchUpdateResult}.
+   *
+   * @param invocableMethod {@link RoutingResult} of a method created by
+   *                        {@link ResourceMethodDescriptor#createForParallelBatch}
+   * @param request {@link RestRequest}
+   * @param callback {@link RestLiCallback}
+   */
+  public void invoke(final RoutingResult invocableMethod,
+                     final RestRequest request,
+                     final RestLiCallback<Object> callback)
+  {
+    final ResourceMethodDescriptor descriptor = invocableMethod.getResourceMethod();
+    final Object[] keys = invocableMethod.getContext().getPathKeys().getBatchKeys().toArray();
+
+    final Map<?, ?> entities;
+    if (descriptor.getType() == ResourceMethod.BATCH_UPDATE)
+    {
+      entities = ArgumentUtils.buildBatchRequestMap(DataMapUtils.readMap(request),
+                                                    ArgumentUtils.getValueClass(invocableMethod),
+                                                    invocableMethod.getContext().getPathKeys().getBatchKeys());
+    }
+    else
+    {
+      entities = Collections.emptyMap();
+    }
+
+    new BatchInvocation(invocableMethod,
+                        entities,
+                        keys,
+                        DeadlineUtil.getDeadline(invocableMethod.getContext().getRawRequestContext()),
+                        callback).start();
+  }
+
+  /**
+   * State of a single batch request.  Results are written to per-key slots before the pending
+   * count is decremented, so the thread which completes the last key sees all of them.
+   */
+  private class BatchInvocation
+  {
+    private final RoutingResult _invocableMethod;
+    private final Map<?, ?> _entities;
+    private final Object[] _keys;
+    private final Long _deadline;
+    private final RestLiCallback<Object> _callback;
+    private final Object[] _results;
+    private final RestLiServiceException[] _errors;
+    private final PerKeyResourceContext[] _contexts;
+    private final AtomicInteger _nextKey = new AtomicInteger();
+    private final AtomicInteger _pending;
+
+    private BatchInvocation(final RoutingResult invocableMethod,
+                            final Map<?, ?> entities,
+                            final Object[] keys,
+                            final Long deadline,
+                            final RestLiCallback<Object> callback)
+    {
+      _invocableMethod = invocableMethod;
+      _entities = entities;
+      _keys = keys;
+      _deadline = deadline;
+      _callback = callback;
+      _results = new Object[keys.length];
+      _errors = new RestLiServiceException[keys.length];
+      _contexts = new PerKeyResourceContext[keys.length];
+      _pending = new AtomicInteger(keys.length);
+    }
+
+    private void start()
+    {
+      if (_keys.length == 0)
+      {
+        complete();
+        return;
+      }
+
+      for (int i = 0; i < Math.min(_parallelism, _keys.length); i++)
+      {
+        startNextKey();
+      }
+    }
+
+    private void startNextKey()
+    {
+      final int index = _nextKey.getAndIncrement();
+      if (index >= _keys.length)
+      {
+        return;
+      }
+
+      final Task<Object> task = new PerKeyTask(this, index);
+      task.addListener(new PromiseListener<Object>()
+      {
+        @Override
+        public void onResolved(final Promise<Object> promise)
+        {
+          if (promise.isFailed())
+          {
+            _errors[index] = toServiceException(promise.getError());
+          }
+          else
+          {
+            _results[index] = promise.get();
+          }
+
+          if (_pending.decrementAndGet() == 0)
+          {
+            complete();
+          }
+          else
+          {
+            startNextKey();
+          }
+        }
+      });
+      _engine.run(task);
+    }
+
+    private Object[] buildArguments(final int index, final ResourceContext context)
+    {
+      final ResourceMethodDescriptor perKey =
+          _invocableMethod.getResourceMethod().getPerKeyMethodDescriptor();
+      final Object key = _keys[index];
+
+      final Object[] positionalArgs;
+      if (perKey.getType() == ResourceMethod.UPDATE)
+      {
+        final Object entity = _entities.get(key);
+        if (entity == null)
+        {
+          throw new RestLiServiceException(HttpStatus.S_400_BAD_REQUEST,
+                                           "No entity provided for key '" + key + "'");
+        }
+        positionalArgs = new Object[] { key, entity };
+      }
+      else
+      {
+        positionalArgs = new Object[] { key };
+      }
+      return ArgumentBuilder.buildArgs(positionalArgs, perKey.getParameters(), context);
+    }
+
+    private void complete()
+    {
+      // the contexts were written before the pending count was decremented, and no key is running
+      final ResourceContext requestContext = _invocableMethod.getContext();
+      for (PerKeyResourceContext context : _contexts)
+      {
+        if (context != null)
+        {
+          for (Map.Entry<String, String> header : context.getResponseHeaders().entrySet())
+          {
+            requestContext.setResponseHeader(header.getKey(), header.getValue());
+          }
+        }
+      }
+
+      final Map<Object, Object> results = new LinkedHashMap<Object, Object>();
+      final Map<Object, RestLiServiceException> errors =
+          new LinkedHashMap<Object, RestLiServiceException>();
+      final boolean isGet = _invocableMethod.getResourceMethod().getType() == ResourceMethod.BATCH_GET;
+
+      for (int i = 0; i < _keys.length; i++)
+      {
+        if (_errors[i] != null)
+        {
+          errors.put(_keys[i], _errors[i]);
+        }
+        else if (_results[i] == null)
+        {
+          errors.put(_keys[i], isGet ? new RestLiServiceException(HttpStatus.S_404_NOT_FOUND)
+                                     : new RestLiServiceException(HttpStatus.S_500_INTERNAL_SERVER_ERROR,
+                                                                  "Error in application code: null UpdateResponse"));
+        }
+        else
+        {
+          results.put(_keys[i], _results[i]);
+        }
+      }
+
+      if (isGet)
+      {
+        @SuppressWarnings("unchecked")
+        final Map<Object, RecordTemplate> records = (Map<Object, RecordTemplate>) (Map<?, ?>) results;
+        _callback.onSuccess(new BatchResult<Object, RecordTemplate>(records, errors));
+      }
+      else
+      {
+        @SuppressWarnings("unchecked")
+        final Map<Object, UpdateResponse> responses = (Map<Object, UpdateResponse>) (Map<?, ?>) results;
+        _callback.onSuccess(new BatchUpdateResult<Object, RecordTemplate>(responses, errors));
+      }
+    }
+  }
+
+  private static RestLiServiceException toServiceException(final Throwable t)
+  {
+    final Throwable cause =
+        t instanceof InvocationTargetException ? ((InvocationTargetException) t).getCause() : t;
+    if (cause instanceof RestLiServiceException)
+    {
+      return (RestLiServiceException) cause;
+    }
+    return new RestLiServiceException(HttpStatus.S_500_INTERNAL_SERVER_ERROR,
+                                      "Error in application code",
+                                      cause);
+  }
+
+  /**
+   * ParSeq task which invokes the single-key method for one key of a batch.
+   */
+  private class PerKeyTask extends BaseTask<Object>
+  {
+    private final BatchInvocation _invocation;
+    private final int _index;
+
+    private PerKeyTask(final BatchInvocation invocation, final int index)
+    {
+      _invocation = invocation;
+      _index = index;
+    }
+
+    @Override
+    protected Promise<?> run(final Context context)
+    {
+      final Long previousDeadline = DeadlineUtil.setCurrentDeadline(_invocation._deadline);
+      try
+      {
+        final RoutingResult invocableMethod = _invocation._invocableMethod;
+        final PerKeyResourceContext resourceContext = new PerKeyResourceContext(invocableMethod.getContext());
+        _invocation._contexts[_index] = resourceContext;
+
+        final Object resource =
+            _resourceFactory.create(invocableMethod.getResourceMethod().getResourceModel().getResourceClass());
+        if (resource instanceof BaseResource)
+        {
+          ((BaseResource) resource).setContext(resourceContext);
+        }
+
+        final Object[] arguments = _invocation.buildArguments(_index, resourceContext);
+        return Promises.value(invocableMethod.getResourceMethod().getMethod().invoke(resource, arguments));
+      }
+      catch (Throwable t)
+      {
+        return Promises.error(t);
+      }
+      finally
+      {
+        DeadlineUtil.setCurrentDeadline(previousDeadline);
+      }
+    }
+  }
+
+  /**
+   * {@link ResourceContext} of one key of a batch.  Request state is read from the context of the
+   * batch request, which is not modified while keys run; response headers and local attributes of
+   * the {@link RequestContext} are kept per key.
+   */
+  private static class PerKeyResourceContext implements ResourceContext
+  {
+    private final ResourceContext _batchContext;
+    private final RequestContext _requestContext;
+    private final Map<String, String> _responseHeaders = new HashMap<String, String>();
+
+    private PerKeyResourceContext(final ResourceContext batchContext)
+    {
+      _batchContext = batchContext;
+      _requestContext = new RequestContext(batchContext.getRawRequestContext());
+    }
+
+    @Override
+    public RestRequest getRawRequest()
+    {
+      return _batchContext.getRawRequest();
+    }
+
+    @Override
+    public String getRequestMethod()
+    {
+      return _batchContext.getRequestMethod();
+    }
+
+    @Override
+    public PathKeys getPathKeys()
+    {
+      return _batchContext.getPathKeys();
+    }
+
+    @Override
+    public MaskTree getProjectionMask()
+    {
+      return _batchContext.getProjectionMask();
+    }
+
+    @Override
+    public boolean hasParameter(final String key)
+    {
+      return _batchContext.hasParameter(key);
+    }
+
+    @Override
+    public String getParameter(final String key)
+    {
+      return _batchContext.getParameter(key);
+    }
+
+    @Override
+    public Object getStructuredParameter(final String key)
+    {
+      return _batchContext.getStructuredParameter(key);
+    }
+
+    @Override
+    public List<String> getParameterValues(final String key)
+    {
+      return _batchContext.getParameterValues(key);
+    }
+
+    @Override
+    public Map<String, String> getRequestHeaders()
+    {
+      return _batchContext.getRequestHeaders();
+    }
+
+    @Override
+    public void setResponseHeader(final String name, final String value)
+    {
+      _responseHeaders.put(name, value);
+    }
+
+    @Override
+    public RequestContext getRawRequestContext()
+    {
+      return _requestContext;
+    }
+
+    private Map<String, String> getResponseHeaders()
+    {
+      return _responseHeaders;
+    }
+  }
+}
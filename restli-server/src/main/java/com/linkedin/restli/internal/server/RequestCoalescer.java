@@ -0,0 +1,230 @@
+/*
+   Copyright (c) 2012 LinkedIn Corp.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.linkedin.restli.internal.server;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import com.linkedin.common.callback.Callback;
+import com.linkedin.r2.message.rest.RestRequest;
+import com.linkedin.r2.message.rest.RestResponse;
+
+/**
+ * Collapses identical concurrent read requests into a single resource invocation.<p/>
+ *
+ * Requests are identical if they have the same method, URI (which covers the resource, key,
+ * projection and query parameters) and values of the configured key headers.  The first request
+ * for a given key is executed; requests which arrive while it is in flight wait for its response,
+ * which is delivered to all of them.  Optionally, a successful response is kept for a short time
+ * and served directly to identical requests.<p/>
+ *
+ * This class is thread-safe.
+ */
+public class RequestCoalescer
+{
+  private final int _maxWaiters;
+  private final long _resultTtlNanos;
+  private final List<String> _keyHeaders;
+
+  private final Object _lock = new Object();
+
+  // guarded by _lock
+  private final Map<String, InFlightRequest> _inFlight = new HashMap<String, InFlightRequest>();
+  private final Map<String, CachedResponse> _results;
+
+  /**
+   * Constructor.
+   *
+   * @param maxWaiters maximum number of requests which may wait for a single in-flight request.
+   *                   Further identical requests are executed on their own.
+   * @param resultTtl time, in milliseconds, for which a successful response is served to identical
+   *                  requests after it completed, or 0 to only coalesce in-flight requests.
+   * @param maxCachedResults maximum number of responses retained when resultTtl is positive.
+   * @param keyHeaders names of request headers whose values distinguish otherwise identical requests.
+   */
+  public RequestCoalescer(final int maxWaiters,
+                          final long resultTtl,
+                          final int maxCachedResults,
+                          final Collection<String> keyHeaders)
+  {
+    _maxWaiters = maxWaiters;
+    _resultTtlNanos = TimeUnit.MILLISECONDS.toNanos(resultTtl);
+    _keyHeaders = new ArrayList<String>(keyHeaders);
+    _results = new LinkedHashMap<String, CachedResponse>(16, 0.75f, true)
+    {
+      private static final long serialVersionUID = 1L;
+
+      @Override
+      protected boolean removeEldestEntry(final Map.Entry<String, CachedResponse> eldest)
+      {
+        return size() > maxCachedResults;
+      }
+    };
+  }
+
+  /**
+   * Register a request with the coalescer.<p/>
+   *
+   * If an identical request is in flight, or a cached response is available, the callback will be
+   * completed with that response and null is returned; the caller must not execute the request.
+   * Otherwise the caller must execute the request and complete the returned callback, which
+   * delivers the response to the given callback and to every identical request that arrives in
+   * the meantime.
+   *
+   * @param request the {@link RestRequest}
+   * @param callback callback for the response of this request
+   * @return callback to complete with the response, or null if the request was coalesced
+   */
+  public Callback<RestResponse> join(final RestRequest request, final Callback<RestResponse> callback)
+  {
+    final String key = buildKey(request);
+    final RestResponse cached;
+
+    synchronized (_lock)
+    {
+      final InFlightRequest inFlight = _inFlight.get(key);
+      if (inFlight != null)
+      {
+        if (inFlight._waiters.size() >= _maxWaiters)
+        {
+          return callback;
+        }
+        inFlight._waiters.add(callback);
+        return null;
+      }
+
+      cached = getCachedResponse(key);
+      if (cached == null)
+      {
+        final InFlightRequest leader = new InFlightRequest(key, callback);
+        _inFlight.put(key, leader);
+        return leader;
+      }
+    }
+
+    callback.onSuccess(cached);
+    return null;
+  }
+
+  private RestResponse getCachedResponse(final String key)
+  {
+    final CachedResponse cached = _results.get(key);
+    if (cached == null)
+    {
+      return null;
+    }
+    if (System.nanoTime() - cached._expiresAt >= 0)
+    {
+      _results.remove(key);
+      return null;
+    }
+    return cached._response;
+  }
+
+  private String buildKey(final RestRequest request)
+  {
+    final StringBuilder sb = new StringBuilder();
+    sb.append(request.getMethod()).append(' ').append(request.getURI());
+    for (String header : _keyHeaders)
+    {
+      final String value = request.getHeader(header);
+      sb.append('\n').append(header).append(':');
+      if (value != null)
+      {
+        sb.append(value);
+      }
+    }
+    return sb.toString();
+  }
+
+  /**
+   * @return the number of distinct requests currently in flight.
+   */
+  public int getInFlightCount()
+  {
+    synchronized (_lock)
+    {
+      return _inFlight.size();
+    }
+  }
+
+  private static class CachedResponse
+  {
+    private final RestResponse _response;
+    private final long _expiresAt;
+
+    private CachedResponse(final RestResponse response, final long expiresAt)
+    {
+      _response = response;
+      _expiresAt = expiresAt;
+    }
+  }
+
+  /**
+   * Callback for the executed request, which fans the result out to all of its waiters.
+   */
+  private class InFlightRequest implements Callback<RestResponse>
+  {
+    private final String _key;
+    private final List<Callback<RestResponse>> _waiters = new ArrayList<Callback<RestResponse>>();
+
+    private InFlightRequest(final String key, final Callback<RestResponse> callback)
+    {
+      _key = key;
+      _waiters.add(callback);
+    }
+
+    @Override
+    public void onSuccess(final RestResponse result)
+    {
+      final List<Callback<RestResponse>> waiters = complete(result);
+      for (Callback<RestResponse> waiter : waiters)
+      {
+        waiter.onSuccess(result);
+      }
+    }
+
+    @Override
+    public void onError(final Throwable e)
+    {
+      final List<Callback<RestResponse>> waiters = complete(null);
+      for (Callback<RestResponse> waiter : waiters)
+      {
+        waiter.onError(e);
+      }
+    }
+
+    private List<Callback<RestResponse>> complete(final RestResponse response)
+    {
+      synchronized (_lock)
+      {
+        _inFlight.remove(_key);
+        if (response != null && _resultTtlNanos > 0)
+        {
+          _results.put(_key, new CachedResponse(response, System.nanoTime() + _resultTtlNanos));
+        }
+        // no waiters can be added once the request is no longer registered
+        return _waiters;
+      }
+    }
+  }
+}
@@ -28,6 +28,7 @@ import com.linkedin.parseq.promise.Promise;
 import com.linkedin.parseq.promise.PromiseListener;
 import com.linkedin.parseq.promise.Promises;
 import com.linkedin.r2.message.rest.RestRequest;
+import com.linkedin.r2.util.DeadlineUtil;
 import com.linkedin.restli.common.HttpStatus;
 import com.linkedin.restli.internal.server.methods.MethodAdapterRegistry;
 import com.linkedin.restli.internal.server.methods.arguments.RestLiArgumentBuilder;
@@ -48,6 +49,7 @@ public class RestLiMethodInvoker
 {
   private final ResourceFactory _resourceFactory;
   private final Engine _engine;
+  private final ParallelBatchInvoker _parallelBatchInvoker;
 
   /**
    * Constructor.
@@ -56,9 +58,27 @@ public class RestLiMethodInvoker
    * @param engine {@link Engine}
    */
   public RestLiMethodInvoker(final ResourceFactory resourceFactory, final Engine engine)
+  {
+    this(resourceFactory, engine, 0);
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param resourceFactory {@link ResourceFactory}
+   * @param engine {@link Engine}
+   * @param batchParallelism maximum number of keys processed concurrently for batch methods
+   *                         which fan out to a single-key method, or 0 if fan-out is disabled
+   */
+  public RestLiMethodInvoker(final ResourceFactory resourceFactory,
+                             final Engine engine,
+                             final int batchParallelism)
   {
     _resourceFactory = resourceFactory;
     _engine = engine;
+    _parallelBatchInvoker = (engine != null && batchParallelism > 0)
+        ? new ParallelBatchInvoker(resourceFactory, engine, batchParallelism)
+        : null;
   }
 
   /**
@@ -75,6 +95,17 @@ public class RestLiMethodInvoker
     ResourceMethodDescriptor resourceMethodDescriptor =
         invocableMethod.getResourceMethod();
 
+    if (resourceMethodDescriptor.getPerKeyMethodDescriptor() != null)
+    {
+      if (_parallelBatchInvoker == null)
+      {
+        throw new IllegalStateException("Batch fan-out is not enabled for method: "
+            + resourceMethodDescriptor);
+      }
+      _parallelBatchInvoker.invoke(invocableMethod, request, callback);
+      return;
+    }
+
     Object resource =
         _resourceFactory.create(resourceMethodDescriptor.getResourceModel()
                                                         .getResourceClass());
@@ -94,19 +125,29 @@ public class RestLiMethodInvoker
 
     Object[] args = adapter.buildArguments(invocableMethod, request);
 
+    // Publish the request deadline while application code runs, so that downstream calls it
+    // makes inherit the deadline.
+    final Long deadline =
+        DeadlineUtil.getDeadline(invocableMethod.getContext().getRawRequestContext());
+    final Long previousDeadline = DeadlineUtil.setCurrentDeadline(deadline);
     try
     {
-      doInvoke(resourceMethodDescriptor, callback, resource, args);
+      doInvoke(resourceMethodDescriptor, callback, resource, deadline, args);
     }
     catch (IllegalAccessException e)
     {
       throw new RuntimeException(e);
     }
+    finally
+    {
+      DeadlineUtil.setCurrentDeadline(previousDeadline);
+    }
   }
 
   private void doInvoke(final ResourceMethodDescriptor descriptor,
                         final RestLiCallback<Object> callback,
                         final Object resource,
+                        final Long deadline,
                         final Object... arguments) throws IllegalAccessException
   {
     Method method = descriptor.getMethod();
@@ -135,7 +176,7 @@ public class RestLiMethodInvoker
             descriptor.indexOfParameterType(ParamType.PARSEQ_CONTEXT);
         // run through the engine to get the context
         Task<Object> restliTask =
-            new RestLiParSeqTask(arguments, contextIndex, method, resource);
+            new RestLiParSeqTask(arguments, contextIndex, method, resource, deadline);
         _engine.run(restliTask);
         // propagate the result to the callback
         restliTask.addListener(new CallbackPromiseAdapter<Object>(callback));
@@ -216,21 +257,26 @@ public class RestLiMethodInvoker
     private final int _contextIndex;
     private final Method _method;
     private final Object _resource;
+    private final Long _deadline;
 
     public RestLiParSeqTask(final Object[] arguments,
                             final int contextIndex,
                             final Method method,
-                            final Object resource)
+                            final Object resource,
+                            final Long deadline)
     {
       this._arguments = arguments;
       this._contextIndex = contextIndex;
       this._method = method;
       this._resource = resource;
+      this._deadline = deadline;
     }
 
     @Override
     protected Promise<?> run(final Context context)
     {
+      // the method runs on an engine thread, so the deadline has to be published again
+      final Long previousDeadline = DeadlineUtil.setCurrentDeadline(_deadline);
       try
       {
         if (_contextIndex != -1)
@@ -252,6 +298,10 @@ public class RestLiMethodInvoker
       {
         return Promises.error(t);
       }
+      finally
+      {
+        DeadlineUtil.setCurrentDeadline(previousDeadline);
+      }
     }
   }
 
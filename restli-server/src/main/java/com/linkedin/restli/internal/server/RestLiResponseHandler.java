@@ -20,7 +20,9 @@ import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
 
+import com.linkedin.data.ByteString;
 import com.linkedin.data.DataMap;
+import com.linkedin.data.DataSerializer;
 import com.linkedin.r2.message.rest.RestRequest;
 import com.linkedin.r2.message.rest.RestResponse;
 import com.linkedin.r2.message.rest.RestResponseBuilder;
@@ -115,25 +117,33 @@ public class RestLiResponseHandler
     {
       DataMap dataMap = partialResponse.getDataMap();
       String acceptTypes = request.getHeader(RestConstants.HEADER_ACCEPT);
-      builder = encodeResult(builder, dataMap, acceptTypes);
+      builder = encodeResult(builder, dataMap, partialResponse.getSerializer(), acceptTypes);
     }
 
     return builder.build();
   }
 
-  private RestResponseBuilder encodeResult(RestResponseBuilder builder, DataMap dataMap, String acceptTypes)
+  private RestResponseBuilder encodeResult(RestResponseBuilder builder,
+                                           DataMap dataMap,
+                                           DataSerializer serializer,
+                                           String acceptTypes)
   {
     String bestType = RestUtils.pickBestEncoding(acceptTypes);
 
     if (RestConstants.HEADER_VALUE_APPLICATION_PSON.equalsIgnoreCase(bestType))
     {
       builder.setHeader(RestConstants.HEADER_CONTENT_TYPE, RestConstants.HEADER_VALUE_APPLICATION_PSON);
-      builder.setEntity(DataMapUtils.mapToPsonBytes(dataMap));
+      // the encoded bytes are not shared, so they are handed to the response without a copy
+      builder.setEntity(ByteString.unsafeWrap(serializer == null ?
+                                                  DataMapUtils.mapToPsonBytes(dataMap) :
+                                                  DataMapUtils.mapToPsonBytes(dataMap, serializer)));
     }
     else if (RestConstants.HEADER_VALUE_APPLICATION_JSON.equalsIgnoreCase(bestType))
     {
       builder.setHeader(RestConstants.HEADER_CONTENT_TYPE, RestConstants.HEADER_VALUE_APPLICATION_JSON);
-      builder.setEntity(DataMapUtils.mapToBytes(dataMap));
+      builder.setEntity(ByteString.unsafeWrap(serializer == null ?
+                                                  DataMapUtils.mapToBytes(dataMap) :
+                                                  DataMapUtils.mapToBytes(dataMap, serializer)));
     }
     else
     {
@@ -24,8 +24,8 @@ import java.util.List;
 
 import com.linkedin.data.DataMap;
 import com.linkedin.data.schema.validation.CoercionMode;
+import com.linkedin.data.schema.validation.CompiledSchemaValidator;
 import com.linkedin.data.schema.validation.RequiredMode;
-import com.linkedin.data.schema.validation.ValidateDataAgainstSchema;
 import com.linkedin.data.schema.validation.ValidationOptions;
 import com.linkedin.data.schema.validation.ValidationResult;
 import com.linkedin.data.template.DynamicRecordTemplate;
@@ -63,11 +63,7 @@ public class ActionArgumentBuilder implements RestLiArgumentBuilder
     DynamicRecordTemplate template =
             new DynamicRecordTemplate(data, resourceMethodDescriptor.getRequestDataSchema());
 
-    ValidationResult result =
-            ValidateDataAgainstSchema.validate(data,
-                                               template.schema(),
-                                               new ValidationOptions(RequiredMode.IGNORE,
-                                                                     CoercionMode.NORMAL));
+    ValidationResult result = getValidator(resourceMethodDescriptor, template).validate(data);
 
     if (!result.isValid())
     {
@@ -129,4 +125,23 @@ public class ActionArgumentBuilder implements RestLiArgumentBuilder
     }
     return arguments;
   }
+
+  /**
+   * Return the compiled validator for the request schema of the given action, compiling it on
+   * first use and keeping it on the method descriptor.
+   */
+  private static CompiledSchemaValidator getValidator(final ResourceMethodDescriptor resourceMethodDescriptor,
+                                                      final DynamicRecordTemplate template)
+  {
+    CompiledSchemaValidator validator = resourceMethodDescriptor.getRequestDataValidator();
+    if (validator == null || validator.getSchema() != template.schema())
+    {
+      validator = CompiledSchemaValidator.compile(template.schema(), _validationOptions);
+      resourceMethodDescriptor.setRequestDataValidator(validator);
+    }
+    return validator;
+  }
+
+  private static final ValidationOptions _validationOptions =
+      new ValidationOptions(RequiredMode.IGNORE, CoercionMode.NORMAL);
 }
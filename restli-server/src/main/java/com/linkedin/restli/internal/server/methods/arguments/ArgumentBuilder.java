@@ -31,8 +31,8 @@ import com.linkedin.data.schema.DataSchema;
 import com.linkedin.data.schema.DataSchemaUtil;
 import com.linkedin.data.schema.TyperefDataSchema;
 import com.linkedin.data.schema.validation.CoercionMode;
+import com.linkedin.data.schema.validation.CompiledSchemaValidator;
 import com.linkedin.data.schema.validation.RequiredMode;
-import com.linkedin.data.schema.validation.ValidateDataAgainstSchema;
 import com.linkedin.data.schema.validation.ValidationOptions;
 import com.linkedin.data.template.DataTemplate;
 import com.linkedin.data.template.DataTemplateUtil;
@@ -218,10 +218,26 @@ public class ArgumentBuilder
     }
     // Validate against the class schema with FixupMode.STRING_TO_PRIMITIVE to parse the
     // strings into the corresponding primitive types.
-    ValidateDataAgainstSchema.validate(paramRecordTemplate.data(),
-                                       paramRecordTemplate.schema(),
-                                       new ValidationOptions(RequiredMode.CAN_BE_ABSENT_IF_HAS_DEFAULT,
-                                                             CoercionMode.STRING_TO_PRIMITIVE));
+    getValidator(param, paramRecordTemplate).validate(paramRecordTemplate.data());
     return paramRecordTemplate;
   }
+
+  /**
+   * Return the compiled validator for the given template of the parameter, compiling it on first
+   * use and keeping it on the parameter.
+   */
+  private static CompiledSchemaValidator getValidator(final Parameter<?> param, final DataTemplate<?> template)
+  {
+    final DataSchema schema = template.schema();
+    CompiledSchemaValidator validator = param.getValidator();
+    if (validator == null || validator.getSchema() != schema)
+    {
+      validator = CompiledSchemaValidator.compile(schema, _templateValidationOptions);
+      param.setValidator(validator);
+    }
+    return validator;
+  }
+
+  private static final ValidationOptions _templateValidationOptions =
+      new ValidationOptions(RequiredMode.CAN_BE_ABSENT_IF_HAS_DEFAULT, CoercionMode.STRING_TO_PRIMITIVE);
 }
@@ -22,10 +22,13 @@ import java.util.Map;
 
 import com.linkedin.data.DataList;
 import com.linkedin.data.DataMap;
+import com.linkedin.data.DataSerializer;
+import com.linkedin.data.template.DataTemplateUtil;
 import com.linkedin.data.template.RecordTemplate;
 import com.linkedin.r2.message.rest.RestRequest;
 import com.linkedin.restli.common.CollectionMetadata;
 import com.linkedin.restli.common.CollectionResponse;
+import com.linkedin.restli.common.HttpStatus;
 import com.linkedin.restli.common.RestConstants;
 import com.linkedin.restli.internal.server.RoutingResult;
 import com.linkedin.restli.internal.server.methods.AnyRecord;
@@ -115,7 +118,18 @@ public class CollectionResponseBuilder implements RestLiResponseBuilder
     headers.put(RestConstants.HEADER_LINKEDIN_TYPE, CollectionResponse.class.getName());
     headers.put(RestConstants.HEADER_LINKEDIN_SUB_TYPE, valueClass.getName());
 
-    return new PartialRestResponse(collectionResponse);
+    return new PartialRestResponse(HttpStatus.S_200_OK, collectionResponse, getSerializer(valueClass));
+  }
+
+  private static DataSerializer getSerializer(final Class<? extends RecordTemplate> valueClass)
+  {
+    DataSerializer elementSerializer = DataTemplateUtil.getSerializer(valueClass);
+    if (elementSerializer == null)
+    {
+      return null;
+    }
+    return DataSerializer.record(new String[] { CollectionResponse.ELEMENTS },
+                                 DataSerializer.array(elementSerializer));
   }
 
 
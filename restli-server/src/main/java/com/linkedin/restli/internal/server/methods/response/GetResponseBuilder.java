@@ -23,6 +23,7 @@ package com.linkedin.restli.internal.server.methods.response;
 import java.util.Map;
 
 import com.linkedin.data.DataMap;
+import com.linkedin.data.template.DataTemplateUtil;
 import com.linkedin.data.template.RecordTemplate;
 import com.linkedin.r2.message.rest.RestRequest;
 import com.linkedin.restli.common.HttpStatus;
@@ -59,6 +60,8 @@ public class GetResponseBuilder implements RestLiResponseBuilder
     headers.put(RestConstants.HEADER_LINKEDIN_TYPE, record.getClass().getName());
     final DataMap data =
         RestUtils.projectFields(record.data(), routingResult.getContext());
-    return new PartialRestResponse(status, new AnyRecord(data));
+    return new PartialRestResponse(status,
+                                   new AnyRecord(data),
+                                   DataTemplateUtil.getSerializer(record.getClass()));
   }
 }
@@ -21,6 +21,7 @@
 package com.linkedin.restli.internal.server.methods.response;
 
 import com.linkedin.data.DataMap;
+import com.linkedin.data.DataSerializer;
 import com.linkedin.data.template.RecordTemplate;
 import com.linkedin.restli.common.HttpStatus;
 
@@ -32,6 +33,7 @@ public class PartialRestResponse
 {
   private final HttpStatus _status;
   private final DataMap    _data;
+  private final DataSerializer _serializer;
 
   /**
    * @param record response data. The status is set to 200.
@@ -54,6 +56,16 @@ public class PartialRestResponse
    * @param record response data
    */
   public PartialRestResponse(final HttpStatus status, final RecordTemplate record)
+  {
+    this(status, record, null);
+  }
+
+  /**
+   * @param status http response status
+   * @param record response data
+   * @param serializer {@link DataSerializer} for the response data, may be null
+   */
+  public PartialRestResponse(final HttpStatus status, final RecordTemplate record, final DataSerializer serializer)
   {
     if (record != null)
     {
@@ -65,6 +77,7 @@ public class PartialRestResponse
     }
 
     _status = status;
+    _serializer = serializer;
   }
 
   /**
@@ -84,4 +97,12 @@ public class PartialRestResponse
   {
     return _status;
   }
+
+  /**
+   * @return the {@link DataSerializer} that knows the shape of the response data, or null if there is none.
+   */
+  public DataSerializer getSerializer()
+  {
+    return _serializer;
+  }
 }
@@ -22,6 +22,7 @@ import com.linkedin.data.codec.JacksonDataCodec;
 import com.linkedin.data.schema.ArrayDataSchema;
 import com.linkedin.data.schema.DataSchema;
 import com.linkedin.data.DataMap;
+import com.linkedin.data.schema.validation.CompiledSchemaValidator;
 import com.linkedin.data.schema.validation.ValidateDataAgainstSchema;
 import com.linkedin.data.schema.validation.ValidationOptions;
 import com.linkedin.data.schema.validation.ValidationResult;
@@ -87,6 +88,9 @@ public class Parameter<T> extends FieldDef<T>
   private final AnnotationSet _annotations;
   private final DataMap _customAnnotations;
 
+  // compiled validator for values of data template parameters, set on first use
+  private volatile CompiledSchemaValidator _validator;
+
   public Parameter(final String name,
                    final Class<T> type,
                    final DataSchema dataSchema,
@@ -235,6 +239,23 @@ public class Parameter<T> extends FieldDef<T>
     return _customAnnotations;
   }
 
+  /**
+   * @return the validator compiled for values of this parameter, or null if none was set.
+   */
+  public CompiledSchemaValidator getValidator()
+  {
+    return _validator;
+  }
+
+  /**
+   * Keeps the validator compiled for values of this parameter, so that it is compiled once for
+   * the lifetime of the resource model rather than for every request.
+   */
+  public void setValidator(CompiledSchemaValidator validator)
+  {
+    _validator = validator;
+  }
+
   /**
    * @see java.lang.Object#toString()
    */
@@ -18,6 +18,7 @@ package com.linkedin.restli.internal.server.model;
 
 import com.linkedin.data.schema.RecordDataSchema;
 import com.linkedin.data.DataMap;
+import com.linkedin.data.schema.validation.CompiledSchemaValidator;
 import com.linkedin.data.template.FieldDef;
 import com.linkedin.data.template.RecordTemplate;
 import com.linkedin.restli.common.ResourceMethod;
@@ -52,6 +53,10 @@ public final class ResourceMethodDescriptor
   private final RecordDataSchema                        _requestDataSchema;
   private final InterfaceType                           _interfaceType;
   private final DataMap                                 _customAnnotations;
+  // only applies to batch methods executed by fanning out to a single-key method
+  private final ResourceMethodDescriptor                _perKeyMethodDescriptor;
+  // only applies to actions, compiled validator for the request data, set on first use
+  private volatile CompiledSchemaValidator              _requestDataValidator;
 
   /**
    * Finder resource method descriptor factory.
@@ -81,7 +86,8 @@ public final class ResourceMethodDescriptor
                                         null,
                                         metadataType,
                                         interfaceType,
-                                        customAnnotations);
+                                        customAnnotations,
+                                        null);
   }
 
 
@@ -120,7 +126,8 @@ public final class ResourceMethodDescriptor
                                         recordDataSchema,
                                         null,
                                         interfaceType,
-                                        customAnnotations);
+                                        customAnnotations,
+                                        null);
   }
 
   /**
@@ -168,7 +175,34 @@ public final class ResourceMethodDescriptor
                                         null,
                                         null,
                                         interfaceType,
-                                        customAnnotations);
+                                        customAnnotations,
+                                        null);
+  }
+
+  /**
+   * Create a batch resource method descriptor which is executed by invoking the given single-key
+   * method once per key of the batch.
+   *
+   * @param type batch rest.li {@link ResourceMethod}
+   * @param perKeyMethodDescriptor {@link ResourceMethodDescriptor} of the single-key method
+   * @return batch {@link ResourceMethodDescriptor}
+   */
+  public static ResourceMethodDescriptor createForParallelBatch(final ResourceMethod type,
+                                                                final ResourceMethodDescriptor perKeyMethodDescriptor)
+  {
+    return new ResourceMethodDescriptor(type,
+                                        perKeyMethodDescriptor.getMethod(),
+                                        perKeyMethodDescriptor.getParameters(),
+                                        null,
+                                        null,
+                                        null,
+                                        null,
+                                        null,
+                                        null,
+                                        null,
+                                        perKeyMethodDescriptor.getInterfaceType(),
+                                        perKeyMethodDescriptor.getCustomAnnotationData(),
+                                        perKeyMethodDescriptor);
   }
 
   /**
@@ -185,7 +219,8 @@ public final class ResourceMethodDescriptor
                                    final RecordDataSchema requestDataSchema,
                                    final Class<? extends RecordTemplate> finderMetadataType,
                                    final InterfaceType interfaceType,
-                                   final DataMap customAnnotations)
+                                   final DataMap customAnnotations,
+                                   final ResourceMethodDescriptor perKeyMethodDescriptor)
   {
     super();
     _type = type;
@@ -200,6 +235,7 @@ public final class ResourceMethodDescriptor
     _finderMetadataType = finderMetadataType;
     _interfaceType = interfaceType;
     _customAnnotations = customAnnotations;
+    _perKeyMethodDescriptor = perKeyMethodDescriptor;
   }
 
   /**
@@ -341,6 +377,23 @@ public final class ResourceMethodDescriptor
     return _requestDataSchema;
   }
 
+  /**
+   * @return the validator compiled for the request data of this action, or null if none was set.
+   */
+  public CompiledSchemaValidator getRequestDataValidator()
+  {
+    return _requestDataValidator;
+  }
+
+  /**
+   * Keeps the validator compiled for the request data of this action, so that it is compiled
+   * once for the lifetime of the resource model rather than for every request.
+   */
+  public void setRequestDataValidator(CompiledSchemaValidator requestDataValidator)
+  {
+    _requestDataValidator = requestDataValidator;
+  }
+
   /**
    * @param type {@link Parameter.ParamType} parameter type to find the index of
    * @return index of the first parameter with the given type, or -1 if none exists
@@ -372,6 +425,15 @@ public final class ResourceMethodDescriptor
     return _customAnnotations;
   }
 
+  /**
+   * @return {@link ResourceMethodDescriptor} of the single-key method this batch method fans out
+   *         to, or null if the resource implements this method itself
+   */
+  public ResourceMethodDescriptor getPerKeyMethodDescriptor()
+  {
+    return _perKeyMethodDescriptor;
+  }
+
   @Override
   public String toString()
   {
@@ -19,6 +19,7 @@ package com.linkedin.restli.internal.server.model;
 
 import com.linkedin.restli.server.ResourceConfigException;
 import com.linkedin.restli.server.RestLiConfig;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
@@ -37,6 +38,7 @@ public class RestLiApiBuilder implements RestApiBuilder
 
   private final Set<String> _packageNames;
   private final Set<String> _classNames;
+  private final boolean _resourceIndexEnabled;
 
   public RestLiApiBuilder(final RestLiConfig config)
   {
@@ -47,13 +49,17 @@ public class RestLiApiBuilder implements RestApiBuilder
 
     _packageNames = config.getResourcePackageNamesSet();
     _classNames = config.getResourceClassNamesSet();
+    _resourceIndexEnabled = config.isResourceIndexEnabled();
   }
 
   @Override
   public Map<String, ResourceModel> build()
   {
+    final ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+    final Map<String, RestLiResourceIndex> indexes =
+        _resourceIndexEnabled ? RestLiResourceIndex.load(classLoader) : Collections.<String, RestLiResourceIndex>emptyMap();
     RestLiClasspathScanner scanner =
-        new RestLiClasspathScanner(_packageNames, _classNames, Thread.currentThread().getContextClassLoader());
+        new RestLiClasspathScanner(_packageNames, _classNames, indexes, classLoader);
     scanner.scanPackages();
     final String errorMessage = scanner.scanClasses();
     if (!errorMessage.isEmpty())
@@ -30,6 +30,7 @@ import java.net.URL;
 import java.util.Collections;
 import java.util.Enumeration;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
 import java.util.jar.JarEntry;
 import java.util.jar.JarInputStream;
@@ -49,6 +50,10 @@ import com.linkedin.restli.server.annotations.RestLiCollection;
  * set of packages.
  *
  * Inspired by Jersey's package scanning logic.
+ *
+ * A jar or class directory which ships a {@link RestLiResourceIndex} of a package is not
+ * scanned for that package, the classes listed by the index are loaded instead.  Every other
+ * jar or class directory is scanned.
  */
 class RestLiClasspathScanner
 {
@@ -73,12 +78,23 @@ class RestLiClasspathScanner
   private final Set<Class<?>> _matchedClasses;
 
   private final ClassLoader _classLoader;
+  private final Set<String> _packageNames;
   private final Set<String> _packagePaths;
   private final Set<String> _classNames;
+  private final Map<String, RestLiResourceIndex> _indexes;
 
   public RestLiClasspathScanner(final Set<String> packageNames, final Set<String> classNames, final ClassLoader classLoader)
+  {
+    this(packageNames, classNames, Collections.<String, RestLiResourceIndex>emptyMap(), classLoader);
+  }
+
+  public RestLiClasspathScanner(final Set<String> packageNames,
+                                final Set<String> classNames,
+                                final Map<String, RestLiResourceIndex> indexes,
+                                final ClassLoader classLoader)
   {
     _classLoader = classLoader;
+    _packageNames = packageNames;
     _packagePaths = new HashSet<String>();
     //convert package names to paths, to optimize matching against .class paths
     for (String packageName : packageNames)
@@ -86,6 +102,7 @@ class RestLiClasspathScanner
       _packagePaths.add(nameToPath(packageName));
     }
     _classNames = classNames;
+    _indexes = indexes;
     _matchedClasses = new HashSet<Class<?>>();
   }
 
@@ -114,12 +131,18 @@ class RestLiClasspathScanner
   {
     try
     {
-      for (String p : _packagePaths)
+      for (String packageName : _packageNames)
       {
-        Enumeration<URL> resources = _classLoader.getResources(p);
+        Enumeration<URL> resources = _classLoader.getResources(nameToPath(packageName));
         while (resources.hasMoreElements())
         {
-          URI u = resources.nextElement().toURI();
+          URL url = resources.nextElement();
+          if (scanIndex(url, packageName))
+          {
+            continue;
+          }
+
+          URI u = url.toURI();
           String scheme = u.getScheme().toLowerCase();
           if (scheme.equals(SCHEME_JAR) || scheme.equals(SCHEME_ZIP))
           {
@@ -155,15 +178,7 @@ class RestLiClasspathScanner
     {
       try
       {
-        final Class<?> candidateClass = classForName(c);
-        for (Annotation a : candidateClass.getAnnotations())
-        {
-          if (_annotations.contains(a.annotationType()))
-          {
-            _matchedClasses.add(candidateClass);
-            break;
-          }
-        }
+        matchClass(classForName(c));
       }
       catch (ClassNotFoundException e)
       {
@@ -174,6 +189,62 @@ class RestLiClasspathScanner
     return errorBuilder.toString();
   }
 
+  /**
+   * Match the indexed classes of a package, if the jar or class directory of the package ships an index of it.
+   *
+   * @param url is the location of the package directory, as returned by the class loader.
+   * @return false if there is no index of the package next to it, and the package should be scanned.
+   */
+  private boolean scanIndex(final URL url, final String packageName)
+  {
+    if (_indexes.isEmpty())
+    {
+      return false;
+    }
+
+    String location = url.toString();
+    if (location.endsWith("/"))
+    {
+      location = location.substring(0, location.length() - 1);
+    }
+    final String packagePath = packageName.replace(PACKAGE_SEPARATOR, '/');
+    if (!location.endsWith(packagePath))
+    {
+      return false;
+    }
+
+    final RestLiResourceIndex index = _indexes.get(location.substring(0, location.length() - packagePath.length()));
+    if (index == null || !index.isIndexed(packageName))
+    {
+      return false;
+    }
+
+    for (String className : index.getClassNames(packageName))
+    {
+      try
+      {
+        matchClass(classForName(className));
+      }
+      catch (ClassNotFoundException e)
+      {
+        throw new RestLiInternalException("Failed to load class listed in " + RestLiResourceIndex.INDEX_RESOURCE_NAME, e);
+      }
+    }
+    return true;
+  }
+
+  private void matchClass(final Class<?> clazz)
+  {
+    for (Annotation a : clazz.getAnnotations())
+    {
+      if (_annotations.contains(a.annotationType()))
+      {
+        _matchedClasses.add(clazz);
+        break;
+      }
+    }
+  }
+
   private void scanJar(final URI u) throws IOException
   {
     String ssp = u.getRawSchemeSpecificPart();
@@ -245,15 +316,7 @@ class RestLiClasspathScanner
 
           try
           {
-            Class<?> clazz = classForName(clazzName);
-            for (Annotation a : clazz.getAnnotations())
-            {
-              if (_annotations.contains(a.annotationType()))
-              {
-                _matchedClasses.add(clazz);
-                break;
-              }
-            }
+            matchClass(classForName(clazzName));
           }
           catch (ClassNotFoundException e)
           {
@@ -0,0 +1,208 @@
+/*
+   Copyright (c) 2012 LinkedIn Corp.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.linkedin.restli.internal.server.model;
+
+
+import com.linkedin.restli.server.ResourceConfigException;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.URL;
+import java.util.Collection;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+
+/**
+ * Lists the rest.li resource classes of a jar or class directory, so that
+ * {@link RestLiApiBuilder} can find the resources in a package without scanning the classpath.
+ *
+ * The index is a text file written at build time by the rest.li IDL exporter. It has a line
+ * "package &lt;name&gt;" for each resource package the exporter scanned, followed by one resource
+ * class name per line. An index only describes the classpath root (jar or class directory) it is
+ * packaged in, and only for the packages it lists.
+ */
+public class RestLiResourceIndex
+{
+  public static final String INDEX_RESOURCE_NAME = "META-INF/restli/resources.index";
+  private static final String PACKAGE_PREFIX = "package ";
+  private static final String CHARSET = "UTF-8";
+
+  private final Set<String> _packageNames = new HashSet<String>();
+  private final Set<String> _classNames = new HashSet<String>();
+
+  private RestLiResourceIndex()
+  {
+  }
+
+  /**
+   * Read every index visible to the class loader.
+   *
+   * @param classLoader provides the indexes.
+   * @return the indexes keyed by the URL of the classpath root they are packaged in, e.g.
+   *         "jar:file:/lib/resources.jar!/", empty if there are no indexes.
+   */
+  public static Map<String, RestLiResourceIndex> load(final ClassLoader classLoader)
+  {
+    final Map<String, RestLiResourceIndex> indexes = new HashMap<String, RestLiResourceIndex>();
+    try
+    {
+      final Enumeration<URL> urls = classLoader.getResources(INDEX_RESOURCE_NAME);
+      while (urls.hasMoreElements())
+      {
+        final URL url = urls.nextElement();
+        final String location = url.toString();
+        final String root = location.substring(0, location.length() - INDEX_RESOURCE_NAME.length());
+        if (!indexes.containsKey(root))
+        {
+          indexes.put(root, read(url));
+        }
+      }
+    }
+    catch (IOException e)
+    {
+      throw new ResourceConfigException("Unable to read resource index", e);
+    }
+    return indexes;
+  }
+
+  /**
+   * Write an index of the provided resources and all of their subresources.
+   *
+   * @param outputDirectory is the directory to write the index to, which is packaged with the resource classes.
+   * @param packageNames provides the resource packages the resources were found in.
+   * @param rootResources provides the root resources, as built by {@link RestLiApiBuilder}.
+   * @return the index file.
+   * @throws IOException if the index cannot be written.
+   */
+  public static File write(final File outputDirectory,
+                           final Collection<String> packageNames,
+                           final Map<String, ResourceModel> rootResources)
+      throws IOException
+  {
+    final Set<String> classNames = new TreeSet<String>();
+    for (ResourceModel resourceModel : rootResources.values())
+    {
+      addClassNames(resourceModel, classNames);
+    }
+
+    final File indexFile = new File(outputDirectory, INDEX_RESOURCE_NAME.replace('/', File.separatorChar));
+    final File parent = indexFile.getParentFile();
+    if (!parent.isDirectory() && !parent.mkdirs())
+    {
+      throw new IOException("Unable to create directory " + parent);
+    }
+
+    final Writer writer = new OutputStreamWriter(new FileOutputStream(indexFile), CHARSET);
+    try
+    {
+      for (String packageName : new TreeSet<String>(packageNames))
+      {
+        writer.write(PACKAGE_PREFIX);
+        writer.write(packageName);
+        writer.write('\n');
+      }
+      for (String className : classNames)
+      {
+        writer.write(className);
+        writer.write('\n');
+      }
+    }
+    finally
+    {
+      writer.close();
+    }
+    return indexFile;
+  }
+
+  /**
+   * @return true if the exporter scanned the package, or a package enclosing it, when writing this index.
+   */
+  public boolean isIndexed(final String packageName)
+  {
+    for (String indexedPackageName : _packageNames)
+    {
+      if (packageName.equals(indexedPackageName) || packageName.startsWith(indexedPackageName + '.'))
+      {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * @return the indexed resource class names of the package and its subpackages.
+   */
+  public Set<String> getClassNames(final String packageName)
+  {
+    final String prefix = packageName + '.';
+    final Set<String> classNames = new HashSet<String>();
+    for (String className : _classNames)
+    {
+      if (className.startsWith(prefix))
+      {
+        classNames.add(className);
+      }
+    }
+    return classNames;
+  }
+
+  private static void addClassNames(final ResourceModel resourceModel, final Set<String> classNames)
+  {
+    classNames.add(resourceModel.getResourceClass().getName());
+    for (ResourceModel subResource : resourceModel.getSubResources())
+    {
+      addClassNames(subResource, classNames);
+    }
+  }
+
+  private static RestLiResourceIndex read(final URL url) throws IOException
+  {
+    final RestLiResourceIndex index = new RestLiResourceIndex();
+    final InputStream in = url.openStream();
+    try
+    {
+      final BufferedReader reader = new BufferedReader(new InputStreamReader(in, CHARSET));
+      for (String line = reader.readLine(); line != null; line = reader.readLine())
+      {
+        final String name = line.trim();
+        if (name.startsWith(PACKAGE_PREFIX))
+        {
+          index._packageNames.add(name.substring(PACKAGE_PREFIX.length()).trim());
+        }
+        else if (!name.isEmpty())
+        {
+          index._classNames.add(name);
+        }
+      }
+    }
+    finally
+    {
+      in.close();
+    }
+    return index;
+  }
+}
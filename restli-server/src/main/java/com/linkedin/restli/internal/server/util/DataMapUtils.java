@@ -20,6 +20,7 @@ package com.linkedin.restli.internal.server.util;
 import com.linkedin.data.DataComplex;
 import com.linkedin.data.DataList;
 import com.linkedin.data.DataMap;
+import com.linkedin.data.DataSerializer;
 import com.linkedin.data.codec.JacksonDataCodec;
 import com.linkedin.data.codec.PsonDataCodec;
 import com.linkedin.data.schema.DataSchema;
@@ -337,6 +338,25 @@ public class DataMapUtils
     }
   }
 
+  /**
+   * Encode {@link DataMap} of a known shape as a byte array using {@link JacksonDataCodec}.
+   *
+   * @param dataMap input {@link DataMap}
+   * @param serializer {@link DataSerializer} that knows the shape of the {@link DataMap}
+   * @return byte array
+   */
+  public static byte[] mapToBytes(final DataMap dataMap, final DataSerializer serializer)
+  {
+    try
+    {
+      return CODEC.mapToBytes(dataMap, serializer);
+    }
+    catch (IOException e)
+    {
+      throw new RestLiInternalException(e);
+    }
+  }
+
   public static byte[] listToBytes(final DataList dataList)
   {
     try
@@ -382,4 +402,23 @@ public class DataMapUtils
       throw new RestLiInternalException(e);
     }
   }
+
+  /**
+   * Encode the {@link DataMap} of a known shape as a byte array using {@link PsonDataCodec}.
+   *
+   * @param dataMap input {@link DataMap}
+   * @param serializer {@link DataSerializer} that knows the shape of the {@link DataMap}
+   * @return byte array
+   */
+  public static byte[] mapToPsonBytes(final DataMap dataMap, final DataSerializer serializer)
+  {
+    try
+    {
+      return PSON_DATA_CODEC.mapToBytes(dataMap, serializer);
+    }
+    catch (IOException e)
+    {
+      throw new RestLiInternalException(e);
+    }
+  }
 }
@@ -0,0 +1,420 @@
+/*
+   Copyright (c) 2012 LinkedIn Corp.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.linkedin.restli.server;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.linkedin.data.ByteString;
+import com.linkedin.r2.message.rest.RestRequest;
+import com.linkedin.r2.message.rest.RestResponse;
+import com.linkedin.r2.message.rest.RestResponseBuilder;
+import com.linkedin.restli.common.RestConstants;
+
+/**
+ * Cache of fully encoded GET responses of Rest.li resources.<p/>
+ *
+ * Entries are keyed by resource, entity key, request URI (which includes the projection) and the
+ * values of a set of request headers: by default the requested content type and the headers which
+ * identify the caller, so that a response is never served to a caller with different credentials.
+ * Entries are evicted in least-recently-used order once the cached bodies exceed
+ * the configured size.  Bodies may be kept outside the Java heap, in which case every hit copies
+ * them back; otherwise a hit returns the cached response as is.<p/>
+ *
+ * {@link RestLiServer} invalidates an entity's entries when it processes an update or delete of
+ * that entity.  Resources which change their data by other means must call
+ * {@link #invalidate(String, Object)} or {@link #invalidateAll(String)} themselves.<p/>
+ *
+ * Its hit, miss and size counters are exported over JMX by {@link ResponseCacheJmx}.<p/>
+ *
+ * This class is thread-safe.
+ */
+public class ResponseCache
+{
+  /**
+   * Request headers whose values distinguish otherwise identical requests unless configured
+   * otherwise: the requested content type and the headers which identify the caller.
+   */
+  public static final Set<String> DEFAULT_KEY_HEADERS =
+      Collections.unmodifiableSet(new LinkedHashSet<String>(Arrays.asList(RestConstants.HEADER_ACCEPT,
+                                                                          "Authorization",
+                                                                          "Cookie")));
+
+  private final long _maxBytes;
+  private final boolean _offHeap;
+  private final List<String> _keyHeaders;
+
+  private final Object _lock = new Object();
+
+  // All fields below are guarded by _lock
+  private final LinkedHashMap<String, Entry> _entries = new LinkedHashMap<String, Entry>(16, 0.75f, true);
+  private final Map<String, Set<String>> _entriesByEntity = new HashMap<String, Set<String>>();
+  private long _sizeBytes;
+  private final Map<String, Long> _invalidationCounts = new HashMap<String, Long>();
+  private long _globalInvalidationCount;
+  private long _hitCount;
+  private long _missCount;
+  private long _evictionCount;
+
+  /**
+   * Construct a new instance.
+   *
+   * @param maxBytes upper bound on the total size of cached response bodies.
+   * @param offHeap true to store response bodies in direct buffers outside the Java heap.
+   */
+  public ResponseCache(final long maxBytes, final boolean offHeap)
+  {
+    this(maxBytes, offHeap, DEFAULT_KEY_HEADERS);
+  }
+
+  /**
+   * Construct a new instance.
+   *
+   * @param maxBytes upper bound on the total size of cached response bodies.
+   * @param offHeap true to store response bodies in direct buffers outside the Java heap.
+   * @param keyHeaders names of the request headers whose values distinguish otherwise identical
+   *                   requests, replacing {@link #DEFAULT_KEY_HEADERS}.  They must include every
+   *                   header which identifies the caller.
+   */
+  public ResponseCache(final long maxBytes, final boolean offHeap, final Collection<String> keyHeaders)
+  {
+    if (maxBytes <= 0)
+    {
+      throw new IllegalArgumentException("maxBytes must be positive: " + maxBytes);
+    }
+    _maxBytes = maxBytes;
+    _offHeap = offHeap;
+    _keyHeaders = new ArrayList<String>(keyHeaders);
+  }
+
+  /**
+   * Remove the cached responses for one entity of a resource.
+   *
+   * @param resourceName name of the resource, as given in its resource annotation.
+   * @param key key of the entity.
+   */
+  public void invalidate(final String resourceName, final Object key)
+  {
+    synchronized (_lock)
+    {
+      incrementInvalidationCount(resourceName);
+      final Set<String> entryKeys = _entriesByEntity.remove(entityKey(resourceName, key));
+      if (entryKeys != null)
+      {
+        for (String entryKey : entryKeys)
+        {
+          final Entry entry = _entries.remove(entryKey);
+          if (entry != null)
+          {
+            _sizeBytes -= entry._size;
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Remove all cached responses of a resource.
+   *
+   * @param resourceName name of the resource, as given in its resource annotation.
+   */
+  public void invalidateAll(final String resourceName)
+  {
+    synchronized (_lock)
+    {
+      incrementInvalidationCount(resourceName);
+      final Iterator<Entry> it = _entries.values().iterator();
+      while (it.hasNext())
+      {
+        final Entry entry = it.next();
+        if (entry._resourceName.equals(resourceName))
+        {
+          it.remove();
+          removeFromIndex(entry);
+          _sizeBytes -= entry._size;
+        }
+      }
+    }
+  }
+
+  /**
+   * Remove all cached responses.
+   */
+  public void invalidateAll()
+  {
+    synchronized (_lock)
+    {
+      _globalInvalidationCount++;
+      _entries.clear();
+      _entriesByEntity.clear();
+      _sizeBytes = 0;
+    }
+  }
+
+  /**
+   * Look up the response for a request.
+   *
+   * @return the cached response, or null on a miss.
+   */
+  RestResponse get(final RestRequest request, final String resourceName, final Object key)
+  {
+    synchronized (_lock)
+    {
+      final Entry entry = _entries.get(entryKey(request, resourceName, key));
+      if (entry == null)
+      {
+        _missCount++;
+        return null;
+      }
+      _hitCount++;
+      if (entry._response != null)
+      {
+        return entry._response;
+      }
+      return new RestResponseBuilder()
+          .setStatus(entry._status)
+          .setHeaders(entry._headers)
+          .setEntity(ByteString.copy(entry._body.duplicate()))
+          .build();
+    }
+  }
+
+  /**
+   * @return a token identifying the current state of the cached responses of a resource, to be
+   *         passed to {@link #put(RestRequest, String, Object, RestResponse, long)}.
+   */
+  long getInvalidationToken(final String resourceName)
+  {
+    synchronized (_lock)
+    {
+      return getInvalidationCount(resourceName);
+    }
+  }
+
+  // guarded by _lock
+  private long getInvalidationCount(final String resourceName)
+  {
+    // both counts only grow, so their sum changes whenever either of them does
+    final Long count = _invalidationCounts.get(resourceName);
+    return _globalInvalidationCount + (count == null ? 0 : count);
+  }
+
+  // guarded by _lock
+  private void incrementInvalidationCount(final String resourceName)
+  {
+    final Long count = _invalidationCounts.get(resourceName);
+    _invalidationCounts.put(resourceName, count == null ? 1 : count + 1);
+  }
+
+  /**
+   * Cache a response, unless the resource was invalidated since the given token was obtained, in
+   * which case the response may already be stale.
+   */
+  void put(final RestRequest request,
+           final String resourceName,
+           final Object key,
+           final RestResponse response,
+           final long invalidationToken)
+  {
+    final int size = response.getEntity().length();
+    if (size > _maxBytes)
+    {
+      return;
+    }
+
+    final String entryKey = entryKey(request, resourceName, key);
+    final Entry entry;
+    if (_offHeap)
+    {
+      final ByteBuffer body = ByteBuffer.allocateDirect(size);
+      body.put(response.getEntity().asByteBuffer());
+      body.flip();
+      entry = new Entry(resourceName, entityKey(resourceName, key), entryKey, null,
+                        response.getStatus(), response.getHeaders(), body, size);
+    }
+    else
+    {
+      entry = new Entry(resourceName, entityKey(resourceName, key), entryKey, response, 0, null, null, size);
+    }
+
+    synchronized (_lock)
+    {
+      if (invalidationToken != getInvalidationCount(resourceName))
+      {
+        return;
+      }
+
+      final Entry previous = _entries.put(entryKey, entry);
+      if (previous != null)
+      {
+        _sizeBytes -= previous._size;
+      }
+      _sizeBytes += size;
+
+      Set<String> entryKeys = _entriesByEntity.get(entry._entityKey);
+      if (entryKeys == null)
+      {
+        entryKeys = new HashSet<String>();
+        _entriesByEntity.put(entry._entityKey, entryKeys);
+      }
+      entryKeys.add(entryKey);
+
+      final Iterator<Map.Entry<String, Entry>> it = _entries.entrySet().iterator();
+      while (_sizeBytes > _maxBytes && it.hasNext())
+      {
+        final Map.Entry<String, Entry> eldest = it.next();
+        it.remove();
+        removeFromIndex(eldest.getValue());
+        _sizeBytes -= eldest.getValue()._size;
+        _evictionCount++;
+      }
+    }
+  }
+
+  private void removeFromIndex(final Entry entry)
+  {
+    final Set<String> entryKeys = _entriesByEntity.get(entry._entityKey);
+    if (entryKeys != null)
+    {
+      entryKeys.remove(entry._entryKey);
+      if (entryKeys.isEmpty())
+      {
+        _entriesByEntity.remove(entry._entityKey);
+      }
+    }
+  }
+
+  private static String entityKey(final String resourceName, final Object key)
+  {
+    return resourceName + '\n' + key;
+  }
+
+  private String entryKey(final RestRequest request, final String resourceName, final Object key)
+  {
+    final StringBuilder sb = new StringBuilder();
+    sb.append(entityKey(resourceName, key)).append('\n').append(request.getURI());
+    for (String header : _keyHeaders)
+    {
+      final String value = request.getHeader(header);
+      sb.append('\n').append(header).append(':');
+      if (value != null)
+      {
+        sb.append(value);
+      }
+    }
+    return sb.toString();
+  }
+
+  /**
+   * @return the number of requests served from the cache.
+   */
+  public long getHitCount()
+  {
+    synchronized (_lock)
+    {
+      return _hitCount;
+    }
+  }
+
+  /**
+   * @return the number of cacheable requests which were not found in the cache.
+   */
+  public long getMissCount()
+  {
+    synchronized (_lock)
+    {
+      return _missCount;
+    }
+  }
+
+  /**
+   * @return the number of entries removed to stay within the size bound.
+   */
+  public long getEvictionCount()
+  {
+    synchronized (_lock)
+    {
+      return _evictionCount;
+    }
+  }
+
+  /**
+   * @return the number of cached responses.
+   */
+  public int getEntryCount()
+  {
+    synchronized (_lock)
+    {
+      return _entries.size();
+    }
+  }
+
+  /**
+   * @return the total size of cached response bodies, in bytes.
+   */
+  public long getSizeBytes()
+  {
+    synchronized (_lock)
+    {
+      return _sizeBytes;
+    }
+  }
+
+  private static class Entry
+  {
+    private final String _resourceName;
+    private final String _entityKey;
+    private final String _entryKey;
+    // set when the body is kept on the heap
+    private final RestResponse _response;
+    // set when the body is kept off the heap
+    private final int _status;
+    private final Map<String, String> _headers;
+    private final ByteBuffer _body;
+    private final int _size;
+
+    private Entry(final String resourceName,
+                  final String entityKey,
+                  final String entryKey,
+                  final RestResponse response,
+                  final int status,
+                  final Map<String, String> headers,
+                  final ByteBuffer body,
+                  final int size)
+    {
+      _resourceName = resourceName;
+      _entityKey = entityKey;
+      _entryKey = entryKey;
+      _response = response;
+      _status = status;
+      _headers = headers;
+      _body = body;
+      _size = size;
+    }
+  }
+}
@@ -0,0 +1,72 @@
+/*
+   Copyright (c) 2012 LinkedIn Corp.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.linkedin.restli.server;
+
+
+public class ResponseCacheJmx implements ResponseCacheJmxMBean
+{
+  private final ResponseCache _cache;
+
+  public ResponseCacheJmx(ResponseCache cache)
+  {
+    _cache = cache;
+  }
+
+  @Override
+  public long getHitCount()
+  {
+    return _cache.getHitCount();
+  }
+
+  @Override
+  public long getMissCount()
+  {
+    return _cache.getMissCount();
+  }
+
+  @Override
+  public double getHitRatio()
+  {
+    final long hits = _cache.getHitCount();
+    final long lookups = hits + _cache.getMissCount();
+    return lookups == 0 ? 0 : (double) hits / lookups;
+  }
+
+  @Override
+  public long getEvictionCount()
+  {
+    return _cache.getEvictionCount();
+  }
+
+  @Override
+  public int getEntryCount()
+  {
+    return _cache.getEntryCount();
+  }
+
+  @Override
+  public long getSizeBytes()
+  {
+    return _cache.getSizeBytes();
+  }
+
+  @Override
+  public void invalidateAll()
+  {
+    _cache.invalidateAll();
+  }
+}
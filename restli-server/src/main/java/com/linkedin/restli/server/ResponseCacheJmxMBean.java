@@ -0,0 +1,41 @@
+/*
+   Copyright (c) 2012 LinkedIn Corp.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.linkedin.restli.server;
+
+
+/**
+ * JMX view of a {@link ResponseCache}.
+ */
+public interface ResponseCacheJmxMBean
+{
+  long getHitCount();
+
+  long getMissCount();
+
+  /**
+   * @return the fraction of lookups served from the cache, or 0 if there were none.
+   */
+  double getHitRatio();
+
+  long getEvictionCount();
+
+  int getEntryCount();
+
+  long getSizeBytes();
+
+  void invalidateAll();
+}
@@ -18,20 +18,44 @@ package com.linkedin.restli.server;
 
 
 import java.net.URI;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.Set;
 
+import com.linkedin.restli.common.RestConstants;
+
 /**
  * @author dellamag
  */
 public class RestLiConfig
 {
+  /**
+   * Headers which distinguish otherwise identical coalesced requests unless configured otherwise:
+   * the content negotiation and Rest.li method headers, and the headers which identify the caller,
+   * so that a response is never shared between callers with different credentials.
+   */
+  public static final Set<String> DEFAULT_COALESCING_KEY_HEADERS =
+      Collections.unmodifiableSet(new LinkedHashSet<String>(Arrays.asList(RestConstants.HEADER_ACCEPT,
+                                                                          RestConstants.HEADER_RESTLI_REQUEST_METHOD,
+                                                                          "Authorization",
+                                                                          "Cookie")));
+
   private final Set<String> _resourcePackageNames = new HashSet<String>();
   private final Set<String> _resourceClassNames = new HashSet<String>();
+  private boolean _resourceIndexEnabled = true;
   private URI _serverNodeUri = URI.create("");
   private RestLiDocumentationRequestHandler _documentationRequestHandler = null;
+  private int _batchParallelism = 0;
+  private final Set<String> _coalescedResourceNames = new HashSet<String>();
+  private int _coalescingMaxWaiters = 1000;
+  private long _coalescingResultTtl = 0;
+  private final Set<String> _coalescingKeyHeaders = new LinkedHashSet<String>(DEFAULT_COALESCING_KEY_HEADERS);
+  private ResponseCache _responseCache = null;
+  private String _responseCacheJmxName = null;
+  private final Set<String> _cachedResourceNames = new HashSet<String>();
 
   /**
    * Constructor.
@@ -117,6 +141,24 @@ public class RestLiConfig
     }
   }
 
+  public boolean isResourceIndexEnabled()
+  {
+    return _resourceIndexEnabled;
+  }
+
+  /**
+   * A jar is not scanned for a resource package when it ships a resource index of the package,
+   * written at build time by the rest.li IDL exporter.  Instead the classes listed by the index
+   * are loaded.  Jars and class directories without an index of the package are still scanned.
+   *
+   * @param resourceIndexEnabled false to always scan resource packages, true (the default) to
+   *                             use the resource index when there is one.
+   */
+  public void setResourceIndexEnabled(final boolean resourceIndexEnabled)
+  {
+    _resourceIndexEnabled = resourceIndexEnabled;
+  }
+
   public URI getServerNodeUri()
   {
     return _serverNodeUri;
@@ -136,4 +178,156 @@ public class RestLiConfig
   {
     _documentationRequestHandler = handler;
   }
+
+  public int getBatchParallelism()
+  {
+    return _batchParallelism;
+  }
+
+  /**
+   * Enable server-side fan-out of batch requests.  When set to a positive value and the server
+   * is constructed with a ParSeq {@link com.linkedin.parseq.Engine}, collection resources which
+   * implement a synchronous get, update or delete but not the corresponding batch method accept
+   * BATCH_GET, BATCH_UPDATE and BATCH_DELETE requests, which are executed by invoking the
+   * single-key method for each key, with at most this many keys in flight at a time.
+   *
+   * @param batchParallelism maximum number of keys of a batch request processed concurrently,
+   *                         or 0 (the default) to disable fan-out.
+   */
+  public void setBatchParallelism(final int batchParallelism)
+  {
+    if (batchParallelism < 0)
+    {
+      throw new IllegalArgumentException("batchParallelism must not be negative: " + batchParallelism);
+    }
+    _batchParallelism = batchParallelism;
+  }
+
+  public Set<String> getCoalescedResourceNamesSet()
+  {
+    return Collections.unmodifiableSet(_coalescedResourceNames);
+  }
+
+  /**
+   * Enable coalescing of identical concurrent GET requests for the named resources.  While such a
+   * request is in flight, identical requests (same URI and values of the
+   * {@link #getCoalescingKeyHeadersSet() key headers}) wait for its response instead of invoking
+   * the resource again.  If responses depend on who is calling, make sure every header which
+   * identifies the caller is a key header.
+   *
+   * @param resourceNames names of resources, as given in their resource annotation
+   */
+  public void addCoalescedResourceNames(final String... resourceNames)
+  {
+    for (String name : resourceNames)
+    {
+      _coalescedResourceNames.add(name);
+    }
+  }
+
+  public int getCoalescingMaxWaiters()
+  {
+    return _coalescingMaxWaiters;
+  }
+
+  /**
+   * @param maxWaiters maximum number of requests which wait for a single in-flight request;
+   *                   further identical requests are executed on their own.
+   */
+  public void setCoalescingMaxWaiters(final int maxWaiters)
+  {
+    _coalescingMaxWaiters = maxWaiters;
+  }
+
+  public long getCoalescingResultTtl()
+  {
+    return _coalescingResultTtl;
+  }
+
+  /**
+   * @param resultTtl time, in milliseconds, for which the successful response of a coalesced
+   *                  request is also served to identical requests arriving after it completed.
+   *                  0 (the default) only coalesces requests which are in flight.
+   */
+  public void setCoalescingResultTtl(final long resultTtl)
+  {
+    _coalescingResultTtl = resultTtl;
+  }
+
+  public Set<String> getCoalescingKeyHeadersSet()
+  {
+    return Collections.unmodifiableSet(_coalescingKeyHeaders);
+  }
+
+  /**
+   * @param headerNames names of the request headers whose values distinguish otherwise identical
+   *                    coalesced requests, replacing {@link #DEFAULT_COALESCING_KEY_HEADERS}
+   */
+  public void setCoalescingKeyHeadersSet(final Set<String> headerNames)
+  {
+    _coalescingKeyHeaders.clear();
+    _coalescingKeyHeaders.addAll(headerNames);
+  }
+
+  /**
+   * @param headerNames names of additional request headers whose values distinguish otherwise
+   *                    identical coalesced requests, e.g. custom headers identifying the caller
+   */
+  public void addCoalescingKeyHeaders(final String... headerNames)
+  {
+    for (String name : headerNames)
+    {
+      _coalescingKeyHeaders.add(name);
+    }
+  }
+
+  public ResponseCache getResponseCache()
+  {
+    return _responseCache;
+  }
+
+  /**
+   * @param responseCache cache for the encoded GET responses of the resources added with
+   *                      {@link #addCachedResourceNames(String...)}
+   */
+  public void setResponseCache(final ResponseCache responseCache)
+  {
+    _responseCache = responseCache;
+  }
+
+  public String getResponseCacheJmxName()
+  {
+    return _responseCacheJmxName;
+  }
+
+  /**
+   * @param jmxName name under which {@link RestLiServer} registers a {@link ResponseCacheJmx} of the
+   *                response cache with the platform MBeanServer, or null (the default) to not
+   *                register it
+   */
+  public void setResponseCacheJmxName(final String jmxName)
+  {
+    _responseCacheJmxName = jmxName;
+  }
+
+  public Set<String> getCachedResourceNamesSet()
+  {
+    return Collections.unmodifiableSet(_cachedResourceNames);
+  }
+
+  /**
+   * Cache the encoded GET responses of the named resources in the {@link ResponseCache}, which must
+   * be set with {@link #setResponseCache(ResponseCache)}.  Responses only depend on the caller
+   * through the cache's key headers, so only enable this for resources whose responses do not
+   * depend on the caller in any other way.
+   *
+   * @param resourceNames names of resources, as given in their resource annotation
+   */
+  public void addCachedResourceNames(final String... resourceNames)
+  {
+    for (String name : resourceNames)
+    {
+      _cachedResourceNames.add(name);
+    }
+  }
 }
@@ -16,6 +16,13 @@
 
 package com.linkedin.restli.server;
 
+import java.lang.management.ManagementFactory;
+import java.util.Collection;
+import java.util.Collections;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
 import com.linkedin.r2.message.RequestContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -24,6 +31,11 @@ import com.linkedin.common.callback.Callback;
 import com.linkedin.parseq.Engine;
 import com.linkedin.r2.message.rest.RestRequest;
 import com.linkedin.r2.message.rest.RestResponse;
+import com.linkedin.r2.util.DeadlineUtil;
+import com.linkedin.restli.common.HttpStatus;
+import com.linkedin.restli.common.ResourceMethod;
+import com.linkedin.restli.internal.server.ParallelBatchInvoker;
+import com.linkedin.restli.internal.server.RequestCoalescer;
 import com.linkedin.restli.internal.server.RestLiMethodInvoker;
 import com.linkedin.restli.internal.server.RestLiResponseHandler;
 import com.linkedin.restli.internal.server.RestLiRouter;
@@ -32,6 +44,7 @@ import com.linkedin.restli.internal.server.model.ResourceMethodDescriptor;
 import com.linkedin.restli.internal.server.model.ResourceMethodDescriptor.InterfaceType;
 import com.linkedin.restli.internal.server.model.ResourceModel;
 import com.linkedin.restli.internal.server.model.RestLiApiBuilder;
+import com.linkedin.restli.internal.server.util.ArgumentUtils;
 import com.linkedin.restli.server.resources.PrototypeResourceFactory;
 import com.linkedin.restli.server.resources.ResourceFactory;
 
@@ -41,6 +54,7 @@ import com.linkedin.restli.server.resources.ResourceFactory;
 public class RestLiServer extends BaseRestServer
 {
   private static final Logger log = LoggerFactory.getLogger(RestLiServer.class);
+  private static final int MAX_COALESCED_RESULTS = 1000;
 
   private final RestLiConfig _config;
   private final RestLiRouter _router;
@@ -48,6 +62,8 @@ public class RestLiServer extends BaseRestServer
   private final RestLiMethodInvoker _methodInvoker;
   private final RestLiResponseHandler _responseHandler;
   private final RestLiDocumentationRequestHandler _docRequestHandler;
+  private final RequestCoalescer _requestCoalescer;
+  private final ResponseCache _responseCache;
   private boolean _isDocInitialized = false;
 
   public RestLiServer(final RestLiConfig config)
@@ -69,11 +85,38 @@ public class RestLiServer extends BaseRestServer
     _config = config;
     _resourceFactory = resourceFactory;
     _rootResources = new RestLiApiBuilder(config).build();
+    if (engine != null && config.getBatchParallelism() > 0)
+    {
+      ParallelBatchInvoker.addParallelBatchMethods(_rootResources.values());
+    }
     _resourceFactory.setRootResources(_rootResources);
     _router = new RestLiRouter(_rootResources);
-    _methodInvoker = new RestLiMethodInvoker(_resourceFactory, engine);
+    _methodInvoker = new RestLiMethodInvoker(_resourceFactory, engine, config.getBatchParallelism());
     _responseHandler = new RestLiResponseHandler();
     _docRequestHandler = config.getDocumentationRequestHandler();
+    if (config.getCachedResourceNamesSet().isEmpty())
+    {
+      _responseCache = null;
+    }
+    else
+    {
+      _responseCache = config.getResponseCache();
+      if (_responseCache == null)
+      {
+        throw new ResourceConfigException("Cached resources " + config.getCachedResourceNamesSet()
+            + " are configured, but no ResponseCache is set");
+      }
+      if (config.getResponseCacheJmxName() != null)
+      {
+        registerResponseCache(_responseCache, config.getResponseCacheJmxName());
+      }
+    }
+    _requestCoalescer = config.getCoalescedResourceNamesSet().isEmpty()
+        ? null
+        : new RequestCoalescer(config.getCoalescingMaxWaiters(),
+                               config.getCoalescingResultTtl(),
+                               MAX_COALESCED_RESULTS,
+                               config.getCoalescingKeyHeadersSet());
 
     // verify that if there are resources using the engine, then the engine is not null
     if (engine == null)
@@ -97,6 +140,25 @@ public class RestLiServer extends BaseRestServer
     }
   }
 
+  private static void registerResponseCache(final ResponseCache cache, final String jmxName)
+  {
+    try
+    {
+      final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+      final ObjectName name = new ObjectName("com.linkedin.restli:type=ResponseCache,name=" + ObjectName.quote(jmxName));
+      // replace the cache of a previous server with the same name, e.g. after a redeployment
+      if (server.isRegistered(name))
+      {
+        server.unregisterMBean(name);
+      }
+      server.registerMBean(new ResponseCacheJmx(cache), name);
+    }
+    catch (Exception e)
+    {
+      log.warn("Failed to register response cache " + jmxName + " with JMX", e);
+    }
+  }
+
   /**
    * @see BaseRestServer#doHandleRequest(com.linkedin.r2.message.rest.RestRequest,
    * com.linkedin.r2.message.RequestContext, com.linkedin.common.callback.Callback)
@@ -131,8 +193,50 @@ public class RestLiServer extends BaseRestServer
       return;
     }
 
+    // The caller has already given up on this request, don't waste the resource's time on it
+    if (DeadlineUtil.isExpired(requestContext))
+    {
+      new RestLiCallback<Object>(request, method, _responseHandler, callback)
+          .onErrorPre(new RestLiServiceException(HttpStatus.S_504_GATEWAY_TIMEOUT,
+                                                 "Request deadline exceeded before the resource was invoked"));
+      return;
+    }
+
+    final boolean isCached = isCached(method);
+    if (isCached && isRead(request, method))
+    {
+      final RestResponse cachedResponse = _responseCache.get(request,
+                                                             getResourceName(method),
+                                                             ArgumentUtils.getResourceKey(method));
+      if (cachedResponse != null)
+      {
+        callback.onSuccess(cachedResponse);
+        return;
+      }
+    }
+
+    Callback<RestResponse> responseCallback;
+    if (isCoalesced(request, method))
+    {
+      responseCallback = _requestCoalescer.join(request, callback);
+      if (responseCallback == null)
+      {
+        // an identical request is in flight and will complete the callback
+        return;
+      }
+    }
+    else
+    {
+      responseCallback = callback;
+    }
+
+    if (isCached)
+    {
+      responseCallback = wrapForResponseCache(request, method, responseCallback);
+    }
+
     final RestLiCallback<Object> restLiCallback =
-        new RestLiCallback<Object>(request, method, _responseHandler, callback);
+        new RestLiCallback<Object>(request, method, _responseHandler, responseCallback);
 
     try
     {
@@ -144,6 +248,107 @@ public class RestLiServer extends BaseRestServer
     }
   }
 
+  private boolean isCached(final RoutingResult method)
+  {
+    return _responseCache != null && _config.getCachedResourceNamesSet().contains(getResourceName(method));
+  }
+
+  private static boolean isRead(final RestRequest request, final RoutingResult method)
+  {
+    return "GET".equalsIgnoreCase(request.getMethod())
+        && method.getResourceMethod().getType() == ResourceMethod.GET;
+  }
+
+  private static String getResourceName(final RoutingResult method)
+  {
+    return method.getResourceMethod().getResourceModel().getName();
+  }
+
+  /**
+   * Fill the response cache with the response of a GET, or invalidate the entities modified by
+   * a write both now and once it completes, so that reads racing with the write are not cached.
+   */
+  private Callback<RestResponse> wrapForResponseCache(final RestRequest request,
+                                                      final RoutingResult method,
+                                                      final Callback<RestResponse> callback)
+  {
+    final String resourceName = getResourceName(method);
+    if (isRead(request, method))
+    {
+      final Object key = ArgumentUtils.getResourceKey(method);
+      final long invalidationToken = _responseCache.getInvalidationToken(resourceName);
+      return new Callback<RestResponse>()
+      {
+        @Override
+        public void onSuccess(final RestResponse result)
+        {
+          if (result.getStatus() == HttpStatus.S_200_OK.getCode())
+          {
+            _responseCache.put(request, resourceName, key, result, invalidationToken);
+          }
+          callback.onSuccess(result);
+        }
+
+        @Override
+        public void onError(final Throwable e)
+        {
+          callback.onError(e);
+        }
+      };
+    }
+
+    final Collection<?> modifiedKeys;
+    switch (method.getResourceMethod().getType())
+    {
+      case UPDATE:
+      case PARTIAL_UPDATE:
+      case DELETE:
+        modifiedKeys = Collections.singleton(ArgumentUtils.getResourceKey(method));
+        break;
+      case BATCH_UPDATE:
+      case BATCH_PARTIAL_UPDATE:
+      case BATCH_DELETE:
+        modifiedKeys = method.getContext().getPathKeys().getBatchKeys();
+        break;
+      default:
+        return callback;
+    }
+
+    invalidate(resourceName, modifiedKeys);
+    return new Callback<RestResponse>()
+    {
+      @Override
+      public void onSuccess(final RestResponse result)
+      {
+        invalidate(resourceName, modifiedKeys);
+        callback.onSuccess(result);
+      }
+
+      @Override
+      public void onError(final Throwable e)
+      {
+        invalidate(resourceName, modifiedKeys);
+        callback.onError(e);
+      }
+    };
+  }
+
+  private void invalidate(final String resourceName, final Collection<?> keys)
+  {
+    for (Object key : keys)
+    {
+      _responseCache.invalidate(resourceName, key);
+    }
+  }
+
+  private boolean isCoalesced(final RestRequest request, final RoutingResult method)
+  {
+    return _requestCoalescer != null
+        && "GET".equalsIgnoreCase(request.getMethod())
+        && _config.getCoalescedResourceNamesSet()
+                  .contains(method.getResourceMethod().getResourceModel().getName());
+  }
+
   private void handleDocumentationRequest(final RestRequest request,
                                           final Callback<RestResponse> callback)
   {
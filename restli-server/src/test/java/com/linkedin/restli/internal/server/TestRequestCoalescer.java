@@ -0,0 +1,175 @@
+/*
+   Copyright (c) 2012 LinkedIn Corp.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.linkedin.restli.internal.server;
+
+import java.net.URI;
+import java.util.Arrays;
+import java.util.concurrent.ExecutionException;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.linkedin.common.callback.Callback;
+import com.linkedin.common.callback.FutureCallback;
+import com.linkedin.r2.message.rest.RestRequest;
+import com.linkedin.r2.message.rest.RestRequestBuilder;
+import com.linkedin.r2.message.rest.RestResponse;
+import com.linkedin.r2.message.rest.RestResponseBuilder;
+import com.linkedin.restli.common.RestConstants;
+import com.linkedin.restli.server.RestLiConfig;
+
+public class TestRequestCoalescer
+{
+  @Test
+  public void testIdenticalRequestsAreCoalesced() throws Exception
+  {
+    RequestCoalescer coalescer = newCoalescer(10, 0);
+
+    FutureCallback<RestResponse> first = new FutureCallback<RestResponse>();
+    FutureCallback<RestResponse> second = new FutureCallback<RestResponse>();
+    Callback<RestResponse> leader = coalescer.join(request("/statuses/1", "application/json"), first);
+    Assert.assertNotNull(leader);
+    Assert.assertNull(coalescer.join(request("/statuses/1", "application/json"), second));
+    Assert.assertFalse(second.isDone());
+
+    RestResponse response = new RestResponseBuilder().build();
+    leader.onSuccess(response);
+    Assert.assertSame(first.get(), response);
+    Assert.assertSame(second.get(), response);
+    Assert.assertEquals(coalescer.getInFlightCount(), 0);
+
+    // without a result TTL, the next request is executed again
+    Assert.assertNotNull(coalescer.join(request("/statuses/1", "application/json"),
+                                        new FutureCallback<RestResponse>()));
+  }
+
+  @Test
+  public void testDifferentRequestsAreNotCoalesced()
+  {
+    RequestCoalescer coalescer = newCoalescer(10, 0);
+
+    Assert.assertNotNull(coalescer.join(request("/statuses/1", "application/json"), new FutureCallback<RestResponse>()));
+    Assert.assertNotNull(coalescer.join(request("/statuses/2", "application/json"), new FutureCallback<RestResponse>()));
+    Assert.assertNotNull(coalescer.join(request("/statuses/1", "application/x-pson"), new FutureCallback<RestResponse>()));
+    Assert.assertNotNull(coalescer.join(request("/statuses/1?fields=text", "application/json"),
+                                        new FutureCallback<RestResponse>()));
+    Assert.assertEquals(coalescer.getInFlightCount(), 4);
+  }
+
+  @Test
+  public void testRequestsOfDifferentCallersAreNotCoalesced()
+  {
+    RequestCoalescer coalescer =
+        new RequestCoalescer(10, 60000, 100, new RestLiConfig().getCoalescingKeyHeadersSet());
+    String alice = "Basic YWxpY2U6";
+    String bob = "Basic Ym9iOg==";
+
+    Callback<RestResponse> leader =
+        coalescer.join(requestWithAuthorization("/statuses/1", alice), new FutureCallback<RestResponse>());
+    Assert.assertNotNull(leader);
+    Assert.assertNotNull(coalescer.join(requestWithAuthorization("/statuses/1", bob),
+                                        new FutureCallback<RestResponse>()));
+    Assert.assertNull(coalescer.join(requestWithAuthorization("/statuses/1", alice),
+                                     new FutureCallback<RestResponse>()));
+
+    // nor is a retained result served to another caller
+    leader.onSuccess(new RestResponseBuilder().build());
+    Assert.assertNotNull(coalescer.join(requestWithAuthorization("/statuses/1", null),
+                                        new FutureCallback<RestResponse>()));
+  }
+
+  @Test
+  public void testErrorIsDeliveredToAllWaiters() throws Exception
+  {
+    RequestCoalescer coalescer = newCoalescer(10, 1000);
+
+    FutureCallback<RestResponse> first = new FutureCallback<RestResponse>();
+    FutureCallback<RestResponse> second = new FutureCallback<RestResponse>();
+    Callback<RestResponse> leader = coalescer.join(request("/statuses/1", null), first);
+    coalescer.join(request("/statuses/1", null), second);
+
+    Exception error = new Exception("boom");
+    leader.onError(error);
+    for (FutureCallback<RestResponse> callback : Arrays.asList(first, second))
+    {
+      try
+      {
+        callback.get();
+        Assert.fail("expected an error");
+      }
+      catch (ExecutionException e)
+      {
+        Assert.assertSame(e.getCause(), error);
+      }
+    }
+
+    // errors are never cached
+    Assert.assertNotNull(coalescer.join(request("/statuses/1", null), new FutureCallback<RestResponse>()));
+  }
+
+  @Test
+  public void testMaxWaiters()
+  {
+    RequestCoalescer coalescer = newCoalescer(2, 0);
+
+    Assert.assertNotNull(coalescer.join(request("/statuses/1", null), new FutureCallback<RestResponse>()));
+    Assert.assertNull(coalescer.join(request("/statuses/1", null), new FutureCallback<RestResponse>()));
+
+    // the waiter list is full, so the request has to be executed on its own
+    FutureCallback<RestResponse> overflow = new FutureCallback<RestResponse>();
+    Assert.assertSame(coalescer.join(request("/statuses/1", null), overflow), overflow);
+  }
+
+  @Test
+  public void testResultTtl() throws Exception
+  {
+    RequestCoalescer coalescer = newCoalescer(10, 60000);
+
+    Callback<RestResponse> leader = coalescer.join(request("/statuses/1", null), new FutureCallback<RestResponse>());
+    RestResponse response = new RestResponseBuilder().build();
+    leader.onSuccess(response);
+
+    FutureCallback<RestResponse> late = new FutureCallback<RestResponse>();
+    Assert.assertNull(coalescer.join(request("/statuses/1", null), late));
+    Assert.assertSame(late.get(), response);
+  }
+
+  private static RequestCoalescer newCoalescer(int maxWaiters, long resultTtl)
+  {
+    return new RequestCoalescer(maxWaiters, resultTtl, 100, Arrays.asList(RestConstants.HEADER_ACCEPT));
+  }
+
+  private static RestRequest request(String uri, String accept)
+  {
+    RestRequestBuilder builder = new RestRequestBuilder(URI.create(uri));
+    if (accept != null)
+    {
+      builder.setHeader(RestConstants.HEADER_ACCEPT, accept);
+    }
+    return builder.build();
+  }
+
+  private static RestRequest requestWithAuthorization(String uri, String authorization)
+  {
+    RestRequestBuilder builder = new RestRequestBuilder(URI.create(uri));
+    if (authorization != null)
+    {
+      builder.setHeader("Authorization", authorization);
+    }
+    return builder.build();
+  }
+}
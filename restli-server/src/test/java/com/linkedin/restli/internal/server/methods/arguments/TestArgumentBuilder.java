@@ -99,5 +99,10 @@ public class TestArgumentBuilder
     param4List.add(param4Value);
     StringArray param4Array = new StringArray(new DataList(param4List));
     Assert.assertEquals(results[3], param4Array);
+
+    // validators of data template parameters are kept on the parameters, not in a static cache
+    Assert.assertNull(param1.getValidator());
+    Assert.assertNotNull(param3.getValidator());
+    Assert.assertSame(param3.getValidator().getSchema(), DataTemplateUtil.getSchema(StringArray.class));
   }
 }
@@ -0,0 +1,244 @@
+/*
+   Copyright (c) 2012 LinkedIn Corp.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.linkedin.restli.internal.server.model;
+
+
+import com.linkedin.restli.server.RestLiConfig;
+import com.linkedin.restli.server.twitter.RepliesCollectionResource;
+import com.linkedin.restli.server.twitter.StatusCollectionResource;
+import com.linkedin.restli.server.twitter.TwitterAccountsResource;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+
+public class TestRestLiResourceIndex
+{
+  private static final String TWITTER_PACKAGE = "com.linkedin.restli.server.twitter";
+
+  @Test
+  public void testWriteAndLoad() throws IOException
+  {
+    final Map<String, ResourceModel> rootResources = build(TWITTER_PACKAGE, false);
+    final File dir = createTmpDir();
+    try
+    {
+      final File indexFile = RestLiResourceIndex.write(dir, Collections.singleton(TWITTER_PACKAGE), rootResources);
+      Assert.assertTrue(indexFile.isFile());
+
+      final Map<String, RestLiResourceIndex> indexes = RestLiResourceIndex.load(classLoader(dir));
+      Assert.assertEquals(indexes.keySet(), Collections.singleton(dir.toURI().toURL().toString()));
+
+      final RestLiResourceIndex index = indexes.values().iterator().next();
+      Assert.assertTrue(index.isIndexed(TWITTER_PACKAGE));
+      Assert.assertTrue(index.isIndexed(TWITTER_PACKAGE + ".sub"));
+      Assert.assertFalse(index.isIndexed("com.linkedin.restli.server"));
+
+      final Set<String> indexed = index.getClassNames(TWITTER_PACKAGE);
+      Assert.assertTrue(indexed.contains(TwitterAccountsResource.class.getName()));
+      Assert.assertTrue(indexed.contains(StatusCollectionResource.class.getName()));
+      // subresources are indexed too
+      Assert.assertTrue(indexed.contains(RepliesCollectionResource.class.getName()));
+    }
+    finally
+    {
+      delete(dir);
+    }
+  }
+
+  @Test
+  public void testIndexReplacesScanning() throws IOException
+  {
+    final File dir = createTmpDir();
+    try
+    {
+      copyClass(dir, TwitterAccountsResource.class);
+      copyClass(dir, StatusCollectionResource.class);
+      writeIndex(dir, "package " + TWITTER_PACKAGE, TwitterAccountsResource.class.getName());
+      final ClassLoader classLoader = classLoader(dir);
+
+      final Map<String, ResourceModel> indexedResources = buildWithClassLoader(classLoader, TWITTER_PACKAGE, true);
+      Assert.assertEquals(indexedResources.keySet(), Collections.singleton("/accounts"));
+
+      final Map<String, ResourceModel> scannedResources = buildWithClassLoader(classLoader, TWITTER_PACKAGE, false);
+      Assert.assertEquals(scannedResources.keySet(), new HashSet<String>(Arrays.asList("/accounts", "/statuses")));
+    }
+    finally
+    {
+      delete(dir);
+    }
+  }
+
+  @Test
+  public void testRootsWithoutIndexAreScanned() throws IOException
+  {
+    final File dir = createTmpDir();
+    try
+    {
+      // the test classes are in another class directory, which has no index
+      Assert.assertTrue(new File(dir, TWITTER_PACKAGE.replace('.', File.separatorChar)).mkdirs());
+      writeIndex(dir, "package " + TWITTER_PACKAGE, TwitterAccountsResource.class.getName());
+      final URL testClasses = TwitterAccountsResource.class.getProtectionDomain().getCodeSource().getLocation();
+
+      Assert.assertEquals(buildWithClassLoader(classLoader(dir.toURI().toURL(), testClasses), TWITTER_PACKAGE, true).keySet(),
+                          build(TWITTER_PACKAGE, false).keySet());
+    }
+    finally
+    {
+      delete(dir);
+    }
+  }
+
+  @Test
+  public void testPackagesNotIndexedAreScanned() throws IOException
+  {
+    final File dir = createTmpDir();
+    try
+    {
+      copyClass(dir, TwitterAccountsResource.class);
+      writeIndex(dir, "package com.linkedin.restli.server.other", "com.linkedin.restli.server.other.OtherResource");
+
+      Assert.assertEquals(buildWithClassLoader(classLoader(dir), TWITTER_PACKAGE, true).keySet(),
+                          Collections.singleton("/accounts"));
+    }
+    finally
+    {
+      delete(dir);
+    }
+  }
+
+  private static Map<String, ResourceModel> build(String packageName, boolean resourceIndexEnabled)
+  {
+    final RestLiConfig config = new RestLiConfig();
+    config.addResourcePackageNames(packageName);
+    config.setResourceIndexEnabled(resourceIndexEnabled);
+    return new RestLiApiBuilder(config).build();
+  }
+
+  private static Map<String, ResourceModel> buildWithClassLoader(ClassLoader classLoader,
+                                                                 String packageName,
+                                                                 boolean resourceIndexEnabled)
+  {
+    final Thread thread = Thread.currentThread();
+    final ClassLoader saved = thread.getContextClassLoader();
+    thread.setContextClassLoader(classLoader);
+    try
+    {
+      return build(packageName, resourceIndexEnabled);
+    }
+    finally
+    {
+      thread.setContextClassLoader(saved);
+    }
+  }
+
+  private static ClassLoader classLoader(File dir) throws IOException
+  {
+    return classLoader(dir.toURI().toURL());
+  }
+
+  /**
+   * Only the provided class directories are visible as resources, classes are loaded by the test class loader.
+   */
+  private static ClassLoader classLoader(URL... classDirectories)
+  {
+    final ClassLoader parent = new ClassLoader(TestRestLiResourceIndex.class.getClassLoader())
+    {
+      @Override
+      public Enumeration<URL> getResources(String name)
+      {
+        return Collections.enumeration(Collections.<URL>emptyList());
+      }
+    };
+    return new URLClassLoader(classDirectories, parent);
+  }
+
+  private static void copyClass(File dir, Class<?> clazz) throws IOException
+  {
+    final File classFile = new File(dir, clazz.getName().replace('.', File.separatorChar) + ".class");
+    final File parent = classFile.getParentFile();
+    Assert.assertTrue(parent.isDirectory() || parent.mkdirs());
+    final InputStream in = clazz.getResourceAsStream(clazz.getSimpleName() + ".class");
+    final OutputStream out = new FileOutputStream(classFile);
+    try
+    {
+      final byte[] buffer = new byte[4096];
+      for (int n = in.read(buffer); n != -1; n = in.read(buffer))
+      {
+        out.write(buffer, 0, n);
+      }
+    }
+    finally
+    {
+      in.close();
+      out.close();
+    }
+  }
+
+  private static void writeIndex(File dir, String... lines) throws IOException
+  {
+    final File indexFile = new File(dir, RestLiResourceIndex.INDEX_RESOURCE_NAME);
+    Assert.assertTrue(indexFile.getParentFile().mkdirs());
+    final Writer writer = new OutputStreamWriter(new FileOutputStream(indexFile), "UTF-8");
+    try
+    {
+      for (String line : lines)
+      {
+        writer.write(line + "\n");
+      }
+    }
+    finally
+    {
+      writer.close();
+    }
+  }
+
+  private static File createTmpDir() throws IOException
+  {
+    final File dir = File.createTempFile("restli-index", Long.toString(System.nanoTime()));
+    Assert.assertTrue(dir.delete());
+    Assert.assertTrue(dir.mkdir());
+    return dir;
+  }
+
+  private static void delete(File file)
+  {
+    final File[] children = file.listFiles();
+    if (children != null)
+    {
+      for (File child : children)
+      {
+        delete(child);
+      }
+    }
+    file.delete();
+  }
+}
@@ -0,0 +1,233 @@
+/*
+   Copyright (c) 2012 LinkedIn Corp.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.linkedin.restli.server;
+
+import java.net.URI;
+import java.util.Collections;
+
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import com.linkedin.data.ByteString;
+import com.linkedin.r2.message.rest.RestRequest;
+import com.linkedin.r2.message.rest.RestRequestBuilder;
+import com.linkedin.r2.message.rest.RestResponse;
+import com.linkedin.r2.message.rest.RestResponseBuilder;
+import com.linkedin.restli.common.RestConstants;
+import com.linkedin.restli.server.twitter.StatusCollectionResource;
+
+public class TestResponseCache
+{
+  @DataProvider(name = "offHeap")
+  public Object[][] offHeap()
+  {
+    return new Object[][] { { false }, { true } };
+  }
+
+  @Test(dataProvider = "offHeap")
+  public void testHitAndMiss(boolean offHeap)
+  {
+    ResponseCache cache = new ResponseCache(1024, offHeap);
+    RestRequest request = request("/statuses/1", "application/json");
+
+    Assert.assertNull(cache.get(request, "statuses", 1L));
+    cache.put(request, "statuses", 1L, response("{\"text\":\"hello\"}"), cache.getInvalidationToken("statuses"));
+
+    RestResponse cached = cache.get(request, "statuses", 1L);
+    Assert.assertNotNull(cached);
+    Assert.assertEquals(cached.getStatus(), 200);
+    Assert.assertEquals(cached.getEntity().asString("UTF-8"), "{\"text\":\"hello\"}");
+    Assert.assertEquals(cached.getHeader(RestConstants.HEADER_CONTENT_TYPE), "application/json");
+
+    // a different projection or content type is a different entry
+    Assert.assertNull(cache.get(request("/statuses/1?fields=text", "application/json"), "statuses", 1L));
+    Assert.assertNull(cache.get(request("/statuses/1", "application/x-pson"), "statuses", 1L));
+
+    Assert.assertEquals(cache.getHitCount(), 1);
+    Assert.assertEquals(cache.getMissCount(), 3);
+    Assert.assertEquals(cache.getEntryCount(), 1);
+    Assert.assertEquals(cache.getSizeBytes(), 16);
+  }
+
+  @Test
+  public void testCallersDoNotShareEntries()
+  {
+    ResponseCache cache = new ResponseCache(1024, false);
+    RestRequest alice = request("/statuses/1", null, "Authorization", "alice");
+    RestRequest bob = request("/statuses/1", null, "Authorization", "bob");
+    RestRequest cookie = request("/statuses/1", null, "Cookie", "session=alice");
+
+    cache.put(alice, "statuses", 1L, response("alice's view"), cache.getInvalidationToken("statuses"));
+    Assert.assertNotNull(cache.get(alice, "statuses", 1L));
+    Assert.assertNull(cache.get(bob, "statuses", 1L));
+    Assert.assertNull(cache.get(cookie, "statuses", 1L));
+    Assert.assertNull(cache.get(request("/statuses/1", null), "statuses", 1L));
+
+    // invalidating the entity removes the entries of every caller
+    cache.put(bob, "statuses", 1L, response("bob's view"), cache.getInvalidationToken("statuses"));
+    cache.invalidate("statuses", 1L);
+    Assert.assertEquals(cache.getEntryCount(), 0);
+  }
+
+  @Test
+  public void testCustomKeyHeaders()
+  {
+    ResponseCache cache = new ResponseCache(1024, false, Collections.singleton("X-Caller"));
+    RestRequest first = request("/statuses/1", null, "X-Caller", "first");
+
+    cache.put(first, "statuses", 1L, response("a"), cache.getInvalidationToken("statuses"));
+    Assert.assertNotNull(cache.get(first, "statuses", 1L));
+    Assert.assertNull(cache.get(request("/statuses/1", null, "X-Caller", "second"), "statuses", 1L));
+  }
+
+  @Test
+  public void testJmx()
+  {
+    ResponseCache cache = new ResponseCache(1024, false);
+    ResponseCacheJmx jmx = new ResponseCacheJmx(cache);
+    RestRequest request = request("/statuses/1", null);
+    Assert.assertEquals(jmx.getHitRatio(), 0.0);
+
+    Assert.assertNull(cache.get(request, "statuses", 1L));
+    cache.put(request, "statuses", 1L, response("a"), cache.getInvalidationToken("statuses"));
+    Assert.assertNotNull(cache.get(request, "statuses", 1L));
+
+    Assert.assertEquals(jmx.getHitCount(), 1);
+    Assert.assertEquals(jmx.getMissCount(), 1);
+    Assert.assertEquals(jmx.getHitRatio(), 0.5);
+    Assert.assertEquals(jmx.getEntryCount(), 1);
+
+    jmx.invalidateAll();
+    Assert.assertEquals(jmx.getEntryCount(), 0);
+  }
+
+  @Test(expectedExceptions = ResourceConfigException.class)
+  public void testCachedResourcesRequireCache()
+  {
+    RestLiConfig config = new RestLiConfig();
+    config.addResourceClassNames(StatusCollectionResource.class.getName());
+    config.addCachedResourceNames("statuses");
+    new RestLiServer(config);
+  }
+
+  @Test
+  public void testInvalidate()
+  {
+    ResponseCache cache = new ResponseCache(1024, false);
+    RestRequest full = request("/statuses/1", null);
+    RestRequest projected = request("/statuses/1?fields=text", null);
+    RestRequest other = request("/statuses/2", null);
+
+    cache.put(full, "statuses", 1L, response("a"), cache.getInvalidationToken("statuses"));
+    cache.put(projected, "statuses", 1L, response("b"), cache.getInvalidationToken("statuses"));
+    cache.put(other, "statuses", 2L, response("c"), cache.getInvalidationToken("statuses"));
+
+    cache.invalidate("statuses", 1L);
+    Assert.assertNull(cache.get(full, "statuses", 1L));
+    Assert.assertNull(cache.get(projected, "statuses", 1L));
+    Assert.assertNotNull(cache.get(other, "statuses", 2L));
+    Assert.assertEquals(cache.getSizeBytes(), 1);
+
+    cache.invalidateAll("statuses");
+    Assert.assertNull(cache.get(other, "statuses", 2L));
+    Assert.assertEquals(cache.getEntryCount(), 0);
+  }
+
+  @Test
+  public void testStaleResponseIsNotCached()
+  {
+    ResponseCache cache = new ResponseCache(1024, false);
+    RestRequest request = request("/statuses/1", null);
+
+    long token = cache.getInvalidationToken("statuses");
+    // the entity is modified while the read is in flight
+    cache.invalidate("statuses", 1L);
+    cache.put(request, "statuses", 1L, response("stale"), token);
+
+    Assert.assertNull(cache.get(request, "statuses", 1L));
+  }
+
+  @Test
+  public void testInvalidationOfOtherResource()
+  {
+    ResponseCache cache = new ResponseCache(1024, false);
+    RestRequest request = request("/statuses/1", null);
+
+    long token = cache.getInvalidationToken("statuses");
+    cache.invalidate("greetings", 1L);
+    cache.invalidateAll("greetings");
+    cache.put(request, "statuses", 1L, response("fresh"), token);
+    Assert.assertNotNull(cache.get(request, "statuses", 1L));
+
+    // invalidating everything applies to every resource
+    token = cache.getInvalidationToken("statuses");
+    cache.invalidateAll();
+    cache.put(request, "statuses", 1L, response("stale"), token);
+    Assert.assertNull(cache.get(request, "statuses", 1L));
+  }
+
+  @Test
+  public void testEviction()
+  {
+    ResponseCache cache = new ResponseCache(10, false);
+
+    cache.put(request("/statuses/1", null), "statuses", 1L, response("aaaa"), cache.getInvalidationToken("statuses"));
+    cache.put(request("/statuses/2", null), "statuses", 2L, response("bbbb"), cache.getInvalidationToken("statuses"));
+    // touch entry 1 so that entry 2 is the least recently used
+    Assert.assertNotNull(cache.get(request("/statuses/1", null), "statuses", 1L));
+    cache.put(request("/statuses/3", null), "statuses", 3L, response("cccc"), cache.getInvalidationToken("statuses"));
+
+    Assert.assertNotNull(cache.get(request("/statuses/1", null), "statuses", 1L));
+    Assert.assertNull(cache.get(request("/statuses/2", null), "statuses", 2L));
+    Assert.assertNotNull(cache.get(request("/statuses/3", null), "statuses", 3L));
+    Assert.assertEquals(cache.getEvictionCount(), 1);
+    Assert.assertEquals(cache.getSizeBytes(), 8);
+
+    // responses larger than the cache are never stored
+    cache.put(request("/statuses/4", null), "statuses", 4L, response("ddddddddddd"), cache.getInvalidationToken("statuses"));
+    Assert.assertEquals(cache.getEntryCount(), 2);
+  }
+
+  private static RestRequest request(String uri, String accept)
+  {
+    return request(uri, accept, null, null);
+  }
+
+  private static RestRequest request(String uri, String accept, String header, String value)
+  {
+    RestRequestBuilder builder = new RestRequestBuilder(URI.create(uri));
+    if (accept != null)
+    {
+      builder.setHeader(RestConstants.HEADER_ACCEPT, accept);
+    }
+    if (header != null)
+    {
+      builder.setHeader(header, value);
+    }
+    return builder.build();
+  }
+
+  private static RestResponse response(String body)
+  {
+    return new RestResponseBuilder()
+        .setStatus(200)
+        .setHeader(RestConstants.HEADER_CONTENT_TYPE, "application/json")
+        .setEntity(ByteString.copyString(body, "UTF-8"))
+        .build();
+  }
+}
@@ -0,0 +1,230 @@
+/*
+   Copyright (c) 2012 LinkedIn Corp.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.linkedin.restli.server.test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.net.URI;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.linkedin.common.callback.FutureCallback;
+import com.linkedin.data.DataMap;
+import com.linkedin.parseq.Engine;
+import com.linkedin.parseq.EngineBuilder;
+import com.linkedin.r2.message.RequestContext;
+import com.linkedin.r2.message.rest.RestException;
+import com.linkedin.r2.message.rest.RestRequest;
+import com.linkedin.r2.message.rest.RestRequestBuilder;
+import com.linkedin.r2.message.rest.RestResponse;
+import com.linkedin.restli.common.BatchResponse;
+import com.linkedin.restli.common.HttpStatus;
+import com.linkedin.restli.internal.server.util.DataMapUtils;
+import com.linkedin.restli.server.RestLiConfig;
+import com.linkedin.restli.server.RestLiServer;
+import com.linkedin.restli.server.RestLiServiceException;
+import com.linkedin.restli.server.UpdateResponse;
+import com.linkedin.restli.server.annotations.RestLiCollection;
+import com.linkedin.restli.server.resources.CollectionResourceTemplate;
+import com.linkedin.restli.server.resources.PrototypeResourceFactory;
+import com.linkedin.restli.server.twitter.TwitterTestDataModels.Status;
+
+/**
+ * Tests server-side fan-out of batch requests to single-key resource methods.
+ */
+public class TestParallelBatchInvocation
+{
+  private static final int PARALLELISM = 3;
+
+  private ScheduledExecutorService _scheduler;
+  private Engine _engine;
+
+  @BeforeClass
+  protected void setUp()
+  {
+    _scheduler = Executors.newScheduledThreadPool(2 * PARALLELISM);
+    _engine = new EngineBuilder()
+        .setTaskExecutor(_scheduler)
+        .setTimerScheduler(_scheduler)
+        .build();
+  }
+
+  @AfterClass
+  protected void tearDown()
+  {
+    _engine.shutdown();
+    _scheduler.shutdownNow();
+  }
+
+  @BeforeMethod
+  protected void resetCounters()
+  {
+    SingleKeyStatusResource.IN_FLIGHT.set(0);
+    SingleKeyStatusResource.MAX_IN_FLIGHT.set(0);
+    SingleKeyStatusResource.INVOCATIONS.set(0);
+  }
+
+  @Test
+  public void testBatchGet() throws Exception
+  {
+    RestResponse response = execute(buildServer(PARALLELISM),
+                                    new RestRequestBuilder(new URI("/singlekeystatuses?ids=1&ids=2&ids=3&ids=4&ids=5&ids=6&ids=7"))
+                                        .build());
+
+    assertEquals(response.getStatus(), 200);
+    DataMap body = DataMapUtils.readMap(response);
+    DataMap results = body.getDataMap(BatchResponse.RESULTS);
+    DataMap errors = body.getDataMap(BatchResponse.ERRORS);
+    assertEquals(results.keySet().size(), 5);
+    assertEquals(results.getDataMap("1").getString("text"), "status 1");
+    assertEquals(errors.keySet().size(), 2);
+    assertEquals(errors.getDataMap("4").getInteger("status").intValue(), HttpStatus.S_403_FORBIDDEN.getCode());
+    assertEquals(errors.getDataMap("5").getInteger("status").intValue(), HttpStatus.S_404_NOT_FOUND.getCode());
+
+    assertEquals(SingleKeyStatusResource.INVOCATIONS.get(), 7);
+    assertTrue(SingleKeyStatusResource.MAX_IN_FLIGHT.get() > 1, "keys were not processed concurrently");
+    for (int key = 1; key <= 7; key++)
+    {
+      assertEquals(response.getHeader("X-Status-" + key), "read", "missing response header of key " + key);
+    }
+    assertTrue(SingleKeyStatusResource.MAX_IN_FLIGHT.get() <= PARALLELISM, "parallelism was exceeded");
+  }
+
+  @Test
+  public void testBatchDelete() throws Exception
+  {
+    RestResponse response = execute(buildServer(PARALLELISM),
+                                    new RestRequestBuilder(new URI("/singlekeystatuses?ids=1&ids=2&ids=4"))
+                                        .setMethod("DELETE")
+                                        .build());
+
+    assertEquals(response.getStatus(), 200);
+    DataMap body = DataMapUtils.readMap(response);
+    assertEquals(body.getDataMap(BatchResponse.RESULTS).keySet().size(), 2);
+    assertTrue(body.getDataMap(BatchResponse.ERRORS).containsKey("4"));
+    assertEquals(SingleKeyStatusResource.INVOCATIONS.get(), 3);
+  }
+
+  @Test
+  public void testFanOutDisabled() throws Exception
+  {
+    try
+    {
+      execute(buildServer(0), new RestRequestBuilder(new URI("/singlekeystatuses?ids=1&ids=2")).build());
+      fail("batch request should not have been routed");
+    }
+    catch (ExecutionException e)
+    {
+      assertTrue(e.getCause() instanceof RestException);
+      assertEquals(((RestException) e.getCause()).getResponse().getStatus(), 400);
+    }
+    assertEquals(SingleKeyStatusResource.INVOCATIONS.get(), 0);
+  }
+
+  private RestLiServer buildServer(int batchParallelism)
+  {
+    RestLiConfig config = new RestLiConfig();
+    config.addResourceClassNames(SingleKeyStatusResource.class.getName());
+    config.setBatchParallelism(batchParallelism);
+    return new RestLiServer(config, new PrototypeResourceFactory(), _engine);
+  }
+
+  private static RestResponse execute(RestLiServer server, RestRequest request) throws Exception
+  {
+    FutureCallback<RestResponse> callback = new FutureCallback<RestResponse>();
+    server.handleRequest(request, new RequestContext(), callback);
+    return callback.get(10, TimeUnit.SECONDS);
+  }
+
+  /**
+   * Collection resource which only implements single-key methods.  Key 4 is forbidden and key 5
+   * does not exist.
+   */
+  @RestLiCollection(name = "singlekeystatuses", keyName = "statusID")
+  public static class SingleKeyStatusResource extends CollectionResourceTemplate<Long, Status>
+  {
+    static final AtomicInteger IN_FLIGHT = new AtomicInteger();
+    static final AtomicInteger MAX_IN_FLIGHT = new AtomicInteger();
+    static final AtomicInteger INVOCATIONS = new AtomicInteger();
+
+    @Override
+    public Status get(Long key)
+    {
+      // set from every concurrently running key, before any of them may fail
+      getContext().setResponseHeader("X-Status-" + key, "read");
+      enter(key);
+      try
+      {
+        if (key == 5L)
+        {
+          return null;
+        }
+        DataMap map = new DataMap();
+        map.put("text", "status " + key);
+        return new Status(map);
+      }
+      finally
+      {
+        IN_FLIGHT.decrementAndGet();
+      }
+    }
+
+    @Override
+    public UpdateResponse delete(Long key)
+    {
+      enter(key);
+      IN_FLIGHT.decrementAndGet();
+      return new UpdateResponse(HttpStatus.S_204_NO_CONTENT);
+    }
+
+    private static void enter(Long key)
+    {
+      INVOCATIONS.incrementAndGet();
+      int inFlight = IN_FLIGHT.incrementAndGet();
+      int max;
+      while ((max = MAX_IN_FLIGHT.get()) < inFlight && !MAX_IN_FLIGHT.compareAndSet(max, inFlight))
+      {
+      }
+
+      if (key == 4L)
+      {
+        IN_FLIGHT.decrementAndGet();
+        throw new RestLiServiceException(HttpStatus.S_403_FORBIDDEN);
+      }
+
+      try
+      {
+        // simulate a blocking call to a backend
+        Thread.sleep(50);
+      }
+      catch (InterruptedException e)
+      {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+}
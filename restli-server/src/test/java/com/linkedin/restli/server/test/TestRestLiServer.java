@@ -29,6 +29,7 @@ import java.util.Set;
 import com.linkedin.parseq.Engine;
 import com.linkedin.r2.message.RequestContext;
 import com.linkedin.r2.message.rest.RestException;
+import com.linkedin.r2.util.DeadlineUtil;
 import org.apache.log4j.Level;
 import org.apache.log4j.Logger;
 import org.easymock.EasyMock;
@@ -221,6 +222,39 @@ public class TestRestLiServer
     _server.handleRequest(request, new RequestContext(), callback);
   }
 
+  @Test
+  public void testExpiredDeadline() throws Exception
+  {
+    RestRequest request = new RestRequestBuilder(new URI("/statuses/1")).build();
+    final StatusCollectionResource statusResource = getMockResource(StatusCollectionResource.class);
+    EasyMock.replay(statusResource);
+
+    Callback<RestResponse> callback = new Callback<RestResponse>()
+    {
+      @Override
+      public void onSuccess(RestResponse restResponse)
+      {
+        fail();
+      }
+
+      @Override
+      public void onError(Throwable e)
+      {
+        assertTrue(e instanceof RestException);
+        RestResponse restResponse = ((RestException) e).getResponse();
+        assertEquals(restResponse.getStatus(), 504);
+
+        // the resource must not have been invoked
+        EasyMock.verify(statusResource);
+        EasyMock.reset(statusResource);
+      }
+    };
+
+    RequestContext requestContext = new RequestContext();
+    DeadlineUtil.setDeadline(requestContext, System.nanoTime() - 1);
+    _server.handleRequest(request, requestContext, callback);
+  }
+
   @Test
   public void testApplicationException() throws Exception
   {
@@ -19,6 +19,7 @@ package com.linkedin.restli.tools.clientgen;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -28,6 +29,10 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 import org.codehaus.jackson.JsonFactory;
 import org.codehaus.jackson.JsonNode;
@@ -99,7 +104,6 @@ import com.sun.codemodel.JMethod;
 import com.sun.codemodel.JMod;
 import com.sun.codemodel.JPackage;
 import com.sun.codemodel.JVar;
-import com.sun.codemodel.writer.FileCodeWriter;
 
 /**
  * Generates Java request builders from Rest.li idl.
@@ -161,16 +165,16 @@ public class RestRequestBuilderGenerator extends DataTemplateGenerator
     List<File> targetFiles = targetFiles(targetDirectory);
 
     List<File> modifiedFiles;
-    if (upToDate(sourceFiles, targetFiles))
+    if (upToDate(sourceFiles, targetFiles, targetDirectory))
     {
       modifiedFiles = Collections.emptyList();
       log.info("Target files are up-to-date: " + targetFiles);
     }
     else
     {
-      modifiedFiles = targetFiles;
       log.info("Generating " + targetFiles.size() + " files: " + targetFiles);
-      getCodeModel().build(new FileCodeWriter(targetDirectory, true));
+      modifiedFiles = writeChangedFiles(targetDirectory, sourceFiles, targetFiles);
+      log.info("Modified " + modifiedFiles.size() + " files: " + modifiedFiles);
     }
     return new Result(sourceFiles, targetFiles, modifiedFiles);
   }
@@ -217,37 +221,94 @@ public class RestRequestBuilderGenerator extends DataTemplateGenerator
           sources = new File[] { source };
         }
 
-        for (File sourceFile : sources)
+        sourceFiles.addAll(Arrays.asList(sources));
+      }
+    }
+
+    // the IDL files are parsed in parallel, but the classes are generated in the order of the
+    // files, as the code model and the schema resolver are not thread-safe
+    ExecutorService executor = newDaemonThreadPool();
+    try
+    {
+      List<Future<ResourceSchema>> resources = new ArrayList<Future<ResourceSchema>>(sourceFiles.size());
+      for (final File sourceFile : sourceFiles)
+      {
+        resources.add(executor.submit(new Callable<ResourceSchema>()
         {
-          sourceFiles.add(sourceFile);
-          try
-          {
-            ResourceSchema resource = _codec.readResourceSchema(
-                    new FileInputStream(sourceFile));
-            generateResourceFacade(resource, sourceFile.getAbsolutePath(), new HashMap<String, JClass>());
-          }
-          catch (JClassAlreadyExistsException e)
-          {
-            // should never occur
-            throw new IllegalStateException("Unexpected exception parsing " + sourceFile + ", " + e.getExistingClass().fullName() + " exists", e);
-          }
-          catch(JsonParseException e)
+          @Override
+          public ResourceSchema call() throws IOException
           {
-            getMessage().append("Error parsing json file [").append(sourceFile.getAbsolutePath()).append("] [").
-                            append(e.getMessage()).append(']');
-          }
-          catch(IOException e)
-          {
-            getMessage().append("Error processing file [").append(sourceFile.getAbsolutePath()).append(']').append(e.getMessage());
+            InputStream in = new FileInputStream(sourceFile);
+            try
+            {
+              return _codec.readResourceSchema(in);
+            }
+            finally
+            {
+              in.close();
+            }
           }
+        }));
+      }
+
+      for (int i = 0; i < sourceFiles.size(); ++i)
+      {
+        File sourceFile = sourceFiles.get(i);
+        try
+        {
+          ResourceSchema resource = getResourceSchema(resources.get(i));
+          generateResourceFacade(resource, sourceFile.getAbsolutePath(), new HashMap<String, JClass>());
+        }
+        catch (JClassAlreadyExistsException e)
+        {
+          // should never occur
+          throw new IllegalStateException("Unexpected exception parsing " + sourceFile + ", " + e.getExistingClass().fullName() + " exists", e);
+        }
+        catch(JsonParseException e)
+        {
+          getMessage().append("Error parsing json file [").append(sourceFile.getAbsolutePath()).append("] [").
+                          append(e.getMessage()).append(']');
+        }
+        catch(IOException e)
+        {
+          getMessage().append("Error processing file [").append(sourceFile.getAbsolutePath()).append(']').append(e.getMessage());
         }
       }
     }
+    finally
+    {
+      executor.shutdownNow();
+    }
 
     appendSourceFilesFromSchemaResolver(sourceFiles);
     return sourceFiles;
   }
 
+  private static ResourceSchema getResourceSchema(Future<ResourceSchema> resource) throws IOException
+  {
+    try
+    {
+      return resource.get();
+    }
+    catch (InterruptedException e)
+    {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while parsing", e);
+    }
+    catch (ExecutionException e)
+    {
+      if (e.getCause() instanceof IOException)
+      {
+        throw (IOException) e.getCause();
+      }
+      if (e.getCause() instanceof RuntimeException)
+      {
+        throw (RuntimeException) e.getCause();
+      }
+      throw new IllegalStateException(e.getCause());
+    }
+  }
+
   private void annotate(JDefinedClass requestBuilderClass, String sourceFile)
   {
     annotate(requestBuilderClass, "Request Builder", sourceFile);
@@ -22,6 +22,7 @@ import com.linkedin.restli.common.RestConstants;
 import com.linkedin.restli.internal.server.model.ResourceModel;
 import com.linkedin.restli.internal.server.model.ResourceModelEncoder;
 import com.linkedin.restli.internal.server.model.RestLiApiBuilder;
+import com.linkedin.restli.internal.server.model.RestLiResourceIndex;
 import com.linkedin.restli.restspec.ResourceSchema;
 import com.linkedin.restli.restspec.RestSpecCodec;
 import com.linkedin.restli.server.RestLiConfig;
@@ -31,6 +32,7 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.PrintWriter;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
@@ -69,14 +71,46 @@ public class RestLiResourceModelExporter
                                 String[] resourcePackages,
                                 String outdir)
       throws IOException
+  {
+    return export(apiName, classpath, sourcePaths, resourcePackages, outdir, null);
+  }
+
+  /**
+   * @param apiName the name of the API
+   * @param classpath classpath to to load the resources. this is purely for Javadoc Doclet {@link RestLiDoclet}
+   * @param sourcePaths paths to scan for resource Java source files. this is purely for Javadoc Doclet {@link RestLiDoclet}
+   * @param resourcePackages packages to scan for resources
+   * @param outdir directory in which to output the IDL files
+   * @param indexdir directory in which to output the {@link RestLiResourceIndex} of the resources, to be packaged
+   *                 in the jar of the resource classes, or null to not output an index
+   * @return a result that includes collection of files generated and modified. Note: getSourceFiles() on the result
+   * will always return an empty List as the code generation operates on classpaths and the ClassLoader and not files.
+   * @throws IOException could be {@link java.io.FileNotFoundException} if unable to write the output file,
+   *                     otherwise, {@link IOException} if failure happened when writing the output file
+   */
+  public GeneratorResult export(String apiName,
+                                String[] classpath,
+                                String[] sourcePaths,
+                                String[] resourcePackages,
+                                String outdir,
+                                String indexdir)
+      throws IOException
   {
     final RestLiConfig config = new RestLiConfig();
     config.addResourcePackageNames(resourcePackages);
+    // the index on the classpath may be stale, it is rewritten below
+    config.setResourceIndexEnabled(false);
 
     log.info("Executing rest.li annotation processor...");
     final RestLiApiBuilder apiBuilder = new RestLiApiBuilder(config);
     final Map<String, ResourceModel> rootResourceMap = apiBuilder.build();
 
+    if (indexdir != null)
+    {
+      final File indexFile = RestLiResourceIndex.write(new File(indexdir), Arrays.asList(resourcePackages), rootResourceMap);
+      log.info("Wrote resource index '" + indexFile + '\'');
+    }
+
     log.info("Executing Javadoc tool...");
 
     final String flatClasspath;
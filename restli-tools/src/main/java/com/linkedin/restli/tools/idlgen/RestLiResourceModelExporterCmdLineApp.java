@@ -52,6 +52,8 @@ public class RestLiResourceModelExporterCmdLineApp
                       .withDescription("Name of the API").create("name"));
     OPTIONS.addOption(OptionBuilder.withArgName("outdir").hasArg()
                       .withDescription("Directory in which to output the generated IDL files (default=current working dir)").create("outdir"));
+    OPTIONS.addOption(OptionBuilder.withArgName("indexdir").hasArg()
+                      .withDescription("Directory in which to output the index of the resource classes, to be packaged in their jar (default=no index)").create("indexdir"));
 
     OPTIONS.addOption(new Option("split", false, "DEPRECATED! Splits IDL across multiple files, one per root resource (always true)"));
 
@@ -72,7 +74,7 @@ public class RestLiResourceModelExporterCmdLineApp
   }
 
   /**
-   * @param args restliexporter -sourcepath sourcepath -resourcepackages packagenames [-name api_name] [-outdir outdir]
+   * @param args restliexporter -sourcepath sourcepath -resourcepackages packagenames [-name api_name] [-outdir outdir] [-indexdir indexdir]
    */
   public static void main(String[] args)
   {
@@ -95,7 +97,7 @@ public class RestLiResourceModelExporterCmdLineApp
       System.err.println("Invalid arguments: " + e.getMessage());
       final HelpFormatter formatter = new HelpFormatter();
       formatter.printHelp("restliexporter -sourcepath sourcepath -resourcepackages packagenames" +
-                          "[-name api_name] [-outdir outdir]", OPTIONS);
+                          "[-name api_name] [-outdir outdir] [-indexdir indexdir]", OPTIONS);
       System.exit(0);
     }
 
@@ -105,7 +107,8 @@ public class RestLiResourceModelExporterCmdLineApp
                                                null,
                                                cl.getOptionValues("sourcepath"),
                                                cl.getOptionValues("resourcepackages"),
-                                               cl.getOptionValue("outdir", "."));
+                                               cl.getOptionValue("outdir", "."),
+                                               cl.getOptionValue("indexdir"));
     }
     catch (Throwable e)
     {